@@ -1,6 +1,10 @@
 package global.govstack.formcreator;
 
 import global.govstack.formcreator.lib.FormCreatorServiceProvider;
+import global.govstack.formcreator.service.FormCreatorServices;
+import global.govstack.formcreator.util.JogetBeanRegistry;
+import global.govstack.formcreator.util.PluginClassRegistry;
+import org.joget.commons.util.LogUtil;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
@@ -11,7 +15,8 @@ import java.util.Collection;
 /**
  * OSGi Bundle Activator for Form Creator API Plugin.
  *
- * Registers the FormCreatorServiceProvider as an API plugin when the bundle starts.
+ * Registers the FormCreatorServiceProvider as an API plugin when the bundle starts and starts the
+ * cluster invalidation bus.
  */
 public class Activator implements BundleActivator {
 
@@ -21,6 +26,16 @@ public class Activator implements BundleActivator {
     public void start(BundleContext context) {
         registrationList = new ArrayList<ServiceRegistration>();
 
+        // Resolve Joget bean handles once; anything not yet available is resolved on first use
+        try {
+            JogetBeanRegistry.initialize();
+        } catch (Exception e) {
+            LogUtil.warn(Activator.class.getName(), "Deferred Joget bean resolution: " + e.getMessage());
+        }
+
+        // Wire the shared service graph and start receiving other nodes' invalidations
+        FormCreatorServices.initialize();
+
         // Register the Form Creator API plugin
         registrationList.add(context.registerService(
             FormCreatorServiceProvider.class.getName(),
@@ -34,5 +49,8 @@ public class Activator implements BundleActivator {
         for (ServiceRegistration registration : registrationList) {
             registration.unregister();
         }
+        FormCreatorServices.shutdown();
+        JogetBeanRegistry.clear();
+        PluginClassRegistry.clear();
     }
 }
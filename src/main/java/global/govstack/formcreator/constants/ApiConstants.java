@@ -14,13 +14,17 @@ public final class ApiConstants {
     public static final class BeanNames {
         public static final String APP_SERVICE = "appService";
         public static final String FORM_SERVICE = "formService";
+        public static final String APP_DEFINITION_DAO = "appDefinitionDao";
         public static final String FORM_DEFINITION_DAO = "formDefinitionDao";
         public static final String FORM_DATA_DAO = "formDataDao";
         public static final String BUILDER_DEFINITION_DAO = "builderDefinitionDao";
         public static final String DATALIST_DEFINITION_DAO = "datalistDefinitionDao";
         public static final String USERVIEW_DEFINITION_DAO = "userviewDefinitionDao";
         public static final String DATA_SOURCE = "dataSource";
+        public static final String SETUP_DATA_SOURCE = "setupDataSource";
+        public static final String ENTITY_MANAGER_FACTORY = "entityManagerFactory";
         public static final String WORKFLOW_USER_MANAGER = "workflowUserManager";
+        public static final String PLUGIN_MANAGER = "pluginManager";
     }
 
     /**
@@ -41,12 +45,68 @@ public final class ApiConstants {
         public static final String CREATE_CRUD = "createCrud";
         public static final String DATALIST_NAME = "datalistName";
         public static final String USERVIEW_NAME = "userviewName";
+        public static final String DATALIST = "datalist";
+        public static final String INDEXES = "indexes";
 
         // File upload fields (for multipart requests)
         public static final String FORM_DEFINITION_FILE = "formDefinitionFile";
         public static final String FORM_DEFINITION_FILE_NAME = "formDefinitionFileName";
     }
 
+    /**
+     * Plugin configuration property names (properties/FormCreatorServiceProvider.json)
+     */
+    public static final class PluginProperties {
+        public static final String DEBUG_MODE = "debugMode";
+        public static final String EXECUTION_MODE = "executionMode";
+        public static final String EXECUTOR_POOL_SIZE = "executorPoolSize";
+        public static final String MAX_CONCURRENT_CREATES = "maxConcurrentCreates";
+        public static final String MAX_CONCURRENT_CREATES_PER_APP = "maxConcurrentCreatesPerApp";
+        public static final String MAX_QUEUED_CREATES = "maxQueuedCreates";
+        public static final String QUEUE_TIMEOUT_SECONDS = "queueTimeoutSeconds";
+        public static final String ID_STRATEGY = "idStrategy";
+        public static final String MAX_PAYLOAD_BYTES = "maxPayloadBytes";
+        public static final String MAX_PAYLOAD_DEPTH = "maxPayloadDepth";
+        public static final String MAX_PAYLOAD_ELEMENTS = "maxPayloadElements";
+        public static final String MAX_PAYLOAD_STRING_LENGTH = "maxPayloadStringLength";
+        public static final String MAX_COMPRESSION_RATIO = "maxCompressionRatio";
+    }
+
+    /**
+     * Provisioning execution modes
+     */
+    public static final class ExecutionModes {
+        public static final String INLINE = "inline";
+        public static final String VIRTUAL = "virtual";
+        public static final String PLATFORM = "platform";
+    }
+
+    /**
+     * Field Names inside the optional "datalist" request section
+     */
+    public static final class DatalistFields {
+        public static final String COLUMN_STRATEGY = "columnStrategy";
+        public static final String MAX_COLUMNS = "maxColumns";
+        public static final String COLUMNS = "columns";
+        public static final String SORT_BY = "sortBy";
+        public static final String SORT_DIRECTION = "sortDirection";
+        public static final String PAGE_SIZE = "pageSize";
+        public static final String FILTERS = "filters";
+        public static final String CREATE_INDEXES = "createIndexes";
+    }
+
+    /**
+     * Field Names inside the optional "indexes" request section
+     */
+    public static final class IndexFields {
+        public static final String AUTO = "auto";
+        public static final String ONLINE = "online";
+        public static final String DEFINITIONS = "definitions";
+        public static final String COLUMNS = "columns";
+        public static final String UNIQUE = "unique";
+        public static final String NAME = "name";
+    }
+
     /**
      * API Response Field Names
      */
@@ -60,6 +120,31 @@ public final class ApiConstants {
         public static final String ERROR_TYPE = "errorType";
         public static final String ERROR_MESSAGE = "errorMessage";
         public static final String TIMESTAMP = "timestamp";
+        public static final String RETRY_AFTER = "retryAfter";
+        public static final String DRY_RUN = "dryRun";
+        public static final String APP_ID = "appId";
+        public static final String APP_VERSION = "appVersion";
+        public static final String OPERATIONS = "operations";
+        public static final String TIMINGS_MICROS = "timingsMicros";
+        public static final String CHANGE_LEVEL = "changeLevel";
+        public static final String DIFF = "diff";
+    }
+
+    /**
+     * Form Diff Fields (diff endpoint and create responses)
+     */
+    public static final class DiffFields {
+        public static final String EXISTS = "exists";
+        public static final String CHANGE_LEVEL = "changeLevel";
+        public static final String ADDED_FIELDS = "addedFields";
+        public static final String REMOVED_FIELDS = "removedFields";
+        public static final String RETYPED_FIELDS = "retypedFields";
+        public static final String BINDER_CHANGES = "binderChanges";
+        public static final String COSMETIC_CHANGES = "cosmeticChanges";
+        public static final String TABLE_CHANGE = "tableChange";
+
+        // Property keys ending with this suffix hold binders (loadBinder, storeBinder, optionsBinder)
+        public static final String BINDER_KEY_SUFFIX = "Binder";
     }
 
     /**
@@ -82,6 +167,11 @@ public final class ApiConstants {
         public static final String CRUD_CREATION_ERROR = "CRUD Creation Error";
         public static final String INTERNAL_SERVER_ERROR = "Internal Server Error";
         public static final String PROCESSING_ERROR = "Processing Error";
+        public static final String TOO_MANY_REQUESTS = "Too Many Requests";
+        public static final String PAYLOAD_TOO_LARGE = "Payload Too Large";
+        public static final String UNSUPPORTED_ENCODING = "Unsupported Content Encoding";
+        public static final String UPLOAD_NOT_FOUND = "Upload Not Found";
+        public static final String UPLOAD_CONFLICT = "Upload Conflict";
     }
 
     /**
@@ -98,6 +188,12 @@ public final class ApiConstants {
         public static final String DATALIST_DIR = "/datalists";
         public static final String USERVIEW_DIR = "/userviews";
         public static final String FORMS_DIR = "/forms";
+        public static final String LISTS_DIR = "/lists";
+
+        // Plugin-owned state (kept outside app_src so it is never exported with the app)
+        public static final String HASH_INDEX_DIR = "/wflow/app_formcreator/hashes";
+        public static final String HASH_INDEX_EXTENSION = ".properties";
+        public static final String UPLOAD_DIR = "/wflow/app_formcreator/uploads";
 
         // File extensions
         public static final String JSON_EXTENSION = ".json";
@@ -160,6 +256,28 @@ public final class ApiConstants {
         public static final String API = "API-";
         public static final String LIST = "list_";
         public static final String USERVIEW = "v";  // Default userview ID
+        public static final String CATEGORY = "category-";
+    }
+
+    /**
+     * Artifact id strategies (plugin property "idStrategy")
+     */
+    public static final class IdStrategies {
+        public static final String TIME_ORDERED = "timeOrdered";
+        public static final String RANDOM = "random";
+        public static final String DETERMINISTIC = "deterministic";
+    }
+
+    /**
+     * Artifact names hashed into deterministic ids, one per generated id of a form
+     */
+    public static final class IdArtifacts {
+        public static final String API = "api";
+        public static final String API_ELEMENT = "api.element";
+        public static final String USERVIEW_CATEGORY = "userview.category";
+        public static final String USERVIEW_MENU = "userview.menu";
+        public static final String USERVIEW_HOME_CATEGORY = "userview.homeCategory";
+        public static final String USERVIEW_WELCOME_PAGE = "userview.welcomePage";
     }
 
     /**
@@ -170,6 +288,28 @@ public final class ApiConstants {
         public static final String LIST_NAME_PREFIX = "List - ";
         public static final String MANAGEMENT_SUFFIX = " Management";
         public static final String DEFAULT_API_NAME_SUFFIX = " API";
+        public static final int MAX_DATALIST_COLUMNS = 6;
+        public static final int MAX_HEURISTIC_INDEXES = 8;
+        public static final int APP_DEFINITION_CACHE_SIZE = 64;
+        public static final int PARSED_FORM_CACHE_SIZE = 128;
+        public static final long PARSED_FORM_CACHE_MAX_CHARS = 8_000_000L;
+        public static final int EXECUTOR_POOL_SIZE = 8;
+        public static final int ADMISSION_MAX_CONCURRENT = 4;
+        public static final int ADMISSION_MAX_CONCURRENT_PER_APP = 2;
+        public static final int ADMISSION_MAX_QUEUED = 16;
+        public static final int ADMISSION_QUEUE_TIMEOUT_SECONDS = 30;
+        public static final int ADMISSION_RETRY_AFTER_SECONDS = 5;
+        public static final long INVALIDATION_WINDOW_MS = 10L;
+        public static final int PAYLOAD_MAX_BYTES = 10 * 1024 * 1024;
+        public static final int PAYLOAD_MAX_DEPTH = 64;
+        public static final int PAYLOAD_MAX_ELEMENTS = 200_000;
+        public static final int PAYLOAD_MAX_STRING_LENGTH = 5 * 1024 * 1024;
+        public static final int PAYLOAD_MAX_COMPRESSION_RATIO = 100;
+        public static final long UPLOAD_MAX_CHUNK_BYTES = 16L * 1024 * 1024;
+        public static final int UPLOAD_MAX_CHUNKS = 10_000;
+        public static final long UPLOAD_SESSION_TTL_MS = 24L * 60 * 60 * 1000;
+        public static final long PLUGIN_CLASS_MISS_TTL_MS = 10_000L;
+        public static final int PLUGIN_CLASS_MAX_MISSES = 1024;
     }
 
     /**
@@ -177,6 +317,7 @@ public final class ApiConstants {
      */
     public static final class JogetClasses {
         public static final String APP_FORM_API = "org.joget.api.lib.AppFormAPI";
+        public static final String FORM = "org.joget.apps.form.model.Form";
         public static final String FORM_BINDER = "org.joget.apps.form.model.FormBinder";
         public static final String FORM_LOAD_BINDER = "org.joget.apps.form.model.FormLoadBinder";
         public static final String FORM_STORE_BINDER = "org.joget.apps.form.model.FormStoreBinder";
@@ -184,7 +325,21 @@ public final class ApiConstants {
         public static final String DATALIST_ACTION_DEFAULT = "org.joget.apps.datalist.lib.FormRowDataListAction";
         public static final String DATALIST_ACTION_DELETE = "org.joget.apps.datalist.lib.FormRowDeleteDataListAction";
         public static final String TEXT_FIELD = "org.joget.apps.form.lib.TextField";
+        public static final String TEXT_FIELD_FILTER_TYPE = "org.joget.apps.datalist.lib.TextFieldDataListFilterType";
         public static final String CRUD_MENU = "org.joget.apps.userview.lib.CRUDMenu";
+        public static final String APP_DEFINITION = "org.joget.apps.app.model.AppDefinition";
+        public static final String FORM_DEFINITION = "org.joget.apps.app.model.FormDefinition";
+        public static final String DATALIST_DEFINITION = "org.joget.apps.app.model.DatalistDefinition";
+        public static final String USERVIEW_DEFINITION = "org.joget.apps.app.model.UserviewDefinition";
+        public static final String BUILDER_DEFINITION = "org.joget.apps.app.model.BuilderDefinition";
+    }
+
+    /**
+     * Joget DataList order values
+     */
+    public static final class DatalistOrder {
+        public static final String DESCENDING = "1";
+        public static final String ASCENDING = "2";
     }
 
     /**
@@ -200,6 +355,50 @@ public final class ApiConstants {
         public static final String JSON = "json";
         public static final String DATE_CREATED = "dateCreated";
         public static final String DATE_MODIFIED = "dateModified";
+
+        // Form data (app_fd_) table conventions
+        public static final String FORM_DATA_TABLE_PREFIX = "app_fd_";
+        public static final String FORM_DATA_COLUMN_PREFIX = "c_";
+    }
+
+    /**
+     * HTTP Header Names
+     */
+    public static final class HttpHeaders {
+        public static final String RETRY_AFTER = "Retry-After";
+        public static final String CONTENT_DISPOSITION = "Content-Disposition";
+        public static final String CONTENT_ENCODING = "Content-Encoding";
+    }
+
+    /**
+     * Upload session fields (requests and responses of /formcreator/uploads)
+     */
+    public static final class Uploads {
+        public static final String UPLOAD_ID = "uploadId";
+        public static final String APP_ID = "appId";
+        public static final String APP_VERSION = "appVersion";
+        public static final String CREATED_AT = "createdAt";
+        public static final String EXPIRES_AT = "expiresAt";
+        public static final String MAX_CHUNK_BYTES = "maxChunkBytes";
+        public static final String MAX_CHUNKS = "maxChunks";
+        public static final String INDEX = "index";
+        public static final String SIZE = "size";
+        public static final String CHECKSUM = "checksum";
+        public static final String CHUNKS = "chunks";
+        public static final String MISSING = "missing";
+        public static final String TOTAL_BYTES = "totalBytes";
+        public static final String COMMITTING = "committing";
+        public static final String DELETED = "deleted";
+    }
+
+    /**
+     * Request Content-Encoding values
+     */
+    public static final class ContentEncodings {
+        public static final String GZIP = "gzip";
+        public static final String X_GZIP = "x-gzip";
+        public static final String DEFLATE = "deflate";
+        public static final String IDENTITY = "identity";
     }
 
     /**
@@ -209,9 +408,127 @@ public final class ApiConstants {
         public static final int OK = 200;
         public static final int BAD_REQUEST = 400;
         public static final int NOT_FOUND = 404;
+        public static final int CONFLICT = 409;
+        public static final int PAYLOAD_TOO_LARGE = 413;
+        public static final int UNSUPPORTED_MEDIA_TYPE = 415;
+        public static final int TOO_MANY_REQUESTS = 429;
         public static final int INTERNAL_SERVER_ERROR = 500;
     }
 
+    /**
+     * Metric Names (exposed via GET /formcreator/metrics)
+     */
+    public static final class Metrics {
+        public static final String DEFINITION_FILES_WRITTEN = "definitionFiles.written";
+        public static final String DEFINITION_FILES_SKIPPED = "definitionFiles.skipped";
+        public static final String INDEXES_CREATED = "indexes.created";
+        public static final String INDEXES_EXISTING = "indexes.existing";
+        public static final String INDEXES_FAILED = "indexes.failed";
+        public static final String INDEXES_ONLINE_FALLBACK = "indexes.onlineFallback";
+        public static final String APP_DEFINITION_CACHE_HITS = "appDefinitionCache.hits";
+        public static final String APP_DEFINITION_CACHE_MISSES = "appDefinitionCache.misses";
+        public static final String APP_DEFINITION_CACHE_HIT_RATE = "appDefinitionCache.hitRatePercent";
+        public static final String APP_DEFINITION_CACHE_SIZE = "appDefinitionCache.size";
+        public static final String PARSED_FORM_CACHE_HITS = "parsedFormCache.hits";
+        public static final String PARSED_FORM_CACHE_MISSES = "parsedFormCache.misses";
+        public static final String PARSED_FORM_CACHE_EVICTIONS = "parsedFormCache.evictions";
+        public static final String PARSED_FORM_CACHE_SIZE = "parsedFormCache.size";
+        public static final String PARSED_FORM_CACHE_CHARS = "parsedFormCache.chars";
+        public static final String EXECUTOR_STAGES_SUBMITTED = "executor.stagesSubmitted";
+        public static final String EXECUTOR_ACTIVE_STAGES = "executor.activeStages";
+        public static final String ADMISSION_ADMITTED = "admission.admitted";
+        public static final String ADMISSION_REJECTED = "admission.rejected";
+        public static final String ADMISSION_ACTIVE = "admission.active";
+        public static final String ADMISSION_QUEUE_DEPTH = "admission.queueDepth";
+        public static final String PAYLOAD_SCANNED = "payload.scanned";
+        public static final String PAYLOAD_REJECTED_SIZE = "payload.rejected.size";
+        public static final String PAYLOAD_REJECTED_DEPTH = "payload.rejected.depth";
+        public static final String PAYLOAD_REJECTED_ELEMENTS = "payload.rejected.elements";
+        public static final String PAYLOAD_REJECTED_STRING_LENGTH = "payload.rejected.stringLength";
+        public static final String PAYLOAD_REJECTED_MALFORMED = "payload.rejected.malformed";
+        public static final String PAYLOAD_REJECTED_RATIO = "payload.rejected.ratio";
+        public static final String PAYLOAD_DECODED = "payload.decoded";
+        public static final String UPLOAD_SESSIONS = "uploads.sessions";
+        public static final String UPLOAD_CHUNKS = "uploads.chunks";
+        public static final String UPLOAD_BYTES = "uploads.bytes";
+        public static final String UPLOAD_CHECKSUM_FAILURES = "uploads.checksumFailures";
+        public static final String UPLOAD_COMMITTED = "uploads.committed";
+        public static final String UPLOAD_EXPIRED = "uploads.expired";
+        public static final String CACHE_INVALIDATION_INTENTS = "cacheInvalidation.intents";
+        public static final String CACHE_INVALIDATION_FLUSHES = "cacheInvalidation.flushes";
+        public static final String INVALIDATION_PUBLISHED = "invalidationBus.published";
+        public static final String INVALIDATION_PUBLISH_FAILED = "invalidationBus.publishFailed";
+        public static final String INVALIDATION_APPLIED = "invalidationBus.applied";
+        public static final String FORM_UPDATES_UNCHANGED = "formUpdates.unchanged";
+        public static final String FORM_UPDATES_COSMETIC = "formUpdates.cosmetic";
+        public static final String FORM_UPDATES_FULL = "formUpdates.full";
+        public static final String EXPORT_RECORDS = "export.records";
+        public static final String EXPORT_FAILED = "export.failed";
+        public static final String IMPORT_RECORDS = "import.records";
+        public static final String IMPORT_FAILED = "import.failed";
+    }
+
+    /**
+     * Cluster Invalidation Settings (JVM system properties, read at bundle start)
+     */
+    public static final class Invalidation {
+        public static final String TRANSPORT_PROPERTY = "formcreator.invalidation.transport";
+        public static final String POLL_INTERVAL_PROPERTY = "formcreator.invalidation.pollIntervalMs";
+        public static final String TRANSPORT_DATABASE = "database";
+        public static final String TRANSPORT_NONE = "none";
+        public static final String TABLE_NAME = "formcreator_invalidation";
+        public static final long DEFAULT_POLL_INTERVAL_MS = 2_000L;
+        public static final long LOOKBACK_MS = 30_000L;
+        public static final long RETENTION_MS = 600_000L;
+    }
+
+    /**
+     * App Export/Import Settings
+     */
+    public static final class Transfer {
+        public static final String FORMAT_NDJSON = "ndjson";
+        public static final String FORMAT_ZIP = "zip";
+        public static final String FORMAT_PARAM = "format";
+        public static final String CONTENT_TYPE_NDJSON = "application/x-ndjson";
+        public static final String CONTENT_TYPE_ZIP = "application/zip";
+        public static final String CONTENT_TYPE_CBOR = "application/cbor";
+        public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+        public static final int FORMAT_VERSION = 1;
+
+        // Record fields (one NDJSON line per record)
+        public static final String RECORD_TYPE = "type";
+        public static final String RECORD_ID = "id";
+        public static final String RECORD_NAME = "name";
+        public static final String RECORD_TABLE_NAME = "tableName";
+        public static final String RECORD_JSON = "json";
+        public static final String RECORD_COUNT = "count";
+        public static final String RECORD_EXPORTED_AT = "exportedAt";
+        public static final String RECORD_FORMAT_VERSION = "formatVersion";
+        public static final String RECORD_PATH = "path";
+        public static final String RECORD_ENTRIES = "entries";
+
+        // Record types besides the builder types (form, datalist, api, userview)
+        public static final String TYPE_MANIFEST = "manifest";
+        public static final String TYPE_END = "end";
+
+        // Import output records (one NDJSON line each)
+        public static final String TYPE_RESULT = "result";
+        public static final String TYPE_PROGRESS = "progress";
+        public static final String TYPE_SUMMARY = "summary";
+        public static final String RECORD_INDEX = "index";
+        public static final String RECORDS = "records";
+        public static final String SUCCEEDED = "succeeded";
+        public static final String FAILED = "failed";
+        public static final String SKIPPED = "skipped";
+        public static final String BATCHES = "batches";
+        public static final String STATUS_SKIPPED = "skipped";
+
+        public static final String MANIFEST_ENTRY = "manifest.json";
+        public static final int FETCH_SIZE = 100;
+        public static final int FLUSH_EVERY_RECORDS = 25;
+        public static final int IMPORT_BATCH_SIZE = 25;
+    }
+
     /**
      * Validation Messages
      */
@@ -221,6 +538,7 @@ public final class ApiConstants {
         public static final String TABLE_NAME_REQUIRED = "tableName is required";
         public static final String FORM_DEFINITION_REQUIRED = "formDefinition or formDefinitionFile is required";
         public static final String INVALID_FORM_DEFINITION_JSON = "Form definition JSON is invalid";
+        public static final String INVALID_FORM_STRUCTURE = "Form definition structure is invalid";
         public static final String TARGET_APP_NOT_FOUND = "Target application not found";
     }
 
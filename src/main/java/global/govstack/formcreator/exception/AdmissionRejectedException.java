@@ -0,0 +1,23 @@
+package global.govstack.formcreator.exception;
+
+import global.govstack.formcreator.constants.ApiConstants;
+
+/**
+ * Exception thrown when a request is refused by admission control.
+ * Automatically sets status code to 429 (Too Many Requests) and carries the Retry-After hint.
+ */
+public class AdmissionRejectedException extends ApiProcessingException {
+
+    private final int retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, int retryAfterSeconds) {
+        super(ApiConstants.HttpStatus.TOO_MANY_REQUESTS,
+              ApiConstants.ErrorTypes.TOO_MANY_REQUESTS,
+              message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
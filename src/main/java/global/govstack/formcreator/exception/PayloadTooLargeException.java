@@ -0,0 +1,16 @@
+package global.govstack.formcreator.exception;
+
+import global.govstack.formcreator.constants.ApiConstants;
+
+/**
+ * Exception thrown when a request body exceeds a payload limit.
+ * Automatically sets status code to 413 (Payload Too Large).
+ */
+public class PayloadTooLargeException extends ApiProcessingException {
+
+    public PayloadTooLargeException(String message) {
+        super(ApiConstants.HttpStatus.PAYLOAD_TOO_LARGE,
+              ApiConstants.ErrorTypes.PAYLOAD_TOO_LARGE,
+              message);
+    }
+}
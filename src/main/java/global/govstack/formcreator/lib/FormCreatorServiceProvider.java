@@ -1,19 +1,32 @@
 package global.govstack.formcreator.lib;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.AdmissionRejectedException;
 import global.govstack.formcreator.exception.ApiProcessingException;
+import global.govstack.formcreator.exception.PayloadTooLargeException;
+import global.govstack.formcreator.exception.ValidationException;
 import global.govstack.formcreator.model.FormCreationRequest;
+import global.govstack.formcreator.service.AdmissionController;
+import global.govstack.formcreator.service.AppExportService;
 import global.govstack.formcreator.service.FormCreationService;
+import global.govstack.formcreator.service.FormCreatorServices;
+import global.govstack.formcreator.service.PayloadPreScanner;
+import global.govstack.formcreator.service.UploadSessionService;
 import global.govstack.formcreator.util.ErrorResponseUtil;
+import global.govstack.formcreator.util.MetricsUtil;
 import global.govstack.formcreator.util.MultipartRequestParser;
+import global.govstack.formcreator.util.RequestBodyDecoder;
 import global.govstack.formcreator.util.RequestParserUtil;
 import global.govstack.formcreator.util.UserContextUtil;
+import global.govstack.formcreator.util.JogetBeanRegistry;
 import org.joget.api.annotations.Operation;
 import org.joget.api.annotations.Param;
 import org.joget.api.annotations.Response;
 import org.joget.api.annotations.Responses;
 import org.joget.api.model.ApiPluginAbstract;
 import org.joget.api.model.ApiResponse;
+import org.joget.apps.app.model.AppDefinition;
 import org.joget.apps.app.service.AppUtil;
 import org.joget.commons.util.LogUtil;
 import org.joget.plugin.property.model.PropertyEditable;
@@ -21,6 +34,9 @@ import org.joget.workflow.model.service.WorkflowUserManager;
 import org.json.JSONObject;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Form Creator Service Provider - API Plugin for creating Joget forms via REST API.
@@ -29,6 +45,8 @@ import javax.servlet.http.HttpServletRequest;
  * - Creating forms from JSON definitions
  * - Creating API endpoints for forms
  * - Creating CRUD interfaces (datalist + userview)
+ * - Exporting an app version's definitions
+ * - Importing forms from an NDJSON stream
  *
  * Based on the architecture pattern from the processing-server plugin.
  */
@@ -87,14 +105,16 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
      *
      * Endpoint: POST /jw/api/formcreator/forms
      *
-     * Supports two content types:
+     * Supports three content types:
      * 1. application/json - JSON body with formDefinition as string
      * 2. multipart/form-data - Form fields + file upload
+     * 3. application/cbor or application/x-jackson-smile - the JSON fields, binary-encoded
      *
      * @param appId Target application ID (optional, uses current app if not specified)
      * @param appVersion Target application version (optional, uses latest if not specified)
-     * @param request HttpServletRequest for accessing multipart data
-     * @param requestBody JSON request body (for non-multipart requests)
+     * @param dryRunParam "true" to return the provisioning plan without creating anything
+     * @param request HttpServletRequest the body is read from (multipart, JSON, CBOR or Smile)
+     * @param httpResponse Servlet response (the Retry-After header of a 429 is set on it)
      * @return ApiResponse with form creation result
      */
     @Operation(
@@ -102,60 +122,544 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
         type = Operation.MethodType.POST,
         summary = "Create a new form from JSON definition or file upload",
         description = "Creates a Joget form based on provided JSON definition and metadata. " +
-                      "Supports both JSON (application/json) and file upload (multipart/form-data). " +
+                      "Supports JSON (application/json, or CBOR/Smile) and file upload (multipart/form-data), " +
+                      "optionally sent with Content-Encoding gzip or deflate. " +
                       "Optionally creates API endpoint and CRUD interface. " +
-                      "Requires formId, formName, tableName, and formDefinition (or formDefinitionFile)."
+                      "Requires formId, formName, tableName, and formDefinition (or formDefinitionFile). " +
+                      "With dryRun=true nothing is created and the provisioning plan is returned."
     )
     @Responses({
-        @Response(responseCode = 200, description = "Form created successfully"),
+        @Response(responseCode = 200, description = "Form created successfully (or plan returned for dryRun=true)"),
         @Response(responseCode = 400, description = "Invalid request - validation failed"),
+        @Response(responseCode = 413, description = "Request body over the configured payload limits"),
+        @Response(responseCode = 415, description = "Unsupported Content-Encoding"),
+        @Response(responseCode = 429, description = "Too many concurrent form creations - retry later"),
         @Response(responseCode = 500, description = "Server error during form creation")
     })
     public ApiResponse createForm(
         @Param(value = "appId", required = false) String appId,
         @Param(value = "appVersion", required = false) String appVersion,
+        @Param(value = "dryRun", required = false) String dryRunParam,
         @Param(value = "request", required = false) HttpServletRequest request,
-        @Param(value = "body", required = false) String requestBody
+        @Param(value = "response", required = false) HttpServletResponse httpResponse
     ) {
-        LogUtil.info(CLASS_NAME, "=== Form Creation Request Received ===");
+        boolean dryRun = Boolean.parseBoolean(dryRunParam);
+        LogUtil.info(CLASS_NAME, "=== Form Creation Request Received" + (dryRun ? " (dry run)" : "") + " ===");
         LogUtil.info(CLASS_NAME, "Target App ID: " + (appId != null ? appId : "current"));
         LogUtil.info(CLASS_NAME, "Target App Version: " + (appVersion != null ? appVersion : "latest"));
 
+        // Apply the configured provisioning execution mode and admission limits
+        configureExecution();
+        configureAdmission();
+        configureIdGeneration();
+        configurePayloadLimits();
+
         // Detect request type
         if (request != null && MultipartRequestParser.isMultipartRequest(request)) {
             LogUtil.info(CLASS_NAME, "Detected multipart/form-data request");
-            return processMultipartRequest(appId, appVersion, request);
+            return processMultipartRequest(appId, appVersion, request, httpResponse, dryRun);
         } else {
             LogUtil.info(CLASS_NAME, "Detected application/json request");
-            return processJsonRequest(appId, appVersion, requestBody);
+            return processJsonRequest(appId, appVersion, request, httpResponse, dryRun);
+        }
+    }
+
+    /**
+     * Diff a form definition against the stored one
+     *
+     * Endpoint: POST /jw/api/formcreator/forms/diff
+     *
+     * Takes the same JSON body as form creation and reports how the incoming definition differs
+     * from the stored one, without writing anything.
+     *
+     * @param appId Target application ID (optional, uses current app if not specified)
+     * @param appVersion Target application version (optional, uses latest if not specified)
+     * @param httpRequest HttpServletRequest the body is read from
+     * @return ApiResponse with the change level and the changed fields, binders and elements
+     */
+    @Operation(
+        path = "/formcreator/forms/diff",
+        type = Operation.MethodType.POST,
+        summary = "Diff a form definition against the stored one",
+        description = "Classifies the change as NONE, COSMETIC (labels, styles), STRUCTURAL (fields added, " +
+                      "removed or re-typed, DDL required) or BINDER (load/store/options binders). " +
+                      "Creating an existing form with a COSMETIC change only rewrites its JSON."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Diff returned"),
+        @Response(responseCode = 400, description = "Invalid request - validation failed"),
+        @Response(responseCode = 413, description = "Request body over the configured payload limits"),
+        @Response(responseCode = 500, description = "Server error during diff")
+    })
+    public ApiResponse diffForm(
+        @Param(value = "appId", required = false) String appId,
+        @Param(value = "appVersion", required = false) String appVersion,
+        @Param(value = "request", required = false) HttpServletRequest httpRequest
+    ) {
+        LogUtil.info(CLASS_NAME, "=== Form Diff Request Received ===");
+        configurePayloadLimits();
+
+        return UserContextUtil.executeAsSystemUser(getWorkflowUserManager(), () -> {
+            try {
+                FormCreationRequest request = parseRequestBody(httpRequest);
+                JSONObject response = FormCreatorServices.getInstance().getFormCreationService()
+                    .diffFormDefinition(appId, appVersion, request);
+                return new ApiResponse(ApiConstants.HttpStatus.OK, response.toString());
+
+            } catch (ApiProcessingException e) {
+                return handleError(e.getStatusCode(), e.getErrorType(), e);
+
+            } catch (Exception e) {
+                return handleError(
+                    ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                    ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR,
+                    e
+                );
+            }
+        });
+    }
+
+    /**
+     * Export an app version's definitions
+     *
+     * Endpoint: GET /jw/api/formcreator/apps/{appId}/{version}/export
+     *
+     * Streams every form, datalist, API and userview of the app version straight to the servlet
+     * response (NDJSON by default, or a zip with format=zip). Rows are read with a forward-only
+     * cursor and written as they arrive, so the app is never held in memory.
+     *
+     * @param appId Application ID
+     * @param version Application version
+     * @param format ndjson (default) or zip
+     * @param httpResponse Servlet response the export is streamed to
+     * @return null once the export has been streamed, or an error response if it could not start
+     */
+    @Operation(
+        path = "/formcreator/apps/{appId}/{version}/export",
+        type = Operation.MethodType.GET,
+        summary = "Export an app version's forms, datalists, APIs and userviews",
+        description = "Streams the definitions as NDJSON (one record per line, starting with a manifest and " +
+                      "ending with a record count) or, with format=zip, as a zip in the app_src layout."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Export streamed"),
+        @Response(responseCode = 400, description = "Unsupported format"),
+        @Response(responseCode = 404, description = "Application not found"),
+        @Response(responseCode = 500, description = "Server error during export")
+    })
+    public ApiResponse exportApp(
+        @Param(value = "appId") String appId,
+        @Param(value = "version") String version,
+        @Param(value = "format", required = false) String format,
+        @Param(value = "response", required = false) HttpServletResponse httpResponse
+    ) {
+        LogUtil.info(CLASS_NAME, "=== App Export Request Received: " + appId + " v" + version + " ===");
+
+        return UserContextUtil.executeAsSystemUser(getWorkflowUserManager(), () -> {
+            try {
+                if (!AppExportService.isSupportedFormat(format)) {
+                    throw new ValidationException("Unsupported export format: " + format +
+                                                  " (use " + ApiConstants.Transfer.FORMAT_NDJSON + " or " +
+                                                  ApiConstants.Transfer.FORMAT_ZIP + ")");
+                }
+                if (httpResponse == null) {
+                    throw new ApiProcessingException(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                                                     ApiConstants.ErrorTypes.PROCESSING_ERROR,
+                                                     "Streaming response not available");
+                }
+
+                AppDefinition appDef = FormCreatorServices.getInstance().getAppDefinitionCache()
+                    .get(JogetBeanRegistry.getAppService(), appId, version);
+                if (appDef == null) {
+                    throw new ApiProcessingException(ApiConstants.HttpStatus.NOT_FOUND,
+                                                     ApiConstants.ErrorTypes.APP_NOT_FOUND,
+                                                     ApiConstants.ValidationMessages.TARGET_APP_NOT_FOUND + ": " +
+                                                     appId + " (version: " + version + ")");
+                }
+
+                boolean zip = ApiConstants.Transfer.FORMAT_ZIP.equalsIgnoreCase(format);
+                String fileName = appDef.getAppId() + "-" + appDef.getVersion() + "." +
+                                  (zip ? ApiConstants.Transfer.FORMAT_ZIP : ApiConstants.Transfer.FORMAT_NDJSON);
+                httpResponse.setStatus(ApiConstants.HttpStatus.OK);
+                httpResponse.setContentType(zip ? ApiConstants.Transfer.CONTENT_TYPE_ZIP
+                                                : ApiConstants.Transfer.CONTENT_TYPE_NDJSON);
+                httpResponse.setHeader(ApiConstants.HttpHeaders.CONTENT_DISPOSITION,
+                                       "attachment; filename=\"" + fileName + "\"");
+
+                FormCreatorServices.getInstance().getAppExportService()
+                    .export(appDef, format, httpResponse.getOutputStream());
+                httpResponse.flushBuffer();
+
+                // The body has been written; nothing is left for the API framework to send
+                return null;
+
+            } catch (ApiProcessingException e) {
+                return handleError(e.getStatusCode(), e.getErrorType(), e, httpResponse);
+
+            } catch (Exception e) {
+                // Once streaming has started the status is committed; a missing end record marks the truncation
+                MetricsUtil.increment(ApiConstants.Metrics.EXPORT_FAILED);
+                return handleError(
+                    ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                    ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR,
+                    e
+                );
+            }
+        });
+    }
+
+    /**
+     * Import forms from an NDJSON stream
+     *
+     * Endpoint: POST /jw/api/formcreator/import
+     *
+     * Reads one FormCreationRequest-shaped record per line (or the NDJSON produced by the export
+     * endpoint) and creates them in batches. Results are streamed back as NDJSON while the import
+     * runs: one result line per record, a progress line per batch and a final summary line.
+     *
+     * @param appId Target application ID for records without targetAppId (optional)
+     * @param appVersion Target application version for records without targetAppVersion (optional)
+     * @param httpRequest Servlet request the records are read from
+     * @param httpResponse Servlet response the results are streamed to
+     * @return null once the results have been streamed, or an error response if the import could not start
+     */
+    @Operation(
+        path = "/formcreator/import",
+        type = Operation.MethodType.POST,
+        summary = "Import forms from an NDJSON stream",
+        description = "Creates one form per NDJSON record (same fields as form creation, or an export stream). " +
+                      "Records are processed in batches of " + ApiConstants.Transfer.IMPORT_BATCH_SIZE +
+                      " and per-record results, progress and a summary are streamed back as NDJSON."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Import ran - see the streamed per-record results"),
+        @Response(responseCode = 429, description = "Too many concurrent form creations - retry later"),
+        @Response(responseCode = 500, description = "Server error before the import started")
+    })
+    public ApiResponse importForms(
+        @Param(value = "appId", required = false) String appId,
+        @Param(value = "appVersion", required = false) String appVersion,
+        @Param(value = "request", required = false) HttpServletRequest httpRequest,
+        @Param(value = "response", required = false) HttpServletResponse httpResponse
+    ) {
+        LogUtil.info(CLASS_NAME, "=== Form Import Request Received: " + (appId != null ? appId : "current") + " ===");
+
+        configureExecution();
+        configureAdmission();
+        configureIdGeneration();
+        configurePayloadLimits();
+
+        return UserContextUtil.executeAsSystemUser(getWorkflowUserManager(), () -> {
+            try {
+                if (httpRequest == null || httpResponse == null) {
+                    throw new ApiProcessingException(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                                                     ApiConstants.ErrorTypes.PROCESSING_ERROR,
+                                                     "Streaming request or response not available");
+                }
+                // No body parameter is declared, so the framework leaves the stream unread and the
+                // records are parsed as they arrive. The whole import has no byte limit: the payload
+                // limits apply to each record, and a compressed import is held to the ratio limit.
+                InputStream in = RequestBodyDecoder.isEncoded(httpRequest)
+                    ? decode(httpRequest, Long.MAX_VALUE,
+                             FormCreatorServices.getInstance().getPayloadPreScanner().getMaxCompressionRatio())
+                    : httpRequest.getInputStream();
+
+                streamImport(appId, appVersion, in, httpResponse);
+
+                // The body has been written; nothing is left for the API framework to send
+                return null;
+
+            } catch (ApiProcessingException e) {
+                return handleError(e.getStatusCode(), e.getErrorType(), e, httpResponse);
+
+            } catch (Exception e) {
+                // Once streaming has started the status is committed; a missing summary line marks the truncation
+                return handleError(
+                    ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                    ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR,
+                    e
+                );
+            }
+        });
+    }
+
+    /**
+     * Create an upload session for a large bundle
+     *
+     * Endpoint: POST /jw/api/formcreator/uploads
+     *
+     * @param appId Target application ID for the bundle's records (optional)
+     * @param appVersion Target application version (optional)
+     * @return ApiResponse with the uploadId and the chunk limits
+     */
+    @Operation(
+        path = "/formcreator/uploads",
+        type = Operation.MethodType.POST,
+        summary = "Create a chunked upload session",
+        description = "Starts a resumable upload of an NDJSON bundle (the import format). Send the bundle as " +
+                      "numbered chunks, check which chunks arrived, then commit to import it."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Session created"),
+        @Response(responseCode = 500, description = "Server error")
+    })
+    public ApiResponse createUpload(
+        @Param(value = "appId", required = false) String appId,
+        @Param(value = "appVersion", required = false) String appVersion
+    ) {
+        try {
+            JSONObject response = FormCreatorServices.getInstance().getUploadSessionService().create(appId, appVersion);
+            return new ApiResponse(ApiConstants.HttpStatus.OK, response.toString());
+        } catch (ApiProcessingException e) {
+            return handleError(e.getStatusCode(), e.getErrorType(), e);
+        } catch (Exception e) {
+            return handleError(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR, ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    /**
+     * Upload one chunk of a session
+     *
+     * Endpoint: PUT /jw/api/formcreator/uploads/{uploadId}/chunks/{index}
+     *
+     * The raw request body is the chunk; it is streamed to disk, never buffered whole.
+     *
+     * @param uploadId The session
+     * @param index Chunk number, from 0
+     * @param checksum Hex SHA-256 of the chunk (optional, verified when given)
+     * @param httpRequest HttpServletRequest the chunk is read from
+     * @return ApiResponse with the stored chunk's index, size and checksum
+     */
+    @Operation(
+        path = "/formcreator/uploads/{uploadId}/chunks/{index}",
+        type = Operation.MethodType.PUT,
+        summary = "Upload a chunk",
+        description = "Stores chunk {index} of the session. With checksum (hex SHA-256) a corrupted chunk is " +
+                      "rejected. Sending a chunk again replaces it."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Chunk stored"),
+        @Response(responseCode = 400, description = "Invalid index or checksum mismatch"),
+        @Response(responseCode = 404, description = "Upload session not found"),
+        @Response(responseCode = 409, description = "Session is being committed"),
+        @Response(responseCode = 413, description = "Chunk over the chunk size limit")
+    })
+    public ApiResponse putUploadChunk(
+        @Param(value = "uploadId") String uploadId,
+        @Param(value = "index") String index,
+        @Param(value = "checksum", required = false) String checksum,
+        @Param(value = "request", required = false) HttpServletRequest httpRequest
+    ) {
+        try {
+            if (httpRequest == null) {
+                throw new ApiProcessingException(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                                                 ApiConstants.ErrorTypes.PROCESSING_ERROR,
+                                                 "Request stream not available");
+            }
+            int chunkIndex;
+            try {
+                chunkIndex = Integer.parseInt(index);
+            } catch (NumberFormatException e) {
+                throw new ValidationException("Chunk index must be a number: " + index);
+            }
+            JSONObject response;
+            try (InputStream in = httpRequest.getInputStream()) {
+                response = FormCreatorServices.getInstance().getUploadSessionService()
+                    .putChunk(uploadId, chunkIndex, in, checksum);
+            }
+            return new ApiResponse(ApiConstants.HttpStatus.OK, response.toString());
+        } catch (ApiProcessingException e) {
+            return handleError(e.getStatusCode(), e.getErrorType(), e);
+        } catch (Exception e) {
+            return handleError(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR, ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    /**
+     * Get an upload session's chunks, to resume an interrupted upload
+     *
+     * Endpoint: GET /jw/api/formcreator/uploads/{uploadId}
+     *
+     * @param uploadId The session
+     * @return ApiResponse with the stored chunks and the missing indexes
+     */
+    @Operation(
+        path = "/formcreator/uploads/{uploadId}",
+        type = Operation.MethodType.GET,
+        summary = "Get upload session status",
+        description = "Lists the stored chunks (index, size, checksum) and the missing indexes below the highest one."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Status returned"),
+        @Response(responseCode = 404, description = "Upload session not found")
+    })
+    public ApiResponse getUpload(@Param(value = "uploadId") String uploadId) {
+        try {
+            JSONObject response = FormCreatorServices.getInstance().getUploadSessionService().status(uploadId);
+            return new ApiResponse(ApiConstants.HttpStatus.OK, response.toString());
+        } catch (ApiProcessingException e) {
+            return handleError(e.getStatusCode(), e.getErrorType(), e);
+        } catch (Exception e) {
+            return handleError(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR, ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR, e);
+        }
+    }
+
+    /**
+     * Commit an upload session: import the assembled bundle
+     *
+     * Endpoint: POST /jw/api/formcreator/uploads/{uploadId}/commit
+     *
+     * The admission permit is taken before the session is locked. The chunks are then read in order
+     * straight from disk into the import pipeline, and the results are streamed back as NDJSON exactly
+     * like POST /formcreator/import. The session is deleted only when every record was imported; after
+     * a 429, a malformed-JSON stop, failed records or an error the chunks are kept for another commit.
+     *
+     * @param uploadId The session
+     * @param checksum Hex SHA-256 of the whole bundle (optional, verified before importing)
+     * @param appId Target application ID (optional, overrides the one given at creation)
+     * @param appVersion Target application version (optional, overrides the one given at creation)
+     * @param httpResponse Servlet response the results are streamed to
+     * @return null once the results have been streamed, or an error response if the import could not start
+     */
+    @Operation(
+        path = "/formcreator/uploads/{uploadId}/commit",
+        type = Operation.MethodType.POST,
+        summary = "Commit an upload session",
+        description = "Checks that chunks 0..n-1 are present (and the bundle checksum, if given), then imports " +
+                      "the bundle, streaming per-record results as NDJSON. The session is deleted once every " +
+                      "record was imported; otherwise its chunks are kept and the commit can be retried."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Import ran - see the streamed per-record results"),
+        @Response(responseCode = 400, description = "Missing chunks or checksum mismatch"),
+        @Response(responseCode = 404, description = "Upload session not found"),
+        @Response(responseCode = 409, description = "Session is already being committed"),
+        @Response(responseCode = 429, description = "Too many concurrent form creations - retry later")
+    })
+    public ApiResponse commitUpload(
+        @Param(value = "uploadId") String uploadId,
+        @Param(value = "checksum", required = false) String checksum,
+        @Param(value = "appId", required = false) String appId,
+        @Param(value = "appVersion", required = false) String appVersion,
+        @Param(value = "response", required = false) HttpServletResponse httpResponse
+    ) {
+        LogUtil.info(CLASS_NAME, "=== Upload Commit Request Received: " + uploadId + " ===");
+
+        configureExecution();
+        configureAdmission();
+        configureIdGeneration();
+        configurePayloadLimits();
+
+        return UserContextUtil.executeAsSystemUser(getWorkflowUserManager(), () -> {
+            try {
+                if (httpResponse == null) {
+                    throw new ApiProcessingException(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                                                     ApiConstants.ErrorTypes.PROCESSING_ERROR,
+                                                     "Streaming response not available");
+                }
+                UploadSessionService uploads = FormCreatorServices.getInstance().getUploadSessionService();
+                String targetAppId = appId != null ? appId : uploads.getAppId(uploadId);
+
+                // Admission first: a 429 must leave the session untouched for a retry
+                try (AdmissionController.Permit permit = acquireImportAdmission(targetAppId);
+                     UploadSessionService.Bundle bundle = uploads.commit(uploadId, checksum)) {
+                    JSONObject summary = writeImport(targetAppId,
+                                                     appVersion != null ? appVersion : bundle.getAppVersion(),
+                                                     bundle.getStream(), httpResponse);
+                    if (!summary.has(ApiConstants.ResponseFields.ERROR_MESSAGE) &&
+                        summary.optInt(ApiConstants.Transfer.FAILED, 0) == 0) {
+                        bundle.complete();
+                    }
+                }
+                return null;
+
+            } catch (ApiProcessingException e) {
+                return handleError(e.getStatusCode(), e.getErrorType(), e, httpResponse);
+
+            } catch (Exception e) {
+                return handleError(
+                    ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                    ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR,
+                    e
+                );
+            }
+        });
+    }
+
+    /**
+     * Abort an upload session
+     *
+     * Endpoint: DELETE /jw/api/formcreator/uploads/{uploadId}
+     *
+     * @param uploadId The session
+     * @return ApiResponse confirming the deletion
+     */
+    @Operation(
+        path = "/formcreator/uploads/{uploadId}",
+        type = Operation.MethodType.DELETE,
+        summary = "Abort an upload session",
+        description = "Deletes the session and its chunks."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Session deleted"),
+        @Response(responseCode = 404, description = "Upload session not found"),
+        @Response(responseCode = 409, description = "Session is being committed")
+    })
+    public ApiResponse deleteUpload(@Param(value = "uploadId") String uploadId) {
+        try {
+            FormCreatorServices.getInstance().getUploadSessionService().abort(uploadId);
+            JSONObject response = new JSONObject();
+            response.put(ApiConstants.Uploads.UPLOAD_ID, uploadId);
+            response.put(ApiConstants.Uploads.DELETED, true);
+            return new ApiResponse(ApiConstants.HttpStatus.OK, response.toString());
+        } catch (ApiProcessingException e) {
+            return handleError(e.getStatusCode(), e.getErrorType(), e);
+        } catch (Exception e) {
+            return handleError(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR, ApiConstants.ErrorTypes.INTERNAL_SERVER_ERROR, e);
         }
     }
 
+    /**
+     * Get plugin metrics
+     *
+     * Endpoint: GET /jw/api/formcreator/metrics
+     *
+     * @return ApiResponse with all counters and gauges recorded by this plugin node
+     */
+    @Operation(
+        path = "/formcreator/metrics",
+        type = Operation.MethodType.GET,
+        summary = "Get Form Creator metrics",
+        description = "Returns the counters and gauges recorded by the Form Creator plugin on this node."
+    )
+    @Responses({
+        @Response(responseCode = 200, description = "Metrics returned")
+    })
+    public ApiResponse getMetrics() {
+        return new ApiResponse(ApiConstants.HttpStatus.OK, MetricsUtil.toJSON().toString());
+    }
+
     /**
      * Process JSON request (application/json)
      *
      * @param appId Target application ID
      * @param appVersion Target application version
-     * @param requestBody JSON request body
+     * @param httpRequest HttpServletRequest the body is read from
+     * @param httpResponse Servlet response (for the Retry-After header of a 429)
+     * @param dryRun Plan the request instead of executing it
      * @return ApiResponse with status code and response body
      */
-    private ApiResponse processJsonRequest(String appId, String appVersion, String requestBody) {
+    private ApiResponse processJsonRequest(String appId, String appVersion, HttpServletRequest httpRequest,
+                                           HttpServletResponse httpResponse, boolean dryRun) {
         WorkflowUserManager workflowUserManager = getWorkflowUserManager();
 
         return UserContextUtil.executeAsSystemUser(workflowUserManager, () -> {
             try {
-                // Log request details
-                LogUtil.debug(CLASS_NAME, "Request body length: " +
-                            (requestBody != null ? requestBody.length() : 0));
-
-                // Parse JSON request
-                FormCreationRequest request = RequestParserUtil.parseJsonRequest(requestBody);
+                // Pre-scan and parse the request (JSON, or CBOR/Smile by Content-Type)
+                FormCreationRequest request = parseRequestBody(httpRequest);
 
-                // Get FormCreationService
-                FormCreationService creationService = new FormCreationService();
-
-                // Process the request
-                JSONObject response = creationService.processFormCreationRequest(appId, appVersion, request);
+                // Process (or plan) the request
+                JSONObject response = runFormCreation(appId, appVersion, request, dryRun);
 
                 LogUtil.info(CLASS_NAME, "=== Form Creation Successful ===");
                 LogUtil.info(CLASS_NAME, "Response: " + response.toString());
@@ -164,7 +668,7 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
 
             } catch (ApiProcessingException e) {
                 // Handle known processing exceptions with specific status codes
-                return handleError(e.getStatusCode(), e.getErrorType(), e);
+                return handleError(e.getStatusCode(), e.getErrorType(), e, httpResponse);
 
             } catch (Exception e) {
                 // Handle unexpected exceptions
@@ -183,9 +687,12 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
      * @param appId Target application ID
      * @param appVersion Target application version
      * @param httpRequest HttpServletRequest
+     * @param httpResponse Servlet response (for the Retry-After header of a 429)
+     * @param dryRun Plan the request instead of executing it
      * @return ApiResponse with status code and response body
      */
-    private ApiResponse processMultipartRequest(String appId, String appVersion, HttpServletRequest httpRequest) {
+    private ApiResponse processMultipartRequest(String appId, String appVersion, HttpServletRequest httpRequest,
+                                                HttpServletResponse httpResponse, boolean dryRun) {
         WorkflowUserManager workflowUserManager = getWorkflowUserManager();
 
         return UserContextUtil.executeAsSystemUser(workflowUserManager, () -> {
@@ -195,8 +702,22 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
                 LogUtil.info(CLASS_NAME, "Content-Type: " + httpRequest.getContentType());
                 LogUtil.info(CLASS_NAME, "Content-Length: " + httpRequest.getContentLength());
 
+                // Reject an oversized upload before its body is read
+                PayloadPreScanner preScanner = FormCreatorServices.getInstance().getPayloadPreScanner();
+                preScanner.checkContentLength(httpRequest.getContentLengthLong());
+
+                InputStream body = RequestBodyDecoder.isEncoded(httpRequest)
+                    ? decode(httpRequest, preScanner.getMaxBytes(), preScanner.getMaxCompressionRatio())
+                    : httpRequest.getInputStream();
                 MultipartRequestParser.MultipartData multipartData =
-                    MultipartRequestParser.parseMultipartRequest(httpRequest);
+                    MultipartRequestParser.parseMultipartRequest(httpRequest, body);
+
+                MultipartRequestParser.FileUpload definitionFile =
+                    multipartData.getFiles().get(ApiConstants.RequestFields.FORM_DEFINITION_FILE);
+                if (definitionFile != null) {
+                    preScanner.scan(definitionFile.getContent());
+                }
+                preScanner.scan(multipartData.getFields().get(ApiConstants.RequestFields.FORM_DEFINITION));
 
                 // Convert to FormCreationRequest
                 FormCreationRequest request = RequestParserUtil.parseMultipartRequest(multipartData);
@@ -211,17 +732,16 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
                 LogUtil.info(CLASS_NAME, "  - createApiEndpoint: " + request.isCreateApiEndpoint());
                 LogUtil.info(CLASS_NAME, "  - createCrud: " + request.isCreateCrud());
 
-                if (request.getFormDefinitionFile() != null) {
+                if (request.hasFormDefinitionFile()) {
                     LogUtil.info(CLASS_NAME, ">>> File Upload Detected:");
                     LogUtil.info(CLASS_NAME, "  - fileName: " + request.getFormDefinitionFileName());
-                    LogUtil.info(CLASS_NAME, "  - fileSize: " + request.getFormDefinitionFile().length + " bytes");
+                    LogUtil.info(CLASS_NAME, "  - fileSize: " + request.getFormDefinition().byteLength() + " bytes");
                 } else {
                     LogUtil.info(CLASS_NAME, ">>> No file uploaded (using inline JSON)");
                 }
 
-                // Get FormCreationService and process the request
-                FormCreationService creationService = new FormCreationService();
-                JSONObject response = creationService.processFormCreationRequest(appId, appVersion, request);
+                // Process (or plan) the request
+                JSONObject response = runFormCreation(appId, appVersion, request, dryRun);
 
                 LogUtil.info(CLASS_NAME, "=== Form Creation Successful ===");
                 LogUtil.info(CLASS_NAME, "Response: " + response.toString());
@@ -230,7 +750,7 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
 
             } catch (ApiProcessingException e) {
                 // Handle known processing exceptions with specific status codes
-                return handleError(e.getStatusCode(), e.getErrorType(), e);
+                return handleError(e.getStatusCode(), e.getErrorType(), e, httpResponse);
 
             } catch (Exception e) {
                 // Handle unexpected exceptions
@@ -244,14 +764,232 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
         });
     }
 
+    /**
+     * Run an import under one admission permit, streaming the NDJSON results to the response
+     *
+     * @param appId Target application ID for records without targetAppId (optional)
+     * @param appVersion Target application version for records without targetAppVersion (optional)
+     * @param in The NDJSON records
+     * @param httpResponse Servlet response the results are streamed to
+     * @throws IOException if the response cannot be written
+     */
+    private void streamImport(String appId, String appVersion, InputStream in, HttpServletResponse httpResponse)
+            throws IOException {
+        try (AdmissionController.Permit permit = acquireImportAdmission(appId)) {
+            writeImport(appId, appVersion, in, httpResponse);
+        }
+    }
+
+    /**
+     * Wait for the admission permit an import holds: the whole import counts as one create against the app
+     *
+     * @param appId Target application ID (optional)
+     * @return Permit to close when the import is done
+     */
+    private AdmissionController.Permit acquireImportAdmission(String appId) {
+        String appKey = appId != null && !appId.trim().isEmpty() ? appId : "current";
+        return FormCreatorServices.getInstance().getAdmissionController().acquire(appKey);
+    }
+
+    /**
+     * Run an import, streaming the NDJSON results to the response (the caller holds the permit)
+     *
+     * @return The import summary
+     * @throws IOException if the response cannot be written
+     */
+    private JSONObject writeImport(String appId, String appVersion, InputStream in, HttpServletResponse httpResponse)
+            throws IOException {
+        httpResponse.setStatus(ApiConstants.HttpStatus.OK);
+        httpResponse.setContentType(ApiConstants.Transfer.CONTENT_TYPE_NDJSON);
+        JSONObject summary = FormCreatorServices.getInstance().getBulkImportService()
+            .importStream(appId, appVersion, in, httpResponse.getOutputStream());
+        httpResponse.flushBuffer();
+        return summary;
+    }
+
+    /**
+     * Apply the executionMode and executorPoolSize plugin properties to the shared provisioning executor
+     */
+    protected void configureExecution() {
+        FormCreatorServices.getInstance().getProvisioningExecutor().configure(
+            getPropertyString(ApiConstants.PluginProperties.EXECUTION_MODE),
+            getIntProperty(ApiConstants.PluginProperties.EXECUTOR_POOL_SIZE, 0)
+        );
+    }
+
+    /**
+     * Apply the idStrategy plugin property to the shared id generator
+     */
+    protected void configureIdGeneration() {
+        FormCreatorServices.getInstance().getIdGenerationService().configure(
+            getPropertyString(ApiConstants.PluginProperties.ID_STRATEGY)
+        );
+    }
+
+    /**
+     * Apply the payload limit plugin properties to the shared pre-scanner
+     */
+    protected void configurePayloadLimits() {
+        FormCreatorServices.getInstance().getPayloadPreScanner().configure(
+            getIntProperty(ApiConstants.PluginProperties.MAX_PAYLOAD_BYTES, 0),
+            getIntProperty(ApiConstants.PluginProperties.MAX_PAYLOAD_DEPTH, 0),
+            getIntProperty(ApiConstants.PluginProperties.MAX_PAYLOAD_ELEMENTS, 0),
+            getIntProperty(ApiConstants.PluginProperties.MAX_PAYLOAD_STRING_LENGTH, 0),
+            getIntProperty(ApiConstants.PluginProperties.MAX_COMPRESSION_RATIO, 0)
+        );
+    }
+
+    /**
+     * Open the decoded request body stream
+     *
+     * @throws ValidationException if the compressed body cannot be opened
+     */
+    private InputStream decode(HttpServletRequest httpRequest, long maxBytes, int maxRatio) {
+        try {
+            return RequestBodyDecoder.decode(httpRequest, maxBytes, maxRatio);
+        } catch (IOException e) {
+            throw new ValidationException("Invalid compressed request body: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pre-scan and parse a request body: CBOR or Smile when the Content-Type says so, JSON otherwise
+     *
+     * The endpoints declare no body parameter, so the API framework leaves the servlet stream unread.
+     * The body is read from it once (decoded first if compressed) into bytes and parsed from those,
+     * without a String copy.
+     *
+     * @param httpRequest HttpServletRequest the body is read from
+     * @return The parsed request
+     * @throws PayloadTooLargeException if the body or the definition is over a payload limit
+     * @throws ValidationException if the body is not a valid document
+     */
+    private FormCreationRequest parseRequestBody(HttpServletRequest httpRequest) {
+        if (httpRequest == null) {
+            throw new ApiProcessingException(ApiConstants.HttpStatus.INTERNAL_SERVER_ERROR,
+                                             ApiConstants.ErrorTypes.PROCESSING_ERROR,
+                                             "Request stream not available");
+        }
+        JsonFactory binaryFactory = RequestParserUtil.binaryFactoryFor(httpRequest.getContentType());
+        String formatName = binaryFactory != null ? binaryFactory.getFormatName() : "JSON";
+
+        byte[] body = readRequestStream(httpRequest, formatName);
+        LogUtil.debug(CLASS_NAME, "Request body: " + body.length + " bytes of " + formatName);
+
+        PayloadPreScanner preScanner = FormCreatorServices.getInstance().getPayloadPreScanner();
+        FormCreationRequest request;
+        if (binaryFactory != null) {
+            preScanner.scan(body, binaryFactory);
+            request = RequestParserUtil.parseBinaryRequest(body, binaryFactory);
+        } else {
+            preScanner.scan(body);
+            request = RequestParserUtil.parseJsonRequest(body);
+        }
+        // The definition is sent as a string, so its nesting is only visible once unwrapped
+        preScanner.scan(request.getFormDefinitionJson());
+        return request;
+    }
+
+    /**
+     * Read the request body from the servlet stream, decoded first if compressed
+     *
+     * @param httpRequest HttpServletRequest
+     * @param formatName Body format, for error messages
+     * @return The body
+     * @throws PayloadTooLargeException if the body is over the size or ratio limit
+     * @throws ValidationException if the body cannot be read or is not valid compressed data
+     */
+    private byte[] readRequestStream(HttpServletRequest httpRequest, String formatName) {
+        PayloadPreScanner preScanner = FormCreatorServices.getInstance().getPayloadPreScanner();
+        preScanner.checkContentLength(httpRequest.getContentLengthLong());
+
+        // A plain body is read into a buffer of its declared length; a decoded one has no known size
+        boolean encoded = RequestBodyDecoder.isEncoded(httpRequest);
+        try (InputStream in = encoded
+                 ? decode(httpRequest, preScanner.getMaxBytes(), preScanner.getMaxCompressionRatio())
+                 : httpRequest.getInputStream()) {
+            return preScanner.read(in, encoded ? -1 : httpRequest.getContentLengthLong());
+        } catch (IOException e) {
+            throw new ValidationException("Failed to read " + formatName + " request body: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Apply the admission control plugin properties to the shared admission controller
+     */
+    protected void configureAdmission() {
+        FormCreatorServices.getInstance().getAdmissionController().configure(
+            getIntProperty(ApiConstants.PluginProperties.MAX_CONCURRENT_CREATES, 0),
+            getIntProperty(ApiConstants.PluginProperties.MAX_CONCURRENT_CREATES_PER_APP, 0),
+            getIntProperty(ApiConstants.PluginProperties.MAX_QUEUED_CREATES, -1),
+            getIntProperty(ApiConstants.PluginProperties.QUEUE_TIMEOUT_SECONDS, 0)
+        );
+    }
+
+    /**
+     * Create the form, or plan it for a dry run
+     *
+     * @param appId Target application ID from the URL
+     * @param appVersion Target application version from the URL
+     * @param request The parsed request
+     * @param dryRun Plan the request instead of executing it
+     * @return JSON response (creation result or provisioning plan)
+     */
+    private JSONObject runFormCreation(String appId, String appVersion, FormCreationRequest request, boolean dryRun) {
+        FormCreationService creationService = FormCreatorServices.getInstance().getFormCreationService();
+        if (dryRun) {
+            // Dry runs take no locks and write nothing, so they bypass admission control
+            return creationService.planFormCreation(appId, appVersion, request);
+        }
+
+        // Process the request once admitted (429 when the node or app is saturated)
+        try (AdmissionController.Permit permit = acquireAdmission(appId, request)) {
+            return creationService.processFormCreationRequest(appId, appVersion, request);
+        }
+    }
+
+    /**
+     * Wait for an admission permit for the request's target app
+     *
+     * @param appId Target application ID from the URL
+     * @param request The parsed request
+     * @return Permit to close when processing is done
+     */
+    private AdmissionController.Permit acquireAdmission(String appId, FormCreationRequest request) {
+        String appKey = request.getTargetAppId();
+        if (appKey == null || appKey.trim().isEmpty()) {
+            appKey = appId != null && !appId.trim().isEmpty() ? appId : "current";
+        }
+        return FormCreatorServices.getInstance().getAdmissionController().acquire(appKey);
+    }
+
+    /**
+     * Read an integer plugin property
+     *
+     * @param name Property name
+     * @param defaultValue Value when the property is empty or invalid
+     * @return The property value
+     */
+    private int getIntProperty(String name, int defaultValue) {
+        String value = getPropertyString(name);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LogUtil.warn(CLASS_NAME, "Invalid " + name + " value '" + value + "', using default");
+            return defaultValue;
+        }
+    }
+
     /**
      * Get the workflow user manager from application context
      *
      * @return WorkflowUserManager instance
      */
     protected WorkflowUserManager getWorkflowUserManager() {
-        return (WorkflowUserManager) AppUtil.getApplicationContext()
-            .getBean(ApiConstants.BeanNames.WORKFLOW_USER_MANAGER);
+        return JogetBeanRegistry.getWorkflowUserManager();
     }
 
     /**
@@ -263,6 +1001,20 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
      * @return ApiResponse with error details
      */
     protected ApiResponse handleError(int statusCode, String errorType, Exception e) {
+        return handleError(statusCode, errorType, e, null);
+    }
+
+    /**
+     * Create a standardized error response; a 429 also gets its Retry-After header
+     *
+     * @param statusCode HTTP status code
+     * @param errorType Error type description
+     * @param e The exception
+     * @param httpResponse Servlet response, required when e is an AdmissionRejectedException
+     * @return ApiResponse with error details
+     * @throws IllegalStateException if a 429 has no servlet response to set Retry-After on
+     */
+    protected ApiResponse handleError(int statusCode, String errorType, Exception e, HttpServletResponse httpResponse) {
         String errorMessage = e.getMessage();
         String logMessage = errorType + ": " + errorMessage;
 
@@ -279,6 +1031,19 @@ public class FormCreatorServiceProvider extends ApiPluginAbstract implements Pro
         LogUtil.info(CLASS_NAME, "Error Type: " + errorType);
         LogUtil.info(CLASS_NAME, "Error Message: " + errorMessage);
 
+        if (e instanceof AdmissionRejectedException) {
+            // Clients back off by the header; a 429 without it would be retried immediately
+            if (httpResponse == null) {
+                throw new IllegalStateException("Cannot set Retry-After on a 429: no servlet response", e);
+            }
+            int retryAfter = ((AdmissionRejectedException) e).getRetryAfterSeconds();
+            httpResponse.setHeader(ApiConstants.HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            return new ApiResponse(
+                statusCode,
+                ErrorResponseUtil.createTooManyRequestsError(errorMessage, retryAfter)
+            );
+        }
+
         return new ApiResponse(
             statusCode,
             ErrorResponseUtil.createErrorResponse(errorType, errorMessage)
@@ -0,0 +1,129 @@
+package global.govstack.formcreator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class for the optional "datalist" section of a form creation request.
+ * Controls which columns the generated datalist shows, its default sort, page size and filters.
+ */
+public class DatalistSpec {
+
+    /**
+     * How datalist columns are chosen from the form's fields
+     */
+    public enum ColumnStrategy {
+        FIRST,      // first maxColumns fields in definition order (default)
+        ALL,        // every data-bearing field
+        EXPLICIT    // exactly the fields listed in columns
+    }
+
+    public static final String SORT_ASC = "asc";
+    public static final String SORT_DESC = "desc";
+
+    private ColumnStrategy columnStrategy = ColumnStrategy.FIRST;
+    private int maxColumns;
+    private List<String> columns = new ArrayList<>();
+    private String sortBy;
+    private String sortDirection = SORT_ASC;
+    private int pageSize;
+    private List<String> filters = new ArrayList<>();
+    private boolean createIndexes = true;
+
+    public DatalistSpec() {
+    }
+
+    public ColumnStrategy getColumnStrategy() {
+        return columnStrategy;
+    }
+
+    public void setColumnStrategy(ColumnStrategy columnStrategy) {
+        this.columnStrategy = columnStrategy;
+    }
+
+    /**
+     * Maximum number of columns for the FIRST strategy (0 means the plugin default)
+     */
+    public int getMaxColumns() {
+        return maxColumns;
+    }
+
+    public void setMaxColumns(int maxColumns) {
+        this.maxColumns = maxColumns;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<String> columns) {
+        this.columns = columns != null ? columns : new ArrayList<>();
+    }
+
+    /**
+     * Field id (or system column such as dateCreated) to sort by default
+     */
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(String sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public String getSortDirection() {
+        return sortDirection;
+    }
+
+    public void setSortDirection(String sortDirection) {
+        this.sortDirection = sortDirection;
+    }
+
+    public boolean isSortDescending() {
+        return SORT_DESC.equalsIgnoreCase(sortDirection);
+    }
+
+    /**
+     * Default page size (0 means Joget's default)
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    public void setFilters(List<String> filters) {
+        this.filters = filters != null ? filters : new ArrayList<>();
+    }
+
+    /**
+     * Whether DB indexes should be provisioned for the sort and filter columns
+     */
+    public boolean isCreateIndexes() {
+        return createIndexes;
+    }
+
+    public void setCreateIndexes(boolean createIndexes) {
+        this.createIndexes = createIndexes;
+    }
+
+    @Override
+    public String toString() {
+        return "DatalistSpec{" +
+                "columnStrategy=" + columnStrategy +
+                ", maxColumns=" + maxColumns +
+                ", columns=" + columns +
+                ", sortBy='" + sortBy + '\'' +
+                ", sortDirection='" + sortDirection + '\'' +
+                ", pageSize=" + pageSize +
+                ", filters=" + filters +
+                ", createIndexes=" + createIndexes +
+                '}';
+    }
+}
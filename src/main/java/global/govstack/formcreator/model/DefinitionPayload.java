@@ -0,0 +1,104 @@
+package global.govstack.formcreator.model;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A form definition held in one buffer: the text it was sent as, or an uploaded file's UTF-8 bytes.
+ *
+ * An uploaded file keeps its bytes (not copied) until the text is first needed. The text is then
+ * decoded once and the bytes are released, so a request never retains both. The byte length is
+ * remembered, and for text it is computed on first use without encoding.
+ */
+public final class DefinitionPayload {
+
+    private volatile String text;
+    private byte[] bytes;
+    private int byteLength;
+
+    private DefinitionPayload(String text, byte[] bytes, int byteLength) {
+        this.text = text;
+        this.bytes = bytes;
+        this.byteLength = byteLength;
+    }
+
+    /**
+     * Definition sent as text (a JSON string field)
+     */
+    public static DefinitionPayload ofText(String text) {
+        return text != null ? new DefinitionPayload(text, null, -1) : null;
+    }
+
+    /**
+     * Definition uploaded as a file; the array is taken over, not copied, and must not be modified
+     */
+    public static DefinitionPayload ofBytes(byte[] utf8) {
+        return utf8 != null ? new DefinitionPayload(null, utf8, utf8.length) : null;
+    }
+
+    /**
+     * The definition text, decoded on first call for an uploaded file
+     */
+    public String text() {
+        String current = text;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (text == null) {
+                text = new String(bytes, StandardCharsets.UTF_8);
+                bytes = null;
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Size of the definition in UTF-8 bytes
+     */
+    public synchronized int byteLength() {
+        if (byteLength < 0) {
+            byteLength = utf8Length(text);
+        }
+        return byteLength;
+    }
+
+    /**
+     * Whether the definition is empty or whitespace only (checked without decoding a file)
+     */
+    public synchronized boolean isBlank() {
+        if (bytes == null) {
+            return text.trim().isEmpty();
+        }
+        for (byte b : bytes) {
+            if ((b & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int utf8Length(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() &&
+                       Character.isLowSurrogate(value.charAt(i + 1))) {
+                // The pair is one 4-byte code point
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "DefinitionPayload{byteLength=" + byteLength() + ", decoded=" + (text != null) + '}';
+    }
+}
@@ -10,7 +10,7 @@ public class FormCreationRequest {
     private String formId;
     private String formName;
     private String tableName;
-    private String formDefinitionJson;  // JSON content as string
+    private DefinitionPayload formDefinition;  // JSON string field or uploaded file, held once
 
     // Optional fields for target application
     private String targetAppId;
@@ -24,9 +24,10 @@ public class FormCreationRequest {
     private boolean createCrud;
     private String datalistName;
     private String userviewName;
+    private DatalistSpec datalistSpec;  // null means default datalist layout
+    private IndexSpec indexSpec;        // null means heuristic indexes only
 
     // File upload support (alternative to JSON string)
-    private byte[] formDefinitionFile;
     private String formDefinitionFileName;
 
     // Constructors
@@ -58,12 +59,19 @@ public class FormCreationRequest {
         this.tableName = tableName;
     }
 
+    public DefinitionPayload getFormDefinition() {
+        return formDefinition;
+    }
+
+    /**
+     * Form definition JSON, decoded from the uploaded file on first call
+     */
     public String getFormDefinitionJson() {
-        return formDefinitionJson;
+        return formDefinition != null ? formDefinition.text() : null;
     }
 
     public void setFormDefinitionJson(String formDefinitionJson) {
-        this.formDefinitionJson = formDefinitionJson;
+        this.formDefinition = DefinitionPayload.ofText(formDefinitionJson);
     }
 
     // Target application getters and setters
@@ -125,23 +133,42 @@ public class FormCreationRequest {
         this.userviewName = userviewName;
     }
 
+    public DatalistSpec getDatalistSpec() {
+        return datalistSpec;
+    }
+
+    public void setDatalistSpec(DatalistSpec datalistSpec) {
+        this.datalistSpec = datalistSpec;
+    }
+
+    public IndexSpec getIndexSpec() {
+        return indexSpec;
+    }
+
+    public void setIndexSpec(IndexSpec indexSpec) {
+        this.indexSpec = indexSpec;
+    }
+
     // File upload getters and setters
-    public byte[] getFormDefinitionFile() {
-        return formDefinitionFile;
+    /**
+     * Use an uploaded file as the form definition; its content is kept as the only copy
+     *
+     * @param content File content (UTF-8 JSON), not copied
+     * @param fileName File name
+     */
+    public void setFormDefinitionFile(byte[] content, String fileName) {
+        this.formDefinition = DefinitionPayload.ofBytes(content);
+        this.formDefinitionFileName = fileName;
     }
 
-    public void setFormDefinitionFile(byte[] formDefinitionFile) {
-        this.formDefinitionFile = formDefinitionFile;
+    public boolean hasFormDefinitionFile() {
+        return formDefinitionFileName != null;
     }
 
     public String getFormDefinitionFileName() {
         return formDefinitionFileName;
     }
 
-    public void setFormDefinitionFileName(String formDefinitionFileName) {
-        this.formDefinitionFileName = formDefinitionFileName;
-    }
-
     @Override
     public String toString() {
         return "FormCreationRequest{" +
@@ -155,9 +182,10 @@ public class FormCreationRequest {
                 ", createCrud=" + createCrud +
                 ", datalistName='" + datalistName + '\'' +
                 ", userviewName='" + userviewName + '\'' +
+                ", datalistSpec=" + datalistSpec +
+                ", indexSpec=" + indexSpec +
                 ", formDefinitionFileName='" + formDefinitionFileName + '\'' +
-                ", hasFormDefinitionJson=" + (formDefinitionJson != null && !formDefinitionJson.isEmpty()) +
-                ", hasFormDefinitionFile=" + (formDefinitionFile != null && formDefinitionFile.length > 0) +
+                ", formDefinition=" + formDefinition +
                 '}';
     }
 }
@@ -19,6 +19,8 @@ public class FormCreationResponse {
     private String message;
     private String errorType;       // null if success
     private String errorMessage;    // null if success
+    private Integer retryAfter;     // seconds, only set on 429 responses
+    private String changeLevel;     // NONE, COSMETIC, STRUCTURAL or BINDER for the form definition
     private String timestamp;
 
     // Constructors
@@ -77,6 +79,14 @@ public class FormCreationResponse {
             json.put(ApiConstants.ResponseFields.ERROR_MESSAGE, errorMessage);
         }
 
+        if (retryAfter != null) {
+            json.put(ApiConstants.ResponseFields.RETRY_AFTER, retryAfter.intValue());
+        }
+
+        if (changeLevel != null) {
+            json.put(ApiConstants.ResponseFields.CHANGE_LEVEL, changeLevel);
+        }
+
         return json;
     }
 
@@ -150,6 +160,22 @@ public class FormCreationResponse {
         this.errorMessage = errorMessage;
     }
 
+    public Integer getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Integer retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public String getChangeLevel() {
+        return changeLevel;
+    }
+
+    public void setChangeLevel(String changeLevel) {
+        this.changeLevel = changeLevel;
+    }
+
     public String getTimestamp() {
         return timestamp;
     }
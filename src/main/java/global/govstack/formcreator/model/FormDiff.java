@@ -0,0 +1,160 @@
+package global.govstack.formcreator.model;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Difference between the stored definition of a form and an incoming one, classified by what the
+ * change requires from the platform.
+ */
+public class FormDiff {
+
+    /**
+     * Kind of change, in increasing order of impact
+     */
+    public enum ChangeLevel {
+        NONE,        // definitions are equivalent, nothing to write
+        COSMETIC,    // labels, styles, validators, layout: only the JSON column changes
+        STRUCTURAL,  // fields added, removed or re-typed, or a new table: DDL and a full refresh
+        BINDER       // load/store/options binders changed: where the data lives may have changed
+    }
+
+    private final boolean exists;
+    private ChangeLevel level = ChangeLevel.NONE;
+    private final List<String> addedFields = new ArrayList<>();
+    private final List<String> removedFields = new ArrayList<>();
+    private final List<String> retypedFields = new ArrayList<>();
+    private final List<String> cosmeticChanges = new ArrayList<>();
+    private final List<String> binderChanges = new ArrayList<>();
+    private String tableChange;
+
+    public FormDiff(boolean exists) {
+        this.exists = exists;
+        if (!exists) {
+            level = ChangeLevel.STRUCTURAL;
+        }
+    }
+
+    /**
+     * Raise the change level (never lowers it)
+     */
+    public void raise(ChangeLevel changeLevel) {
+        if (changeLevel.compareTo(level) > 0) {
+            level = changeLevel;
+        }
+    }
+
+    public void addAddedField(String fieldId) {
+        addedFields.add(fieldId);
+        raise(ChangeLevel.STRUCTURAL);
+    }
+
+    public void addRemovedField(String fieldId) {
+        removedFields.add(fieldId);
+        raise(ChangeLevel.STRUCTURAL);
+    }
+
+    public void addRetypedField(String fieldId) {
+        retypedFields.add(fieldId);
+        raise(ChangeLevel.STRUCTURAL);
+    }
+
+    public void setTableChange(String storedTable, String incomingTable) {
+        this.tableChange = storedTable + " -> " + incomingTable;
+        raise(ChangeLevel.STRUCTURAL);
+    }
+
+    public void addBinderChange(String path) {
+        binderChanges.add(path);
+        raise(ChangeLevel.BINDER);
+    }
+
+    public void addCosmeticChange(String path) {
+        cosmeticChanges.add(path);
+        raise(ChangeLevel.COSMETIC);
+    }
+
+    /**
+     * Whether a stored definition was found (a new form is always STRUCTURAL)
+     */
+    public boolean isExists() {
+        return exists;
+    }
+
+    public ChangeLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Whether the change can skip DDL and the app-wide cache flush
+     */
+    public boolean isCosmeticOnly() {
+        return exists && level == ChangeLevel.COSMETIC;
+    }
+
+    /**
+     * Whether the change can alter the data table, so its indexes need provisioning
+     * (an unchanged or cosmetically changed form keeps its table as it is)
+     */
+    public static boolean requiresSchemaWork(ChangeLevel level) {
+        return level != ChangeLevel.NONE && level != ChangeLevel.COSMETIC;
+    }
+
+    public List<String> getAddedFields() {
+        return Collections.unmodifiableList(addedFields);
+    }
+
+    public List<String> getRemovedFields() {
+        return Collections.unmodifiableList(removedFields);
+    }
+
+    public List<String> getRetypedFields() {
+        return Collections.unmodifiableList(retypedFields);
+    }
+
+    public List<String> getCosmeticChanges() {
+        return Collections.unmodifiableList(cosmeticChanges);
+    }
+
+    public List<String> getBinderChanges() {
+        return Collections.unmodifiableList(binderChanges);
+    }
+
+    public String getTableChange() {
+        return tableChange;
+    }
+
+    // Convert to JSON
+    public JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put(ApiConstants.DiffFields.EXISTS, exists);
+        json.put(ApiConstants.DiffFields.CHANGE_LEVEL, level.name());
+        json.put(ApiConstants.DiffFields.ADDED_FIELDS, new JSONArray(addedFields));
+        json.put(ApiConstants.DiffFields.REMOVED_FIELDS, new JSONArray(removedFields));
+        json.put(ApiConstants.DiffFields.RETYPED_FIELDS, new JSONArray(retypedFields));
+        json.put(ApiConstants.DiffFields.BINDER_CHANGES, new JSONArray(binderChanges));
+        json.put(ApiConstants.DiffFields.COSMETIC_CHANGES, new JSONArray(cosmeticChanges));
+        if (tableChange != null) {
+            json.put(ApiConstants.DiffFields.TABLE_CHANGE, tableChange);
+        }
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return "FormDiff{" +
+                "level=" + level +
+                ", added=" + addedFields +
+                ", removed=" + removedFields +
+                ", retyped=" + retypedFields +
+                ", binders=" + binderChanges +
+                ", cosmetic=" + cosmeticChanges.size() +
+                (tableChange != null ? ", table=" + tableChange : "") +
+                '}';
+    }
+}
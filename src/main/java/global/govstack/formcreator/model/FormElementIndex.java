@@ -0,0 +1,319 @@
+package global.govstack.formcreator.model;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import global.govstack.formcreator.constants.ApiConstants;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index of the data-bearing fields of a Joget form definition.
+ *
+ * Built in one pass over the element tree (following "elements" arrays only, never descending into
+ * property values such as validators or options). Fields are kept in definition order in parallel
+ * arrays, so consumers (datalist columns, filters, index heuristics, schema diffs) can read them
+ * without re-walking the JSON or allocating a map per field.
+ */
+public final class FormElementIndex {
+
+    /**
+     * How a field's value is stored in its app_fd_ column
+     */
+    public enum StorageType {
+        TEXT,
+        LOOKUP,
+        MULTI_VALUE,
+        DATE,
+        FILE
+    }
+
+    // Joget internal columns that are never user-defined fields
+    private static final Set<String> SYSTEM_COLUMNS = new HashSet<>(Arrays.asList(
+        "id", "dateCreated", "dateModified",
+        "createdBy", "createdByName",
+        "modifiedBy", "modifiedByName"
+    ));
+
+    // Layout containers and elements that never store a value
+    private static final Set<String> NON_DATA_CLASSES = new HashSet<>(Arrays.asList(
+        "org.joget.apps.form.model.Form",
+        "org.joget.apps.form.model.Section",
+        "org.joget.apps.form.model.Column",
+        "org.joget.apps.form.lib.SubForm",
+        "org.joget.apps.form.lib.SubmitButton",
+        "org.joget.apps.form.lib.CustomHTML",
+        "org.joget.apps.form.lib.LinkButton"
+    ));
+
+    private static final StorageType[] STORAGE_TYPES = StorageType.values();
+
+    private final String formId;
+    private final String formName;
+    private final String tableName;
+    private final int elementCount;
+    private final String[] ids;
+    private final String[] labels;
+    private final String[] classNames;
+    private final String[] paths;
+    private final byte[] storageTypes;
+
+    private FormElementIndex(Builder builder) {
+        this.formId = builder.formId;
+        this.formName = builder.formName;
+        this.tableName = builder.tableName;
+        this.elementCount = builder.elementCount;
+        this.ids = Arrays.copyOf(builder.ids, builder.size);
+        this.labels = Arrays.copyOf(builder.labels, builder.size);
+        this.classNames = Arrays.copyOf(builder.classNames, builder.size);
+        this.paths = Arrays.copyOf(builder.paths, builder.size);
+        this.storageTypes = Arrays.copyOf(builder.storageTypes, builder.size);
+    }
+
+    /**
+     * Build an index from form definition JSON
+     *
+     * @param formJson The form definition JSON
+     * @return The index
+     * @throws com.google.gson.JsonParseException if the JSON cannot be parsed
+     */
+    public static FormElementIndex build(String formJson) {
+        return build(JsonParser.parseString(formJson));
+    }
+
+    /**
+     * Build an index from an already parsed form definition
+     *
+     * @param root The root element of the form definition
+     * @return The index
+     */
+    public static FormElementIndex build(JsonElement root) {
+        Builder builder = new Builder();
+        if (root != null && root.isJsonObject()) {
+            JsonObject form = root.getAsJsonObject();
+            JsonObject props = getObject(form, ApiConstants.PropertyKeys.PROPERTIES);
+            if (props != null) {
+                builder.formId = getString(props, ApiConstants.PropertyKeys.ID);
+                builder.formName = getString(props, ApiConstants.PropertyKeys.NAME);
+                builder.tableName = getString(props, ApiConstants.PropertyKeys.TABLE_NAME);
+            }
+            builder.walk(form, "");
+        }
+        return new FormElementIndex(builder);
+    }
+
+    /**
+     * An index with no fields
+     *
+     * @return Empty index
+     */
+    public static FormElementIndex empty() {
+        return new FormElementIndex(new Builder());
+    }
+
+    public String getFormId() {
+        return formId;
+    }
+
+    public String getFormName() {
+        return formName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * Total number of elements visited, including layout elements
+     */
+    public int getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Number of data-bearing fields
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public String getId(int i) {
+        return ids[i];
+    }
+
+    public String getLabel(int i) {
+        return labels[i];
+    }
+
+    public String getClassName(int i) {
+        return classNames[i];
+    }
+
+    /**
+     * Slash-separated ids of the containers enclosing the field (empty for top-level fields)
+     */
+    public String getPath(int i) {
+        return paths[i];
+    }
+
+    public StorageType getStorageType(int i) {
+        return STORAGE_TYPES[storageTypes[i]];
+    }
+
+    /**
+     * Name of the field's column in the app_fd_ table
+     */
+    public String getColumnName(int i) {
+        return columnNameFor(ids[i]);
+    }
+
+    /**
+     * Check whether an id names a Joget internal column (id, dateCreated, createdBy, ...)
+     */
+    public static boolean isSystemColumn(String id) {
+        return SYSTEM_COLUMNS.contains(id);
+    }
+
+    /**
+     * Check whether an element class stores a value (not a layout container, button or static content)
+     */
+    public static boolean isDataClass(String className) {
+        return !NON_DATA_CLASSES.contains(className);
+    }
+
+    /**
+     * Name of the app_fd_ column for a field id or system column
+     */
+    public static String columnNameFor(String id) {
+        return isSystemColumn(id) ? id : ApiConstants.ColumnNames.FORM_DATA_COLUMN_PREFIX + id;
+    }
+
+    /**
+     * Position of a field by id
+     *
+     * @param id Field id
+     * @return Index of the field, or -1 if absent
+     */
+    public int indexOf(String id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i].equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Unmodifiable view of the field ids in definition order
+     */
+    public List<String> getIds() {
+        return Collections.unmodifiableList(Arrays.asList(ids));
+    }
+
+    @Override
+    public String toString() {
+        return "FormElementIndex{formId='" + formId + "', tableName='" + tableName +
+               "', elements=" + elementCount + ", fields=" + Arrays.toString(ids) + "}";
+    }
+
+    private static JsonObject getObject(JsonObject obj, String key) {
+        JsonElement value = obj.get(key);
+        return value != null && value.isJsonObject() ? value.getAsJsonObject() : null;
+    }
+
+    private static String getString(JsonObject obj, String key) {
+        JsonElement value = obj.get(key);
+        return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+    }
+
+    private static StorageType classify(String className, JsonObject props) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        switch (simpleName) {
+            case "SelectBox":
+                return "true".equals(getString(props, "multiple")) ? StorageType.MULTI_VALUE : StorageType.LOOKUP;
+            case "Radio":
+                return StorageType.LOOKUP;
+            case "CheckBox":
+            case "MultiSelectBox":
+                return StorageType.MULTI_VALUE;
+            case "DatePicker":
+                return StorageType.DATE;
+            case "FileUpload":
+            case "ImageUpload":
+                return StorageType.FILE;
+            default:
+                return StorageType.TEXT;
+        }
+    }
+
+    /**
+     * Growable parallel arrays used while walking the tree
+     */
+    private static final class Builder {
+        private String formId;
+        private String formName;
+        private String tableName;
+        private int elementCount;
+        private int size;
+        private String[] ids = new String[16];
+        private String[] labels = new String[16];
+        private String[] classNames = new String[16];
+        private String[] paths = new String[16];
+        private byte[] storageTypes = new byte[16];
+
+        private void walk(JsonObject container, String path) {
+            JsonElement children = container.get(ApiConstants.PropertyKeys.ELEMENTS);
+            if (children == null || !children.isJsonArray()) {
+                return;
+            }
+
+            JsonArray array = children.getAsJsonArray();
+            for (JsonElement child : array) {
+                if (!child.isJsonObject()) {
+                    continue;
+                }
+                elementCount++;
+
+                JsonObject element = child.getAsJsonObject();
+                String className = getString(element, ApiConstants.PropertyKeys.CLASS_NAME);
+                JsonObject props = getObject(element, ApiConstants.PropertyKeys.PROPERTIES);
+                String id = props != null ? getString(props, ApiConstants.PropertyKeys.ID) : null;
+
+                if (className != null && id != null && !id.isEmpty() &&
+                    !NON_DATA_CLASSES.contains(className) && !SYSTEM_COLUMNS.contains(id)) {
+                    String label = getString(props, ApiConstants.PropertyKeys.LABEL);
+                    add(id, label != null ? label : id, className, path, classify(className, props));
+                }
+
+                String childPath = id != null && !id.isEmpty() ? (path.isEmpty() ? id : path + "/" + id) : path;
+                walk(element, childPath);
+            }
+        }
+
+        private void add(String id, String label, String className, String path, StorageType storageType) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                labels = Arrays.copyOf(labels, capacity);
+                classNames = Arrays.copyOf(classNames, capacity);
+                paths = Arrays.copyOf(paths, capacity);
+                storageTypes = Arrays.copyOf(storageTypes, capacity);
+            }
+            ids[size] = id;
+            labels[size] = label;
+            classNames[size] = className;
+            paths[size] = path;
+            storageTypes[size] = (byte) storageType.ordinal();
+            size++;
+        }
+    }
+}
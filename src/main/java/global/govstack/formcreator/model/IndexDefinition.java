@@ -0,0 +1,69 @@
+package global.govstack.formcreator.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single secondary index to provision on a form data (app_fd_) table.
+ * Columns are form field ids (or system columns such as dateCreated), in index order.
+ */
+public class IndexDefinition {
+
+    /**
+     * Where the index definition came from
+     */
+    public enum Source {
+        EXPLICIT,   // listed in the request's "indexes" section
+        HEURISTIC,  // lookup-style or foreign-key-like field
+        DATALIST    // datalist sort or filter column
+    }
+
+    private final List<String> columns;
+    private final boolean unique;
+    private final String name;
+    private final Source source;
+
+    public IndexDefinition(List<String> columns, boolean unique, String name, Source source) {
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+        this.unique = unique;
+        this.name = name;
+        this.source = source;
+    }
+
+    /**
+     * Create a non-unique single-column index with a generated name
+     */
+    public static IndexDefinition of(String column, Source source) {
+        return new IndexDefinition(Collections.singletonList(column), false, null, source);
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * Requested index name (null means a generated name)
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexDefinition{" +
+                "columns=" + columns +
+                ", unique=" + unique +
+                ", name='" + name + '\'' +
+                ", source=" + source +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package global.govstack.formcreator.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Model class for the optional "indexes" section of a form creation request.
+ * Lists explicit indexes and controls heuristic and online index provisioning.
+ */
+public class IndexSpec {
+
+    private boolean auto;
+    private boolean online = true;
+    private List<IndexDefinition> definitions = new ArrayList<>();
+
+    public IndexSpec() {
+    }
+
+    /**
+     * Whether lookup-style and foreign-key-like fields are indexed automatically (opt-in)
+     */
+    public boolean isAuto() {
+        return auto;
+    }
+
+    public void setAuto(boolean auto) {
+        this.auto = auto;
+    }
+
+    /**
+     * Whether to build indexes online/concurrently where the database supports it (default: true)
+     */
+    public boolean isOnline() {
+        return online;
+    }
+
+    /**
+     * Online setting of a request's spec; requests without one build online too
+     */
+    public static boolean isOnline(IndexSpec spec) {
+        return spec == null || spec.isOnline();
+    }
+
+    public void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    public List<IndexDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    public void setDefinitions(List<IndexDefinition> definitions) {
+        this.definitions = definitions != null ? definitions : new ArrayList<>();
+    }
+
+    @Override
+    public String toString() {
+        return "IndexSpec{" +
+                "auto=" + auto +
+                ", online=" + online +
+                ", definitions=" + definitions +
+                '}';
+    }
+}
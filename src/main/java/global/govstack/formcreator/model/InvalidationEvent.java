@@ -0,0 +1,90 @@
+package global.govstack.formcreator.model;
+
+/**
+ * A definition change that other Joget nodes must evict from their caches.
+ * Published by the node that wrote the artifact and applied by every other node.
+ */
+public class InvalidationEvent {
+
+    /**
+     * Kind of definition that changed
+     */
+    public enum ArtifactType {
+        FORM,
+        DATALIST,
+        USERVIEW,
+        API,
+        APP         // app-level change (e.g. a new form in the app's definition list)
+    }
+
+    private final String eventId;
+    private final String originNodeId;
+    private final long timestamp;
+    private final String appId;
+    private final String appVersion;
+    private final String artifactId;
+    private final ArtifactType artifactType;
+
+    public InvalidationEvent(String eventId, String originNodeId, long timestamp, String appId,
+                             String appVersion, String artifactId, ArtifactType artifactType) {
+        this.eventId = eventId;
+        this.originNodeId = originNodeId;
+        this.timestamp = timestamp;
+        this.appId = appId;
+        this.appVersion = appVersion;
+        this.artifactId = artifactId;
+        this.artifactType = artifactType;
+    }
+
+    /**
+     * Unique event ID (used to drop events delivered twice)
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /**
+     * ID of the node that published the event
+     */
+    public String getOriginNodeId() {
+        return originNodeId;
+    }
+
+    /**
+     * Publish time in epoch milliseconds (origin node clock)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public String getAppVersion() {
+        return appVersion;
+    }
+
+    /**
+     * ID of the form, datalist, userview or API (null for APP events)
+     */
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public ArtifactType getArtifactType() {
+        return artifactType;
+    }
+
+    @Override
+    public String toString() {
+        return "InvalidationEvent{" +
+                "eventId='" + eventId + '\'' +
+                ", originNodeId='" + originNodeId + '\'' +
+                ", appId='" + appId + '\'' +
+                ", appVersion='" + appVersion + '\'' +
+                ", artifactId='" + artifactId + '\'' +
+                ", artifactType=" + artifactType +
+                '}';
+    }
+}
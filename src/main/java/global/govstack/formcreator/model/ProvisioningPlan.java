@@ -0,0 +1,169 @@
+package global.govstack.formcreator.model;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a dry-run form creation: every database, DAO and file operation the request would
+ * perform, in order, plus the time spent in each planning phase.
+ *
+ * Phases prefixed "cpu." are pure parsing, validation and generation; phases prefixed "io." are
+ * the read-only lookups (app definition, catalog, existing definitions) the plan needed.
+ */
+public class ProvisioningPlan {
+
+    /**
+     * A single operation the request would perform
+     */
+    public static class Operation {
+        private final String stage;
+        private final String action;
+        private final String target;
+        private final String detail;
+
+        public Operation(String stage, String action, String target, String detail) {
+            this.stage = stage;
+            this.action = action;
+            this.target = target;
+            this.detail = detail;
+        }
+
+        /**
+         * Pipeline stage (bootstrap, form, index, api, datalist, userview)
+         */
+        public String getStage() {
+            return stage;
+        }
+
+        /**
+         * What would happen (e.g. INSERT, UPDATE, CREATE_INDEX, WRITE_FILE, SKIP_FILE, DAO_ADD)
+         */
+        public String getAction() {
+            return action;
+        }
+
+        /**
+         * Table, file path or definition ID the operation applies to
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * SQL statement, content size/hash or other detail (may be null)
+         */
+        public String getDetail() {
+            return detail;
+        }
+
+        public JSONObject toJSON() {
+            JSONObject json = new JSONObject();
+            json.put("stage", stage);
+            json.put("action", action);
+            json.put("target", target);
+            if (detail != null) {
+                json.put("detail", detail);
+            }
+            return json;
+        }
+    }
+
+    private final String formId;
+    private final String appId;
+    private final String appVersion;
+    private final List<Operation> operations = new ArrayList<>();
+    private final Map<String, Long> timingsMicros = new LinkedHashMap<>();
+    private final String timestamp;
+
+    public ProvisioningPlan(String formId, String appId, String appVersion) {
+        this.formId = formId;
+        this.appId = appId;
+        this.appVersion = appVersion;
+        this.timestamp = Instant.now().toString();
+    }
+
+    public void add(String stage, String action, String target, String detail) {
+        operations.add(new Operation(stage, action, target, detail));
+    }
+
+    /**
+     * Record the time spent in a phase (accumulates when a phase is recorded more than once)
+     *
+     * @param phase Phase name, "cpu." or "io." prefixed
+     * @param nanos Elapsed nanoseconds
+     */
+    public void addTiming(String phase, long nanos) {
+        timingsMicros.merge(phase, nanos / 1_000L, Long::sum);
+    }
+
+    public String getFormId() {
+        return formId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+
+    public String getAppVersion() {
+        return appVersion;
+    }
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public Map<String, Long> getTimingsMicros() {
+        return timingsMicros;
+    }
+
+    // Convert to JSON
+    public JSONObject toJSON() {
+        JSONObject json = new JSONObject();
+        json.put(ApiConstants.ResponseFields.STATUS, ApiConstants.StatusValues.SUCCESS);
+        json.put(ApiConstants.ResponseFields.TIMESTAMP, timestamp);
+        json.put(ApiConstants.ResponseFields.DRY_RUN, true);
+        json.put(ApiConstants.ResponseFields.FORM_ID, formId);
+        json.put(ApiConstants.ResponseFields.APP_ID, appId);
+        json.put(ApiConstants.ResponseFields.APP_VERSION, appVersion);
+
+        JSONArray ops = new JSONArray();
+        for (Operation operation : operations) {
+            ops.put(operation.toJSON());
+        }
+        json.put(ApiConstants.ResponseFields.OPERATIONS, ops);
+
+        long cpu = 0;
+        long io = 0;
+        JSONObject timings = new JSONObject();
+        for (Map.Entry<String, Long> entry : timingsMicros.entrySet()) {
+            timings.put(entry.getKey(), entry.getValue());
+            if (entry.getKey().startsWith("cpu.")) {
+                cpu += entry.getValue();
+            } else if (entry.getKey().startsWith("io.")) {
+                io += entry.getValue();
+            }
+        }
+        timings.put("cpuTotal", cpu);
+        timings.put("ioTotal", io);
+        json.put(ApiConstants.ResponseFields.TIMINGS_MICROS, timings);
+        return json;
+    }
+
+    @Override
+    public String toString() {
+        return "ProvisioningPlan{" +
+                "formId='" + formId + '\'' +
+                ", appId='" + appId + '\'' +
+                ", appVersion='" + appVersion + '\'' +
+                ", operations=" + operations.size() +
+                ", timingsMicros=" + timingsMicros +
+                '}';
+    }
+}
@@ -0,0 +1,201 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.AdmissionRejectedException;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.commons.util.LogUtil;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for the create endpoint.
+ *
+ * A request needs a permit for its target app and a permit for the node. Requests that cannot get
+ * both immediately wait in a bounded queue; when the queue is full, or the wait exceeds the queue
+ * timeout, the request is rejected with 429 and a Retry-After hint instead of piling more JDBC
+ * connections, cache evictions and DDL onto the instance.
+ *
+ * An app's semaphore exists only while requests for the app hold or wait for a permit: it is removed
+ * when the last of them leaves, so the app keys sent by clients cannot grow the map.
+ */
+public class AdmissionController {
+
+    private static final String CLASS_NAME = AdmissionController.class.getName();
+
+    /**
+     * Held permits for one admitted request; closing releases them
+     */
+    public static final class Permit implements AutoCloseable {
+        private final Map<String, AppSlot> appSlots;
+        private final String appKey;
+        private final AppSlot appSlot;
+        private final Semaphore nodeSemaphore;
+        private final AtomicInteger active;
+        private boolean released;
+
+        private Permit(Map<String, AppSlot> appSlots, String appKey, AppSlot appSlot, Semaphore nodeSemaphore,
+                       AtomicInteger active) {
+            this.appSlots = appSlots;
+            this.appKey = appKey;
+            this.appSlot = appSlot;
+            this.nodeSemaphore = nodeSemaphore;
+            this.active = active;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                nodeSemaphore.release();
+                appSlot.semaphore.release();
+                leave(appSlots, appKey);
+                MetricsUtil.setGauge(ApiConstants.Metrics.ADMISSION_ACTIVE, active.decrementAndGet());
+            }
+        }
+    }
+
+    /**
+     * One app's semaphore and the number of requests holding or waiting for it
+     */
+    private static final class AppSlot {
+        private final Semaphore semaphore;
+        // Only changed inside the map's compute calls for the app's key
+        private int users;
+
+        private AppSlot(int permits) {
+            this.semaphore = new Semaphore(permits, true);
+        }
+    }
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+
+    private volatile int maxConcurrent = ApiConstants.Defaults.ADMISSION_MAX_CONCURRENT;
+    private volatile int maxConcurrentPerApp = ApiConstants.Defaults.ADMISSION_MAX_CONCURRENT_PER_APP;
+    private volatile int maxQueued = ApiConstants.Defaults.ADMISSION_MAX_QUEUED;
+    private volatile int queueTimeoutSeconds = ApiConstants.Defaults.ADMISSION_QUEUE_TIMEOUT_SECONDS;
+
+    private volatile Semaphore nodeSemaphore = new Semaphore(maxConcurrent, true);
+    private volatile Map<String, AppSlot> appSlots = new ConcurrentHashMap<>();
+
+    /**
+     * Apply admission limits. Values below 1 (below 0 for the queue) keep the defaults.
+     * Requests admitted under the previous limits release to the semaphores they were admitted by.
+     *
+     * @param nodeLimit Concurrent creates per node
+     * @param appLimit Concurrent creates per target app
+     * @param queueLimit Requests allowed to wait for a permit
+     * @param timeoutSeconds Longest wait in the queue
+     */
+    public synchronized void configure(int nodeLimit, int appLimit, int queueLimit, int timeoutSeconds) {
+        int newMax = nodeLimit > 0 ? nodeLimit : ApiConstants.Defaults.ADMISSION_MAX_CONCURRENT;
+        int newPerApp = appLimit > 0 ? appLimit : ApiConstants.Defaults.ADMISSION_MAX_CONCURRENT_PER_APP;
+        int newQueued = queueLimit >= 0 ? queueLimit : ApiConstants.Defaults.ADMISSION_MAX_QUEUED;
+        int newTimeout = timeoutSeconds > 0 ? timeoutSeconds : ApiConstants.Defaults.ADMISSION_QUEUE_TIMEOUT_SECONDS;
+
+        maxQueued = newQueued;
+        queueTimeoutSeconds = newTimeout;
+        if (newMax != maxConcurrent || newPerApp != maxConcurrentPerApp) {
+            maxConcurrent = newMax;
+            maxConcurrentPerApp = newPerApp;
+            nodeSemaphore = new Semaphore(newMax, true);
+            appSlots = new ConcurrentHashMap<>();
+            LogUtil.info(CLASS_NAME, "Admission limits: node=" + newMax + ", perApp=" + newPerApp +
+                         ", queue=" + newQueued + ", timeout=" + newTimeout + "s");
+        }
+    }
+
+    /**
+     * Admit a request for an app, waiting in the queue if necessary
+     *
+     * @param appKey Target app id (or a placeholder when the current app is used)
+     * @return Permit to close when the request is done
+     * @throws AdmissionRejectedException if the queue is full or the wait times out
+     */
+    public Permit acquire(String appKey) {
+        Semaphore node = nodeSemaphore;
+        Map<String, AppSlot> slots = appSlots;
+        AppSlot slot = join(slots, appKey);
+        Semaphore app = slot.semaphore;
+
+        // Fast path: both permits free
+        if (app.tryAcquire()) {
+            if (node.tryAcquire()) {
+                return admitted(slots, appKey, slot, node);
+            }
+            app.release();
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            leave(slots, appKey);
+            throw reject("Too many form creation requests in progress - queue is full");
+        }
+        MetricsUtil.setGauge(ApiConstants.Metrics.ADMISSION_QUEUE_DEPTH, queued.get());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(queueTimeoutSeconds);
+        boolean appAcquired = false;
+        try {
+            // App permit first, so a busy app never holds node slots other apps could use
+            appAcquired = app.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS);
+            if (appAcquired && node.tryAcquire(remaining(deadline), TimeUnit.NANOSECONDS)) {
+                return admitted(slots, appKey, slot, node);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            MetricsUtil.setGauge(ApiConstants.Metrics.ADMISSION_QUEUE_DEPTH, queued.decrementAndGet());
+        }
+
+        if (appAcquired) {
+            app.release();
+        }
+        leave(slots, appKey);
+        throw reject("Timed out waiting for a form creation slot for app: " + appKey);
+    }
+
+    /**
+     * Number of requests currently waiting for a permit
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    private Permit admitted(Map<String, AppSlot> slots, String appKey, AppSlot slot, Semaphore node) {
+        MetricsUtil.increment(ApiConstants.Metrics.ADMISSION_ADMITTED);
+        MetricsUtil.setGauge(ApiConstants.Metrics.ADMISSION_ACTIVE, active.incrementAndGet());
+        return new Permit(slots, appKey, slot, node, active);
+    }
+
+    /**
+     * Register a request with its app's slot, creating the slot for the app's first request
+     */
+    private AppSlot join(Map<String, AppSlot> slots, String appKey) {
+        return slots.compute(appKey, (key, slot) -> {
+            AppSlot joined = slot != null ? slot : new AppSlot(maxConcurrentPerApp);
+            joined.users++;
+            return joined;
+        });
+    }
+
+    /**
+     * Unregister a request from its app's slot, removing the slot when no request is left on it
+     */
+    private static void leave(Map<String, AppSlot> slots, String appKey) {
+        slots.computeIfPresent(appKey, (key, slot) -> --slot.users > 0 ? slot : null);
+    }
+
+    private AdmissionRejectedException reject(String message) {
+        MetricsUtil.increment(ApiConstants.Metrics.ADMISSION_REJECTED);
+        LogUtil.warn(CLASS_NAME, message);
+        return new AdmissionRejectedException(message, ApiConstants.Defaults.ADMISSION_RETRY_AFTER_SECONDS);
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0L, deadline - System.nanoTime());
+    }
+}
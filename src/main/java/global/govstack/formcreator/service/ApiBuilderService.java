@@ -2,16 +2,14 @@ package global.govstack.formcreator.service;
 
 import global.govstack.formcreator.constants.ApiConstants;
 import global.govstack.formcreator.model.ApiCreationResult;
+import global.govstack.formcreator.util.JogetBeanRegistry;
 import org.joget.apps.app.model.AppDefinition;
 import org.joget.apps.app.model.BuilderDefinition;
 import org.joget.apps.app.dao.BuilderDefinitionDao;
-import org.joget.apps.app.service.AppUtil;
 import org.joget.commons.util.LogUtil;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.IOException;
 import java.util.Date;
-import java.util.UUID;
 
 /**
  * Service class for creating API endpoints using Joget's Builder API.
@@ -21,14 +19,21 @@ public class ApiBuilderService {
 
     private static final String CLASS_NAME = ApiBuilderService.class.getName();
     private final JsonProcessingService jsonProcessingService;
+    private final DefinitionFileWriter definitionFileWriter;
+    private final IdGenerationService idGenerationService;
 
     /**
-     * Constructor with JsonProcessingService dependency injection
+     * Constructor with service dependencies
      *
      * @param jsonProcessingService Service for JSON generation and processing
+     * @param definitionFileWriter Service for content-addressed definition file writes
+     * @param idGenerationService Generates the API ids
      */
-    public ApiBuilderService(JsonProcessingService jsonProcessingService) {
+    public ApiBuilderService(JsonProcessingService jsonProcessingService, DefinitionFileWriter definitionFileWriter,
+                             IdGenerationService idGenerationService) {
         this.jsonProcessingService = jsonProcessingService;
+        this.definitionFileWriter = definitionFileWriter;
+        this.idGenerationService = idGenerationService;
     }
 
     /**
@@ -46,62 +51,59 @@ public class ApiBuilderService {
             LogUtil.info(CLASS_NAME, "Creating API endpoint for form: " + formId);
 
             // Generate UUID for API
-            String apiUuid = UUID.randomUUID().toString();
+            String apiUuid = idGenerationService.artifactId(appDef.getAppId(), formId, ApiConstants.IdArtifacts.API);
             apiId = ApiConstants.IdPrefixes.API + apiUuid;
 
             // Generate API definition JSON
-            String apiJson = jsonProcessingService.generateApiDefinitionJson(formId, apiName, apiUuid);
+            String apiJson = jsonProcessingService.generateApiDefinitionJson(appDef.getAppId(), formId, apiName, apiUuid);
 
             if (apiJson == null) {
                 LogUtil.error(CLASS_NAME, null, "Failed to generate API JSON for form: " + formId);
                 return ApiCreationResult.error("API JSON generation failed - generateApiDefinitionJson returned null");
             }
 
-            // Step 1: Write API definition file to file system
-            String jogetDir = System.getProperty("user.dir");
-            String apiDir = jogetDir + ApiConstants.Paths.APP_SRC + "/" + appDef.getAppId() + "/" +
-                           appDef.getAppId() + "_" + appDef.getVersion() + ApiConstants.Paths.BUILDER_DIR + ApiConstants.Paths.API_DIR;
-
-            // Create directory if it doesn't exist
-            File apiDirectory = new File(apiDir);
-            if (!apiDirectory.exists()) {
-                boolean created = apiDirectory.mkdirs();
-                if (!created) {
-                    LogUtil.error(CLASS_NAME, null, "Failed to create API directory: " + apiDir);
-                    return ApiCreationResult.error("Failed to create API directory: " + apiDir);
-                }
-                LogUtil.info(CLASS_NAME, "API directory created at: " + apiDir);
+            // Step 1: Write API definition file to file system (skipped if unchanged)
+            String apiFilePath = ApiConstants.Paths.BUILDER_DIR + ApiConstants.Paths.API_DIR + "/" +
+                                 apiId + ApiConstants.Paths.JSON_EXTENSION;
+            try {
+                boolean written = definitionFileWriter.writeIfChanged(appDef, apiFilePath, apiJson);
+                LogUtil.info(CLASS_NAME, "API file " + (written ? "created" : "unchanged") + ": " + apiFilePath);
+            } catch (IOException e) {
+                LogUtil.error(CLASS_NAME, e, "Failed to write API definition file: " + apiFilePath);
+                return ApiCreationResult.error("Failed to write API definition file: " + e.getMessage());
             }
 
-            // Write API definition file
-            String apiFilePath = apiDir + "/" + apiId + ApiConstants.Paths.JSON_EXTENSION;
-            try (FileWriter fileWriter = new FileWriter(apiFilePath)) {
-                fileWriter.write(apiJson);
-            }
-            LogUtil.info(CLASS_NAME, "API file created at: " + apiFilePath);
-
             // Step 2: Save API definition to database using BuilderDefinitionDao
-            BuilderDefinitionDao builderDefDao = (BuilderDefinitionDao)
-                AppUtil.getApplicationContext().getBean(ApiConstants.BeanNames.BUILDER_DEFINITION_DAO);
+            BuilderDefinitionDao builderDefDao = JogetBeanRegistry.getBuilderDefinitionDao();
 
             if (builderDefDao == null) {
                 LogUtil.error(CLASS_NAME, null, "BuilderDefinitionDao not available - cannot save API to database");
                 return ApiCreationResult.error("BuilderDefinitionDao not available - API file created but not in database");
             }
 
-            BuilderDefinition builderDef = new BuilderDefinition();
-            builderDef.setAppId(appDef.getAppId());
-            builderDef.setAppVersion(appDef.getVersion());
-            builderDef.setId(apiId);
-            builderDef.setName(apiName);
-            builderDef.setType(ApiConstants.BuilderTypes.API);
-            builderDef.setJson(apiJson);
-            builderDef.setDateCreated(new Date());
-            builderDef.setDateModified(new Date());
-            builderDef.setAppDefinition(appDef);
-
-            builderDefDao.add(builderDef);
-            LogUtil.info(CLASS_NAME, "API definition saved to database with ID: " + apiId);
+            // A deterministic id names the API created for this form before: update it instead of adding a copy
+            BuilderDefinition existing = idGenerationService.isDeterministic() ? builderDefDao.loadById(apiId, appDef) : null;
+            if (existing != null) {
+                existing.setName(apiName);
+                existing.setJson(apiJson);
+                existing.setDateModified(new Date());
+                builderDefDao.update(existing);
+                LogUtil.info(CLASS_NAME, "API definition updated in database with ID: " + apiId);
+            } else {
+                BuilderDefinition builderDef = new BuilderDefinition();
+                builderDef.setAppId(appDef.getAppId());
+                builderDef.setAppVersion(appDef.getVersion());
+                builderDef.setId(apiId);
+                builderDef.setName(apiName);
+                builderDef.setType(ApiConstants.BuilderTypes.API);
+                builderDef.setJson(apiJson);
+                builderDef.setDateCreated(new Date());
+                builderDef.setDateModified(new Date());
+                builderDef.setAppDefinition(appDef);
+
+                builderDefDao.add(builderDef);
+                LogUtil.info(CLASS_NAME, "API definition saved to database with ID: " + apiId);
+            }
 
             LogUtil.info(CLASS_NAME, "SUCCESS: API endpoint created: " + apiId);
             LogUtil.info(CLASS_NAME, "API endpoint URL: /jw/api/" + appDef.getAppId() + "/" + appDef.getVersion() + "/form/" + formId);
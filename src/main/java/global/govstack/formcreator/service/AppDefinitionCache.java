@@ -0,0 +1,126 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.util.JogetBeanRegistry;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.apps.app.dao.AppDefinitionDao;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.apps.app.service.AppService;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded LRU cache of target app lookups, keyed by (appId, version).
+ *
+ * Only the identity of a resolved app version is cached (its version and the dateModified of its
+ * row), never the entity: every lookup loads the AppDefinition by primary key in the caller's own
+ * Hibernate session, so lazy collections stay attached to the session that reads them. A lookup is
+ * a hit when the loaded row still has the cached dateModified, and then skips AppService's lookup.
+ * A changed row is a miss, and a deleted version drops the entry.
+ *
+ * Requests without a version resolve the published version with AppDefinitionDao.getPublishedVersion
+ * on every call, so a publish, unpublish or import takes effect at once without any event from the
+ * platform. Shared by all requests on this node, through FormCreatorServices.
+ */
+public class AppDefinitionCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Date> entries;
+
+    /**
+     * Create a cache
+     *
+     * @param maxEntries Maximum number of cached keys before the least recently used is evicted
+     */
+    public AppDefinitionCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Date>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Date> eldest) {
+                return size() > AppDefinitionCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get an app definition, loading it through AppService on a miss
+     *
+     * @param appService The app service used on cache misses
+     * @param appId The application ID
+     * @param version The application version (null or empty for the published version)
+     * @return The app definition, or null if the app does not exist
+     */
+    public AppDefinition get(AppService appService, String appId, String version) {
+        AppDefinitionDao appDefinitionDao = JogetBeanRegistry.getAppDefinitionDao();
+        Long resolvedVersion = resolveVersion(appDefinitionDao, appId, version);
+        if (appDefinitionDao == null || resolvedVersion == null) {
+            // Unparseable version, no published version or no DAO: AppService decides
+            return appService.getAppDefinition(appId, version);
+        }
+
+        String key = key(appId, resolvedVersion);
+        Date cachedModified = lookup(key);
+        if (cachedModified != null) {
+            AppDefinition appDef = appDefinitionDao.loadVersion(appId, resolvedVersion);
+            if (appDef == null) {
+                remove(key);
+            } else if (cachedModified.equals(appDef.getDateModified())) {
+                MetricsUtil.increment(ApiConstants.Metrics.APP_DEFINITION_CACHE_HITS);
+                updateHitRate();
+                return appDef;
+            }
+        }
+        MetricsUtil.increment(ApiConstants.Metrics.APP_DEFINITION_CACHE_MISSES);
+        updateHitRate();
+
+        AppDefinition appDef = appService.getAppDefinition(appId, resolvedVersion.toString());
+        if (appDef != null && appDef.getDateModified() != null &&
+            Objects.equals(appDef.getVersion(), resolvedVersion)) {
+            store(key, appDef.getDateModified());
+        }
+        return appDef;
+    }
+
+    /**
+     * The requested version, or the currently published one when none is given
+     *
+     * @return The version, or null if it is not a number or the app has no published version
+     */
+    private static Long resolveVersion(AppDefinitionDao appDefinitionDao, String appId, String version) {
+        if (version != null && !version.trim().isEmpty()) {
+            try {
+                return Long.valueOf(version.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return appDefinitionDao != null ? appDefinitionDao.getPublishedVersion(appId) : null;
+    }
+
+    private synchronized Date lookup(String key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(String key, Date dateModified) {
+        entries.put(key, dateModified);
+        MetricsUtil.setGauge(ApiConstants.Metrics.APP_DEFINITION_CACHE_SIZE, entries.size());
+    }
+
+    private synchronized void remove(String key) {
+        entries.remove(key);
+        MetricsUtil.setGauge(ApiConstants.Metrics.APP_DEFINITION_CACHE_SIZE, entries.size());
+    }
+
+    private void updateHitRate() {
+        long hits = MetricsUtil.get(ApiConstants.Metrics.APP_DEFINITION_CACHE_HITS);
+        long misses = MetricsUtil.get(ApiConstants.Metrics.APP_DEFINITION_CACHE_MISSES);
+        MetricsUtil.setGauge(ApiConstants.Metrics.APP_DEFINITION_CACHE_HIT_RATE, hits * 100 / Math.max(1, hits + misses));
+    }
+
+    private static String key(String appId, Long version) {
+        return appId + ":" + version;
+    }
+}
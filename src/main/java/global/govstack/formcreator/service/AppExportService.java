@@ -0,0 +1,332 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.commons.util.LogUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the form, datalist, API and userview definitions of an app version as NDJSON or a zip.
+ *
+ * Definitions are read straight from the definition tables (the form table is the one
+ * FormDatabaseService discovers) with forward-only, read-only cursors and a bounded fetch size,
+ * and each row is written out before the next is read. Output is flushed every few records so the
+ * servlet container sends it in chunks; no more than one definition is held in memory at a time.
+ *
+ * NDJSON output starts with a manifest record and ends with an end record carrying the record
+ * count, so a truncated export is detectable on import.
+ */
+public class AppExportService {
+
+    private static final String CLASS_NAME = AppExportService.class.getName();
+
+    private final FormDatabaseService formDatabaseService;
+
+    /**
+     * Constructor with service dependencies
+     *
+     * @param formDatabaseService Service for connections and definition table discovery
+     */
+    public AppExportService(FormDatabaseService formDatabaseService) {
+        this.formDatabaseService = formDatabaseService;
+    }
+
+    /**
+     * Check whether a format is supported
+     *
+     * @param format Requested format (null means NDJSON)
+     * @return true for ndjson and zip
+     */
+    public static boolean isSupportedFormat(String format) {
+        return format == null || format.isEmpty() ||
+               ApiConstants.Transfer.FORMAT_NDJSON.equalsIgnoreCase(format) ||
+               ApiConstants.Transfer.FORMAT_ZIP.equalsIgnoreCase(format);
+    }
+
+    /**
+     * Stream an app version's definitions to an output stream
+     *
+     * @param appDef The application version to export
+     * @param format ndjson (default) or zip
+     * @param out The response stream (not closed)
+     * @return Number of definitions written
+     * @throws SQLException if the definition tables cannot be read
+     * @throws IOException if the output cannot be written
+     */
+    public int export(AppDefinition appDef, String format, OutputStream out) throws SQLException, IOException {
+        ExportSink sink = ApiConstants.Transfer.FORMAT_ZIP.equalsIgnoreCase(format)
+            ? new ZipSink(out)
+            : new NdjsonSink(out);
+
+        LogUtil.info(CLASS_NAME, "Exporting " + appDef.getAppId() + " v" + appDef.getVersion() + " as " +
+                     (sink instanceof ZipSink ? ApiConstants.Transfer.FORMAT_ZIP : ApiConstants.Transfer.FORMAT_NDJSON));
+
+        int count = 0;
+        try (Connection conn = formDatabaseService.getConnection(formDatabaseService.getDataSource())) {
+            // PostgreSQL only honours the fetch size inside a transaction; nothing is written
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                DatabaseMetaData metaData = conn.getMetaData();
+                int fetchSize = isMySql(metaData) ? Integer.MIN_VALUE : ApiConstants.Transfer.FETCH_SIZE;
+
+                sink.begin(appDef);
+                count += streamTable(conn, formDatabaseService.discoverFormDefinitionTableName(conn),
+                                     ApiConstants.BuilderTypes.FORM, appDef, fetchSize, sink);
+                count += streamTable(conn, findTable(metaData, ApiConstants.TableNames.APP_DATALIST),
+                                     ApiConstants.BuilderTypes.DATALIST, appDef, fetchSize, sink);
+                count += streamTable(conn, findTable(metaData, ApiConstants.TableNames.APP_BUILDER),
+                                     ApiConstants.BuilderTypes.API, appDef, fetchSize, sink);
+                count += streamTable(conn, findTable(metaData, ApiConstants.TableNames.APP_USERVIEW),
+                                     ApiConstants.BuilderTypes.USERVIEW, appDef, fetchSize, sink);
+                sink.finish(count);
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+
+        MetricsUtil.add(ApiConstants.Metrics.EXPORT_RECORDS, count);
+        LogUtil.info(CLASS_NAME, "Exported " + count + " definitions of " + appDef.getAppId() + " v" + appDef.getVersion());
+        return count;
+    }
+
+    /**
+     * Stream the app version's rows of one definition table
+     *
+     * @param table The definition table (null when it does not exist)
+     * @param type Record type; for app_builder also the builder type the rows are filtered on
+     * @return Number of rows written
+     */
+    private int streamTable(Connection conn, String table, String type, AppDefinition appDef, int fetchSize,
+                            ExportSink sink) throws SQLException, IOException {
+        if (table == null) {
+            LogUtil.debug(CLASS_NAME, "No definition table for " + type + " - skipping");
+            return 0;
+        }
+
+        String[] columns = formDatabaseService.getFormDefinitionColumns(conn, table);
+        String idColumn = formDatabaseService.findColumn(columns, new String[]{"id", "formId", "form_id"});
+        String appIdColumn = formDatabaseService.findColumn(columns, new String[]{"appId", "app_id"});
+        String versionColumn = formDatabaseService.findColumn(columns, new String[]{"appVersion", "version", "app_version"});
+        String jsonColumn = formDatabaseService.findColumn(columns, new String[]{"json", "definition", "form_json"});
+        String nameColumn = formDatabaseService.findColumn(columns, new String[]{"name", "formName", "form_name"});
+        String tableColumn = formDatabaseService.findColumn(columns, new String[]{"tableName", "table_name"});
+        String typeColumn = ApiConstants.BuilderTypes.API.equals(type)
+            ? formDatabaseService.findColumn(columns, new String[]{"type"})
+            : null;
+        if (idColumn == null || appIdColumn == null || versionColumn == null || jsonColumn == null) {
+            LogUtil.warn(CLASS_NAME, "Cannot determine key columns of " + table + " - skipping " + type + " export");
+            return 0;
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(idColumn).append(", ").append(jsonColumn)
+            .append(", ").append(nameColumn != null ? nameColumn : idColumn)
+            .append(", ").append(tableColumn != null ? tableColumn : idColumn)
+            .append(" FROM ").append(table)
+            .append(" WHERE ").append(appIdColumn).append(" = ? AND ").append(versionColumn).append(" = ?");
+        if (typeColumn != null) {
+            sql.append(" AND ").append(typeColumn).append(" = ?");
+        }
+        sql.append(" ORDER BY ").append(idColumn);
+
+        int count = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                                                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            stmt.setString(1, appDef.getAppId());
+            stmt.setString(2, appDef.getVersion().toString());
+            if (typeColumn != null) {
+                stmt.setString(3, ApiConstants.BuilderTypes.API);
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.write(type, rs.getString(1), nameColumn != null ? rs.getString(3) : null,
+                               tableColumn != null ? rs.getString(4) : null, rs.getString(2));
+                    if (++count % ApiConstants.Transfer.FLUSH_EVERY_RECORDS == 0) {
+                        sink.flush();
+                    }
+                }
+            }
+        }
+        sink.flush();
+
+        LogUtil.debug(CLASS_NAME, "Exported " + count + " " + type + " definition(s) from " + table);
+        return count;
+    }
+
+    private static String findTable(DatabaseMetaData metaData, String tableName) throws SQLException {
+        for (String name : new String[]{tableName, tableName.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return tables.getString("TABLE_NAME");
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isMySql(DatabaseMetaData metaData) throws SQLException {
+        String product = String.valueOf(metaData.getDatabaseProductName()).toLowerCase();
+        // MySQL Connector/J streams row by row only with this fetch size
+        return product.contains("mysql") || product.contains("mariadb");
+    }
+
+    /**
+     * Directory of a record type inside a zip export (mirrors the app_src layout)
+     */
+    private static String zipDirectory(String type) {
+        switch (type) {
+            case ApiConstants.BuilderTypes.FORM:
+                return ApiConstants.Paths.FORMS_DIR.substring(1);
+            case ApiConstants.BuilderTypes.DATALIST:
+                return ApiConstants.Paths.LISTS_DIR.substring(1);
+            case ApiConstants.BuilderTypes.API:
+                return (ApiConstants.Paths.BUILDER_DIR + ApiConstants.Paths.API_DIR).substring(1);
+            default:
+                return ApiConstants.Paths.USERVIEW_DIR.substring(1);
+        }
+    }
+
+    private static JSONObject manifest(AppDefinition appDef) {
+        JSONObject manifest = new JSONObject();
+        manifest.put(ApiConstants.Transfer.RECORD_TYPE, ApiConstants.Transfer.TYPE_MANIFEST);
+        manifest.put(ApiConstants.Transfer.RECORD_FORMAT_VERSION, ApiConstants.Transfer.FORMAT_VERSION);
+        manifest.put(ApiConstants.ResponseFields.APP_ID, appDef.getAppId());
+        manifest.put(ApiConstants.ResponseFields.APP_VERSION, String.valueOf(appDef.getVersion()));
+        manifest.put(ApiConstants.Transfer.RECORD_EXPORTED_AT, Instant.now().toString());
+        return manifest;
+    }
+
+    private static JSONObject record(String type, String id, String name, String tableName) {
+        JSONObject record = new JSONObject();
+        record.put(ApiConstants.Transfer.RECORD_TYPE, type);
+        record.put(ApiConstants.Transfer.RECORD_ID, id);
+        if (name != null) {
+            record.put(ApiConstants.Transfer.RECORD_NAME, name);
+        }
+        if (tableName != null) {
+            record.put(ApiConstants.Transfer.RECORD_TABLE_NAME, tableName);
+        }
+        return record;
+    }
+
+    /**
+     * Output format of an export
+     */
+    private interface ExportSink {
+        void begin(AppDefinition appDef) throws IOException;
+
+        void write(String type, String id, String name, String tableName, String json) throws IOException;
+
+        void flush() throws IOException;
+
+        void finish(int count) throws IOException;
+    }
+
+    /**
+     * One JSON record per line: manifest, definitions, end
+     */
+    private static final class NdjsonSink implements ExportSink {
+        private final Writer writer;
+
+        private NdjsonSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void begin(AppDefinition appDef) throws IOException {
+            writeLine(manifest(appDef));
+        }
+
+        @Override
+        public void write(String type, String id, String name, String tableName, String json) throws IOException {
+            JSONObject record = record(type, id, name, tableName);
+            record.put(ApiConstants.Transfer.RECORD_JSON, json != null ? json : "");
+            writeLine(record);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish(int count) throws IOException {
+            JSONObject end = new JSONObject();
+            end.put(ApiConstants.Transfer.RECORD_TYPE, ApiConstants.Transfer.TYPE_END);
+            end.put(ApiConstants.Transfer.RECORD_COUNT, count);
+            writeLine(end);
+            writer.flush();
+        }
+
+        private void writeLine(JSONObject record) throws IOException {
+            writer.write(record.toString());
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * One entry per definition in the app_src layout, plus a manifest listing them
+     */
+    private static final class ZipSink implements ExportSink {
+        private final ZipOutputStream zip;
+        private final JSONArray entries = new JSONArray();
+        private JSONObject manifest;
+
+        private ZipSink(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void begin(AppDefinition appDef) {
+            manifest = manifest(appDef);
+        }
+
+        @Override
+        public void write(String type, String id, String name, String tableName, String json) throws IOException {
+            String path = zipDirectory(type) + "/" + id.replaceAll("[^A-Za-z0-9_.-]", "_") +
+                          ApiConstants.Paths.JSON_EXTENSION;
+            zip.putNextEntry(new ZipEntry(path));
+            zip.write((json != null ? json : "").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            // Only metadata is kept for the manifest, never the definitions
+            entries.put(record(type, id, name, tableName).put(ApiConstants.Transfer.RECORD_PATH, path));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            zip.flush();
+        }
+
+        @Override
+        public void finish(int count) throws IOException {
+            manifest.put(ApiConstants.Transfer.RECORD_COUNT, count);
+            manifest.put(ApiConstants.Transfer.RECORD_ENTRIES, entries);
+            zip.putNextEntry(new ZipEntry(ApiConstants.Transfer.MANIFEST_ENTRY));
+            zip.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package global.govstack.formcreator.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.PayloadTooLargeException;
+import global.govstack.formcreator.model.FormCreationRequest;
+import global.govstack.formcreator.util.MetricsUtil;
+import global.govstack.formcreator.util.RequestParserUtil;
+import org.joget.commons.util.LogUtil;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports a stream of form creation records in fixed-size batches.
+ *
+ * The input is NDJSON (a JSON array is accepted too) of FormCreationRequest-shaped records, or the
+ * output of the export endpoint, whose form records are mapped onto requests (its datalist, API and
+ * userview records are reported as skipped: use createCrud/createApiEndpoint to regenerate them).
+ * A streaming parser reads one record at a time; only the current batch is held in memory. Each
+ * record is held to the payload limits (size, depth, elements, string length) before it is built
+ * into a tree, and a record over a limit is reported as failed and skipped. Each batch runs through
+ * FormCreationService's import pipeline, and one result line per record plus a progress line per
+ * batch are written and flushed as the import goes, ending with a summary line.
+ */
+public class BulkImportService {
+
+    private static final String CLASS_NAME = BulkImportService.class.getName();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final FormCreationService formCreationService;
+    private final PayloadPreScanner payloadPreScanner;
+    private final int batchSize;
+
+    public BulkImportService(FormCreationService formCreationService, PayloadPreScanner payloadPreScanner) {
+        this(formCreationService, payloadPreScanner, ApiConstants.Transfer.IMPORT_BATCH_SIZE);
+    }
+
+    /**
+     * @param formCreationService Runs the import pipeline of each batch
+     * @param payloadPreScanner Applies the payload limits to each record
+     * @param batchSize Records per batch
+     */
+    public BulkImportService(FormCreationService formCreationService, PayloadPreScanner payloadPreScanner, int batchSize) {
+        this.formCreationService = formCreationService;
+        this.payloadPreScanner = payloadPreScanner;
+        this.batchSize = batchSize > 0 ? batchSize : ApiConstants.Transfer.IMPORT_BATCH_SIZE;
+    }
+
+    /**
+     * Import a record stream, writing NDJSON results as each batch completes
+     *
+     * @param appId Target application ID for records without targetAppId (optional)
+     * @param appVersion Target application version for records without targetAppVersion (optional)
+     * @param in The request body
+     * @param out The response stream (not closed)
+     * @return The summary record (also written as the last line)
+     * @throws IOException if the output cannot be written
+     */
+    public JSONObject importStream(String appId, String appVersion, InputStream in, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ImportProgress progress = new ImportProgress();
+
+        List<FormCreationRequest> batch = new ArrayList<>(batchSize);
+        List<Integer> positions = new ArrayList<>(batchSize);
+        String failure = null;
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.START_ARRAY || token == JsonToken.END_ARRAY) {
+                    continue;
+                }
+
+                int position = ++progress.records;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    writeResult(writer, position, null, error(ApiConstants.ErrorTypes.INVALID_JSON, "Record is not a JSON object"), progress);
+                    continue;
+                }
+
+                FormCreationRequest request;
+                try {
+                    TokenBuffer record = payloadPreScanner.scanRecord(parser);
+                    request = toRequest(MAPPER.readTree(record.asParser()), position, writer, progress);
+                } catch (JsonProcessingException e) {
+                    throw e;
+                } catch (PayloadTooLargeException e) {
+                    writeResult(writer, position, null, error(e.getErrorType(), e.getMessage()), progress);
+                    continue;
+                } catch (RuntimeException e) {
+                    writeResult(writer, position, null, error(ApiConstants.ErrorTypes.VALIDATION_ERROR, e.getMessage()), progress);
+                    continue;
+                }
+                if (request == null) {
+                    continue;
+                }
+
+                batch.add(request);
+                positions.add(position);
+                if (batch.size() == batchSize) {
+                    runBatch(appId, appVersion, batch, positions, writer, progress);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // The stream cannot be resynchronized after malformed JSON
+            failure = "Malformed JSON after record " + progress.records + ": " + e.getOriginalMessage();
+            LogUtil.warn(CLASS_NAME, failure);
+        }
+
+        if (!batch.isEmpty()) {
+            runBatch(appId, appVersion, batch, positions, writer, progress);
+        }
+
+        JSONObject summary = progress.toJSON(ApiConstants.Transfer.TYPE_SUMMARY);
+        if (failure != null) {
+            summary.put(ApiConstants.ResponseFields.ERROR_MESSAGE, failure);
+        }
+        writeLine(writer, summary);
+        writer.flush();
+
+        LogUtil.info(CLASS_NAME, "Import finished: " + summary);
+        return summary;
+    }
+
+    /**
+     * Map a parsed record onto a request
+     *
+     * @return The request, or null if the record was consumed without one (export manifest/end,
+     *         non-form export records)
+     */
+    private FormCreationRequest toRequest(JsonNode node, int position, Writer writer, ImportProgress progress)
+            throws IOException {
+        JsonNode type = node.get(ApiConstants.Transfer.RECORD_TYPE);
+        if (type == null || !type.isTextual()) {
+            return RequestParserUtil.parseJsonRequest(node.toString());
+        }
+
+        String recordType = type.asText();
+        if (ApiConstants.Transfer.TYPE_MANIFEST.equals(recordType) || ApiConstants.Transfer.TYPE_END.equals(recordType)) {
+            progress.records--;
+            return null;
+        }
+        if (!ApiConstants.BuilderTypes.FORM.equals(recordType)) {
+            progress.skipped++;
+            JSONObject skipped = new JSONObject();
+            skipped.put(ApiConstants.ResponseFields.STATUS, ApiConstants.Transfer.STATUS_SKIPPED);
+            skipped.put(ApiConstants.ResponseFields.MESSAGE, "Exported " + recordType + " records are not imported; " +
+                        "request createCrud/createApiEndpoint on the form instead");
+            writeResult(writer, position, node.path(ApiConstants.Transfer.RECORD_ID).asText(null), skipped, null);
+            return null;
+        }
+
+        // Export form record: {type, id, name, tableName, json}
+        ObjectNode request = MAPPER.createObjectNode();
+        request.set(ApiConstants.RequestFields.FORM_ID, node.get(ApiConstants.Transfer.RECORD_ID));
+        request.set(ApiConstants.RequestFields.FORM_NAME, node.get(ApiConstants.Transfer.RECORD_NAME));
+        request.set(ApiConstants.RequestFields.TABLE_NAME, node.get(ApiConstants.Transfer.RECORD_TABLE_NAME));
+        request.set(ApiConstants.RequestFields.FORM_DEFINITION, node.get(ApiConstants.Transfer.RECORD_JSON));
+        return RequestParserUtil.parseJsonRequest(request.toString());
+    }
+
+    /**
+     * Run a batch through the import pipeline and write its results and a progress line
+     */
+    private void runBatch(String appId, String appVersion, List<FormCreationRequest> batch, List<Integer> positions,
+                          Writer writer, ImportProgress progress) throws IOException {
+        List<JSONObject> results;
+        try {
+            results = formCreationService.processImportBatch(appId, appVersion, batch);
+        } catch (RuntimeException e) {
+            LogUtil.error(CLASS_NAME, e, "Import batch failed");
+            results = new ArrayList<>();
+            for (int i = 0; i < batch.size(); i++) {
+                results.add(error(ApiConstants.ErrorTypes.FORM_CREATION_ERROR, e.getMessage()));
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            writeResult(writer, positions.get(i), batch.get(i).getFormId(), results.get(i), progress);
+        }
+        progress.batches++;
+        writeLine(writer, progress.toJSON(ApiConstants.Transfer.TYPE_PROGRESS));
+        writer.flush();
+
+        batch.clear();
+        positions.clear();
+    }
+
+    /**
+     * Write one record's result (counted as succeeded or failed unless progress is null)
+     */
+    private void writeResult(Writer writer, int position, String formId, JSONObject result, ImportProgress progress)
+            throws IOException {
+        JSONObject line = new JSONObject();
+        line.put(ApiConstants.Transfer.RECORD_TYPE, ApiConstants.Transfer.TYPE_RESULT);
+        line.put(ApiConstants.Transfer.RECORD_INDEX, position);
+        if (formId != null && !result.has(ApiConstants.ResponseFields.FORM_ID)) {
+            line.put(ApiConstants.ResponseFields.FORM_ID, formId);
+        }
+        for (String key : result.keySet()) {
+            line.put(key, result.get(key));
+        }
+        writeLine(writer, line);
+
+        if (progress != null) {
+            boolean success = ApiConstants.StatusValues.SUCCESS.equals(result.optString(ApiConstants.ResponseFields.STATUS));
+            if (success) {
+                progress.succeeded++;
+                MetricsUtil.increment(ApiConstants.Metrics.IMPORT_RECORDS);
+            } else {
+                progress.failed++;
+                MetricsUtil.increment(ApiConstants.Metrics.IMPORT_FAILED);
+            }
+        }
+    }
+
+    private static void writeLine(Writer writer, JSONObject line) throws IOException {
+        writer.write(line.toString());
+        writer.write('\n');
+    }
+
+    private static JSONObject error(String errorType, String message) {
+        JSONObject error = new JSONObject();
+        error.put(ApiConstants.ResponseFields.STATUS, ApiConstants.StatusValues.ERROR);
+        error.put(ApiConstants.ResponseFields.ERROR_TYPE, errorType);
+        error.put(ApiConstants.ResponseFields.ERROR_MESSAGE, message);
+        return error;
+    }
+
+    /**
+     * Running counts of an import
+     */
+    private static final class ImportProgress {
+        private int records;
+        private int succeeded;
+        private int failed;
+        private int skipped;
+        private int batches;
+
+        private JSONObject toJSON(String type) {
+            JSONObject json = new JSONObject();
+            json.put(ApiConstants.Transfer.RECORD_TYPE, type);
+            json.put(ApiConstants.Transfer.RECORDS, records);
+            json.put(ApiConstants.Transfer.SUCCEEDED, succeeded);
+            json.put(ApiConstants.Transfer.FAILED, failed);
+            json.put(ApiConstants.Transfer.SKIPPED, skipped);
+            json.put(ApiConstants.Transfer.BATCHES, batches);
+            return json;
+        }
+    }
+}
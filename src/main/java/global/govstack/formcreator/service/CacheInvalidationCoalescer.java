@@ -0,0 +1,241 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.InvalidationEvent;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.apps.app.service.AppService;
+import org.joget.commons.util.LogUtil;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces the cache invalidations of concurrent form writes into one invalidation per app version.
+ *
+ * Each writer registers its invalidation intent after its JDBC commit and blocks until an
+ * invalidation covering that intent has completed, so the form is always visible before the
+ * writer's response returns. The first writer of a batch leads: it waits a short window for other
+ * writers of the same app to join, waits for any running invalidation of the app to finish (new
+ * writers keep joining meanwhile), then runs FormCacheInvalidator once for every form in the batch
+ * and broadcasts the batch to the other nodes through the InvalidationBus.
+ *
+ * A thread that writes many forms in a row (e.g. an import) can defer its intents with
+ * {@link #defer(AppService, AppDefinition)}; they are flushed as one batch when the deferral is closed.
+ * Cosmetic (JSON-only) updates bypass batching through
+ * {@link #invalidateDefinition(AppService, AppDefinition, String)}, which evicts only that form.
+ */
+public class CacheInvalidationCoalescer {
+
+    private static final String CLASS_NAME = CacheInvalidationCoalescer.class.getName();
+
+    private final FormCacheInvalidator invalidator;
+    private final InvalidationBus invalidationBus;
+    private final long windowMillis;
+    private final ConcurrentHashMap<String, AppQueue> queues = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deferral> deferral = new ThreadLocal<>();
+
+    /**
+     * Forms waiting for one consolidated invalidation
+     */
+    private static final class Batch {
+        private final AppService appService;
+        private final AppDefinition appDef;
+        private final Set<String> formIds = new LinkedHashSet<>();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private Batch(AppService appService, AppDefinition appDef) {
+            this.appService = appService;
+            this.appDef = appDef;
+        }
+    }
+
+    /**
+     * Open batch and flush lock of one app version
+     */
+    private static final class AppQueue {
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private Batch open;
+    }
+
+    /**
+     * Deferred intents of the current thread, flushed as one batch on close
+     */
+    public final class Deferral implements AutoCloseable {
+        private final AppService appService;
+        private final AppDefinition appDef;
+        private final String key;
+        private final Deferral previous;
+        private final Set<String> formIds = new LinkedHashSet<>();
+
+        private Deferral(AppService appService, AppDefinition appDef, Deferral previous) {
+            this.appService = appService;
+            this.appDef = appDef;
+            this.key = key(appDef);
+            this.previous = previous;
+        }
+
+        /**
+         * Flush the deferred intents and wait until they are visible
+         */
+        @Override
+        public void close() {
+            deferral.set(previous);
+            if (previous != null && previous.key.equals(key)) {
+                previous.formIds.addAll(formIds);
+            } else if (!formIds.isEmpty()) {
+                invalidate(appService, appDef, formIds);
+            }
+        }
+    }
+
+    public CacheInvalidationCoalescer(FormCacheInvalidator invalidator, InvalidationBus invalidationBus) {
+        this(invalidator, invalidationBus, ApiConstants.Defaults.INVALIDATION_WINDOW_MS);
+    }
+
+    /**
+     * @param invalidator Performs the actual cache clearing
+     * @param invalidationBus Broadcasts the flushed forms to the other nodes
+     * @param windowMillis How long a batch leader waits for other writers to join
+     */
+    public CacheInvalidationCoalescer(FormCacheInvalidator invalidator, InvalidationBus invalidationBus, long windowMillis) {
+        this.invalidator = invalidator;
+        this.invalidationBus = invalidationBus;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Invalidate the caches for a form and wait until the invalidation has run
+     *
+     * @param appService The application service
+     * @param appDef The application definition of the form
+     * @param formId The form written (and committed) by the caller
+     */
+    public void invalidate(AppService appService, AppDefinition appDef, String formId) {
+        invalidate(appService, appDef, Collections.singleton(formId));
+    }
+
+    /**
+     * Invalidate the caches for several forms of one app version and wait until the invalidation has run.
+     * Inside a deferral for the same app version the intents are only recorded.
+     *
+     * @param appService The application service
+     * @param appDef The application definition of the forms
+     * @param formIds The forms written (and committed) by the caller
+     */
+    public void invalidate(AppService appService, AppDefinition appDef, Collection<String> formIds) {
+        String key = key(appDef);
+        MetricsUtil.add(ApiConstants.Metrics.CACHE_INVALIDATION_INTENTS, formIds.size());
+
+        Deferral current = deferral.get();
+        if (current != null && current.key.equals(key)) {
+            current.formIds.addAll(formIds);
+            return;
+        }
+
+        AppQueue queue = queues.computeIfAbsent(key, k -> new AppQueue());
+        Batch batch;
+        boolean leader = false;
+        synchronized (queue) {
+            if (queue.open == null) {
+                queue.open = new Batch(appService, appDef);
+                leader = true;
+            }
+            batch = queue.open;
+            batch.formIds.addAll(formIds);
+        }
+
+        if (leader) {
+            flush(queue, batch);
+        } else {
+            batch.done.join();
+        }
+    }
+
+    /**
+     * Evict one form's cached definition after a cosmetic (JSON-only) update and broadcast it.
+     * Runs immediately and outside any batch: it touches nothing app-wide.
+     *
+     * @param appService The application service
+     * @param appDef The application definition of the form
+     * @param formId The form updated (and committed) by the caller
+     */
+    public void invalidateDefinition(AppService appService, AppDefinition appDef, String formId) {
+        MetricsUtil.increment(ApiConstants.Metrics.CACHE_INVALIDATION_INTENTS);
+        try {
+            invalidator.invalidateDefinition(appService, appDef, formId);
+        } catch (RuntimeException e) {
+            LogUtil.error(CLASS_NAME, e, "Cache eviction failed for " + formId + ": " + e.getMessage());
+        }
+        invalidationBus.publish(appDef, InvalidationEvent.ArtifactType.FORM, Collections.singleton(formId));
+    }
+
+    /**
+     * Defer the current thread's invalidations of an app version until the returned deferral is closed
+     *
+     * @param appService The application service
+     * @param appDef The application definition
+     * @return Deferral to close (try-with-resources) once the writes are done
+     */
+    public Deferral defer(AppService appService, AppDefinition appDef) {
+        Deferral created = new Deferral(appService, appDef, deferral.get());
+        deferral.set(created);
+        return created;
+    }
+
+    /**
+     * Check whether the current thread defers its invalidations of an app version
+     *
+     * @param appDef The application definition
+     * @return true inside a deferral for that app version
+     */
+    public boolean isDeferred(AppDefinition appDef) {
+        Deferral current = deferral.get();
+        return current != null && current.key.equals(key(appDef));
+    }
+
+    /**
+     * Run the batch as its leader: collect joiners, then invalidate once for all of them
+     */
+    private void flush(AppQueue queue, Batch batch) {
+        if (windowMillis > 0) {
+            try {
+                Thread.sleep(windowMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        queue.flushLock.lock();
+        try {
+            Set<String> formIds;
+            synchronized (queue) {
+                if (queue.open == batch) {
+                    queue.open = null;
+                }
+                formIds = new LinkedHashSet<>(batch.formIds);
+            }
+
+            MetricsUtil.increment(ApiConstants.Metrics.CACHE_INVALIDATION_FLUSHES);
+            if (formIds.size() > 1) {
+                LogUtil.info(CLASS_NAME, "Coalesced " + formIds.size() + " cache invalidations for " + key(batch.appDef));
+            }
+            invalidator.invalidate(batch.appService, batch.appDef, formIds);
+            invalidationBus.publish(batch.appDef, InvalidationEvent.ArtifactType.FORM, formIds);
+        } catch (RuntimeException e) {
+            LogUtil.error(CLASS_NAME, e, "Cache invalidation failed: " + e.getMessage());
+        } finally {
+            queue.flushLock.unlock();
+            batch.done.complete(null);
+        }
+    }
+
+    private static String key(AppDefinition appDef) {
+        return appDef.getAppId() + ":" + appDef.getVersion();
+    }
+}
@@ -2,6 +2,8 @@ package global.govstack.formcreator.service;
 
 import global.govstack.formcreator.constants.ApiConstants;
 import global.govstack.formcreator.model.CrudCreationResult;
+import global.govstack.formcreator.model.DatalistSpec;
+import global.govstack.formcreator.model.FormElementIndex;
 import org.joget.apps.app.model.AppDefinition;
 import org.joget.commons.util.LogUtil;
 
@@ -33,10 +35,12 @@ public class CrudService {
      * @param formId The form ID
      * @param formName The display name for the form
      * @param appDef The application definition
-     * @param formJson The form JSON definition (used to extract columns for datalist)
+     * @param formIndex The form's element index (used to build the datalist)
+     * @param datalistSpec Optional datalist spec from the request (null for defaults)
      * @return CrudCreationResult indicating success or failure with IDs
      */
-    public CrudCreationResult createCrud(String formId, String formName, AppDefinition appDef, String formJson) {
+    public CrudCreationResult createCrud(String formId, String formName, AppDefinition appDef,
+                                         FormElementIndex formIndex, DatalistSpec datalistSpec) {
         try {
             LogUtil.info(CLASS_NAME, "Creating CRUD for form: " + formId);
 
@@ -47,7 +51,7 @@ public class CrudService {
             // Step 1: Create datalist
             try {
                 String datalistName = "List: " + formName;
-                datalistService.createDatalist(formId, datalistName, appDef, formJson);
+                datalistService.createDatalist(formId, datalistName, appDef, formIndex, datalistSpec);
                 LogUtil.info(CLASS_NAME, "Datalist created: " + datalistId);
             } catch (Exception e) {
                 LogUtil.error(CLASS_NAME, e, "Failed to create datalist: " + e.getMessage());
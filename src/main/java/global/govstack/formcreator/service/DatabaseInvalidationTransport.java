@@ -0,0 +1,256 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.InvalidationEvent;
+import global.govstack.formcreator.util.JogetBeanRegistry;
+import org.joget.commons.util.LogUtil;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Invalidation transport over a table in the Joget database, so a cluster needs no extra services.
+ *
+ * Each node inserts its events into formcreator_invalidation and polls the table for rows written
+ * by other nodes. Polls re-read a look-back window behind the newest row seen, which covers
+ * transactions committed late and small clock differences between nodes; rows already applied are
+ * recognized by event ID. Rows older than the retention period are purged by whichever node polls.
+ */
+public class DatabaseInvalidationTransport implements InvalidationTransport {
+
+    private static final String CLASS_NAME = DatabaseInvalidationTransport.class.getName();
+
+    private static final String TABLE = ApiConstants.Invalidation.TABLE_NAME;
+
+    private static final String INSERT_SQL = "INSERT INTO " + TABLE +
+        " (event_id, node_id, created_at, app_id, app_version, artifact_id, artifact_type) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String POLL_SQL = "SELECT event_id, node_id, created_at, app_id, app_version, artifact_id, artifact_type" +
+        " FROM " + TABLE + " WHERE created_at > ? AND node_id <> ? ORDER BY created_at";
+
+    private static final String PURGE_SQL = "DELETE FROM " + TABLE + " WHERE created_at < ?";
+
+    // Purge old rows every this many polls
+    private static final int PURGE_EVERY_POLLS = 100;
+
+    private final long pollIntervalMillis;
+
+    private final Map<String, Long> seenEvents = new LinkedHashMap<>();
+    private ScheduledExecutorService poller;
+    private volatile boolean tableReady;
+    private String nodeId;
+    private Consumer<InvalidationEvent> listener;
+    private long highWaterMark;
+    private int pollCount;
+    private boolean failing;
+
+    public DatabaseInvalidationTransport() {
+        this(ApiConstants.Invalidation.DEFAULT_POLL_INTERVAL_MS);
+    }
+
+    /**
+     * @param pollIntervalMillis Delay between polls
+     */
+    public DatabaseInvalidationTransport(long pollIntervalMillis) {
+        this.pollIntervalMillis = pollIntervalMillis > 0 ? pollIntervalMillis : ApiConstants.Invalidation.DEFAULT_POLL_INTERVAL_MS;
+    }
+
+    @Override
+    public synchronized void start(String nodeId, Consumer<InvalidationEvent> listener) {
+        this.nodeId = nodeId;
+        this.listener = listener;
+        // Caches are empty at start, so only changes from now on matter
+        this.highWaterMark = System.currentTimeMillis();
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "formcreator-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollSafely, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        LogUtil.info(CLASS_NAME, "Polling " + TABLE + " every " + pollIntervalMillis + " ms (node " + nodeId + ")");
+    }
+
+    @Override
+    public void publish(List<InvalidationEvent> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        try (Connection conn = openConnection()) {
+            ensureTable(conn);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+                for (InvalidationEvent event : events) {
+                    stmt.setString(1, event.getEventId());
+                    stmt.setString(2, event.getOriginNodeId());
+                    stmt.setLong(3, event.getTimestamp());
+                    stmt.setString(4, event.getAppId());
+                    stmt.setString(5, event.getAppVersion());
+                    stmt.setString(6, event.getArtifactId());
+                    stmt.setString(7, event.getArtifactType().name());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+        seenEvents.clear();
+    }
+
+    /**
+     * Poll once, logging (not propagating) failures so the schedule keeps running
+     */
+    private synchronized void pollSafely() {
+        try {
+            poll();
+            if (failing) {
+                LogUtil.info(CLASS_NAME, "Invalidation polling recovered");
+                failing = false;
+            }
+        } catch (Exception e) {
+            if (!failing) {
+                LogUtil.warn(CLASS_NAME, "Invalidation polling failed (will retry): " + e.getMessage());
+                failing = true;
+            }
+        }
+    }
+
+    private void poll() throws SQLException {
+        try (Connection conn = openConnection()) {
+            ensureTable(conn);
+
+            long since = highWaterMark - ApiConstants.Invalidation.LOOKBACK_MS;
+            try (PreparedStatement stmt = conn.prepareStatement(POLL_SQL)) {
+                stmt.setLong(1, since);
+                stmt.setString(2, nodeId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        String eventId = rs.getString(1);
+                        long createdAt = rs.getLong(3);
+                        highWaterMark = Math.max(highWaterMark, createdAt);
+                        if (seenEvents.put(eventId, createdAt) != null) {
+                            continue;
+                        }
+                        listener.accept(new InvalidationEvent(
+                            eventId,
+                            rs.getString(2),
+                            createdAt,
+                            rs.getString(4),
+                            rs.getString(5),
+                            rs.getString(6),
+                            InvalidationEvent.ArtifactType.valueOf(rs.getString(7))
+                        ));
+                    }
+                }
+            }
+            forgetEventsBefore(highWaterMark - ApiConstants.Invalidation.LOOKBACK_MS);
+
+            if (++pollCount % PURGE_EVERY_POLLS == 0) {
+                try (PreparedStatement purge = conn.prepareStatement(PURGE_SQL)) {
+                    purge.setLong(1, System.currentTimeMillis() - ApiConstants.Invalidation.RETENTION_MS);
+                    int purged = purge.executeUpdate();
+                    if (!conn.getAutoCommit()) {
+                        conn.commit();
+                    }
+                    if (purged > 0) {
+                        LogUtil.debug(CLASS_NAME, "Purged " + purged + " expired invalidation events");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop remembered event IDs that can no longer be returned by a poll
+     */
+    private void forgetEventsBefore(long cutoff) {
+        Iterator<Long> createdAt = seenEvents.values().iterator();
+        while (createdAt.hasNext()) {
+            if (createdAt.next() < cutoff) {
+                createdAt.remove();
+            }
+        }
+    }
+
+    /**
+     * Open a connection to the Joget database
+     */
+    private Connection openConnection() throws SQLException {
+        Object dataSource = JogetBeanRegistry.getDataSource();
+        if (!(dataSource instanceof DataSource)) {
+            throw new SQLException("No DataSource available");
+        }
+        return ((DataSource) dataSource).getConnection();
+    }
+
+    /**
+     * Create the event table on first use (any node may do it; a concurrent creation is tolerated)
+     */
+    private void ensureTable(Connection conn) throws SQLException {
+        if (tableReady) {
+            return;
+        }
+
+        DatabaseMetaData metaData = conn.getMetaData();
+        if (!tableExists(metaData)) {
+            boolean oracle = String.valueOf(metaData.getDatabaseProductName()).toLowerCase().contains("oracle");
+            String varchar = oracle ? "VARCHAR2" : "VARCHAR";
+            String bigint = oracle ? "NUMBER(19)" : "BIGINT";
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE " + TABLE + " (" +
+                    "event_id " + varchar + "(64) NOT NULL PRIMARY KEY, " +
+                    "node_id " + varchar + "(128) NOT NULL, " +
+                    "created_at " + bigint + " NOT NULL, " +
+                    "app_id " + varchar + "(255), " +
+                    "app_version " + varchar + "(32), " +
+                    "artifact_id " + varchar + "(255), " +
+                    "artifact_type " + varchar + "(16) NOT NULL)");
+                stmt.execute("CREATE INDEX " + TABLE + "_created ON " + TABLE + " (created_at)");
+                if (!conn.getAutoCommit()) {
+                    conn.commit();
+                }
+                LogUtil.info(CLASS_NAME, "Created invalidation event table " + TABLE);
+            } catch (SQLException e) {
+                if (!tableExists(metaData)) {
+                    throw e;
+                }
+                // Another node created it first
+            }
+        }
+        tableReady = true;
+    }
+
+    private boolean tableExists(DatabaseMetaData metaData) throws SQLException {
+        for (String name : new String[]{TABLE, TABLE.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(null, null, name, new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,14 +1,14 @@
 package global.govstack.formcreator.service;
 
 import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.DatalistSpec;
+import global.govstack.formcreator.model.FormElementIndex;
+import global.govstack.formcreator.util.JogetBeanRegistry;
 import org.joget.apps.app.model.AppDefinition;
 import org.joget.apps.app.model.DatalistDefinition;
 import org.joget.apps.app.dao.DatalistDefinitionDao;
-import org.joget.apps.app.service.AppUtil;
 import org.joget.commons.util.LogUtil;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.util.Date;
 
 /**
@@ -19,14 +19,17 @@ public class DatalistService {
 
     private static final String CLASS_NAME = DatalistService.class.getName();
     private final JsonProcessingService jsonProcessingService;
+    private final DefinitionFileWriter definitionFileWriter;
 
     /**
-     * Constructor with JsonProcessingService dependency injection
+     * Constructor with service dependencies
      *
      * @param jsonProcessingService Service for JSON generation and processing
+     * @param definitionFileWriter Service for content-addressed definition file writes
      */
-    public DatalistService(JsonProcessingService jsonProcessingService) {
+    public DatalistService(JsonProcessingService jsonProcessingService, DefinitionFileWriter definitionFileWriter) {
         this.jsonProcessingService = jsonProcessingService;
+        this.definitionFileWriter = definitionFileWriter;
     }
 
     /**
@@ -36,9 +39,11 @@ public class DatalistService {
      * @param formId The form ID to create the datalist for
      * @param datalistName The display name for the datalist
      * @param appDef The application definition containing the target app
-     * @param formJson The form JSON definition (used to extract columns)
+     * @param formIndex The form's element index (used to resolve columns, sort and filters)
+     * @param spec Optional datalist spec from the request (null for defaults)
      */
-    public void createDatalist(String formId, String datalistName, AppDefinition appDef, String formJson) {
+    public void createDatalist(String formId, String datalistName, AppDefinition appDef,
+                               FormElementIndex formIndex, DatalistSpec spec) {
         try {
             LogUtil.info(CLASS_NAME, "Creating datalist for form: " + formId);
 
@@ -46,35 +51,20 @@ public class DatalistService {
             String datalistId = ApiConstants.IdPrefixes.LIST + formId;
 
             // Generate datalist definition JSON
-            String datalistJson = jsonProcessingService.generateDatalistDefinitionJson(formId, datalistName, datalistId, formJson);
+            String datalistJson = jsonProcessingService.generateDatalistDefinitionJson(formId, datalistName, datalistId, formIndex, spec);
 
             if (datalistJson == null) {
                 LogUtil.warn(CLASS_NAME, "Failed to generate datalist JSON");
                 return;
             }
 
-            // Step 1: Write datalist definition file to file system
-            String jogetDir = System.getProperty("user.dir");
-            String datalistDir = jogetDir + ApiConstants.Paths.APP_SRC + "/" + appDef.getAppId() + "/" +
-                           appDef.getAppId() + "_" + appDef.getVersion() + "/lists";
-
-            // Create directory if it doesn't exist
-            File listDirectory = new File(datalistDir);
-            if (!listDirectory.exists()) {
-                boolean created = listDirectory.mkdirs();
-                LogUtil.info(CLASS_NAME, "Datalist directory created: " + created + " at " + datalistDir);
-            }
-
-            // Write datalist definition file
-            String datalistFilePath = datalistDir + "/" + datalistId + ApiConstants.Paths.JSON_EXTENSION;
-            FileWriter fileWriter = new FileWriter(datalistFilePath);
-            fileWriter.write(datalistJson);
-            fileWriter.close();
-            LogUtil.info(CLASS_NAME, "Datalist file created at: " + datalistFilePath);
+            // Step 1: Write datalist definition file to file system (skipped if unchanged)
+            String datalistFilePath = ApiConstants.Paths.LISTS_DIR + "/" + datalistId + ApiConstants.Paths.JSON_EXTENSION;
+            boolean written = definitionFileWriter.writeIfChanged(appDef, datalistFilePath, datalistJson);
+            LogUtil.info(CLASS_NAME, "Datalist file " + (written ? "written" : "unchanged") + ": " + datalistFilePath);
 
             // Step 2: Save datalist definition to database using DatalistDefinitionDao
-            DatalistDefinitionDao datalistDefDao =
-                (DatalistDefinitionDao) AppUtil.getApplicationContext().getBean(ApiConstants.BeanNames.DATALIST_DEFINITION_DAO);
+            DatalistDefinitionDao datalistDefDao = JogetBeanRegistry.getDatalistDefinitionDao();
 
             if (datalistDefDao != null) {
                 DatalistDefinition datalistDef = new DatalistDefinition();
@@ -0,0 +1,201 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.commons.util.LogUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for writing generated definition files (datalists, userviews, APIs) into app_src.
+ *
+ * Writes are content-addressed: the SHA-256 of each generated definition is recorded in a small
+ * hash index per app version, and a write whose content hash matches the indexed hash is skipped
+ * as long as the file on disk still has that hash (an edit in App Composer or a deleted file is
+ * overwritten). This avoids churning the file system, file watchers and backups when a request
+ * regenerates an unchanged definition.
+ */
+public class DefinitionFileWriter {
+
+    private static final String CLASS_NAME = DefinitionFileWriter.class.getName();
+
+    // Loaded hash indexes, one per app version (shared so concurrent requests see the same index)
+    private static final Map<String, HashIndex> INDEXES = new ConcurrentHashMap<>();
+
+    /**
+     * Get the app_src directory for an application version
+     *
+     * @param appDef The application definition
+     * @return Absolute directory path, without trailing slash
+     */
+    public static String getAppSourceDir(AppDefinition appDef) {
+        String jogetDir = System.getProperty("user.dir");
+        return jogetDir + ApiConstants.Paths.APP_SRC + "/" + appDef.getAppId() + "/" +
+               appDef.getAppId() + "_" + appDef.getVersion();
+    }
+
+    /**
+     * Write a definition file unless an identical definition has already been written.
+     *
+     * @param appDef The application definition owning the file
+     * @param relativePath Path relative to the app version source dir (e.g. "/lists/list_x.json")
+     * @param content The generated definition content
+     * @return true if the file was written, false if the write was skipped as unchanged
+     * @throws IOException if the file or hash index cannot be written
+     */
+    public boolean writeIfChanged(AppDefinition appDef, String relativePath, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(bytes);
+        Path target = Paths.get(getAppSourceDir(appDef) + relativePath);
+        HashIndex index = getIndex(appDef);
+
+        synchronized (index) {
+            if (index.matches(relativePath, hash, bytes.length, target)) {
+                MetricsUtil.increment(ApiConstants.Metrics.DEFINITION_FILES_SKIPPED);
+                LogUtil.info(CLASS_NAME, "Definition unchanged, skipping write: " + target);
+                return false;
+            }
+
+            Path parent = target.getParent();
+            if (parent != null && !Files.exists(parent)) {
+                Files.createDirectories(parent);
+                LogUtil.info(CLASS_NAME, "Definition directory created at: " + parent);
+            }
+
+            Files.write(target, bytes);
+            index.record(relativePath, hash, bytes.length);
+            index.save();
+        }
+
+        MetricsUtil.increment(ApiConstants.Metrics.DEFINITION_FILES_WRITTEN);
+        LogUtil.info(CLASS_NAME, "Definition file written: " + target);
+        return true;
+    }
+
+    /**
+     * Check whether writeIfChanged would write a definition, without touching the file system
+     *
+     * @param appDef The application definition owning the file
+     * @param relativePath Path relative to the app version source dir
+     * @param content The generated definition content
+     * @return true if the content differs from the last written definition (or the file is missing)
+     */
+    public boolean wouldWrite(AppDefinition appDef, String relativePath, String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(bytes);
+        Path target = Paths.get(getAppSourceDir(appDef) + relativePath);
+        HashIndex index = getIndex(appDef);
+
+        synchronized (index) {
+            return !index.matches(relativePath, hash, bytes.length, target);
+        }
+    }
+
+    /**
+     * Compute the hex SHA-256 digest of a byte array
+     *
+     * @param bytes Content bytes
+     * @return Lowercase hex digest
+     */
+    public static String sha256(byte[] bytes) {
+        try {
+            return toHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Format a digest as lowercase hex
+     *
+     * @param digest Digest bytes
+     * @return Lowercase hex string
+     */
+    public static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hex.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private HashIndex getIndex(AppDefinition appDef) {
+        String key = appDef.getAppId() + "_" + appDef.getVersion();
+        return INDEXES.computeIfAbsent(key, k -> {
+            String jogetDir = System.getProperty("user.dir");
+            Path file = Paths.get(jogetDir + ApiConstants.Paths.HASH_INDEX_DIR + "/" + k +
+                                  ApiConstants.Paths.HASH_INDEX_EXTENSION);
+            return HashIndex.load(file);
+        });
+    }
+
+    /**
+     * Persistent map of relative path to "hash:length" for one app version.
+     * Callers must synchronize on the instance.
+     */
+    private static class HashIndex {
+        private final Path file;
+        private final Properties entries;
+
+        private HashIndex(Path file, Properties entries) {
+            this.file = file;
+            this.entries = entries;
+        }
+
+        static HashIndex load(Path file) {
+            Properties entries = new Properties();
+            if (Files.exists(file)) {
+                try (InputStream in = Files.newInputStream(file)) {
+                    entries.load(in);
+                } catch (IOException e) {
+                    // A corrupt index only costs us redundant writes
+                    LogUtil.warn(CLASS_NAME, "Could not read hash index " + file + ": " + e.getMessage());
+                    entries.clear();
+                }
+            }
+            return new HashIndex(file, entries);
+        }
+
+        boolean matches(String relativePath, String hash, long length, Path target) {
+            String recorded = entries.getProperty(relativePath);
+            if (recorded == null || !recorded.equals(hash + ":" + length)) {
+                return false;
+            }
+            // Guard against the file having been deleted or edited outside the plugin, even to the same length
+            try {
+                return Files.exists(target) && Files.size(target) == length &&
+                       hash.equals(sha256(Files.readAllBytes(target)));
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        void record(String relativePath, String hash, long length) {
+            entries.setProperty(relativePath, hash + ":" + length);
+        }
+
+        void save() throws IOException {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                entries.store(out, "Form Creator definition hash index");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
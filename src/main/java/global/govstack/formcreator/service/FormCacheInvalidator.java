@@ -0,0 +1,252 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.InvalidationEvent;
+import global.govstack.formcreator.util.JogetBeanRegistry;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.apps.app.service.AppService;
+import org.joget.apps.form.dao.FormDataDao;
+import org.joget.apps.form.service.FormService;
+import org.joget.commons.util.LogUtil;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+/**
+ * Clears the platform caches that hold form definitions, so forms written over JDBC become visible
+ * to Joget. One call covers any number of forms of the same app version; the expensive, app- or
+ * node-wide steps (Hibernate L2 eviction, DAO and service cache clears) run once per call, only the
+ * structure refresh runs per form.
+ *
+ * Changes made on other nodes arrive through the InvalidationBus and are applied with
+ * {@link #evict(InvalidationEvent)}, which only evicts what the changed artifact touches.
+ */
+public class FormCacheInvalidator {
+
+    private static final String CLASS_NAME = FormCacheInvalidator.class.getName();
+
+    /**
+     * Invalidate the caches for a set of forms of one app version
+     *
+     * @param appService The application service
+     * @param appDef The application definition the forms belong to
+     * @param formIds IDs of the forms written since the last invalidation
+     */
+    public void invalidate(AppService appService, AppDefinition appDef, Collection<String> formIds) {
+        LogUtil.info(CLASS_NAME, "Invalidating form caches for " + formIds.size() + " form(s) in " +
+                     appDef.getAppId() + " v" + appDef.getVersion() + ": " + formIds);
+
+        evictSecondLevelCache();
+        clearFormDefinitionDaoCache();
+        clearAppServiceCaches(appService, appDef.getAppId(), appDef.getVersion().toString(), false);
+        clearFormServiceCaches();
+
+        for (String formId : formIds) {
+            refreshFormStructure(appService, appDef, formId);
+        }
+
+        LogUtil.info(CLASS_NAME, "Cache synchronization complete - Hibernate will now see JDBC changes");
+    }
+
+    /**
+     * Evict a single form's cached definition after a cosmetic JSON update. The data table and its
+     * column mapping are unchanged, so the app-wide flush and structure refresh are skipped.
+     *
+     * @param appService The application service
+     * @param appDef The application definition the form belongs to
+     * @param formId ID of the updated form
+     */
+    public void invalidateDefinition(AppService appService, AppDefinition appDef, String formId) {
+        LogUtil.info(CLASS_NAME, "Evicting cached definition of form " + formId + " in " +
+                     appDef.getAppId() + " v" + appDef.getVersion());
+
+        // FormDefinition's L2 key is (appId, appVersion, id): an eviction by the bare form ID matches
+        // no entry and does not fail, so the form definition class is evicted as a whole
+        evictSecondLevelCache(appService, ApiConstants.JogetClasses.FORM_DEFINITION);
+        clearAppServiceCaches(appService, appDef.getAppId(), appDef.getVersion().toString(), true);
+    }
+
+    /**
+     * Apply a change made on another node: evict only what the event's artifact touches
+     *
+     * @param event Event received through the InvalidationBus
+     */
+    public void evict(InvalidationEvent event) {
+        LogUtil.debug(CLASS_NAME, "Applying remote invalidation: " + event);
+
+        AppService appService = JogetBeanRegistry.getAppService();
+        if (appService == null) {
+            return;
+        }
+
+        evictSecondLevelCache(appService, entityClassName(event.getArtifactType()));
+        if (event.getArtifactType() == InvalidationEvent.ArtifactType.FORM ||
+            event.getArtifactType() == InvalidationEvent.ArtifactType.APP) {
+            clearAppServiceCaches(appService, event.getAppId(), event.getAppVersion(), true);
+        }
+        if (event.getArtifactType() == InvalidationEvent.ArtifactType.FORM && event.getArtifactId() != null) {
+            clearFormTableCache(event.getArtifactId());
+        }
+    }
+
+    /**
+     * Evict one entity class from the JPA/Hibernate L2 cache
+     */
+    private void evictSecondLevelCache(AppService appService, String entityClassName) {
+        try {
+            Object emFactory = JogetBeanRegistry.getEntityManagerFactory();
+            if (emFactory != null) {
+                Class<?> entityClass = Class.forName(entityClassName, false, appService.getClass().getClassLoader());
+                Object cache = emFactory.getClass().getMethod("getCache").invoke(emFactory);
+                cache.getClass().getMethod("evict", Class.class).invoke(cache, entityClass);
+            }
+        } catch (Exception | LinkageError e) {
+            LogUtil.debug(CLASS_NAME, "L2 eviction of " + entityClassName + " failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drop FormDataDao's cached table mapping of a form
+     */
+    private void clearFormTableCache(String formId) {
+        try {
+            FormDataDao formDataDao = JogetBeanRegistry.getFormDataDao();
+            if (formDataDao != null) {
+                formDataDao.getClass().getMethod("clearFormTableCache", String.class).invoke(formDataDao, formId);
+            }
+        } catch (Exception e) {
+            LogUtil.debug(CLASS_NAME, "Could not clear form table cache for " + formId + ": " + e.getMessage());
+        }
+    }
+
+    private static String entityClassName(InvalidationEvent.ArtifactType artifactType) {
+        switch (artifactType) {
+            case FORM:
+                return ApiConstants.JogetClasses.FORM_DEFINITION;
+            case DATALIST:
+                return ApiConstants.JogetClasses.DATALIST_DEFINITION;
+            case USERVIEW:
+                return ApiConstants.JogetClasses.USERVIEW_DEFINITION;
+            case API:
+                return ApiConstants.JogetClasses.BUILDER_DEFINITION;
+            default:
+                return ApiConstants.JogetClasses.APP_DEFINITION;
+        }
+    }
+
+    /**
+     * Clear the JPA/Hibernate L2 cache (entity-level)
+     */
+    private void evictSecondLevelCache() {
+        try {
+            Object emFactory = JogetBeanRegistry.getEntityManagerFactory();
+            if (emFactory != null) {
+                Object cache = emFactory.getClass().getMethod("getCache").invoke(emFactory);
+                cache.getClass().getMethod("evictAll").invoke(cache);
+                LogUtil.info(CLASS_NAME, "Flushed Hibernate L2 cache after JDBC write");
+            }
+        } catch (Exception cacheEx) {
+            LogUtil.warn(CLASS_NAME, "L2 cache flush failed (continuing anyway): " + cacheEx.getMessage());
+        }
+    }
+
+    /**
+     * Clear the FormDefinitionDao session cache (query-level)
+     */
+    private void clearFormDefinitionDaoCache() {
+        try {
+            Object formDefDao = JogetBeanRegistry.getFormDefinitionDao();
+            if (formDefDao != null) {
+                for (Method method : formDefDao.getClass().getMethods()) {
+                    if ((method.getName().equals("evict") || method.getName().equals("clear")) &&
+                        method.getParameterCount() == 0) {
+                        try {
+                            method.invoke(formDefDao);
+                            LogUtil.info(CLASS_NAME, "Cleared FormDefinitionDao cache via " + method.getName());
+                            break;
+                        } catch (Exception e) {
+                            // Try next method
+                        }
+                    }
+                }
+            }
+        } catch (Exception daoEx) {
+            LogUtil.warn(CLASS_NAME, "FormDefinitionDao cache clear failed (continuing): " + daoEx.getMessage());
+        }
+    }
+
+    /**
+     * Call the AppService cache clear/flush/refresh/reload methods (application-level)
+     *
+     * @param appScopedOnly Skip the no-argument (node-wide) methods
+     */
+    private void clearAppServiceCaches(AppService appService, String appId, String appVersion, boolean appScopedOnly) {
+        try {
+            for (Method method : appService.getClass().getMethods()) {
+                String methodName = method.getName().toLowerCase();
+                if ((methodName.contains("clear") || methodName.contains("flush") ||
+                     methodName.contains("refresh") || methodName.contains("reload")) &&
+                    (methodName.contains("cache") || methodName.contains("form"))) {
+
+                    try {
+                        if (method.getParameterCount() == 0 && !appScopedOnly) {
+                            method.invoke(appService);
+                            LogUtil.info(CLASS_NAME, "Called cache method: " + method.getName());
+                        } else if (method.getParameterCount() == 1) {
+                            method.invoke(appService, appId);
+                            LogUtil.info(CLASS_NAME, "Called cache method with appId: " + method.getName());
+                        } else if (method.getParameterCount() == 2) {
+                            method.invoke(appService, appId, appVersion);
+                            LogUtil.info(CLASS_NAME, "Called cache method with app/version: " + method.getName());
+                        }
+                    } catch (Exception e) {
+                        LogUtil.info(CLASS_NAME, "Cache method failed: " + method.getName() + " - " + e.getMessage());
+                    }
+                }
+            }
+        } catch (Exception cacheEx) {
+            LogUtil.warn(CLASS_NAME, "AppService cache clear failed: " + cacheEx.getMessage());
+        }
+    }
+
+    /**
+     * Call the FormService cache clear/flush/refresh methods
+     */
+    private void clearFormServiceCaches() {
+        try {
+            FormService formService = JogetBeanRegistry.getFormService();
+            if (formService != null) {
+                for (Method method : formService.getClass().getMethods()) {
+                    String methodName = method.getName().toLowerCase();
+                    if ((methodName.contains("clear") || methodName.contains("flush") ||
+                         methodName.contains("refresh")) && methodName.contains("cache") &&
+                        method.getParameterCount() == 0) {
+                        try {
+                            method.invoke(formService);
+                            LogUtil.info(CLASS_NAME, "Called FormService cache method: " + method.getName());
+                        } catch (Exception e) {
+                            LogUtil.info(CLASS_NAME, "FormService cache method failed: " + method.getName());
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            LogUtil.info(CLASS_NAME, "Could not access FormService for cache clearing: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Force a table structure refresh by querying the form
+     */
+    private void refreshFormStructure(AppService appService, AppDefinition appDef, String formId) {
+        try {
+            String tableNameResult = appService.getFormTableName(appDef, formId);
+            LogUtil.info(CLASS_NAME, "Form table name after cache clear: " + tableNameResult);
+
+            appService.loadFormData(appDef.getAppId(), appDef.getVersion().toString(), formId, "");
+            LogUtil.info(CLASS_NAME, "Form data load test successful, triggering structure refresh");
+        } catch (Exception e) {
+            LogUtil.info(CLASS_NAME, "Form structure refresh trigger failed for " + formId + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,38 +1,97 @@
 package global.govstack.formcreator.service;
 
 import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.ApiProcessingException;
 import global.govstack.formcreator.exception.FormCreationException;
 import global.govstack.formcreator.exception.ValidationException;
 import global.govstack.formcreator.model.*;
+import global.govstack.formcreator.util.MetricsUtil;
 import global.govstack.formcreator.util.RequestParserUtil;
+import global.govstack.formcreator.util.JogetBeanRegistry;
 import org.joget.apps.app.model.AppDefinition;
 import org.joget.apps.app.service.AppService;
 import org.joget.apps.app.service.AppUtil;
-import org.joget.apps.form.model.Form;
-import org.joget.apps.form.service.FormService;
 import org.joget.commons.util.LogUtil;
 import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
 /**
  * Service class that handles form creation business logic.
  * Orchestrates the creation of forms, API endpoints, and CRUD interfaces.
  *
  * Integrates with:
  * - FormDatabaseService for form registration
+ * - FormDiffService for minimal updates of existing forms
  * - ApiBuilderService for API endpoint creation
  * - CrudService for CRUD interface creation
  * - FormCreatorBootstrapService for initial setup
+ *
+ * Stateless: one instance, wired by FormCreatorServices, serves all requests concurrently.
  */
 public class FormCreationService {
 
     private static final String CLASS_NAME = FormCreationService.class.getName();
 
-    // Services (lazily initialized)
-    private FormDatabaseService formDatabaseService;
-    private ApiBuilderService apiBuilderService;
-    private CrudService crudService;
-    private FormCreatorBootstrapService bootstrapService;
-    private JsonProcessingService jsonProcessingService;
+    private final FormDatabaseService formDatabaseService;
+    private final AppDefinitionCache appDefinitionCache;
+    private final ApiBuilderService apiBuilderService;
+    private final CrudService crudService;
+    private final FormCreatorBootstrapService bootstrapService;
+    private final JsonProcessingService jsonProcessingService;
+    private final TableIndexService tableIndexService;
+    private final ProvisioningExecutor provisioningExecutor;
+    private final InvalidationBus invalidationBus;
+    private final ProvisioningPlanner provisioningPlanner;
+    private final FormDiffService formDiffService;
+    private final FormStructureValidator formStructureValidator;
+
+    /**
+     * Constructor with service dependencies
+     *
+     * @param formDatabaseService Service for form registration and table creation
+     * @param appDefinitionCache Cache of target app lookups
+     * @param apiBuilderService Service for API endpoint creation
+     * @param crudService Service for CRUD interface creation
+     * @param bootstrapService Service for the formCreator self-bootstrap
+     * @param jsonProcessingService Service for JSON generation and processing
+     * @param tableIndexService Service for app_fd_ index provisioning
+     * @param provisioningExecutor Executor for the post-registration stages
+     * @param invalidationBus Broadcasts the created artifacts to the other cluster nodes
+     * @param provisioningPlanner Planner for dry-run requests
+     * @param formDiffService Classifies updates of existing form definitions
+     * @param formStructureValidator Validates form definitions without building the Form
+     */
+    public FormCreationService(FormDatabaseService formDatabaseService,
+                               AppDefinitionCache appDefinitionCache,
+                               ApiBuilderService apiBuilderService,
+                               CrudService crudService,
+                               FormCreatorBootstrapService bootstrapService,
+                               JsonProcessingService jsonProcessingService,
+                               TableIndexService tableIndexService,
+                               ProvisioningExecutor provisioningExecutor,
+                               InvalidationBus invalidationBus,
+                               ProvisioningPlanner provisioningPlanner,
+                               FormDiffService formDiffService,
+                               FormStructureValidator formStructureValidator) {
+        this.formDatabaseService = formDatabaseService;
+        this.appDefinitionCache = appDefinitionCache;
+        this.apiBuilderService = apiBuilderService;
+        this.crudService = crudService;
+        this.bootstrapService = bootstrapService;
+        this.jsonProcessingService = jsonProcessingService;
+        this.tableIndexService = tableIndexService;
+        this.provisioningExecutor = provisioningExecutor;
+        this.invalidationBus = invalidationBus;
+        this.provisioningPlanner = provisioningPlanner;
+        this.formDiffService = formDiffService;
+        this.formStructureValidator = formStructureValidator;
+    }
 
     /**
      * Process form creation request (accepts pre-parsed FormCreationRequest)
@@ -70,16 +129,85 @@ public class FormCreationService {
         }
     }
 
+    /**
+     * Plan a form creation request without side effects (dry run)
+     *
+     * @param appId Target application ID (optional)
+     * @param appVersion Target application version (optional)
+     * @param request Pre-parsed FormCreationRequest
+     * @return JSON provisioning plan with the operations the request would perform and phase timings
+     */
+    public JSONObject planFormCreation(String appId, String appVersion, FormCreationRequest request) {
+        try {
+            LogUtil.info(CLASS_NAME, "Planning form creation request (dry run)");
+
+            long start = System.nanoTime();
+            validateRequest(request);
+            long validated = System.nanoTime();
+            AppDefinition targetAppDef = getTargetApplication(appId, appVersion, request);
+            long resolved = System.nanoTime();
+
+            ProvisioningPlan plan = new ProvisioningPlan(request.getFormId(), targetAppDef.getAppId(),
+                                                         String.valueOf(targetAppDef.getVersion()));
+            plan.addTiming("cpu.validate", validated - start);
+            plan.addTiming("io.appLookup", resolved - validated);
+
+            provisioningPlanner.plan(request, targetAppDef, plan);
+            LogUtil.info(CLASS_NAME, "Dry run planned: " + plan);
+            return plan.toJSON();
+
+        } catch (ValidationException e) {
+            LogUtil.warn(CLASS_NAME, "Validation error: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            LogUtil.error(CLASS_NAME, e, "Error planning form creation request");
+            throw new FormCreationException("Dry run failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Diff a form definition against the stored one without writing anything
+     *
+     * @param appId Target application ID (optional)
+     * @param appVersion Target application version (optional)
+     * @param request Pre-parsed FormCreationRequest
+     * @return JSON response with the change level and the changed fields, binders and elements
+     */
+    public JSONObject diffFormDefinition(String appId, String appVersion, FormCreationRequest request) {
+        try {
+            validateRequest(request);
+            AppDefinition targetAppDef = getTargetApplication(appId, appVersion, request);
+
+            String storedJson = formDatabaseService.loadStoredFormJson(targetAppDef, request.getFormId());
+            FormDiff diff = formDiffService.diff(storedJson, request.getFormDefinitionJson());
+            LogUtil.info(CLASS_NAME, "Diff of form " + request.getFormId() + ": " + diff);
+
+            JSONObject json = new JSONObject();
+            json.put(ApiConstants.ResponseFields.STATUS, ApiConstants.StatusValues.SUCCESS);
+            json.put(ApiConstants.ResponseFields.FORM_ID, request.getFormId());
+            json.put(ApiConstants.ResponseFields.APP_ID, targetAppDef.getAppId());
+            json.put(ApiConstants.ResponseFields.APP_VERSION, String.valueOf(targetAppDef.getVersion()));
+            json.put(ApiConstants.ResponseFields.CHANGE_LEVEL, diff.getLevel().name());
+            json.put(ApiConstants.ResponseFields.DIFF, diff.toJSON());
+            return json;
+
+        } catch (ValidationException e) {
+            LogUtil.warn(CLASS_NAME, "Validation error: " + e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            LogUtil.error(CLASS_NAME, e, "Error diffing form definition");
+            throw new FormCreationException("Form diff failed: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Ensure formCreator CRUD is bootstrapped in target application
      */
     private void ensureFormCreatorBootstrapped(AppDefinition appDef) {
         try {
-            FormCreatorBootstrapService bootstrap = getBootstrapService();
-
-            if (!bootstrap.isFormCreatorCrudExists(appDef)) {
+            if (!bootstrapService.isFormCreatorCrudExists(appDef)) {
                 LogUtil.info(CLASS_NAME, "formCreator CRUD not found, bootstrapping...");
-                BootstrapResult result = bootstrap.ensureFormCreatorCrud(appDef);
+                BootstrapResult result = bootstrapService.ensureFormCreatorCrud(appDef);
 
                 if (!result.isSuccess()) {
                     LogUtil.error(CLASS_NAME, null, "Bootstrap failed: " + result.getErrorMessage());
@@ -127,8 +255,8 @@ public class FormCreationService {
         // Validate form definition is present
         RequestParserUtil.validateFormDefinitionPresent(request);
 
-        // Validate form definition is valid JSON
-        validateFormDefinitionJson(request.getFormDefinitionJson());
+        // Validate form definition structure (and tableName consistency)
+        validateFormDefinitionJson(request.getFormDefinitionJson(), request.getTableName());
 
         LogUtil.info(CLASS_NAME, "Request validation passed");
     }
@@ -137,26 +265,18 @@ public class FormCreationService {
      * Validate form definition JSON
      *
      * @param formDefinitionJson The JSON to validate
-     * @throws ValidationException if JSON is invalid
+     * @param tableName The request's tableName, which the definition must declare
+     * @throws ValidationException if JSON is invalid or structurally incomplete
      */
-    private void validateFormDefinitionJson(String formDefinitionJson) {
+    private void validateFormDefinitionJson(String formDefinitionJson, String tableName) {
         if (formDefinitionJson == null || formDefinitionJson.trim().isEmpty()) {
             throw new ValidationException(ApiConstants.ValidationMessages.FORM_DEFINITION_REQUIRED);
         }
 
-        try {
-            // Validate it's valid JSON
-            new JSONObject(formDefinitionJson);
-
-            LogUtil.debug(CLASS_NAME, "Form definition JSON is valid");
+        // One streaming pass: element classes, ids and tableName, without instantiating any plugin
+        int elements = formStructureValidator.validate(formDefinitionJson, tableName);
 
-        } catch (Exception e) {
-            LogUtil.error(CLASS_NAME, e, "Invalid form definition JSON");
-            throw new ValidationException(
-                ApiConstants.ValidationMessages.INVALID_FORM_DEFINITION_JSON + ": " + e.getMessage(),
-                e
-            );
-        }
+        LogUtil.debug(CLASS_NAME, "Form definition JSON is valid (" + elements + " elements)");
     }
 
     /**
@@ -169,8 +289,7 @@ public class FormCreationService {
      * @throws ValidationException if application not found
      */
     private AppDefinition getTargetApplication(String appId, String appVersion, FormCreationRequest request) {
-        AppService appService = (AppService) AppUtil.getApplicationContext()
-            .getBean(ApiConstants.BeanNames.APP_SERVICE);
+        AppService appService = JogetBeanRegistry.getAppService();
 
         // Determine target app ID (priority: request field > URL param > current app)
         String targetAppId = request.getTargetAppId();
@@ -188,8 +307,8 @@ public class FormCreationService {
             AppDefinition appDef;
 
             if (targetAppId != null && !targetAppId.trim().isEmpty()) {
-                // Load specific application
-                appDef = appService.getAppDefinition(targetAppId, targetAppVersion);
+                // Load specific application (cached; a missing version resolves to the published one)
+                appDef = appDefinitionCache.get(appService, targetAppId, targetAppVersion);
 
                 if (appDef == null) {
                     String errorMsg = "Target application not found: " + targetAppId;
@@ -239,93 +358,273 @@ public class FormCreationService {
         );
 
         try {
-            // STEP 1: Create form definition
-            LogUtil.info(CLASS_NAME, "Step 1: Creating form definition...");
-            InternalFormCreationResult formResult = createFormDefinition(request, appDef);
+            registerForm(request, appDef, response);
+            provisionComponents(request, appDef, response);
+            return response;
 
-            if (!formResult.isSuccess()) {
-                throw new FormCreationException("Failed to create form definition: " + formResult.getErrorMessage());
-            }
+        } catch (Exception e) {
+            LogUtil.error(CLASS_NAME, e, "Error creating form components");
+            throw new FormCreationException("Form creation failed: " + e.getMessage(), e);
+        }
+    }
 
-            response.setFormId(request.getFormId());
-            response.setMessage("Form created successfully");
+    /**
+     * Process one batch of a bulk import as a pipeline of three stages over the whole batch:
+     * validation, form row upserts (one deferred cache invalidation per target app), then table
+     * creation, indexes, API and CRUD. A failing record never fails the others.
+     *
+     * @param appId Target application ID for records without targetAppId (optional)
+     * @param appVersion Target application version for records without targetAppVersion (optional)
+     * @param requests The batch's requests (null entries are skipped)
+     * @return One result per request, in order (null for skipped entries)
+     */
+    public List<JSONObject> processImportBatch(String appId, String appVersion, List<FormCreationRequest> requests) {
+        int size = requests.size();
+        JSONObject[] results = new JSONObject[size];
+        AppDefinition[] targets = new AppDefinition[size];
+        FormCreationResponse[] responses = new FormCreationResponse[size];
+        Map<String, List<Integer>> byApp = new LinkedHashMap<>();
+
+        // Stage 1: validate every record and resolve its target application
+        for (int i = 0; i < size; i++) {
+            FormCreationRequest request = requests.get(i);
+            if (request == null) {
+                continue;
+            }
+            try {
+                validateRequest(request);
+                targets[i] = getTargetApplication(appId, appVersion, request);
+                byApp.computeIfAbsent(targets[i].getAppId() + ":" + targets[i].getVersion(), k -> new ArrayList<>()).add(i);
+            } catch (Exception e) {
+                results[i] = importError(request, e);
+            }
+        }
 
-            LogUtil.info(CLASS_NAME, "Form created successfully: " + request.getFormId());
+        // Stage 2: upsert the form rows; the deferral turns the batch's invalidations into one per app
+        AppService appService = JogetBeanRegistry.getAppService();
+        for (List<Integer> indexes : byApp.values()) {
+            AppDefinition appDef = targets[indexes.get(0)];
+            try {
+                ensureFormCreatorBootstrapped(appDef);
+            } catch (Exception e) {
+                for (int i : indexes) {
+                    results[i] = importError(requests.get(i), e);
+                }
+                continue;
+            }
 
-            // STEP 2: Create API endpoint (if requested)
-            if (request.isCreateApiEndpoint()) {
-                LogUtil.info(CLASS_NAME, "Step 2: Creating API endpoint...");
-                ApiCreationResult apiResult = createApiEndpoint(request, appDef);
-                if (apiResult.isSuccess()) {
-                    response.setApiId(apiResult.getApiId());
-                    LogUtil.info(CLASS_NAME, "API endpoint created: " + apiResult.getApiId());
-                } else {
-                    LogUtil.warn(CLASS_NAME, "API endpoint creation failed: " + apiResult.getErrorMessage());
+            try (CacheInvalidationCoalescer.Deferral deferral =
+                     formDatabaseService.getInvalidationCoalescer().defer(appService, appDef)) {
+                for (int i : indexes) {
+                    FormCreationResponse response = FormCreationResponse.success(requests.get(i).getFormId(), "Form import initiated");
+                    try {
+                        registerForm(requests.get(i), appDef, response);
+                        responses[i] = response;
+                    } catch (Exception e) {
+                        results[i] = importError(requests.get(i), e);
+                    }
                 }
             }
+        }
 
-            // STEP 3: Create CRUD interface (if requested)
-            if (request.isCreateCrud()) {
-                LogUtil.info(CLASS_NAME, "Step 3: Creating CRUD interface...");
-                CrudCreationResult crudResult = createCrudInterface(request, appDef);
-                if (crudResult.isSuccess()) {
-                    response.setDatalistId(crudResult.getDatalistId());
-                    response.setUserviewId(crudResult.getUserviewId());
-                    LogUtil.info(CLASS_NAME, "CRUD interface created: datalist=" + crudResult.getDatalistId() +
-                               ", userview=" + crudResult.getUserviewId());
-                } else {
-                    LogUtil.warn(CLASS_NAME, "CRUD interface creation failed: " + crudResult.getErrorMessage());
+        // Stage 3: the forms are visible now; create their tables, then indexes, API and CRUD
+        for (int i = 0; i < size; i++) {
+            if (responses[i] == null) {
+                continue;
+            }
+            FormCreationRequest request = requests.get(i);
+            try {
+                String changeLevel = responses[i].getChangeLevel();
+                if (FormDiff.ChangeLevel.STRUCTURAL.name().equals(changeLevel) ||
+                    FormDiff.ChangeLevel.BINDER.name().equals(changeLevel)) {
+                    formDatabaseService.forceTableCreation(request.getFormId(), request.getTableName(), targets[i], appService);
                 }
+                provisionComponents(request, targets[i], responses[i]);
+                results[i] = responses[i].toJSON();
+            } catch (Exception e) {
+                results[i] = importError(request, e);
             }
+        }
 
-            // Update final message
-            StringBuilder messageBuilder = new StringBuilder("Form created successfully");
-            if (response.getApiId() != null) {
-                messageBuilder.append(" with API endpoint");
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Result of a failed import record
+     */
+    private JSONObject importError(FormCreationRequest request, Exception e) {
+        LogUtil.warn(CLASS_NAME, "Import of " + request.getFormId() + " failed: " + e.getMessage());
+        String errorType = e instanceof ApiProcessingException
+            ? ((ApiProcessingException) e).getErrorType()
+            : ApiConstants.ErrorTypes.FORM_CREATION_ERROR;
+        FormCreationResponse response = FormCreationResponse.error(errorType, e.getMessage());
+        response.setFormId(request.getFormId());
+        return response.toJSON();
+    }
+
+    /**
+     * STEP 1: Create or update the form definition (an unchanged or cosmetically changed form skips DDL)
+     *
+     * @param request The form creation request
+     * @param appDef The target application definition
+     * @param response Response to record the change level on
+     */
+    private void registerForm(FormCreationRequest request, AppDefinition appDef, FormCreationResponse response) {
+        LogUtil.info(CLASS_NAME, "Step 1: Creating form definition...");
+        FormDiff diff = formDiffService.diff(
+            formDatabaseService.loadStoredFormJson(appDef, request.getFormId()),
+            request.getFormDefinitionJson()
+        );
+        response.setChangeLevel(diff.getLevel().name());
+        InternalFormCreationResult formResult = createFormDefinition(request, appDef, diff);
+
+        if (!formResult.isSuccess()) {
+            throw new FormCreationException("Failed to create form definition: " + formResult.getErrorMessage());
+        }
+
+        response.setFormId(request.getFormId());
+        response.setMessage("Form created successfully");
+
+        LogUtil.info(CLASS_NAME, "Form created successfully: " + request.getFormId());
+    }
+
+    /**
+     * STEPS 1b-3: Provision indexes, API endpoint and CRUD interface for a registered form
+     *
+     * @param request The form creation request
+     * @param appDef The target application definition
+     * @param response Response to record the created artifact IDs on
+     * @throws Exception if a stage fails unexpectedly
+     */
+    private void provisionComponents(FormCreationRequest request, AppDefinition appDef, FormCreationResponse response)
+            throws Exception {
+        // Walk the form definition once; the index and datalist steps share the result
+        FormElementIndex formIndex = jsonProcessingService.buildFormElementIndex(request.getFormDefinitionJson());
+
+        // STEPS 1b-3 only depend on the registered form. The index DDL runs on its own JDBC connection,
+        // so concurrent modes hand it to the executor; the API and CRUD stages save through Joget's DAOs
+        // and stay on this thread, inside the caller's Hibernate session
+        LogUtil.info(CLASS_NAME, "Steps 1b-3: Provisioning indexes, API and CRUD (" +
+                   provisioningExecutor.getMode() + " execution)...");
+
+        // An unchanged or cosmetic re-submit leaves the table alone: no index DDL on a table holding data
+        Future<Void> indexStage = requiresSchemaWork(response)
+            ? provisioningExecutor.submit(() -> {
+                provisionIndexes(request, formIndex);
+                return null;
+            })
+            : null;
+        if (indexStage == null) {
+            LogUtil.debug(CLASS_NAME, "Index provisioning skipped (" + response.getChangeLevel() + "): " +
+                        request.getTableName());
+        }
+
+        // STEP 2: Create API endpoint (if requested)
+        if (request.isCreateApiEndpoint()) {
+            ApiCreationResult apiResult = createApiEndpoint(request, appDef);
+            if (apiResult.isSuccess()) {
+                response.setApiId(apiResult.getApiId());
+                LogUtil.info(CLASS_NAME, "API endpoint created: " + apiResult.getApiId());
+            } else {
+                LogUtil.warn(CLASS_NAME, "API endpoint creation failed: " + apiResult.getErrorMessage());
             }
-            if (response.getDatalistId() != null) {
-                messageBuilder.append(" and CRUD interface");
+        }
+
+        // STEP 3: Create CRUD interface (if requested)
+        if (request.isCreateCrud()) {
+            CrudCreationResult crudResult = createCrudInterface(request, appDef, formIndex);
+            if (crudResult.isSuccess()) {
+                response.setDatalistId(crudResult.getDatalistId());
+                response.setUserviewId(crudResult.getUserviewId());
+                LogUtil.info(CLASS_NAME, "CRUD interface created: datalist=" + crudResult.getDatalistId() +
+                           ", userview=" + crudResult.getUserviewId());
+            } else {
+                LogUtil.warn(CLASS_NAME, "CRUD interface creation failed: " + crudResult.getErrorMessage());
             }
-            response.setMessage(messageBuilder.toString());
+        }
 
-            return response;
+        // STEP 1b: Wait for the index DDL; the request returns only once every stage is done
+        if (indexStage != null) {
+            provisioningExecutor.await(indexStage);
+        }
 
-        } catch (Exception e) {
-            LogUtil.error(CLASS_NAME, e, "Error creating form components");
-            throw new FormCreationException("Form creation failed: " + e.getMessage(), e);
+        // Let the other cluster nodes drop their cached copies (the form itself is
+        // broadcast by the cache invalidation that made it visible here)
+        publishCreatedArtifacts(appDef, response);
+
+        // Update final message
+        StringBuilder messageBuilder = new StringBuilder("Form created successfully");
+        if (response.getApiId() != null) {
+            messageBuilder.append(" with API endpoint");
+        }
+        if (response.getDatalistId() != null) {
+            messageBuilder.append(" and CRUD interface");
         }
+        response.setMessage(messageBuilder.toString());
+    }
+
+    /**
+     * Broadcast the API, datalist and userview created for a form
+     *
+     * @param appDef The target application
+     * @param response Response holding the created artifact IDs
+     */
+    private void publishCreatedArtifacts(AppDefinition appDef, FormCreationResponse response) {
+        List<InvalidationEvent> events = new ArrayList<>();
+        if (response.getApiId() != null) {
+            events.add(invalidationBus.event(appDef, InvalidationEvent.ArtifactType.API, response.getApiId()));
+        }
+        if (response.getDatalistId() != null) {
+            events.add(invalidationBus.event(appDef, InvalidationEvent.ArtifactType.DATALIST, response.getDatalistId()));
+        }
+        if (response.getUserviewId() != null) {
+            events.add(invalidationBus.event(appDef, InvalidationEvent.ArtifactType.USERVIEW, response.getUserviewId()));
+        }
+        invalidationBus.publish(events);
     }
 
     /**
      * Create form definition in Joget using FormDatabaseService
      *
+     * An existing form whose definition is unchanged is not written; a cosmetic change only rewrites
+     * the JSON column and evicts that form's cache entry. Everything else takes the full registration
+     * path (row upsert, app-wide cache invalidation, table creation).
+     *
      * @param request The form creation request
      * @param appDef The target application
+     * @param diff The request's definition diffed against the stored one
      * @return InternalFormCreationResult with success/failure
      */
-    private InternalFormCreationResult createFormDefinition(FormCreationRequest request, AppDefinition appDef) {
-        LogUtil.info(CLASS_NAME, "Creating form definition: " + request.getFormId());
+    private InternalFormCreationResult createFormDefinition(FormCreationRequest request, AppDefinition appDef,
+                                                            FormDiff diff) {
+        LogUtil.info(CLASS_NAME, "Creating form definition: " + request.getFormId() + " (" + diff.getLevel() + ")");
 
         try {
+            if (diff.isExists() && diff.getLevel() == FormDiff.ChangeLevel.NONE) {
+                MetricsUtil.increment(ApiConstants.Metrics.FORM_UPDATES_UNCHANGED);
+                LogUtil.info(CLASS_NAME, "Form definition unchanged, skipping write: " + request.getFormId());
+                return InternalFormCreationResult.success(request.getFormId());
+            }
+
             // Get services
-            AppService appService = (AppService) AppUtil.getApplicationContext()
-                .getBean(ApiConstants.BeanNames.APP_SERVICE);
-            FormService formService = (FormService) AppUtil.getApplicationContext()
-                .getBean(ApiConstants.BeanNames.FORM_SERVICE);
+            AppService appService = JogetBeanRegistry.getAppService();
 
-            // Parse form JSON
-            Form formObject = parseFormJson(request.getFormDefinitionJson(), formService);
+            if (diff.isCosmeticOnly() &&
+                formDatabaseService.updateFormDefinitionJson(appService, appDef, request.getFormId(),
+                                                             request.getFormName(), request.getFormDefinitionJson())) {
+                MetricsUtil.increment(ApiConstants.Metrics.FORM_UPDATES_COSMETIC);
+                return InternalFormCreationResult.success(request.getFormId());
+            }
+            MetricsUtil.increment(ApiConstants.Metrics.FORM_UPDATES_FULL);
 
             // Register form in database using FormDatabaseService
-            FormDatabaseService dbService = getFormDatabaseService();
-            return dbService.registerFormDirectToDatabaseWithResult(
+            return formDatabaseService.registerFormDirectToDatabaseWithResult(
                 appService,
                 appDef,
                 request.getFormId(),
                 request.getFormName(),
                 request.getTableName(),
-                request.getFormDefinitionJson(),
-                formObject
+                request.getFormDefinitionJson()
             );
 
         } catch (Exception e) {
@@ -334,30 +633,6 @@ public class FormCreationService {
         }
     }
 
-    /**
-     * Parse form JSON into Form object
-     *
-     * @param formJson Form definition JSON
-     * @param formService Form service
-     * @return Form object
-     */
-    private Form parseFormJson(String formJson, FormService formService) {
-        try {
-            // Parse JSON into Form object using FormService
-            Form form = (Form) formService.createElementFromJson(formJson);
-
-            if (form == null) {
-                throw new FormCreationException("Failed to parse form JSON");
-            }
-
-            return form;
-
-        } catch (Exception e) {
-            LogUtil.error(CLASS_NAME, e, "Error parsing form JSON");
-            throw new FormCreationException("Invalid form JSON: " + e.getMessage(), e);
-        }
-    }
-
     /**
      * Create API endpoint for the form using ApiBuilderService
      *
@@ -376,8 +651,7 @@ public class FormCreationService {
             }
 
             // Create API endpoint using ApiBuilderService
-            ApiBuilderService apiService = getApiBuilderService();
-            return apiService.createApiEndpoint(request.getFormId(), apiName, appDef);
+            return apiBuilderService.createApiEndpoint(request.getFormId(), apiName, appDef);
 
         } catch (Exception e) {
             LogUtil.error(CLASS_NAME, e, "Error creating API endpoint");
@@ -390,19 +664,21 @@ public class FormCreationService {
      *
      * @param request The form creation request
      * @param appDef The target application
+     * @param formIndex The form's element index
      * @return CrudCreationResult with success/failure and IDs
      */
-    private CrudCreationResult createCrudInterface(FormCreationRequest request, AppDefinition appDef) {
+    private CrudCreationResult createCrudInterface(FormCreationRequest request, AppDefinition appDef,
+                                                   FormElementIndex formIndex) {
         LogUtil.info(CLASS_NAME, "Creating CRUD interface for form: " + request.getFormId());
 
         try {
             // Create CRUD using CrudService
-            CrudService crudSvc = getCrudService();
-            return crudSvc.createCrud(
+            return crudService.createCrud(
                 request.getFormId(),
                 request.getFormName(),
                 appDef,
-                request.getFormDefinitionJson()
+                formIndex,
+                request.getDatalistSpec()
             );
 
         } catch (Exception e) {
@@ -411,43 +687,37 @@ public class FormCreationService {
         }
     }
 
-    // ===== Service Getters (lazy initialization) =====
-
-    private FormDatabaseService getFormDatabaseService() {
-        if (formDatabaseService == null) {
-            formDatabaseService = new FormDatabaseService();
-        }
-        return formDatabaseService;
-    }
-
-    private ApiBuilderService getApiBuilderService() {
-        if (apiBuilderService == null) {
-            apiBuilderService = new ApiBuilderService(getJsonProcessingService());
-        }
-        return apiBuilderService;
+    /**
+     * Whether the registered form's change level calls for index provisioning
+     */
+    private static boolean requiresSchemaWork(FormCreationResponse response) {
+        String changeLevel = response.getChangeLevel();
+        return changeLevel == null || FormDiff.requiresSchemaWork(FormDiff.ChangeLevel.valueOf(changeLevel));
     }
 
-    private CrudService getCrudService() {
-        if (crudService == null) {
-            JsonProcessingService jsonSvc = getJsonProcessingService();
-            DatalistService datalistSvc = new DatalistService(jsonSvc);
-            UserviewService userviewSvc = new UserviewService(jsonSvc);
-            crudService = new CrudService(datalistSvc, userviewSvc);
-        }
-        return crudService;
-    }
+    /**
+     * Provision secondary indexes on the form's app_fd_ table (explicit, heuristic and datalist).
+     * Runs after table creation; index failures are logged and never fail the request.
+     *
+     * @param request The form creation request
+     * @param formIndex The form's element index
+     */
+    private void provisionIndexes(FormCreationRequest request, FormElementIndex formIndex) {
+        try {
+            IndexSpec indexSpec = request.getIndexSpec();
+            DatalistSpec datalistSpec = request.isCreateCrud() ? request.getDatalistSpec() : null;
 
-    private FormCreatorBootstrapService getBootstrapService() {
-        if (bootstrapService == null) {
-            bootstrapService = new FormCreatorBootstrapService();
-        }
-        return bootstrapService;
-    }
+            List<IndexDefinition> indexes = tableIndexService.resolveIndexes(formIndex, indexSpec, datalistSpec);
+            if (indexes.isEmpty()) {
+                LogUtil.debug(CLASS_NAME, "No indexes to provision for: " + request.getTableName());
+                return;
+            }
 
-    private JsonProcessingService getJsonProcessingService() {
-        if (jsonProcessingService == null) {
-            jsonProcessingService = new JsonProcessingService();
+            boolean online = IndexSpec.isOnline(indexSpec);
+            int created = tableIndexService.ensureIndexes(request.getTableName(), indexes, online);
+            LogUtil.info(CLASS_NAME, "Indexes created: " + created + " of " + indexes.size());
+        } catch (Exception e) {
+            LogUtil.warn(CLASS_NAME, "Index provisioning failed: " + e.getMessage());
         }
-        return jsonProcessingService;
     }
 }
@@ -4,19 +4,18 @@ import global.govstack.formcreator.constants.ApiConstants;
 import global.govstack.formcreator.model.BootstrapResult;
 import global.govstack.formcreator.model.CrudCreationResult;
 import global.govstack.formcreator.model.InternalFormCreationResult;
+import global.govstack.formcreator.util.JogetBeanRegistry;
 import org.joget.apps.app.model.AppDefinition;
 import org.joget.apps.app.model.FormDefinition;
 import org.joget.apps.app.dao.FormDefinitionDao;
 import org.joget.apps.app.service.AppService;
-import org.joget.apps.app.service.AppUtil;
-import org.joget.apps.form.model.Form;
-import org.joget.apps.form.service.FormService;
 import org.joget.commons.util.LogUtil;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +31,28 @@ public class FormCreatorBootstrapService {
     private static final String FORM_CREATOR_NAME = "Form Creator";
     private static final String FORM_CREATOR_JSON_PATH = "/forms/formCreator.json";
 
+    private final FormDatabaseService formDatabaseService;
+    private final JsonProcessingService jsonProcessingService;
+    private final CrudService crudService;
+
+    // One bootstrap at a time per app version, so concurrent first requests do not both create the form
+    private final ConcurrentHashMap<String, Object> bootstrapLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with service dependencies
+     *
+     * @param formDatabaseService Service for registering the formCreator form
+     * @param jsonProcessingService Service for indexing the formCreator form definition
+     * @param crudService Service for creating the formCreator datalist and userview
+     */
+    public FormCreatorBootstrapService(FormDatabaseService formDatabaseService,
+                                       JsonProcessingService jsonProcessingService,
+                                       CrudService crudService) {
+        this.formDatabaseService = formDatabaseService;
+        this.jsonProcessingService = jsonProcessingService;
+        this.crudService = crudService;
+    }
+
     /**
      * Check if formCreator CRUD exists in the given application
      *
@@ -43,8 +64,7 @@ public class FormCreatorBootstrapService {
             LogUtil.info(CLASS_NAME, "Checking if formCreator CRUD exists in app: " + appDef.getAppId());
 
             // Check if formCreator form exists
-            FormDefinitionDao formDefDao = (FormDefinitionDao)
-                AppUtil.getApplicationContext().getBean(ApiConstants.BeanNames.FORM_DEFINITION_DAO);
+            FormDefinitionDao formDefDao = JogetBeanRegistry.getFormDefinitionDao();
 
             if (formDefDao != null) {
                 FormDefinition formDef = formDefDao.loadById(FORM_CREATOR_ID, appDef);
@@ -70,6 +90,16 @@ public class FormCreatorBootstrapService {
      * @return BootstrapResult indicating success or failure
      */
     public BootstrapResult ensureFormCreatorCrud(AppDefinition appDef) {
+        Object lock = bootstrapLocks.computeIfAbsent(appDef.getAppId() + ":" + appDef.getVersion(), k -> new Object());
+        synchronized (lock) {
+            return doEnsureFormCreatorCrud(appDef);
+        }
+    }
+
+    /**
+     * Check and create the formCreator CRUD (caller holds the app's bootstrap lock)
+     */
+    private BootstrapResult doEnsureFormCreatorCrud(AppDefinition appDef) {
         try {
             LogUtil.info(CLASS_NAME, "Ensuring formCreator CRUD exists in app: " + appDef.getAppId());
 
@@ -89,25 +119,14 @@ public class FormCreatorBootstrapService {
             LogUtil.info(CLASS_NAME, "Loaded formCreator.json (" + formCreatorJson.length() + " chars)");
 
             // Get services
-            AppService appService = (AppService) AppUtil.getApplicationContext()
-                .getBean(ApiConstants.BeanNames.APP_SERVICE);
-            FormService formService = (FormService) AppUtil.getApplicationContext()
-                .getBean(ApiConstants.BeanNames.FORM_SERVICE);
+            AppService appService = JogetBeanRegistry.getAppService();
 
             // Step 1: Create the formCreator form
             LogUtil.info(CLASS_NAME, "Creating formCreator form...");
 
-            // Parse form JSON
-            Form formObject = (Form) formService.createElementFromJson(formCreatorJson);
-            if (formObject == null) {
-                LogUtil.error(CLASS_NAME, null, "Failed to parse formCreator JSON");
-                return BootstrapResult.error("Failed to parse formCreator JSON");
-            }
-
-            // Register form in database
-            FormDatabaseService formDbService = new FormDatabaseService();
-            InternalFormCreationResult formResult = formDbService.registerFormDirectToDatabaseWithResult(
-                appService, appDef, FORM_CREATOR_ID, FORM_CREATOR_NAME, FORM_CREATOR_TABLE, formCreatorJson, formObject
+            // Register form in database (the bundled definition is known-good)
+            InternalFormCreationResult formResult = formDatabaseService.registerFormDirectToDatabaseWithResult(
+                appService, appDef, FORM_CREATOR_ID, FORM_CREATOR_NAME, FORM_CREATOR_TABLE, formCreatorJson
             );
 
             if (!formResult.isSuccess()) {
@@ -120,13 +139,9 @@ public class FormCreatorBootstrapService {
             // Step 2: Create CRUD (datalist + userview)
             LogUtil.info(CLASS_NAME, "Creating formCreator CRUD...");
 
-            JsonProcessingService jsonService = new JsonProcessingService();
-            DatalistService datalistService = new DatalistService(jsonService);
-            UserviewService userviewService = new UserviewService(jsonService);
-            CrudService crudService = new CrudService(datalistService, userviewService);
-
             CrudCreationResult crudResult = crudService.createCrud(
-                FORM_CREATOR_ID, FORM_CREATOR_NAME, appDef, formCreatorJson
+                FORM_CREATOR_ID, FORM_CREATOR_NAME, appDef,
+                jsonProcessingService.buildFormElementIndex(formCreatorJson), null
             );
 
             if (!crudResult.isSuccess()) {
@@ -0,0 +1,256 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import org.joget.commons.util.LogUtil;
+
+/**
+ * The plugin's service graph, wired once per bundle activation.
+ *
+ * All services are stateless or guard their own shared state, so the single graph is shared by
+ * every request. Activator.start builds it eagerly; getInstance() builds it on first use if the
+ * bundle was started some other way. Either way the invalidation bus is started with the graph.
+ * Activator.stop shuts it down, and after that getInstance() fails until the next initialize().
+ */
+public final class FormCreatorServices {
+
+    private static final String CLASS_NAME = FormCreatorServices.class.getName();
+
+    private static volatile FormCreatorServices instance;
+    private static volatile boolean shutDown;
+
+    private final IdGenerationService idGenerationService;
+    private final ParsedFormCache parsedFormCache;
+    private final JsonProcessingService jsonProcessingService;
+    private final DefinitionFileWriter definitionFileWriter;
+    private final AppDefinitionCache appDefinitionCache;
+    private final FormCacheInvalidator formCacheInvalidator;
+    private final InvalidationBus invalidationBus;
+    private final CacheInvalidationCoalescer invalidationCoalescer;
+    private final FormDatabaseService formDatabaseService;
+    private final TableIndexService tableIndexService;
+    private final ApiBuilderService apiBuilderService;
+    private final DatalistService datalistService;
+    private final UserviewService userviewService;
+    private final CrudService crudService;
+    private final FormCreatorBootstrapService bootstrapService;
+    private final ProvisioningExecutor provisioningExecutor;
+    private final AdmissionController admissionController;
+    private final PayloadPreScanner payloadPreScanner;
+    private final FormDiffService formDiffService;
+    private final FormStructureValidator formStructureValidator;
+    private final AppExportService appExportService;
+    private final ProvisioningPlanner provisioningPlanner;
+    private final FormCreationService formCreationService;
+    private final BulkImportService bulkImportService;
+    private final UploadSessionService uploadSessionService;
+
+    private FormCreatorServices() {
+        this.idGenerationService = new IdGenerationService();
+        this.parsedFormCache = new ParsedFormCache(
+            ApiConstants.Defaults.PARSED_FORM_CACHE_SIZE,
+            ApiConstants.Defaults.PARSED_FORM_CACHE_MAX_CHARS
+        );
+        this.jsonProcessingService = new JsonProcessingService(idGenerationService, parsedFormCache);
+        this.definitionFileWriter = new DefinitionFileWriter();
+        this.appDefinitionCache = new AppDefinitionCache(ApiConstants.Defaults.APP_DEFINITION_CACHE_SIZE);
+        this.formCacheInvalidator = new FormCacheInvalidator();
+        this.invalidationBus = new InvalidationBus(formCacheInvalidator, InvalidationBus.createTransport());
+        this.invalidationCoalescer = new CacheInvalidationCoalescer(formCacheInvalidator, invalidationBus);
+        this.formDatabaseService = new FormDatabaseService(invalidationCoalescer);
+        this.tableIndexService = new TableIndexService(formDatabaseService);
+        this.apiBuilderService = new ApiBuilderService(jsonProcessingService, definitionFileWriter, idGenerationService);
+        this.datalistService = new DatalistService(jsonProcessingService, definitionFileWriter);
+        this.userviewService = new UserviewService(jsonProcessingService, definitionFileWriter, idGenerationService);
+        this.crudService = new CrudService(datalistService, userviewService);
+        this.bootstrapService = new FormCreatorBootstrapService(formDatabaseService, jsonProcessingService, crudService);
+        this.provisioningExecutor = new ProvisioningExecutor();
+        this.admissionController = new AdmissionController();
+        this.payloadPreScanner = new PayloadPreScanner();
+        this.formDiffService = new FormDiffService();
+        this.formStructureValidator = new FormStructureValidator();
+        this.appExportService = new AppExportService(formDatabaseService);
+        this.provisioningPlanner = new ProvisioningPlanner(
+            formDatabaseService,
+            formDiffService,
+            jsonProcessingService,
+            tableIndexService,
+            userviewService,
+            definitionFileWriter,
+            bootstrapService,
+            idGenerationService
+        );
+        this.formCreationService = new FormCreationService(
+            formDatabaseService,
+            appDefinitionCache,
+            apiBuilderService,
+            crudService,
+            bootstrapService,
+            jsonProcessingService,
+            tableIndexService,
+            provisioningExecutor,
+            invalidationBus,
+            provisioningPlanner,
+            formDiffService,
+            formStructureValidator
+        );
+        this.bulkImportService = new BulkImportService(formCreationService, payloadPreScanner);
+        this.uploadSessionService = new UploadSessionService();
+    }
+
+    /**
+     * Wire the service graph and start its invalidation bus (called from Activator.start). A graph
+     * that is already running is stopped first.
+     *
+     * @return The new graph
+     */
+    public static synchronized FormCreatorServices initialize() {
+        if (instance != null) {
+            instance.stop();
+        }
+        FormCreatorServices services = new FormCreatorServices();
+        services.invalidationBus.start();
+        instance = services;
+        shutDown = false;
+        LogUtil.info(CLASS_NAME, "Form Creator service graph initialized");
+        return services;
+    }
+
+    /**
+     * Get the service graph, wiring it on first use
+     *
+     * @return The shared graph
+     * @throws IllegalStateException if the graph was shut down and not initialized again
+     */
+    public static FormCreatorServices getInstance() {
+        FormCreatorServices services = instance;
+        if (services == null) {
+            synchronized (FormCreatorServices.class) {
+                services = instance;
+                if (services == null) {
+                    if (shutDown) {
+                        throw new IllegalStateException("Form Creator services have been shut down");
+                    }
+                    services = initialize();
+                }
+            }
+        }
+        return services;
+    }
+
+    /**
+     * Stop and discard the service graph (called from Activator.stop)
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.stop();
+        }
+        instance = null;
+        shutDown = true;
+    }
+
+    private void stop() {
+        provisioningExecutor.shutdown();
+        invalidationBus.stop();
+        parsedFormCache.invalidateAll();
+    }
+
+    public IdGenerationService getIdGenerationService() {
+        return idGenerationService;
+    }
+
+    public ParsedFormCache getParsedFormCache() {
+        return parsedFormCache;
+    }
+
+    public JsonProcessingService getJsonProcessingService() {
+        return jsonProcessingService;
+    }
+
+    public DefinitionFileWriter getDefinitionFileWriter() {
+        return definitionFileWriter;
+    }
+
+    public AppDefinitionCache getAppDefinitionCache() {
+        return appDefinitionCache;
+    }
+
+    public FormCacheInvalidator getFormCacheInvalidator() {
+        return formCacheInvalidator;
+    }
+
+    public InvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    public CacheInvalidationCoalescer getInvalidationCoalescer() {
+        return invalidationCoalescer;
+    }
+
+    public FormDatabaseService getFormDatabaseService() {
+        return formDatabaseService;
+    }
+
+    public TableIndexService getTableIndexService() {
+        return tableIndexService;
+    }
+
+    public ApiBuilderService getApiBuilderService() {
+        return apiBuilderService;
+    }
+
+    public DatalistService getDatalistService() {
+        return datalistService;
+    }
+
+    public UserviewService getUserviewService() {
+        return userviewService;
+    }
+
+    public CrudService getCrudService() {
+        return crudService;
+    }
+
+    public FormCreatorBootstrapService getBootstrapService() {
+        return bootstrapService;
+    }
+
+    public ProvisioningExecutor getProvisioningExecutor() {
+        return provisioningExecutor;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    public PayloadPreScanner getPayloadPreScanner() {
+        return payloadPreScanner;
+    }
+
+    public FormDiffService getFormDiffService() {
+        return formDiffService;
+    }
+
+    public FormStructureValidator getFormStructureValidator() {
+        return formStructureValidator;
+    }
+
+    public AppExportService getAppExportService() {
+        return appExportService;
+    }
+
+    public ProvisioningPlanner getProvisioningPlanner() {
+        return provisioningPlanner;
+    }
+
+    public FormCreationService getFormCreationService() {
+        return formCreationService;
+    }
+
+    public BulkImportService getBulkImportService() {
+        return bulkImportService;
+    }
+
+    public UploadSessionService getUploadSessionService() {
+        return uploadSessionService;
+    }
+}
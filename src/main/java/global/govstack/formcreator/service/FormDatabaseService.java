@@ -2,12 +2,9 @@ package global.govstack.formcreator.service;
 
 import global.govstack.formcreator.constants.ApiConstants;
 import global.govstack.formcreator.model.InternalFormCreationResult;
+import global.govstack.formcreator.util.JogetBeanRegistry;
 import org.joget.apps.app.model.AppDefinition;
 import org.joget.apps.app.service.AppService;
-import org.joget.apps.app.service.AppUtil;
-import org.joget.apps.form.model.Form;
-import org.joget.apps.form.model.FormRowSet;
-import org.joget.apps.form.service.FormService;
 import org.joget.apps.form.dao.FormDataDao;
 import org.joget.commons.util.LogUtil;
 
@@ -22,6 +19,19 @@ public class FormDatabaseService {
 
     private static final String CLASS_NAME = FormDatabaseService.class.getName();
 
+    private final CacheInvalidationCoalescer invalidationCoalescer;
+
+    public FormDatabaseService(CacheInvalidationCoalescer invalidationCoalescer) {
+        this.invalidationCoalescer = invalidationCoalescer;
+    }
+
+    /**
+     * Get the coalescer that synchronizes Joget's caches after JDBC form writes
+     */
+    public CacheInvalidationCoalescer getInvalidationCoalescer() {
+        return invalidationCoalescer;
+    }
+
     /**
      * Register a form directly to the database, bypassing standard Joget APIs.
      * This method handles both INSERT and UPDATE operations, and manages cache invalidation.
@@ -32,38 +42,21 @@ public class FormDatabaseService {
      * @param formName The form name
      * @param tableName The database table name for form data
      * @param jsonContent The form definition JSON
-     * @param formObject The form object (currently unused but kept for future compatibility)
      * @return true if registration was successful, false otherwise
      */
     public boolean registerFormDirectToDatabase(AppService appService, AppDefinition appDef, String formId,
-                                                String formName, String tableName, String jsonContent, Form formObject) {
+                                                String formName, String tableName, String jsonContent) {
         try {
             LogUtil.info(CLASS_NAME, "Attempting direct database form registration");
 
-            // Get DataSource from AppUtil
-            Object dataSource = null;
-            try {
-                dataSource = AppUtil.getApplicationContext().getBean("setupDataSource");
-                LogUtil.info(CLASS_NAME, "Retrieved setupDataSource: " + (dataSource != null));
-            } catch (Exception e) {
-                LogUtil.info(CLASS_NAME, "Could not get setupDataSource: " + e.getMessage());
-            }
-
-            if (dataSource == null) {
-                try {
-                    dataSource = AppUtil.getApplicationContext().getBean("dataSource");
-                    LogUtil.info(CLASS_NAME, "Retrieved dataSource: " + (dataSource != null));
-                } catch (Exception e) {
-                    LogUtil.info(CLASS_NAME, "Could not get dataSource: " + e.getMessage());
-                }
-            }
+            // Get DataSource from the bean registry
+            Object dataSource = getDataSource();
 
             if (dataSource != null) {
                 Connection conn = null;
                 try {
                     // Get connection from DataSource
-                    java.lang.reflect.Method getConnectionMethod = dataSource.getClass().getMethod("getConnection");
-                    conn = (Connection) getConnectionMethod.invoke(dataSource);
+                    conn = getConnection(dataSource);
 
                     LogUtil.info(CLASS_NAME, "Successfully got database connection");
 
@@ -158,9 +151,6 @@ public class FormDatabaseService {
                             updateStmt.close();
 
                             LogUtil.info(CLASS_NAME, "Updated " + updatedRows + " form definition rows");
-
-                            // Force form cache invalidation after update
-                            invalidateFormCaches(appService, appDef, formId);
                         }
 
                     } else {
@@ -175,79 +165,23 @@ public class FormDatabaseService {
                         insertStmt.close();
 
                         LogUtil.info(CLASS_NAME, "Inserted " + insertedRows + " new form definition rows using columns: " + Arrays.toString(tableColumns));
-
-                        // Force form cache invalidation after insert
-                        invalidateFormCaches(appService, appDef, formId);
                     }
 
                     // Commit the transaction
                     conn.commit();
 
-                    // CRITICAL: Flush Hibernate cache after JDBC insert
-                    LogUtil.info(CLASS_NAME, "Synchronizing Hibernate cache after JDBC insert...");
-
-                    // Method 1: Clear JPA/Hibernate L2 cache (entity-level)
-                    try {
-                        Object emFactory = AppUtil.getApplicationContext().getBean("entityManagerFactory");
-                        if (emFactory != null) {
-                            java.lang.reflect.Method getCacheMethod = emFactory.getClass().getMethod("getCache");
-                            Object cache = getCacheMethod.invoke(emFactory);
-                            java.lang.reflect.Method evictAllMethod = cache.getClass().getMethod("evictAll");
-                            evictAllMethod.invoke(cache);
-                            LogUtil.info(CLASS_NAME, "Flushed Hibernate L2 cache after JDBC insert");
-                        }
-                    } catch (Exception cacheEx) {
-                        LogUtil.warn(CLASS_NAME, "L2 cache flush failed (continuing anyway): " + cacheEx.getMessage());
-                    }
+                    // CRITICAL: Synchronize Joget's caches with the JDBC write before the form is used.
+                    // Concurrent writes to the same app share one invalidation; this call returns
+                    // once an invalidation covering this form has run.
+                    invalidationCoalescer.invalidate(appService, appDef, formId);
 
-                    // Method 2: Clear FormDefinitionDao session cache (query-level)
-                    try {
-                        Object formDefDao = AppUtil.getApplicationContext().getBean(ApiConstants.BeanNames.FORM_DEFINITION_DAO);
-                        if (formDefDao != null) {
-                            java.lang.reflect.Method[] methods = formDefDao.getClass().getMethods();
-                            for (java.lang.reflect.Method method : methods) {
-                                if (method.getName().equals("evict") || method.getName().equals("clear")) {
-                                    try {
-                                        if (method.getParameterCount() == 0) {
-                                            method.invoke(formDefDao);
-                                            LogUtil.info(CLASS_NAME, "Cleared FormDefinitionDao cache via " + method.getName());
-                                            break;
-                                        }
-                                    } catch (Exception e) {
-                                        // Try next method
-                                    }
-                                }
-                            }
-                        }
-                    } catch (Exception daoEx) {
-                        LogUtil.warn(CLASS_NAME, "FormDefinitionDao cache clear failed (continuing): " + daoEx.getMessage());
-                    }
-
-                    // Method 3: Clear AppService caches (application-level)
-                    try {
-                        java.lang.reflect.Method[] methods = appService.getClass().getMethods();
-                        for (java.lang.reflect.Method method : methods) {
-                            String methodName = method.getName().toLowerCase();
-                            if (methodName.contains("clear") && methodName.contains("cache")) {
-                                try {
-                                    if (method.getParameterCount() == 0) {
-                                        method.invoke(appService);
-                                        LogUtil.info(CLASS_NAME, "Called AppService cache clear: " + method.getName());
-                                    } else if (method.getParameterCount() == 1) {
-                                        method.invoke(appService, appDef.getAppId());
-                                        LogUtil.info(CLASS_NAME, "Called AppService cache clear with appId: " + method.getName());
-                                    }
-                                } catch (Exception cacheEx) {
-                                    // Continue to next method
-                                }
-                            }
-                        }
-                    } catch (Exception cacheEx) {
-                        LogUtil.warn(CLASS_NAME, "AppService cache clear failed: " + cacheEx.getMessage());
+                    // Inside a deferral the caches are still stale; the caller creates the table
+                    // once the deferred invalidation has run
+                    if (invalidationCoalescer.isDeferred(appDef)) {
+                        LogUtil.info(CLASS_NAME, "SUCCESS: Database registration completed, table creation deferred");
+                        return true;
                     }
 
-                    LogUtil.info(CLASS_NAME, "Cache synchronization complete - Hibernate will now see JDBC changes");
-
                     // Force immediate table creation using official Joget pattern
                     forceTableCreation(formId, tableName, appDef, appService);
 
@@ -277,16 +211,172 @@ public class FormDatabaseService {
         }
     }
 
+    /**
+     * Read the stored JSON of a form definition straight from the form definition table
+     * (never from a cache, so the diff sees exactly what a JDBC update would replace)
+     *
+     * @param appDef The application definition
+     * @param formId The form ID
+     * @return The stored JSON, or null if the form does not exist or cannot be read
+     */
+    public String loadStoredFormJson(AppDefinition appDef, String formId) {
+        try (Connection conn = getConnection(getDataSource())) {
+            String formTableName = discoverFormDefinitionTableName(conn);
+            if (formTableName == null) {
+                return null;
+            }
+
+            String[] tableColumns = getFormDefinitionColumns(conn, formTableName);
+            String idColumn = findColumn(tableColumns, new String[]{"id", "formId", "form_id"});
+            String appIdColumn = findColumn(tableColumns, new String[]{"appId", "app_id"});
+            String versionColumn = findColumn(tableColumns, new String[]{"appVersion", "version", "app_version"});
+            String jsonColumn = findColumn(tableColumns, new String[]{"json", "definition", "form_json"});
+            if (idColumn == null || appIdColumn == null || versionColumn == null || jsonColumn == null) {
+                LogUtil.info(CLASS_NAME, "Cannot determine form definition columns, no stored JSON to compare");
+                return null;
+            }
+
+            String selectSql = "SELECT " + jsonColumn + " FROM " + formTableName +
+                               " WHERE " + idColumn + " = ? AND " + appIdColumn + " = ? AND " + versionColumn + " = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                stmt.setString(1, formId);
+                stmt.setString(2, appDef.getAppId());
+                stmt.setString(3, appDef.getVersion().toString());
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            }
+        } catch (SQLException e) {
+            LogUtil.warn(CLASS_NAME, "Could not read stored form definition " + formId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cosmetic fast path: rewrite only the JSON (and name) of an existing form definition and evict
+     * only that form's cached definition. No table creation, no app-wide cache flush.
+     *
+     * @param appService The application service
+     * @param appDef The application definition
+     * @param formId The form ID
+     * @param formName The form name
+     * @param jsonContent The new form definition JSON
+     * @return true if exactly the existing row was updated, false if the caller should take the full path
+     */
+    public boolean updateFormDefinitionJson(AppService appService, AppDefinition appDef, String formId,
+                                            String formName, String jsonContent) {
+        try (Connection conn = getConnection(getDataSource())) {
+            String formTableName = discoverFormDefinitionTableName(conn);
+            if (formTableName == null) {
+                return false;
+            }
+
+            String[] tableColumns = getFormDefinitionColumns(conn, formTableName);
+            String idColumn = findColumn(tableColumns, new String[]{"id", "formId", "form_id"});
+            String appIdColumn = findColumn(tableColumns, new String[]{"appId", "app_id"});
+            String versionColumn = findColumn(tableColumns, new String[]{"appVersion", "version", "app_version"});
+            String jsonColumn = findColumn(tableColumns, new String[]{"json", "definition", "form_json"});
+            String nameColumn = findColumn(tableColumns, new String[]{"name", "formName", "form_name"});
+            String modifiedColumn = findColumn(tableColumns, new String[]{"dateModified", "modified", "date_modified"});
+            if (idColumn == null || appIdColumn == null || versionColumn == null || jsonColumn == null) {
+                return false;
+            }
+
+            StringBuilder updateSql = new StringBuilder("UPDATE ").append(formTableName)
+                .append(" SET ").append(jsonColumn).append(" = ?");
+            if (nameColumn != null) {
+                updateSql.append(", ").append(nameColumn).append(" = ?");
+            }
+            if (modifiedColumn != null) {
+                updateSql.append(", ").append(modifiedColumn).append(" = ?");
+            }
+            updateSql.append(" WHERE ").append(idColumn).append(" = ? AND ").append(appIdColumn)
+                .append(" = ? AND ").append(versionColumn).append(" = ?");
+
+            int updatedRows;
+            try (PreparedStatement stmt = conn.prepareStatement(updateSql.toString())) {
+                int paramIndex = 1;
+                stmt.setString(paramIndex++, jsonContent);
+                if (nameColumn != null) {
+                    stmt.setString(paramIndex++, formName != null ? formName : formId);
+                }
+                if (modifiedColumn != null) {
+                    stmt.setTimestamp(paramIndex++, new Timestamp(System.currentTimeMillis()));
+                }
+                stmt.setString(paramIndex++, formId);
+                stmt.setString(paramIndex++, appDef.getAppId());
+                stmt.setString(paramIndex, appDef.getVersion().toString());
+                updatedRows = stmt.executeUpdate();
+            }
+
+            if (updatedRows != 1) {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                }
+                LogUtil.warn(CLASS_NAME, "Cosmetic update matched " + updatedRows + " rows for " + formId +
+                             " - falling back to full registration");
+                return false;
+            }
+            if (!conn.getAutoCommit()) {
+                conn.commit();
+            }
+
+            invalidationCoalescer.invalidateDefinition(appService, appDef, formId);
+            LogUtil.info(CLASS_NAME, "Cosmetic update of form definition " + formId + " completed");
+            return true;
+
+        } catch (SQLException e) {
+            LogUtil.warn(CLASS_NAME, "Cosmetic update of " + formId + " failed, falling back to full registration: " +
+                         e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Resolve the Joget DataSource (setupDataSource, falling back to dataSource)
+     *
+     * @return The DataSource bean, or null if neither is available
+     */
+    public Object getDataSource() {
+        Object dataSource = JogetBeanRegistry.getDataSource();
+        if (dataSource == null) {
+            LogUtil.warn(CLASS_NAME, "Neither setupDataSource nor dataSource is available");
+        }
+        return dataSource;
+    }
+
+    /**
+     * Open a JDBC connection from a DataSource bean
+     *
+     * @param dataSource The DataSource bean
+     * @return A new connection (caller must close it)
+     * @throws SQLException if the DataSource is missing or cannot provide a connection
+     */
+    public Connection getConnection(Object dataSource) throws SQLException {
+        if (dataSource == null) {
+            throw new SQLException("No DataSource available");
+        }
+        try {
+            java.lang.reflect.Method getConnectionMethod = dataSource.getClass().getMethod("getConnection");
+            return (Connection) getConnectionMethod.invoke(dataSource);
+        } catch (java.lang.reflect.InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof SQLException ? (SQLException) cause : new SQLException(cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("DataSource does not expose getConnection()", e);
+        }
+    }
+
     /**
      * Register a form directly to the database, returning a Result object for explicit error handling.
      */
     public InternalFormCreationResult registerFormDirectToDatabaseWithResult(AppService appService, AppDefinition appDef,
                                                                      String formId, String formName, String tableName,
-                                                                     String jsonContent, Form formObject) {
+                                                                     String jsonContent) {
         try {
             LogUtil.info(CLASS_NAME, "Starting form registration with Result pattern for: " + formId);
 
-            boolean success = registerFormDirectToDatabase(appService, appDef, formId, formName, tableName, jsonContent, formObject);
+            boolean success = registerFormDirectToDatabase(appService, appDef, formId, formName, tableName, jsonContent);
 
             if (success) {
                 LogUtil.info(CLASS_NAME, "Form registration succeeded: " + formId);
@@ -523,7 +613,7 @@ public class FormDatabaseService {
         try {
             LogUtil.info(CLASS_NAME, "Forcing table creation for form: " + formId + " (table: " + tableName + ")");
 
-            FormDataDao formDataDao = (FormDataDao) AppUtil.getApplicationContext().getBean(ApiConstants.BeanNames.FORM_DATA_DAO);
+            FormDataDao formDataDao = JogetBeanRegistry.getFormDataDao();
 
             if (formDataDao != null) {
                 // Clear form table cache to ensure fresh schema detection
@@ -557,9 +647,7 @@ public class FormDatabaseService {
 
                     boolean verifiedViaDatabase = false;
                     try {
-                        Object dataSource = AppUtil.getApplicationContext().getBean("setupDataSource");
-                        java.lang.reflect.Method getConnMethod = dataSource.getClass().getMethod("getConnection");
-                        Connection verifyConn = (Connection) getConnMethod.invoke(dataSource);
+                        Connection verifyConn = getConnection(getDataSource());
 
                         String expectedTableName = "app_fd_" + tableName;
                         DatabaseMetaData metaData = verifyConn.getMetaData();
@@ -595,78 +683,4 @@ public class FormDatabaseService {
             LogUtil.error(CLASS_NAME, e, "Table creation failed: " + e.getMessage());
         }
     }
-
-    /**
-     * Invalidate all form-related caches to ensure immediate visibility of changes
-     */
-    private void invalidateFormCaches(AppService appService, AppDefinition appDef, String formId) {
-        try {
-            LogUtil.info(CLASS_NAME, "Invalidating form caches for immediate visibility");
-
-            // 1. Clear AppService caches
-            java.lang.reflect.Method[] appServiceMethods = appService.getClass().getMethods();
-            for (java.lang.reflect.Method method : appServiceMethods) {
-                String methodName = method.getName().toLowerCase();
-                if ((methodName.contains("clear") || methodName.contains("flush") ||
-                     methodName.contains("refresh") || methodName.contains("reload")) &&
-                    (methodName.contains("cache") || methodName.contains("form"))) {
-
-                    try {
-                        if (method.getParameterCount() == 0) {
-                            method.invoke(appService);
-                            LogUtil.info(CLASS_NAME, "Called cache method: " + method.getName());
-                        } else if (method.getParameterCount() == 1) {
-                            method.invoke(appService, appDef.getAppId());
-                            LogUtil.info(CLASS_NAME, "Called cache method with appId: " + method.getName());
-                        } else if (method.getParameterCount() == 2) {
-                            method.invoke(appService, appDef.getAppId(), appDef.getVersion().toString());
-                            LogUtil.info(CLASS_NAME, "Called cache method with app/version: " + method.getName());
-                        }
-                    } catch (Exception e) {
-                        LogUtil.info(CLASS_NAME, "Cache method failed: " + method.getName() + " - " + e.getMessage());
-                    }
-                }
-            }
-
-            // 2. Clear FormService caches
-            try {
-                FormService formService = (FormService) AppUtil.getApplicationContext().getBean(ApiConstants.BeanNames.FORM_SERVICE);
-                if (formService != null) {
-                    java.lang.reflect.Method[] formServiceMethods = formService.getClass().getMethods();
-                    for (java.lang.reflect.Method method : formServiceMethods) {
-                        String methodName = method.getName().toLowerCase();
-                        if ((methodName.contains("clear") || methodName.contains("flush") ||
-                             methodName.contains("refresh")) && methodName.contains("cache")) {
-
-                            try {
-                                if (method.getParameterCount() == 0) {
-                                    method.invoke(formService);
-                                    LogUtil.info(CLASS_NAME, "Called FormService cache method: " + method.getName());
-                                }
-                            } catch (Exception e) {
-                                LogUtil.info(CLASS_NAME, "FormService cache method failed: " + method.getName());
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                LogUtil.info(CLASS_NAME, "Could not access FormService for cache clearing: " + e.getMessage());
-            }
-
-            // 3. Force table structure refresh by querying the form
-            try {
-                String tableNameResult = appService.getFormTableName(appDef, formId);
-                LogUtil.info(CLASS_NAME, "Form table name after cache clear: " + tableNameResult);
-
-                FormRowSet testRowSet = appService.loadFormData(appDef.getAppId(), appDef.getVersion().toString(), formId, "");
-                LogUtil.info(CLASS_NAME, "Form data load test successful, triggering structure refresh");
-
-            } catch (Exception e) {
-                LogUtil.info(CLASS_NAME, "Form structure refresh trigger failed: " + e.getMessage());
-            }
-
-        } catch (Exception e) {
-            LogUtil.error(CLASS_NAME, e, "Cache invalidation failed: " + e.getMessage());
-        }
-    }
 }
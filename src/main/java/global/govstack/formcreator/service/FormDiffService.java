@@ -0,0 +1,183 @@
+package global.govstack.formcreator.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.ValidationException;
+import global.govstack.formcreator.model.FormDiff;
+import global.govstack.formcreator.model.FormElementIndex;
+import org.joget.commons.util.LogUtil;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares an incoming form definition with the stored one and classifies the change.
+ *
+ * Both trees are walked once. Fields are matched by id through FormElementIndex: added, removed
+ * or re-typed fields and a changed table name are STRUCTURAL. Any property whose key ends with
+ * "Binder" (the form's load/store binders, a field's options binder) is compared separately and
+ * makes the change BINDER. Every other difference (labels, styles, validators, layout, ordering of
+ * existing fields) is COSMETIC and only needs the JSON column rewritten.
+ *
+ * Stateless.
+ */
+public class FormDiffService {
+
+    private static final String CLASS_NAME = FormDiffService.class.getName();
+
+    // Path of the form element itself in change lists
+    private static final String ROOT_PATH = "form";
+
+    /**
+     * Diff an incoming definition against the stored one
+     *
+     * @param storedJson The stored form definition JSON (null when the form does not exist yet)
+     * @param incomingJson The incoming form definition JSON
+     * @return The classified diff
+     * @throws ValidationException if the incoming JSON cannot be parsed
+     */
+    public FormDiff diff(String storedJson, String incomingJson) {
+        JsonElement incoming = parse(incomingJson);
+        if (incoming == null) {
+            throw new ValidationException(ApiConstants.ValidationMessages.INVALID_FORM_DEFINITION_JSON);
+        }
+
+        JsonElement stored = storedJson != null ? parse(storedJson) : null;
+        if (stored == null) {
+            if (storedJson != null) {
+                LogUtil.warn(CLASS_NAME, "Stored form definition is not valid JSON - treating as a new form");
+            }
+            return new FormDiff(false);
+        }
+
+        FormDiff diff = new FormDiff(true);
+        if (stored.equals(incoming)) {
+            return diff;
+        }
+
+        diffFields(FormElementIndex.build(stored), FormElementIndex.build(incoming), diff);
+
+        Map<String, JsonObject> storedProps = new LinkedHashMap<>();
+        Map<String, JsonElement> storedBinders = new LinkedHashMap<>();
+        collect(stored.getAsJsonObject(), ROOT_PATH, storedProps, storedBinders);
+
+        Map<String, JsonObject> incomingProps = new LinkedHashMap<>();
+        Map<String, JsonElement> incomingBinders = new LinkedHashMap<>();
+        collect(incoming.getAsJsonObject(), ROOT_PATH, incomingProps, incomingBinders);
+
+        Set<String> binderPaths = new LinkedHashSet<>(storedBinders.keySet());
+        binderPaths.addAll(incomingBinders.keySet());
+        for (String path : binderPaths) {
+            JsonElement before = storedBinders.get(path);
+            JsonElement after = incomingBinders.get(path);
+            if (before == null ? after != null : !before.equals(after)) {
+                diff.addBinderChange(path);
+            }
+        }
+
+        for (Map.Entry<String, JsonObject> entry : incomingProps.entrySet()) {
+            JsonObject before = storedProps.get(entry.getKey());
+            if (before != null && !before.equals(entry.getValue())) {
+                diff.addCosmeticChange(entry.getKey());
+            }
+        }
+
+        // Only ordering or layout changed (same elements, same properties)
+        if (diff.getLevel() == FormDiff.ChangeLevel.NONE) {
+            diff.addCosmeticChange("elements");
+        }
+
+        LogUtil.debug(CLASS_NAME, "Form diff: " + diff);
+        return diff;
+    }
+
+    /**
+     * Compare the data-bearing fields and the table of both definitions
+     */
+    private void diffFields(FormElementIndex stored, FormElementIndex incoming, FormDiff diff) {
+        String storedTable = stored.getTableName();
+        String incomingTable = incoming.getTableName();
+        if (storedTable == null ? incomingTable != null : !storedTable.equals(incomingTable)) {
+            diff.setTableChange(storedTable, incomingTable);
+        }
+
+        for (int i = 0; i < incoming.size(); i++) {
+            int before = stored.indexOf(incoming.getId(i));
+            if (before < 0) {
+                diff.addAddedField(incoming.getId(i));
+            } else if (stored.getStorageType(before) != incoming.getStorageType(i) ||
+                       !stored.getClassName(before).equals(incoming.getClassName(i))) {
+                diff.addRetypedField(incoming.getId(i));
+            }
+        }
+        for (int i = 0; i < stored.size(); i++) {
+            if (incoming.indexOf(stored.getId(i)) < 0) {
+                diff.addRemovedField(stored.getId(i));
+            }
+        }
+    }
+
+    /**
+     * Collect each element's properties (without binders) and its binders, keyed by element path
+     */
+    private void collect(JsonObject element, String path, Map<String, JsonObject> props,
+                         Map<String, JsonElement> binders) {
+        JsonElement properties = element.get(ApiConstants.PropertyKeys.PROPERTIES);
+        if (properties != null && properties.isJsonObject()) {
+            JsonObject cosmetic = new JsonObject();
+            for (Map.Entry<String, JsonElement> property : properties.getAsJsonObject().entrySet()) {
+                if (property.getKey().endsWith(ApiConstants.DiffFields.BINDER_KEY_SUFFIX)) {
+                    binders.put(path + "#" + property.getKey(), property.getValue());
+                } else {
+                    cosmetic.add(property.getKey(), property.getValue());
+                }
+            }
+            JsonElement className = element.get(ApiConstants.PropertyKeys.CLASS_NAME);
+            if (className != null) {
+                cosmetic.add(ApiConstants.PropertyKeys.CLASS_NAME, className);
+            }
+            props.put(path, cosmetic);
+        }
+
+        JsonElement children = element.get(ApiConstants.PropertyKeys.ELEMENTS);
+        if (children == null || !children.isJsonArray()) {
+            return;
+        }
+        JsonArray array = children.getAsJsonArray();
+        for (int i = 0; i < array.size(); i++) {
+            if (array.get(i).isJsonObject()) {
+                JsonObject child = array.get(i).getAsJsonObject();
+                collect(child, childPath(child, path, i), props, binders);
+            }
+        }
+    }
+
+    /**
+     * Path of a child element: its id when it has one, otherwise its position under the parent
+     */
+    private static String childPath(JsonObject child, String parentPath, int position) {
+        JsonElement properties = child.get(ApiConstants.PropertyKeys.PROPERTIES);
+        if (properties != null && properties.isJsonObject()) {
+            JsonElement id = properties.getAsJsonObject().get(ApiConstants.PropertyKeys.ID);
+            if (id != null && id.isJsonPrimitive() && !id.getAsString().isEmpty()) {
+                return id.getAsString();
+            }
+        }
+        return parentPath + "/[" + position + "]";
+    }
+
+    private static JsonElement parse(String json) {
+        try {
+            JsonElement element = JsonParser.parseString(json);
+            return element.isJsonObject() ? element : null;
+        } catch (JsonParseException | IllegalStateException e) {
+            return null;
+        }
+    }
+}
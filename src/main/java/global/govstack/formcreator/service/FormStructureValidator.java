@@ -0,0 +1,237 @@
+package global.govstack.formcreator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.ValidationException;
+import global.govstack.formcreator.model.FormElementIndex;
+import global.govstack.formcreator.util.PluginClassRegistry;
+import org.joget.commons.util.LogUtil;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Structural validation of Joget form definition JSON without building the Form.
+ *
+ * One streaming pass over the definition checks that:
+ * - the root is a Form with an id and a tableName matching the request's tableName
+ * - every element has a className, and every className (elements, binders, validators, at any
+ *   depth in the properties) resolves through PluginClassRegistry
+ * - every data-bearing field has an id, and element ids are unique
+ *
+ * No plugin is instantiated, so this replaces FormService.createElementFromJson as the validity
+ * check; the Form itself is only built by a stage that needs it. Stateless.
+ */
+public class FormStructureValidator {
+
+    private static final String CLASS_NAME = FormStructureValidator.class.getName();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    // Reported problems per definition; the rest are counted
+    private static final int MAX_PROBLEMS = 20;
+
+    // Path of the form element itself in problem messages
+    private static final String ROOT_PATH = "form";
+
+    /**
+     * Validate a form definition
+     *
+     * @param formJson The form definition JSON
+     * @param tableName The request's tableName (null to skip the consistency check)
+     * @return Number of elements in the definition
+     * @throws ValidationException listing the problems if the definition is not valid
+     */
+    public int validate(String formJson, String tableName) {
+        Validation validation = new Validation();
+        try (JsonParser parser = JSON_FACTORY.createParser(formJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ValidationException(ApiConstants.ValidationMessages.INVALID_FORM_DEFINITION_JSON +
+                                              ": root must be a JSON object");
+            }
+
+            Element root = readElement(parser, ROOT_PATH, validation);
+            if (parser.nextToken() != null) {
+                validation.problem("unexpected content after the form object");
+            }
+            checkRoot(root, tableName, validation);
+
+        } catch (JsonParseException e) {
+            throw new ValidationException(ApiConstants.ValidationMessages.INVALID_FORM_DEFINITION_JSON + ": " +
+                                          e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new ValidationException(ApiConstants.ValidationMessages.INVALID_FORM_DEFINITION_JSON + ": " +
+                                          e.getMessage(), e);
+        }
+
+        if (!validation.problems.isEmpty()) {
+            String message = ApiConstants.ValidationMessages.INVALID_FORM_STRUCTURE + ": " +
+                             String.join("; ", validation.problems) +
+                             (validation.omitted > 0 ? " (and " + validation.omitted + " more)" : "");
+            LogUtil.info(CLASS_NAME, message);
+            throw new ValidationException(message);
+        }
+
+        LogUtil.debug(CLASS_NAME, "Form structure valid: " + validation.elementCount + " elements");
+        return validation.elementCount;
+    }
+
+    /**
+     * Check the root element: a Form with id and tableName, consistent with the request
+     */
+    private void checkRoot(Element root, String tableName, Validation validation) {
+        if (root.className != null && !root.className.equals(ApiConstants.JogetClasses.FORM)) {
+            validation.problem("root className must be " + ApiConstants.JogetClasses.FORM + " (was " + root.className + ")");
+        }
+        if (isEmpty(root.id)) {
+            validation.problem("form properties.id is required");
+        }
+        if (isEmpty(root.tableName)) {
+            validation.problem("form properties.tableName is required");
+        } else if (tableName != null && !tableName.equals(root.tableName)) {
+            validation.problem("form properties.tableName '" + root.tableName +
+                               "' does not match the request tableName '" + tableName + "'");
+        }
+    }
+
+    /**
+     * Read one element (parser on its START_OBJECT) and its children, then check it
+     */
+    private Element readElement(JsonParser parser, String path, Validation validation) throws IOException {
+        Element element = new Element();
+        validation.elementCount++;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if (ApiConstants.PropertyKeys.CLASS_NAME.equals(field) && value == JsonToken.VALUE_STRING) {
+                element.className = parser.getText();
+            } else if (ApiConstants.PropertyKeys.PROPERTIES.equals(field) && value == JsonToken.START_OBJECT) {
+                readProperties(parser, element, path, validation);
+            } else if (ApiConstants.PropertyKeys.ELEMENTS.equals(field) && value == JsonToken.START_ARRAY) {
+                int position = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == JsonToken.START_OBJECT) {
+                        readElement(parser, path + "/[" + position + "]", validation);
+                        element.hasChildren = true;
+                    } else {
+                        parser.skipChildren();
+                    }
+                    position++;
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        String where = element.id != null && !element.id.isEmpty() ? "'" + element.id + "'" : path;
+        if (isEmpty(element.className)) {
+            validation.problem("element " + where + " has no className");
+        } else {
+            checkClass(element.className, where, validation);
+            if (!element.hasChildren && FormElementIndex.isDataClass(element.className) && isEmpty(element.id)) {
+                validation.problem("field " + where + " (" + element.className + ") has no id");
+            }
+        }
+        // The form's own id may be reused by a field
+        if (!isEmpty(element.id) && !ROOT_PATH.equals(path) && !validation.ids.add(element.id)) {
+            validation.problem("duplicate element id '" + element.id + "'");
+        }
+        return element;
+    }
+
+    /**
+     * Read an element's properties (parser on their START_OBJECT), keeping id and tableName and
+     * checking nested plugin references
+     */
+    private void readProperties(JsonParser parser, Element element, String path, Validation validation)
+            throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+
+            if (value.isScalarValue()) {
+                if (ApiConstants.PropertyKeys.ID.equals(field)) {
+                    element.id = parser.getText();
+                } else if (ApiConstants.PropertyKeys.TABLE_NAME.equals(field)) {
+                    element.tableName = parser.getText();
+                }
+            } else {
+                scanPluginReferences(parser, path + "#" + field, validation);
+            }
+        }
+    }
+
+    /**
+     * Walk a property value (parser on its START_OBJECT or START_ARRAY), checking every className
+     * found at any depth (binders, validators, their own nested plugins)
+     */
+    private void scanPluginReferences(JsonParser parser, String where, Validation validation) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (!parser.currentToken().isScalarValue()) {
+                    scanPluginReferences(parser, where, validation);
+                }
+            }
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (ApiConstants.PropertyKeys.CLASS_NAME.equals(field) && value == JsonToken.VALUE_STRING) {
+                // An empty className is how the builders store "none"
+                if (!parser.getText().isEmpty()) {
+                    checkClass(parser.getText(), where, validation);
+                }
+            } else if (!value.isScalarValue()) {
+                scanPluginReferences(parser, where, validation);
+            }
+        }
+    }
+
+    private void checkClass(String className, String where, Validation validation) {
+        if (Boolean.FALSE.equals(PluginClassRegistry.isResolvable(className))) {
+            validation.problem("unknown plugin class " + className + " at " + where);
+        }
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * What is known about an element once its fields have been read
+     */
+    private static final class Element {
+        private String className;
+        private String id;
+        private String tableName;
+        private boolean hasChildren;
+    }
+
+    /**
+     * State of one validation pass
+     */
+    private static final class Validation {
+        private final List<String> problems = new ArrayList<>();
+        private final Set<String> ids = new HashSet<>();
+        private int omitted;
+        private int elementCount;
+
+        private void problem(String problem) {
+            if (problems.size() < MAX_PROBLEMS) {
+                problems.add(problem);
+            } else {
+                omitted++;
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import org.joget.commons.util.LogUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates the ids of the artifacts this plugin creates (API definitions, userview categories,
+ * menus and pages, API elements).
+ *
+ * Strategies (plugin property "idStrategy"):
+ * - timeOrdered: UUIDv7 - 48-bit millisecond timestamp then random bits, so ids created together sort
+ *   together and app_builder inserts append to the primary key index (default)
+ * - random: UUIDv4 from the shared SecureRandom, as before
+ * - deterministic: name-based UUID of (appId, formId, artifact), so re-creating an artifact for the
+ *   same form in the same app reproduces its id and updates it instead of adding a copy
+ *
+ * The time-ordered random bits come from ThreadLocalRandom: no lock is shared between threads.
+ * These ids name definitions; they are not secrets.
+ */
+public class IdGenerationService {
+
+    private static final String CLASS_NAME = IdGenerationService.class.getName();
+
+    // Prefix of the name hashed for deterministic ids
+    private static final String NAME_PREFIX = "formcreator:";
+
+    private volatile String strategy = ApiConstants.IdStrategies.TIME_ORDERED;
+
+    /**
+     * Apply the configured strategy (cheap when nothing changed)
+     *
+     * @param requestedStrategy timeOrdered, random or deterministic (anything else means timeOrdered)
+     */
+    public void configure(String requestedStrategy) {
+        String newStrategy = ApiConstants.IdStrategies.TIME_ORDERED;
+        if (ApiConstants.IdStrategies.RANDOM.equalsIgnoreCase(requestedStrategy)) {
+            newStrategy = ApiConstants.IdStrategies.RANDOM;
+        } else if (ApiConstants.IdStrategies.DETERMINISTIC.equalsIgnoreCase(requestedStrategy)) {
+            newStrategy = ApiConstants.IdStrategies.DETERMINISTIC;
+        }
+        if (!newStrategy.equals(strategy)) {
+            strategy = newStrategy;
+            LogUtil.info(CLASS_NAME, "Artifact id strategy: " + strategy);
+        }
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Whether artifact ids are reproduced when the same artifact is created again
+     */
+    public boolean isDeterministic() {
+        return ApiConstants.IdStrategies.DETERMINISTIC.equals(strategy);
+    }
+
+    /**
+     * Id of an artifact created for a form
+     *
+     * @param appId The target application ID
+     * @param formId The form the artifact is created for
+     * @param artifact Which artifact of the form (ApiConstants.IdArtifacts)
+     * @return Lowercase UUID string
+     */
+    public String artifactId(String appId, String formId, String artifact) {
+        String current = strategy;
+        if (ApiConstants.IdStrategies.DETERMINISTIC.equals(current)) {
+            return deterministicId(appId, formId, artifact);
+        }
+        return ApiConstants.IdStrategies.RANDOM.equals(current)
+            ? UUID.randomUUID().toString()
+            : timeOrderedId().toString();
+    }
+
+    /**
+     * Name-based (version 3) UUID of (appId, formId, artifact)
+     */
+    public static String deterministicId(String appId, String formId, String artifact) {
+        String name = NAME_PREFIX + appId + ":" + formId + ":" + artifact;
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * UUIDv7: unix_ts_ms(48) | ver(4) | rand_a(12) | var(2) | rand_b(62)
+     */
+    public static UUID timeOrderedId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long timestamp = System.currentTimeMillis() & 0xFFFF_FFFF_FFFFL;
+        long mostSigBits = (timestamp << 16) | 0x7000L | (random.nextInt() & 0x0FFFL);
+        long leastSigBits = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
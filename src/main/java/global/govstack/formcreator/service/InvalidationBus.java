@@ -0,0 +1,184 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.InvalidationEvent;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.commons.util.LogUtil;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Broadcasts definition changes to the other Joget nodes of a cluster.
+ *
+ * The node that writes a form, datalist, userview or API publishes (appId, version, artifactId,
+ * artifactType) events through an InvalidationTransport; every other node applies targeted
+ * evictions for them through FormCacheInvalidator. Publishing never fails the request that caused it.
+ *
+ * The transport is chosen with the formcreator.invalidation.transport system property: "none"
+ * (default), "database", or the class name of a custom InvalidationTransport. Broadcasting is off
+ * unless a cluster opts in, so a single-node install creates no table and runs no poller.
+ */
+public class InvalidationBus {
+
+    private static final String CLASS_NAME = InvalidationBus.class.getName();
+
+    private final FormCacheInvalidator invalidator;
+    private final InvalidationTransport transport;
+    private final String nodeId;
+    private volatile boolean started;
+
+    /**
+     * @param invalidator Applies received events to this node's caches
+     * @param transport Carries events between nodes (null disables broadcasting)
+     */
+    public InvalidationBus(FormCacheInvalidator invalidator, InvalidationTransport transport) {
+        this.invalidator = invalidator;
+        this.transport = transport;
+        this.nodeId = createNodeId();
+    }
+
+    /**
+     * Create the transport selected by the formcreator.invalidation.transport system property
+     *
+     * @return The transport, or null when broadcasting is disabled
+     */
+    public static InvalidationTransport createTransport() {
+        String selected = System.getProperty(ApiConstants.Invalidation.TRANSPORT_PROPERTY,
+                                             ApiConstants.Invalidation.TRANSPORT_NONE).trim();
+
+        if (ApiConstants.Invalidation.TRANSPORT_NONE.equalsIgnoreCase(selected)) {
+            return null;
+        }
+        if (ApiConstants.Invalidation.TRANSPORT_DATABASE.equalsIgnoreCase(selected)) {
+            return new DatabaseInvalidationTransport(
+                Long.getLong(ApiConstants.Invalidation.POLL_INTERVAL_PROPERTY, ApiConstants.Invalidation.DEFAULT_POLL_INTERVAL_MS));
+        }
+
+        try {
+            Class<?> transportClass = Class.forName(selected, true, InvalidationBus.class.getClassLoader());
+            return (InvalidationTransport) transportClass.getDeclaredConstructor().newInstance();
+        } catch (Exception | LinkageError e) {
+            LogUtil.error(CLASS_NAME, e, "Cannot create invalidation transport " + selected + " - broadcasting disabled");
+            return null;
+        }
+    }
+
+    /**
+     * Start receiving events from the other nodes (called from FormCreatorServices.initialize)
+     */
+    public synchronized void start() {
+        if (transport == null || started) {
+            return;
+        }
+        try {
+            transport.start(nodeId, this::apply);
+            started = true;
+            LogUtil.info(CLASS_NAME, "Cluster invalidation started on node " + nodeId + " via " +
+                         transport.getClass().getSimpleName());
+        } catch (Exception e) {
+            LogUtil.error(CLASS_NAME, e, "Cluster invalidation could not start - other nodes' changes " +
+                          "become visible here only when local caches expire");
+        }
+    }
+
+    /**
+     * Stop receiving events (called when the service graph is stopped)
+     */
+    public synchronized void stop() {
+        if (started) {
+            transport.stop();
+            started = false;
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Create an event for a change made on this node
+     *
+     * @param appDef The application of the changed artifact
+     * @param artifactType Kind of artifact
+     * @param artifactId ID of the artifact (null for APP events)
+     * @return The event
+     */
+    public InvalidationEvent event(AppDefinition appDef, InvalidationEvent.ArtifactType artifactType, String artifactId) {
+        return new InvalidationEvent(
+            UUID.randomUUID().toString(),
+            nodeId,
+            System.currentTimeMillis(),
+            appDef.getAppId(),
+            String.valueOf(appDef.getVersion()),
+            artifactId,
+            artifactType
+        );
+    }
+
+    /**
+     * Publish changes of several artifacts of one type
+     *
+     * @param appDef The application of the changed artifacts
+     * @param artifactType Kind of artifacts
+     * @param artifactIds IDs of the changed artifacts
+     */
+    public void publish(AppDefinition appDef, InvalidationEvent.ArtifactType artifactType, Collection<String> artifactIds) {
+        List<InvalidationEvent> events = new ArrayList<>(artifactIds.size());
+        for (String artifactId : artifactIds) {
+            events.add(event(appDef, artifactType, artifactId));
+        }
+        publish(events);
+    }
+
+    /**
+     * Publish events to the other nodes; failures are logged, never thrown
+     *
+     * @param events Events for changes made on this node
+     */
+    public void publish(List<InvalidationEvent> events) {
+        if (transport == null || events.isEmpty()) {
+            return;
+        }
+        try {
+            transport.publish(events);
+            MetricsUtil.add(ApiConstants.Metrics.INVALIDATION_PUBLISHED, events.size());
+        } catch (Exception e) {
+            MetricsUtil.add(ApiConstants.Metrics.INVALIDATION_PUBLISH_FAILED, events.size());
+            LogUtil.warn(CLASS_NAME, "Could not broadcast " + events.size() + " invalidation event(s) - " +
+                         "other nodes keep stale caches until they expire: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Apply an event received from another node
+     */
+    private void apply(InvalidationEvent event) {
+        if (nodeId.equals(event.getOriginNodeId())) {
+            return;
+        }
+        try {
+            invalidator.evict(event);
+            MetricsUtil.increment(ApiConstants.Metrics.INVALIDATION_APPLIED);
+        } catch (RuntimeException e) {
+            LogUtil.warn(CLASS_NAME, "Could not apply " + event + ": " + e.getMessage());
+        }
+    }
+
+    private static String createNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        if (host.length() > 100) {
+            host = host.substring(0, 100);
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
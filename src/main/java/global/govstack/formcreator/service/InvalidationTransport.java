@@ -0,0 +1,39 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.model.InvalidationEvent;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries invalidation events between Joget nodes for the InvalidationBus.
+ *
+ * Implementations must deliver every event published on one node to the listener of every other
+ * node at least once; the bus drops duplicates and the node's own events. The built-in
+ * implementation is DatabaseInvalidationTransport ("database"); another one can be selected by class
+ * name with the formcreator.invalidation.transport system property (public no-arg constructor required).
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Start receiving events
+     *
+     * @param nodeId ID of this node
+     * @param listener Called for each received event (on the transport's own thread)
+     * @throws Exception if the transport cannot be started
+     */
+    void start(String nodeId, Consumer<InvalidationEvent> listener) throws Exception;
+
+    /**
+     * Publish events to the other nodes
+     *
+     * @param events Events published by this node
+     * @throws Exception if the events could not be published
+     */
+    void publish(List<InvalidationEvent> events) throws Exception;
+
+    /**
+     * Stop receiving events and release resources
+     */
+    void stop();
+}
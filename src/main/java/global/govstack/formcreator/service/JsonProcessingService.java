@@ -1,14 +1,16 @@
 package global.govstack.formcreator.service;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.DatalistSpec;
+import global.govstack.formcreator.model.FormElementIndex;
+import global.govstack.formcreator.util.JsonQuery;
 import org.joget.apps.form.model.Form;
 import org.joget.apps.form.service.FormService;
 import org.joget.commons.util.LogUtil;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for JSON processing operations including parsing, validation, and generation
@@ -17,6 +19,23 @@ public class JsonProcessingService {
 
     private static final String CLASS_NAME = JsonProcessingService.class.getName();
 
+    private final IdGenerationService idGenerationService;
+    private final ParsedFormCache parsedFormCache;
+
+    // Compiled "**.<key>" queries of extractJsonValue, one per key
+    private final Map<String, JsonQuery> keyQueries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor with service dependencies
+     *
+     * @param idGenerationService Generates the ids embedded in generated definitions
+     * @param parsedFormCache Cache of Forms built from definitions
+     */
+    public JsonProcessingService(IdGenerationService idGenerationService, ParsedFormCache parsedFormCache) {
+        this.idGenerationService = idGenerationService;
+        this.parsedFormCache = parsedFormCache;
+    }
+
     /**
      * Validate if a string is valid JSON
      */
@@ -44,8 +63,8 @@ public class JsonProcessingService {
                 jsonContent = jsonContent.substring(1);
             }
 
-            // Use Joget's FormService to create a Form object from JSON
-            Form form = (Form) formService.createElementFromJson(jsonContent);
+            // Use Joget's FormService to create a Form object from JSON (cached by definition hash)
+            Form form = parsedFormCache.get(jsonContent, formService);
 
             if (form != null) {
                 LogUtil.info(CLASS_NAME, "JSON parsed successfully into Form object");
@@ -67,10 +86,10 @@ public class JsonProcessingService {
     /**
      * Generate API definition JSON for a form
      */
-    public String generateApiDefinitionJson(String formId, String apiName, String apiUuid) {
+    public String generateApiDefinitionJson(String appId, String formId, String apiName, String apiUuid) {
         try {
             // Generate unique element ID
-            String elementId = UUID.randomUUID().toString().toUpperCase();
+            String elementId = idGenerationService.artifactId(appId, formId, ApiConstants.IdArtifacts.API_ELEMENT).toUpperCase();
 
             // Build JSON structure
             StringBuilder json = new StringBuilder();
@@ -104,10 +123,43 @@ public class JsonProcessingService {
      * Generate datalist definition JSON for a form
      */
     public String generateDatalistDefinitionJson(String formId, String datalistName, String datalistId, String formJson) {
+        return generateDatalistDefinitionJson(formId, datalistName, datalistId, buildFormElementIndex(formJson), null);
+    }
+
+    /**
+     * Generate datalist definition JSON for a form from its element index.
+     *
+     * @param formIndex The form's element index
+     * @param spec Optional datalist layout (columns, sort, page size, filters); null for the default layout
+     */
+    public String generateDatalistDefinitionJson(String formId, String datalistName, String datalistId,
+                                                 FormElementIndex formIndex, DatalistSpec spec) {
         try {
-            // Extract form fields to generate columns
-            // Note: This extracts only user-defined fields (max 6), excluding system columns
-            List<Map<String, String>> columns = extractFormFieldsForDatalist(formJson);
+            List<String> columnNames = new ArrayList<>();
+            List<String> columnLabels = new ArrayList<>();
+            resolveDatalistColumns(formIndex, spec, columnNames, columnLabels);
+
+            List<String> filterNames = new ArrayList<>();
+            List<String> filterLabels = new ArrayList<>();
+            if (spec != null) {
+                resolveFields(formIndex, spec.getFilters(), "filter", filterNames, filterLabels);
+            }
+
+            String orderBy = "";
+            String order = "";
+            if (spec != null && spec.getSortBy() != null && !spec.getSortBy().trim().isEmpty()) {
+                List<String> sortNames = new ArrayList<>();
+                resolveFields(formIndex, Collections.singletonList(spec.getSortBy().trim()), "sort", sortNames, new ArrayList<>());
+                if (!sortNames.isEmpty()) {
+                    orderBy = sortNames.get(0);
+                    order = spec.isSortDescending() ? ApiConstants.DatalistOrder.DESCENDING : ApiConstants.DatalistOrder.ASCENDING;
+                }
+            }
+            int pageSize = spec != null ? Math.max(spec.getPageSize(), 0) : 0;
+
+            if (columnNames.isEmpty()) {
+                LogUtil.warn(CLASS_NAME, "Datalist will be created with no columns - Joget will use default columns");
+            }
 
             // Build JSON structure
             StringBuilder json = new StringBuilder();
@@ -118,23 +170,38 @@ public class JsonProcessingService {
             json.append("    \"columns\": [\n");
 
             // Add columns (if empty, Joget will use default columns)
-            for (int i = 0; i < columns.size(); i++) {
-                Map<String, String> field = columns.get(i);
+            for (int i = 0; i < columnNames.size(); i++) {
                 json.append("        {\n");
-                json.append("            \"name\": \"").append(field.get("name")).append("\",\n");
+                json.append("            \"name\": \"").append(escapeJson(columnNames.get(i))).append("\",\n");
                 json.append("            \"id\": \"column_").append(i).append("\",\n");
-                json.append("            \"label\": \"").append(field.get("label")).append("\"\n");
+                json.append("            \"label\": \"").append(escapeJson(columnLabels.get(i))).append("\"\n");
                 json.append("        }");
-                if (i < columns.size() - 1) {
+                if (i < columnNames.size() - 1) {
                     json.append(",");
                 }
                 json.append("\n");
             }
 
             json.append("    ],\n");
-            json.append("    \"pageSize\": 0,\n");
-            json.append("    \"orderBy\": \"\",\n");
-            json.append("    \"filters\": [],\n");
+            json.append("    \"pageSize\": ").append(pageSize).append(",\n");
+            json.append("    \"orderBy\": \"").append(escapeJson(orderBy)).append("\",\n");
+            json.append("    \"filters\": [");
+
+            // Add filters (text filters work for every storage type)
+            for (int i = 0; i < filterNames.size(); i++) {
+                json.append(i == 0 ? "\n" : ",\n");
+                json.append("        {\n");
+                json.append("            \"id\": \"filter_").append(i).append("\",\n");
+                json.append("            \"name\": \"").append(escapeJson(filterNames.get(i))).append("\",\n");
+                json.append("            \"label\": \"").append(escapeJson(filterLabels.get(i))).append("\",\n");
+                json.append("            \"type\": {\n");
+                json.append("                \"className\": \"").append(ApiConstants.JogetClasses.TEXT_FIELD_FILTER_TYPE).append("\",\n");
+                json.append("                \"properties\": {}\n");
+                json.append("            }\n");
+                json.append("        }");
+            }
+            json.append(filterNames.isEmpty() ? "],\n" : "\n    ],\n");
+
             json.append("    \"pageSizeSelectorOptions\": \"10,20,30,40,50,100\",\n");
             json.append("    \"buttonPosition\": \"bothLeft\",\n");
             json.append("    \"checkboxPosition\": \"left\",\n");
@@ -145,7 +212,7 @@ public class JsonProcessingService {
             json.append("        \"properties\": {\"formDefId\": \"").append(formId).append("\"}\n");
             json.append("    },\n");
             json.append("    \"actions\": [],\n");
-            json.append("    \"order\": \"\"\n");
+            json.append("    \"order\": \"").append(order).append("\"\n");
             json.append("}\n");
 
             return json.toString();
@@ -156,16 +223,60 @@ public class JsonProcessingService {
         }
     }
 
+    /**
+     * Resolve datalist columns according to the spec's column strategy
+     */
+    private void resolveDatalistColumns(FormElementIndex formIndex, DatalistSpec spec,
+                                        List<String> names, List<String> labels) {
+        DatalistSpec.ColumnStrategy strategy = spec != null ? spec.getColumnStrategy() : DatalistSpec.ColumnStrategy.FIRST;
+
+        if (strategy == DatalistSpec.ColumnStrategy.EXPLICIT) {
+            resolveFields(formIndex, spec.getColumns(), "column", names, labels);
+            return;
+        }
+
+        int count = formIndex.size();
+        if (strategy == DatalistSpec.ColumnStrategy.FIRST) {
+            int max = spec != null && spec.getMaxColumns() > 0 ? spec.getMaxColumns() : ApiConstants.Defaults.MAX_DATALIST_COLUMNS;
+            count = Math.min(count, max);
+        }
+        for (int i = 0; i < count; i++) {
+            names.add(formIndex.getId(i));
+            labels.add(formIndex.getLabel(i));
+        }
+    }
+
+    /**
+     * Resolve requested field ids against the form index; system columns are accepted as-is, unknown ids are skipped
+     */
+    private void resolveFields(FormElementIndex formIndex, List<String> fieldIds, String usage,
+                               List<String> names, List<String> labels) {
+        for (String fieldId : fieldIds) {
+            int position = formIndex.indexOf(fieldId);
+            if (position >= 0) {
+                names.add(fieldId);
+                labels.add(formIndex.getLabel(position));
+            } else if (FormElementIndex.isSystemColumn(fieldId)) {
+                names.add(fieldId);
+                labels.add(fieldId);
+            } else {
+                LogUtil.warn(CLASS_NAME, "Ignoring unknown datalist " + usage + " field: " + fieldId);
+            }
+        }
+    }
+
     /**
      * Generate userview definition JSON with CRUD menu for a form
      */
-    public String generateUserviewDefinitionJson(String formId, String datalistId, String userviewName, String userviewId) {
+    public String generateUserviewDefinitionJson(String appId, String formId, String datalistId, String userviewName,
+                                                 String userviewId) {
         try {
             // Generate unique IDs
-            String categoryId = "category-" + UUID.randomUUID().toString();
-            String menuId = UUID.randomUUID().toString();
-            String welcomePageId = UUID.randomUUID().toString();
-            String homeCategory = "category-" + UUID.randomUUID().toString();
+            String categoryId = generateCategoryId(appId, formId);
+            String menuId = idGenerationService.artifactId(appId, formId, ApiConstants.IdArtifacts.USERVIEW_MENU);
+            String welcomePageId = idGenerationService.artifactId(appId, formId, ApiConstants.IdArtifacts.USERVIEW_WELCOME_PAGE);
+            String homeCategory = ApiConstants.IdPrefixes.CATEGORY +
+                                  idGenerationService.artifactId(appId, formId, ApiConstants.IdArtifacts.USERVIEW_HOME_CATEGORY);
 
             // Build JSON structure
             StringBuilder json = new StringBuilder();
@@ -250,12 +361,20 @@ public class JsonProcessingService {
         }
     }
 
+    /**
+     * Id of the CRUD category generated for a form (stable across calls only with deterministic ids)
+     */
+    public String generateCategoryId(String appId, String formId) {
+        return ApiConstants.IdPrefixes.CATEGORY +
+               idGenerationService.artifactId(appId, formId, ApiConstants.IdArtifacts.USERVIEW_CATEGORY);
+    }
+
     /**
      * Generate JSON for a single category with CRUD menu
      */
-    public String generateCategoryJson(String formId, String datalistId, String formLabel) {
-        String categoryId = "category-" + UUID.randomUUID().toString();
-        String menuId = UUID.randomUUID().toString();
+    public String generateCategoryJson(String appId, String formId, String datalistId, String formLabel) {
+        String categoryId = generateCategoryId(appId, formId);
+        String menuId = idGenerationService.artifactId(appId, formId, ApiConstants.IdArtifacts.USERVIEW_MENU);
         String customId = formId + "_crud";
 
         StringBuilder json = new StringBuilder();
@@ -388,123 +507,46 @@ public class JsonProcessingService {
     }
 
     /**
-     * Extract form fields from form JSON to generate datalist columns.
-     * Uses proper JSON parsing (Gson) instead of regex for robust handling of nested objects.
+     * Build the element index of a form definition.
+     * Returns an empty index (and logs) if the JSON cannot be parsed, so callers can fall back to defaults.
      */
-    public List<Map<String, String>> extractFormFieldsForDatalist(String formJson) {
-        List<Map<String, String>> fields = new ArrayList<>();
-
+    public FormElementIndex buildFormElementIndex(String formJson) {
         try {
-            // System columns to exclude from datalist (Joget internal fields)
-            Set<String> systemColumns = new HashSet<>(java.util.Arrays.asList(
-                "id", "dateCreated", "dateModified",
-                "createdBy", "createdByName",
-                "modifiedBy", "modifiedByName"
-            ));
-
-            // Maximum number of columns to show in datalist
-            final int MAX_COLUMNS = 6;
-
-            // Parse JSON using Gson (architecturally correct: JSON parser for JSON, not regex)
-            JsonParser parser = new JsonParser();
-            JsonElement root = parser.parse(formJson);
-
-            // Recursively traverse the JSON tree to find form fields
-            extractFieldsFromElement(root, fields, systemColumns, MAX_COLUMNS);
-
-            // Log results
-            if (fields.isEmpty()) {
-                LogUtil.warn(CLASS_NAME, "No user-defined fields extracted from form JSON");
-                LogUtil.warn(CLASS_NAME, "Datalist will be created with no columns - Joget will use default columns");
+            FormElementIndex index = FormElementIndex.build(formJson);
+            if (index.isEmpty()) {
+                LogUtil.warn(CLASS_NAME, "No user-defined fields found in form JSON");
             } else {
-                LogUtil.info(CLASS_NAME, "Successfully extracted " + fields.size() + " user-defined fields for datalist columns");
+                LogUtil.info(CLASS_NAME, "Indexed " + index.size() + " fields out of " +
+                             index.getElementCount() + " form elements");
             }
-
+            return index;
         } catch (Exception e) {
-            LogUtil.error(CLASS_NAME, e, "Error extracting fields from form JSON: " + e.getMessage());
-            LogUtil.warn(CLASS_NAME, "Datalist will be created with no columns - Joget will use default columns");
+            LogUtil.error(CLASS_NAME, e, "Error indexing form JSON: " + e.getMessage());
+            return FormElementIndex.empty();
         }
-
-        return fields;
     }
 
     /**
-     * Recursively traverse JSON tree to find form field elements.
-     */
-    private void extractFieldsFromElement(JsonElement element,
-                                         List<Map<String, String>> fields,
-                                         Set<String> systemColumns,
-                                         int maxColumns) {
-
-        // Stop when we have enough columns
-        if (fields.size() >= maxColumns) {
-            return;
-        }
-
-        if (element.isJsonObject()) {
-            JsonObject obj = element.getAsJsonObject();
-
-            // Check if this is a form field element
-            if (obj.has("className") && obj.has("properties")) {
-                String className = obj.get("className").getAsString();
-
-                // Is it a form field? (not Section, Column, Form, etc.)
-                if (className.contains("org.joget.apps.form.lib.")) {
-                    JsonObject props = obj.getAsJsonObject("properties");
-
-                    if (props.has("id")) {
-                        String fieldId = props.get("id").getAsString();
-
-                        // Filter out system columns and layout elements
-                        if (fieldId != null && !fieldId.isEmpty() &&
-                            !fieldId.startsWith("section") &&
-                            !fieldId.startsWith("column") &&
-                            !systemColumns.contains(fieldId)) {
-
-                            String fieldLabel = props.has("label") ?
-                                props.get("label").getAsString() : fieldId;
-
-                            Map<String, String> field = new HashMap<>();
-                            field.put("name", fieldId);
-                            field.put("label", fieldLabel);
-                            fields.add(field);
-
-                            LogUtil.info(CLASS_NAME, "Extracted field " + fields.size() +
-                                ": id=" + fieldId + ", label=" + fieldLabel);
-                        }
-                    }
-                }
-            }
-
-            // Recursively process all properties in this object
-            for (Map.Entry<String, JsonElement> entry : obj.entrySet()) {
-                extractFieldsFromElement(entry.getValue(), fields, systemColumns, maxColumns);
-            }
-
-        } else if (element.isJsonArray()) {
-            // Recursively process array elements
-            JsonArray array = element.getAsJsonArray();
-            for (JsonElement item : array) {
-                extractFieldsFromElement(item, fields, systemColumns, maxColumns);
-            }
-        }
-        // Primitives (strings, numbers, etc.) are ignored
-    }
-
-    /**
-     * Extract a JSON value for a given key
+     * Extract the first string value of a key, at any depth
+     *
+     * @param jsonBlock The JSON text
+     * @param key The field name
+     * @return The value, or null if the key is absent, not a string, or the JSON cannot be read
      */
     public String extractJsonValue(String jsonBlock, String key) {
+        if (jsonBlock == null || key == null) {
+            return null;
+        }
+        String path = "**." + key;
         try {
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(
-                "\"" + key + "\":\\s*\"([^\"]*)\""
-            );
-            java.util.regex.Matcher matcher = pattern.matcher(jsonBlock);
-            if (matcher.find()) {
-                return matcher.group(1);
+            JsonQuery query = keyQueries.computeIfAbsent(key, k -> JsonQuery.compile(path));
+            for (JsonQuery.Match match : query.evaluate(jsonBlock).get(path)) {
+                if (match.getType() == JsonQuery.ValueType.STRING) {
+                    return match.getValue();
+                }
             }
-        } catch (Exception e) {
-            // Ignore
+        } catch (IOException | IllegalArgumentException e) {
+            LogUtil.debug(CLASS_NAME, "Cannot extract '" + key + "': " + e.getMessage());
         }
         return null;
     }
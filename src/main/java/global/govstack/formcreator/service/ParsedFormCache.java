@@ -0,0 +1,184 @@
+package global.govstack.formcreator.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.apps.form.model.Form;
+import org.joget.apps.form.service.FormService;
+import org.joget.commons.util.LogUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bounded LRU cache of Form objects built by FormService.createElementFromJson, keyed by the
+ * SHA-256 of the definition's canonical JSON (object keys sorted, insignificant whitespace removed).
+ *
+ * Building a Form instantiates every element plugin in it, which dominates the CPU cost of large
+ * forms. Only JsonProcessingService.parseAndValidateFormJson builds Forms: form creation, dry-run
+ * planning and the bootstrap validate definitions with FormStructureValidator and never build one,
+ * so they do not use this cache. The cache is bounded both by entry count and by the total length
+ * of the cached definitions, which stands in for the size of the element trees. Cached Forms are
+ * shared: callers only use them to check that the definition builds and must not modify them.
+ * Owned by the FormCreatorServices graph and dropped with it when the bundle stops, so no Form
+ * outlives the element plugin classes it was built from.
+ */
+public class ParsedFormCache {
+
+    private static final String CLASS_NAME = ParsedFormCache.class.getName();
+
+    /**
+     * Cached Form with the length of the definition it was built from
+     */
+    private static final class CacheEntry {
+        private final Form form;
+        private final int weight;
+
+        private CacheEntry(Form form, int weight) {
+            this.form = form;
+            this.weight = weight;
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxWeight;
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    /**
+     * Create a cache
+     *
+     * @param maxEntries Maximum number of cached Forms
+     * @param maxWeight Maximum total length (chars) of the cached definitions
+     */
+    public ParsedFormCache(int maxEntries, long maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Get the Form of a definition, building it through FormService on a miss
+     *
+     * @param formJson The form definition JSON
+     * @param formService The form service used on cache misses
+     * @return The (shared, read-only) Form, or null if FormService could not build one
+     */
+    public Form get(String formJson, FormService formService) {
+        String key = canonicalHash(formJson);
+        Form cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Built outside the lock: concurrent misses on one definition may both build, the last store wins
+        Form form = (Form) formService.createElementFromJson(formJson);
+        if (form != null) {
+            store(key, form, formJson.length());
+        }
+        return form;
+    }
+
+    /**
+     * Drop every cached Form
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+        updateSizeGauges();
+    }
+
+    /**
+     * SHA-256 of a definition's canonical JSON, or of the raw text when it is not valid JSON
+     *
+     * @param json The definition JSON
+     * @return Lowercase hex digest
+     */
+    public static String canonicalHash(String json) {
+        String content = json;
+        try {
+            StringBuilder canonical = new StringBuilder(json.length());
+            writeCanonical(JsonParser.parseString(json), canonical);
+            content = canonical.toString();
+        } catch (JsonParseException e) {
+            LogUtil.debug(CLASS_NAME, "Definition is not valid JSON, hashing raw text: " + e.getMessage());
+        }
+        return DefinitionFileWriter.sha256(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeCanonical(JsonElement element, StringBuilder out) {
+        if (element.isJsonObject()) {
+            Map<String, JsonElement> sorted = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> member : ((JsonObject) element).entrySet()) {
+                sorted.put(member.getKey(), member.getValue());
+            }
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<String, JsonElement> member : sorted.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                // A JsonPrimitive's toString is its escaped JSON literal
+                out.append(new JsonPrimitive(member.getKey())).append(':');
+                writeCanonical(member.getValue(), out);
+            }
+            out.append('}');
+        } else if (element.isJsonArray()) {
+            out.append('[');
+            JsonArray array = (JsonArray) element;
+            for (int i = 0; i < array.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                writeCanonical(array.get(i), out);
+            }
+            out.append(']');
+        } else {
+            out.append(element);
+        }
+    }
+
+    private synchronized Form lookup(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null) {
+            MetricsUtil.increment(ApiConstants.Metrics.PARSED_FORM_CACHE_HITS);
+            return entry.form;
+        }
+        MetricsUtil.increment(ApiConstants.Metrics.PARSED_FORM_CACHE_MISSES);
+        return null;
+    }
+
+    private synchronized void store(String key, Form form, int formWeight) {
+        if (formWeight > maxWeight) {
+            // Larger than the whole cache: caching it would evict everything else
+            return;
+        }
+
+        CacheEntry previous = entries.put(key, new CacheEntry(form, formWeight));
+        if (previous != null) {
+            weight -= previous.weight;
+        }
+        weight += formWeight;
+
+        Iterator<CacheEntry> eldest = entries.values().iterator();
+        while ((entries.size() > maxEntries || weight > maxWeight) && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            MetricsUtil.increment(ApiConstants.Metrics.PARSED_FORM_CACHE_EVICTIONS);
+        }
+        updateSizeGauges();
+    }
+
+    private void updateSizeGauges() {
+        MetricsUtil.setGauge(ApiConstants.Metrics.PARSED_FORM_CACHE_SIZE, entries.size());
+        MetricsUtil.setGauge(ApiConstants.Metrics.PARSED_FORM_CACHE_CHARS, weight);
+    }
+}
@@ -0,0 +1,394 @@
+package global.govstack.formcreator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.PayloadTooLargeException;
+import global.govstack.formcreator.exception.ValidationException;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.commons.util.LogUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Bounded-memory pre-scan of request payloads, run before anything is parsed into objects.
+ *
+ * The declared Content-Length is checked before the body is read. A body that has been read is then
+ * tokenized once with a streaming parser that keeps no tree: only the current depth and a running
+ * element count. Limits:
+ * - byte size (UTF-8) - 413
+ * - nesting depth, element count (every value in the document) and string length - 413
+ * - malformed JSON or trailing content - 400
+ *
+ * The streaming parser does not recurse, so a deeply nested body is rejected at the first level over
+ * the limit without growing the stack. Every rejection is counted under payload.rejected.*.
+ *
+ * A record stream (bulk import) is scanned one record at a time with the same limits per record,
+ * copying the record's tokens so it is built into a tree only after it has passed.
+ */
+public class PayloadPreScanner {
+
+    private static final String CLASS_NAME = PayloadPreScanner.class.getName();
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * One consistent set of limits
+     */
+    private static final class Limits {
+        private final int maxBytes;
+        private final int maxDepth;
+        private final int maxElements;
+        private final int maxStringLength;
+        private final int maxCompressionRatio;
+
+        private Limits(int maxBytes, int maxDepth, int maxElements, int maxStringLength, int maxCompressionRatio) {
+            this.maxBytes = maxBytes;
+            this.maxDepth = maxDepth;
+            this.maxElements = maxElements;
+            this.maxStringLength = maxStringLength;
+            this.maxCompressionRatio = maxCompressionRatio;
+        }
+    }
+
+    /**
+     * Position of a scan: current depth and values seen
+     */
+    private static final class ScanState {
+        private int depth;
+        private int elements;
+    }
+
+    private volatile Limits limits = new Limits(
+        ApiConstants.Defaults.PAYLOAD_MAX_BYTES,
+        ApiConstants.Defaults.PAYLOAD_MAX_DEPTH,
+        ApiConstants.Defaults.PAYLOAD_MAX_ELEMENTS,
+        ApiConstants.Defaults.PAYLOAD_MAX_STRING_LENGTH,
+        ApiConstants.Defaults.PAYLOAD_MAX_COMPRESSION_RATIO
+    );
+
+    /**
+     * Apply payload limits. Values below 1 keep the defaults.
+     *
+     * @param maxBytes Largest body in bytes
+     * @param maxDepth Deepest object/array nesting
+     * @param maxElements Most values in one document
+     * @param maxStringLength Longest string value or field name, in characters
+     * @param maxCompressionRatio Largest decoded/compressed size ratio of a compressed body
+     */
+    public void configure(int maxBytes, int maxDepth, int maxElements, int maxStringLength, int maxCompressionRatio) {
+        Limits current = limits;
+        Limits requested = new Limits(
+            maxBytes > 0 ? maxBytes : ApiConstants.Defaults.PAYLOAD_MAX_BYTES,
+            maxDepth > 0 ? maxDepth : ApiConstants.Defaults.PAYLOAD_MAX_DEPTH,
+            maxElements > 0 ? maxElements : ApiConstants.Defaults.PAYLOAD_MAX_ELEMENTS,
+            maxStringLength > 0 ? maxStringLength : ApiConstants.Defaults.PAYLOAD_MAX_STRING_LENGTH,
+            maxCompressionRatio > 0 ? maxCompressionRatio : ApiConstants.Defaults.PAYLOAD_MAX_COMPRESSION_RATIO
+        );
+        if (requested.maxBytes != current.maxBytes || requested.maxDepth != current.maxDepth ||
+            requested.maxElements != current.maxElements || requested.maxStringLength != current.maxStringLength ||
+            requested.maxCompressionRatio != current.maxCompressionRatio) {
+            limits = requested;
+            LogUtil.info(CLASS_NAME, "Payload limits: bytes=" + requested.maxBytes + ", depth=" + requested.maxDepth +
+                         ", elements=" + requested.maxElements + ", stringLength=" + requested.maxStringLength +
+                         ", compressionRatio=" + requested.maxCompressionRatio);
+        }
+    }
+
+    /**
+     * Largest body accepted, in bytes (decoded size for a compressed body)
+     */
+    public int getMaxBytes() {
+        return limits.maxBytes;
+    }
+
+    /**
+     * Largest decoded/compressed size ratio accepted for a compressed body
+     */
+    public int getMaxCompressionRatio() {
+        return limits.maxCompressionRatio;
+    }
+
+    /**
+     * Reject a body by its declared length, before it is read
+     *
+     * @param contentLength Declared Content-Length (negative if unknown)
+     * @throws PayloadTooLargeException if the declared length is over the byte limit
+     */
+    public void checkContentLength(long contentLength) {
+        int maxBytes = limits.maxBytes;
+        if (contentLength > maxBytes) {
+            throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_SIZE,
+                         "Request body of " + contentLength + " bytes exceeds the limit of " + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * Pre-scan a JSON payload
+     *
+     * @param json The payload (null or blank is left to the parser's own checks)
+     * @throws PayloadTooLargeException if a limit is exceeded
+     * @throws ValidationException if the payload is not well-formed JSON
+     */
+    public void scan(String json) {
+        if (json == null || json.isEmpty()) {
+            return;
+        }
+        Limits current = limits;
+        // Every char is at least one UTF-8 byte, so only a body that might fit is measured exactly
+        if (json.length() > current.maxBytes || utf8Length(json, current.maxBytes) > current.maxBytes) {
+            throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_SIZE,
+                         "Request body exceeds the limit of " + current.maxBytes + " bytes");
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            scan(parser, current);
+        } catch (IOException e) {
+            throw malformed(e);
+        }
+    }
+
+    /**
+     * Pre-scan a JSON payload held as bytes (an uploaded definition file)
+     *
+     * @param json The payload (null or empty is left to the parser's own checks)
+     * @throws PayloadTooLargeException if a limit is exceeded
+     * @throws ValidationException if the payload is not well-formed JSON
+     */
+    public void scan(byte[] json) {
+        scan(json, JSON_FACTORY);
+    }
+
+    /**
+     * Pre-scan a payload in any format with a Jackson streaming parser (JSON, CBOR, Smile)
+     *
+     * @param payload The payload (null or empty is left to the parser's own checks)
+     * @param factory Parser factory of the payload's format
+     * @throws PayloadTooLargeException if a limit is exceeded
+     * @throws ValidationException if the payload is not a well-formed document
+     */
+    public void scan(byte[] payload, JsonFactory factory) {
+        if (payload == null || payload.length == 0) {
+            return;
+        }
+        Limits current = limits;
+        if (payload.length > current.maxBytes) {
+            throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_SIZE,
+                         "Payload of " + payload.length + " bytes exceeds the limit of " + current.maxBytes + " bytes");
+        }
+        try (JsonParser parser = factory.createParser(payload)) {
+            scan(parser, current);
+        } catch (IOException e) {
+            throw malformed(e);
+        }
+    }
+
+    /**
+     * Read a request body, failing as soon as it is over the byte limit
+     *
+     * @param in The request body
+     * @return The body
+     * @throws PayloadTooLargeException if the body is over the byte limit
+     * @throws IOException if the body cannot be read
+     */
+    public byte[] read(InputStream in) throws IOException {
+        return read(in, -1);
+    }
+
+    /**
+     * Read a request body of known length into a buffer of that size, so a body that matches its
+     * declared length is read without growing or copying the buffer
+     *
+     * @param in The request body
+     * @param expectedLength Declared length in bytes (negative if unknown)
+     * @return The body
+     * @throws PayloadTooLargeException if the body is over the byte limit
+     * @throws IOException if the body cannot be read
+     */
+    public byte[] read(InputStream in, long expectedLength) throws IOException {
+        int maxBytes = limits.maxBytes;
+        // Never larger than the limit: the limit is checked each time the buffer is full
+        byte[] buffer = new byte[expectedLength >= 0 && expectedLength <= maxBytes
+                                 ? (int) expectedLength : Math.min(8192, maxBytes)];
+        int size = 0;
+        while (true) {
+            if (size == buffer.length) {
+                // Past the declared length (or the initial buffer): probe for more before growing
+                int next = in.read();
+                if (next == -1) {
+                    return buffer;
+                }
+                if (size + 1 > maxBytes) {
+                    throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_SIZE,
+                                 "Request body exceeds the limit of " + maxBytes + " bytes");
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(maxBytes, Math.max(8192L, buffer.length * 2L)));
+                buffer[size++] = (byte) next;
+            }
+            int bytesRead = in.read(buffer, size, buffer.length - size);
+            if (bytesRead == -1) {
+                return size == buffer.length ? buffer : Arrays.copyOf(buffer, size);
+            }
+            size += bytesRead;
+        }
+    }
+
+    /**
+     * Pre-scan one record of a record stream and copy its tokens, so the record is only built into
+     * objects once it is known to be within the limits. The parser is positioned on the record's
+     * first token and is left on its last.
+     *
+     * The byte limit applies to the record's span in the stream. A rejected record is skipped to its
+     * end before the exception is thrown, so the caller can go on with the next record.
+     *
+     * @param parser Parser of the record stream
+     * @return The record's tokens
+     * @throws PayloadTooLargeException if the record is over a limit
+     * @throws IOException if the stream cannot be read or is malformed
+     */
+    public TokenBuffer scanRecord(JsonParser parser) throws IOException {
+        Limits current = limits;
+        ScanState state = new ScanState();
+        TokenBuffer copy = new TokenBuffer(parser);
+        long start = offsetOf(parser.getTokenLocation());
+        JsonToken token = parser.currentToken();
+        try {
+            do {
+                check(parser, token, state, current);
+                if (offsetOf(parser.getCurrentLocation()) - start > current.maxBytes) {
+                    throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_SIZE,
+                                 "Record exceeds the limit of " + current.maxBytes + " bytes");
+                }
+                copy.copyCurrentEvent(parser);
+            } while (state.depth > 0 && (token = parser.nextToken()) != null);
+        } catch (PayloadTooLargeException e) {
+            copy.close();
+            skipRecord(parser, state.depth);
+            throw e;
+        }
+        MetricsUtil.increment(ApiConstants.Metrics.PAYLOAD_SCANNED);
+        return copy;
+    }
+
+    /**
+     * Tokenize the whole document, tracking depth, values and string lengths
+     */
+    private void scan(JsonParser parser, Limits current) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return;
+        }
+        ScanState state = new ScanState();
+        do {
+            check(parser, token, state, current);
+        } while (state.depth > 0 && (token = parser.nextToken()) != null);
+
+        if (parser.nextToken() != null) {
+            throw new JsonParseException(parser, "Unexpected content after the end of the document");
+        }
+        MetricsUtil.increment(ApiConstants.Metrics.PAYLOAD_SCANNED);
+    }
+
+    /**
+     * Check one token against the limits
+     */
+    private void check(JsonParser parser, JsonToken token, ScanState state, Limits current) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+            case START_ARRAY:
+                if (++state.depth > current.maxDepth) {
+                    throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_DEPTH,
+                                 "Payload nesting exceeds the limit of " + current.maxDepth + " levels");
+                }
+                break;
+            case END_OBJECT:
+            case END_ARRAY:
+                state.depth--;
+                return;
+            case FIELD_NAME:
+            case VALUE_STRING:
+                if (parser.getTextLength() > current.maxStringLength) {
+                    throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_STRING_LENGTH,
+                                 "Payload string at line " + parser.getTokenLocation().getLineNr() +
+                                 " exceeds the limit of " + current.maxStringLength + " characters");
+                }
+                if (token == JsonToken.FIELD_NAME) {
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        if (++state.elements > current.maxElements) {
+            throw reject(ApiConstants.Metrics.PAYLOAD_REJECTED_ELEMENTS,
+                         "Payload has more than " + current.maxElements + " elements");
+        }
+    }
+
+    /**
+     * Read past the rest of a record that is open at the given depth, keeping nothing
+     */
+    private static void skipRecord(JsonParser parser, int depth) throws IOException {
+        JsonToken token;
+        while (depth > 0 && (token = parser.nextToken()) != null) {
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Position in the stream: bytes for a byte source, chars for a text source
+     */
+    private static long offsetOf(JsonLocation location) {
+        long bytes = location.getByteOffset();
+        return bytes >= 0 ? bytes : location.getCharOffset();
+    }
+
+    /**
+     * UTF-8 length of a string, counting no further than just past the limit
+     */
+    private static long utf8Length(String value, int limit) {
+        long bytes = 0;
+        for (int i = 0; i < value.length() && bytes <= limit; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // The pair is one 4-byte code point
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private PayloadTooLargeException reject(String metric, String message) {
+        MetricsUtil.increment(metric);
+        LogUtil.info(CLASS_NAME, "Payload rejected: " + message);
+        return new PayloadTooLargeException(message);
+    }
+
+    private ValidationException malformed(IOException e) {
+        MetricsUtil.increment(ApiConstants.Metrics.PAYLOAD_REJECTED_MALFORMED);
+        String message = e.getMessage();
+        if (e instanceof JsonParseException && ((JsonParseException) e).getLocation() != null) {
+            JsonParseException parseException = (JsonParseException) e;
+            message = parseException.getOriginalMessage() + " at line " + parseException.getLocation().getLineNr() +
+                      ", column " + parseException.getLocation().getColumnNr();
+        }
+        LogUtil.info(CLASS_NAME, "Payload rejected as malformed: " + message);
+        return new ValidationException(ApiConstants.ErrorTypes.INVALID_JSON + ": " + message, e);
+    }
+}
@@ -0,0 +1,252 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.util.JogetBeanRegistry;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.apps.app.service.AppUtil;
+import org.joget.commons.util.LogUtil;
+import org.joget.workflow.model.service.WorkflowUserManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs blocking provisioning stages for FormCreationService, so they overlap the work the request
+ * thread does meanwhile.
+ *
+ * Modes (plugin property "executionMode"):
+ * - inline: stages run one after another on the calling thread (default)
+ * - virtual: each stage runs on its own virtual thread (Java 21+; falls back to platform otherwise)
+ * - platform: stages run on a bounded pool of daemon platform threads
+ *
+ * Submitted stages inherit the caller's Joget thread user and current app definition, so work set
+ * up by UserContextUtil.executeAsSystemUser keeps running as the system user on the worker thread.
+ * They do not inherit the caller's Hibernate session or Spring transaction, so only work on its own
+ * JDBC connection or the file system is submitted (index DDL); DAO stages stay on the request
+ * thread. The request thread still waits for every stage in await before it responds.
+ *
+ * A reconfiguration retires the previous executor while other requests may still be submitting to
+ * it. A stage it no longer accepts runs inline on the submitting thread instead of failing.
+ */
+public class ProvisioningExecutor {
+
+    private static final String CLASS_NAME = ProvisioningExecutor.class.getName();
+
+    private static final AtomicInteger ACTIVE = new AtomicInteger();
+
+    private volatile String mode = ApiConstants.ExecutionModes.INLINE;
+    private volatile String requestedModeApplied = ApiConstants.ExecutionModes.INLINE;
+    private volatile int poolSize = ApiConstants.Defaults.EXECUTOR_POOL_SIZE;
+    private volatile ExecutorService executor;
+
+    /**
+     * Apply the configured execution mode. Cheap when nothing changed; on a change the previous
+     * executor finishes its running stages in the background.
+     *
+     * @param requestedMode inline, virtual or platform (anything else means inline)
+     * @param requestedPoolSize Platform pool size (values below 1 mean the default)
+     */
+    public synchronized void configure(String requestedMode, int requestedPoolSize) {
+        String newMode = normalizeMode(requestedMode);
+        int newPoolSize = requestedPoolSize > 0 ? requestedPoolSize : ApiConstants.Defaults.EXECUTOR_POOL_SIZE;
+        if (newMode.equals(requestedModeApplied) && newPoolSize == poolSize) {
+            return;
+        }
+        requestedModeApplied = newMode;
+
+        ExecutorService previous = executor;
+        ExecutorService next = null;
+        String effectiveMode = newMode;
+        if (ApiConstants.ExecutionModes.VIRTUAL.equals(newMode)) {
+            next = createVirtualThreadExecutor();
+            if (next == null) {
+                LogUtil.warn(CLASS_NAME, "Virtual threads need Java 21+ (running " +
+                             System.getProperty("java.version") + ") - using a bounded platform pool");
+                effectiveMode = ApiConstants.ExecutionModes.PLATFORM;
+            }
+        }
+        if (ApiConstants.ExecutionModes.PLATFORM.equals(effectiveMode)) {
+            next = createPlatformExecutor(newPoolSize);
+        }
+
+        executor = next;
+        mode = effectiveMode;
+        poolSize = newPoolSize;
+        if (previous != null) {
+            previous.shutdown();
+        }
+        LogUtil.info(CLASS_NAME, "Provisioning execution mode: " + mode + " (pool size " + poolSize + ")");
+    }
+
+    /**
+     * Get the active execution mode
+     *
+     * @return inline, virtual or platform
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    /**
+     * Whether stages run concurrently (i.e. not inline)
+     */
+    public boolean isConcurrent() {
+        return executor != null;
+    }
+
+    /**
+     * Submit a provisioning stage
+     *
+     * @param stage The stage to run
+     * @param <T> Stage result type
+     * @return Future of the stage result (already completed in inline mode)
+     */
+    public <T> Future<T> submit(Callable<T> stage) {
+        ExecutorService current = executor;
+        if (current == null) {
+            return runInline(stage);
+        }
+
+        MetricsUtil.increment(ApiConstants.Metrics.EXECUTOR_STAGES_SUBMITTED);
+        try {
+            return current.submit(withCallerContext(stage));
+        } catch (RejectedExecutionException e) {
+            // Read just before a reconfiguration shut it down
+            LogUtil.debug(CLASS_NAME, "Retired executor rejected a stage - running it inline");
+            return runInline(stage);
+        }
+    }
+
+    /**
+     * Run a stage on the calling thread
+     */
+    private static <T> Future<T> runInline(Callable<T> stage) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(stage.call());
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Wait for a stage and unwrap its failure
+     *
+     * @param future The stage future
+     * @param <T> Stage result type
+     * @return The stage result
+     * @throws Exception the exception thrown by the stage
+     */
+    public <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Stop accepting stages and let running ones finish
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+        mode = ApiConstants.ExecutionModes.INLINE;
+        requestedModeApplied = ApiConstants.ExecutionModes.INLINE;
+    }
+
+    /**
+     * Wrap a stage so it runs with the submitting thread's Joget user and app context
+     */
+    private <T> Callable<T> withCallerContext(Callable<T> stage) {
+        WorkflowUserManager workflowUserManager = JogetBeanRegistry.getWorkflowUserManager();
+        String username = workflowUserManager != null ? workflowUserManager.getCurrentUsername() : null;
+        AppDefinition appDef = AppUtil.getCurrentAppDefinition();
+        Thread submitter = Thread.currentThread();
+
+        return () -> {
+            if (Thread.currentThread() == submitter) {
+                // Pool saturated and the caller runs the stage itself - its context is already in place
+                return stage.call();
+            }
+            MetricsUtil.setGauge(ApiConstants.Metrics.EXECUTOR_ACTIVE_STAGES, ACTIVE.incrementAndGet());
+            try {
+                if (workflowUserManager != null && username != null) {
+                    workflowUserManager.setCurrentThreadUser(username);
+                }
+                if (appDef != null) {
+                    AppUtil.setCurrentAppDefinition(appDef);
+                }
+                return stage.call();
+            } finally {
+                if (workflowUserManager != null) {
+                    workflowUserManager.clearCurrentThreadUser();
+                }
+                if (appDef != null) {
+                    AppUtil.setCurrentAppDefinition(null);
+                }
+                MetricsUtil.setGauge(ApiConstants.Metrics.EXECUTOR_ACTIVE_STAGES, ACTIVE.decrementAndGet());
+            }
+        };
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() via reflection, so the plugin still targets Java 11
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Bounded pool of daemon threads; when saturated or shut down the caller runs the stage itself
+     * (CallerRunsPolicy would drop it once shut down, leaving its future incomplete)
+     */
+    private ExecutorService createPlatformExecutor(int size) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            size, size,
+            60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(size * 4),
+            runnable -> {
+                Thread thread = new Thread(runnable, "formcreator-provisioning-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, rejectedBy) -> runnable.run()
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static String normalizeMode(String requestedMode) {
+        String value = requestedMode != null ? requestedMode.trim().toLowerCase() : "";
+        if (ApiConstants.ExecutionModes.VIRTUAL.equals(value) || ApiConstants.ExecutionModes.PLATFORM.equals(value)) {
+            return value;
+        }
+        return ApiConstants.ExecutionModes.INLINE;
+    }
+}
@@ -0,0 +1,224 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.DatalistSpec;
+import global.govstack.formcreator.model.FormCreationRequest;
+import global.govstack.formcreator.model.FormDiff;
+import global.govstack.formcreator.model.FormElementIndex;
+import global.govstack.formcreator.model.IndexDefinition;
+import global.govstack.formcreator.model.IndexSpec;
+import global.govstack.formcreator.model.ProvisioningPlan;
+import global.govstack.formcreator.util.JogetBeanRegistry;
+import org.joget.apps.app.dao.UserviewDefinitionDao;
+import org.joget.apps.app.model.AppDefinition;
+import org.joget.apps.app.model.UserviewDefinition;
+import org.joget.commons.util.LogUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Builds the ProvisioningPlan of a dry-run request.
+ *
+ * Runs the same validation and JSON generation as a real request for the form, API, datalist and
+ * userview, and reports the database, DAO and file operations the request would perform. Nothing
+ * is written: the only I/O is read-only lookups (existing definitions, the table catalog and the
+ * definition hash index), timed separately from the CPU work.
+ */
+public class ProvisioningPlanner {
+
+    private static final String CLASS_NAME = ProvisioningPlanner.class.getName();
+
+    private final FormDatabaseService formDatabaseService;
+    private final FormDiffService formDiffService;
+    private final JsonProcessingService jsonProcessingService;
+    private final TableIndexService tableIndexService;
+    private final UserviewService userviewService;
+    private final DefinitionFileWriter definitionFileWriter;
+    private final FormCreatorBootstrapService bootstrapService;
+    private final IdGenerationService idGenerationService;
+
+    /**
+     * Constructor with service dependencies
+     *
+     * @param formDatabaseService Service for reading the stored form definition
+     * @param formDiffService Classifies the update of an existing form
+     * @param jsonProcessingService Service for JSON generation and processing
+     * @param tableIndexService Service for app_fd_ index resolution and DDL
+     * @param userviewService Service for userview lookup and category insertion
+     * @param definitionFileWriter Service for content-addressed definition file writes
+     * @param bootstrapService Service for the formCreator self-bootstrap
+     * @param idGenerationService Generates the API id the request would get
+     */
+    public ProvisioningPlanner(FormDatabaseService formDatabaseService,
+                               FormDiffService formDiffService,
+                               JsonProcessingService jsonProcessingService,
+                               TableIndexService tableIndexService,
+                               UserviewService userviewService,
+                               DefinitionFileWriter definitionFileWriter,
+                               FormCreatorBootstrapService bootstrapService,
+                               IdGenerationService idGenerationService) {
+        this.formDatabaseService = formDatabaseService;
+        this.formDiffService = formDiffService;
+        this.jsonProcessingService = jsonProcessingService;
+        this.tableIndexService = tableIndexService;
+        this.userviewService = userviewService;
+        this.definitionFileWriter = definitionFileWriter;
+        this.bootstrapService = bootstrapService;
+        this.idGenerationService = idGenerationService;
+    }
+
+    /**
+     * Plan a validated request against its target application
+     *
+     * @param request The validated form creation request
+     * @param appDef The target application
+     * @param plan The plan to fill
+     */
+    public void plan(FormCreationRequest request, AppDefinition appDef, ProvisioningPlan plan) {
+        LogUtil.info(CLASS_NAME, "Planning (dry run) form: " + request.getFormId());
+
+        // Bootstrap
+        long start = System.nanoTime();
+        if (!bootstrapService.isFormCreatorCrudExists(appDef)) {
+            plan.add("bootstrap", "BOOTSTRAP", "formCreator", "formCreator form, datalist and userview would be created first");
+        }
+        plan.addTiming("io.bootstrapCheck", System.nanoTime() - start);
+
+        // Form: the structure was validated with the request; index it like the real request, then the upsert
+        start = System.nanoTime();
+        FormElementIndex formIndex = jsonProcessingService.buildFormElementIndex(request.getFormDefinitionJson());
+        plan.addTiming("cpu.parseForm", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        String storedJson = formDatabaseService.loadStoredFormJson(appDef, request.getFormId());
+        plan.addTiming("io.formLookup", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        FormDiff diff = formDiffService.diff(storedJson, request.getFormDefinitionJson());
+        plan.addTiming("cpu.diffForm", System.nanoTime() - start);
+        String formDetail = request.getFormId() + " (" + request.getFormDefinition().byteLength() + " bytes, " +
+                            diff.getLevel() + ")";
+        if (!diff.isExists()) {
+            plan.add("form", "INSERT", "app_form", formDetail);
+        } else if (diff.getLevel() == FormDiff.ChangeLevel.NONE) {
+            plan.add("form", "SKIP", "app_form", formDetail);
+        } else if (diff.isCosmeticOnly()) {
+            plan.add("form", "UPDATE_JSON", "app_form", formDetail);
+        } else {
+            plan.add("form", "UPDATE", "app_form", formDetail);
+        }
+
+        // Schema and indexes
+        start = System.nanoTime();
+        IndexSpec indexSpec = request.getIndexSpec();
+        DatalistSpec datalistSpec = request.isCreateCrud() ? request.getDatalistSpec() : null;
+        List<IndexDefinition> indexes = null;
+        if (FormDiff.requiresSchemaWork(diff.getLevel())) {
+            indexes = tableIndexService.resolveIndexes(formIndex, indexSpec, datalistSpec);
+        } else {
+            plan.add("index", "SKIP", request.getTableName(), "form " + diff.getLevel() + ": indexes left as they are");
+        }
+        plan.addTiming("cpu.resolveIndexes", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        tableIndexService.planSchema(request.getTableName(), formIndex, indexes, IndexSpec.isOnline(indexSpec), plan);
+        plan.addTiming("io.catalog", System.nanoTime() - start);
+
+        if (request.isCreateApiEndpoint()) {
+            planApi(request, appDef, plan);
+        }
+        if (request.isCreateCrud()) {
+            planCrud(request, appDef, formIndex, plan);
+        }
+    }
+
+    /**
+     * Plan the API endpoint (unless ids are deterministic a new API ID is generated per request, so its file is always written)
+     */
+    private void planApi(FormCreationRequest request, AppDefinition appDef, ProvisioningPlan plan) {
+        long start = System.nanoTime();
+        String apiName = request.getApiName();
+        if (apiName == null || apiName.trim().isEmpty()) {
+            apiName = request.getFormName() + ApiConstants.Defaults.DEFAULT_API_NAME_SUFFIX;
+        }
+        String apiUuid = idGenerationService.artifactId(appDef.getAppId(), request.getFormId(), ApiConstants.IdArtifacts.API);
+        String apiId = ApiConstants.IdPrefixes.API + apiUuid;
+        String apiJson = jsonProcessingService.generateApiDefinitionJson(appDef.getAppId(), request.getFormId(), apiName, apiUuid);
+        plan.addTiming("cpu.generateApi", System.nanoTime() - start);
+
+        String apiFilePath = ApiConstants.Paths.BUILDER_DIR + ApiConstants.Paths.API_DIR + "/" +
+                             apiId + ApiConstants.Paths.JSON_EXTENSION;
+        planFile("api", appDef, apiFilePath, apiJson, plan);
+        plan.add("api", "DAO_ADD", apiId, "BuilderDefinition '" + apiName + "'");
+    }
+
+    /**
+     * Plan the datalist and the userview category
+     */
+    private void planCrud(FormCreationRequest request, AppDefinition appDef, FormElementIndex formIndex,
+                          ProvisioningPlan plan) {
+        String formId = request.getFormId();
+
+        long start = System.nanoTime();
+        String datalistId = ApiConstants.IdPrefixes.LIST + formId;
+        String datalistName = "List: " + request.getFormName();
+        String datalistJson = jsonProcessingService.generateDatalistDefinitionJson(
+            formId, datalistName, datalistId, formIndex, request.getDatalistSpec());
+        plan.addTiming("cpu.generateDatalist", System.nanoTime() - start);
+
+        if (datalistJson != null) {
+            planFile("datalist", appDef, ApiConstants.Paths.LISTS_DIR + "/" + datalistId + ApiConstants.Paths.JSON_EXTENSION,
+                     datalistJson, plan);
+            plan.add("datalist", "DAO_ADD", datalistId, "DatalistDefinition '" + datalistName + "'");
+        }
+
+        start = System.nanoTime();
+        UserviewDefinitionDao userviewDefDao = JogetBeanRegistry.getUserviewDefinitionDao();
+        UserviewDefinition existingUserview = userviewDefDao != null
+            ? userviewService.findExistingUserview(appDef, userviewDefDao)
+            : null;
+        plan.addTiming("io.userviewLookup", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        String userviewId;
+        String userviewJson;
+        String action;
+        if (existingUserview != null && existingUserview.getJson() != null) {
+            userviewId = existingUserview.getId();
+            String categoryJson = jsonProcessingService.generateCategoryJson(appDef.getAppId(), formId, datalistId, request.getFormName());
+            userviewJson = userviewService.insertCategory(existingUserview.getJson(), categoryJson);
+            action = "DAO_UPDATE";
+        } else {
+            userviewId = ApiConstants.Defaults.DEFAULT_USERVIEW_ID;
+            userviewJson = jsonProcessingService.generateUserviewDefinitionJson(appDef.getAppId(), formId, datalistId,
+                                                                                request.getFormName(), userviewId);
+            action = "DAO_ADD";
+        }
+        plan.addTiming("cpu.generateUserview", System.nanoTime() - start);
+
+        if (userviewJson == null) {
+            plan.add("userview", "SKIP", userviewId, "Userview JSON could not be generated");
+            return;
+        }
+        plan.add("userview", action, userviewId, "category for " + formId);
+        planFile("userview", appDef, ApiConstants.Paths.USERVIEW_DIR + "/" + userviewId + ApiConstants.Paths.JSON_EXTENSION,
+                 userviewJson, plan);
+    }
+
+    /**
+     * Plan a definition file write (skipped by DefinitionFileWriter when the content is unchanged)
+     */
+    private void planFile(String stage, AppDefinition appDef, String relativePath, String content, ProvisioningPlan plan) {
+        long start = System.nanoTime();
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        String hash = DefinitionFileWriter.sha256(bytes);
+        plan.addTiming("cpu.hashFiles", System.nanoTime() - start);
+
+        start = System.nanoTime();
+        boolean write = definitionFileWriter.wouldWrite(appDef, relativePath, content);
+        plan.addTiming("io.hashIndex", System.nanoTime() - start);
+
+        plan.add(stage, write ? "WRITE_FILE" : "SKIP_FILE", relativePath, bytes.length + " bytes, sha256 " + hash);
+    }
+}
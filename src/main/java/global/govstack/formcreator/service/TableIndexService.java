@@ -0,0 +1,527 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.DatalistSpec;
+import global.govstack.formcreator.model.FormElementIndex;
+import global.govstack.formcreator.model.IndexDefinition;
+import global.govstack.formcreator.model.IndexSpec;
+import global.govstack.formcreator.model.ProvisioningPlan;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.commons.util.LogUtil;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service for provisioning secondary indexes on form data (app_fd_) tables.
+ *
+ * Index definitions come from three places: the request's "indexes" section, heuristics over the
+ * form's fields (lookup-style and foreign-key-like fields, when "auto" is requested), and the
+ * datalist's sort and filter columns. DDL is generated per database, online/concurrent by default, and an index is
+ * skipped when an existing index already covers its columns.
+ */
+public class TableIndexService {
+
+    private static final String CLASS_NAME = TableIndexService.class.getName();
+
+    // Longest identifier accepted by every supported database (Oracle < 12.2)
+    private static final int MAX_INDEX_NAME_LENGTH = 30;
+
+    // Prefix length for indexing MySQL/MariaDB TEXT columns (fits the utf8mb4 767-byte key limit)
+    private static final int MYSQL_TEXT_PREFIX_LENGTH = 191;
+
+    /**
+     * Database families with different index DDL
+     */
+    private enum Dialect {
+        POSTGRESQL,
+        MYSQL,
+        SQLSERVER,
+        ORACLE,
+        GENERIC;
+
+        static Dialect from(String productName) {
+            String product = productName != null ? productName.toLowerCase() : "";
+            if (product.contains("postgres")) {
+                return POSTGRESQL;
+            } else if (product.contains("mysql") || product.contains("mariadb")) {
+                return MYSQL;
+            } else if (product.contains("microsoft") || product.contains("sql server")) {
+                return SQLSERVER;
+            } else if (product.contains("oracle")) {
+                return ORACLE;
+            }
+            return GENERIC;
+        }
+    }
+
+    /**
+     * Columns of an existing index, in key order
+     */
+    private static final class ExistingIndex {
+        private final boolean unique;
+        private final TreeMap<Integer, String> columns = new TreeMap<>();
+
+        private ExistingIndex(boolean unique) {
+            this.unique = unique;
+        }
+    }
+
+    private final FormDatabaseService formDatabaseService;
+
+    /**
+     * Constructor with service dependencies
+     *
+     * @param formDatabaseService Service used to obtain database connections
+     */
+    public TableIndexService(FormDatabaseService formDatabaseService) {
+        this.formDatabaseService = formDatabaseService;
+    }
+
+    /**
+     * Collect every index a form needs: explicit definitions first, then heuristics, then datalist
+     * sort and filter columns. Unknown fields are dropped and duplicates keep their first source.
+     *
+     * @param formIndex The form's element index
+     * @param indexSpec The request's indexes section (null: no explicit or heuristic indexes)
+     * @param datalistSpec The request's datalist section (null when no datalist indexes are wanted)
+     * @return Index definitions in provisioning order
+     */
+    public List<IndexDefinition> resolveIndexes(FormElementIndex formIndex, IndexSpec indexSpec, DatalistSpec datalistSpec) {
+        Map<String, IndexDefinition> resolved = new LinkedHashMap<>();
+
+        if (indexSpec != null) {
+            for (IndexDefinition definition : indexSpec.getDefinitions()) {
+                if (isKnownFields(formIndex, definition.getColumns())) {
+                    resolved.putIfAbsent(definitionKey(definition), definition);
+                } else {
+                    LogUtil.warn(CLASS_NAME, "Index on unknown field(s) skipped: " + definition.getColumns());
+                }
+            }
+        }
+
+        // Heuristics are opt-in: they guess at indexes on tables that may already hold data
+        if (indexSpec != null && indexSpec.isAuto()) {
+            for (IndexDefinition definition : suggestIndexes(formIndex)) {
+                resolved.putIfAbsent(definitionKey(definition), definition);
+            }
+        }
+
+        for (IndexDefinition definition : getDatalistIndexes(formIndex, datalistSpec)) {
+            resolved.putIfAbsent(definitionKey(definition), definition);
+        }
+
+        return new ArrayList<>(resolved.values());
+    }
+
+    /**
+     * Suggest single-column indexes for fields that are typically filtered or joined on:
+     * lookup-style fields (select boxes, radios) and ids that look like foreign keys or codes
+     *
+     * @param formIndex The form's element index
+     * @return Suggested index definitions, capped at MAX_HEURISTIC_INDEXES
+     */
+    public List<IndexDefinition> suggestIndexes(FormElementIndex formIndex) {
+        List<IndexDefinition> suggestions = new ArrayList<>();
+
+        for (int i = 0; i < formIndex.size() && suggestions.size() < ApiConstants.Defaults.MAX_HEURISTIC_INDEXES; i++) {
+            FormElementIndex.StorageType type = formIndex.getStorageType(i);
+            if (type == FormElementIndex.StorageType.LOOKUP ||
+                (type == FormElementIndex.StorageType.TEXT && isKeyLikeId(formIndex.getId(i)))) {
+                suggestions.add(IndexDefinition.of(formIndex.getId(i), IndexDefinition.Source.HEURISTIC));
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Get single-column indexes for the fields a datalist sorts and filters on
+     *
+     * @param formIndex The form's element index
+     * @param spec The datalist spec
+     * @return Index definitions in sort-then-filter order
+     */
+    public List<IndexDefinition> getDatalistIndexes(FormElementIndex formIndex, DatalistSpec spec) {
+        List<IndexDefinition> definitions = new ArrayList<>();
+        if (spec == null || !spec.isCreateIndexes()) {
+            return definitions;
+        }
+
+        List<String> fieldIds = new ArrayList<>();
+        if (spec.getSortBy() != null && !spec.getSortBy().trim().isEmpty()) {
+            fieldIds.add(spec.getSortBy().trim());
+        }
+        fieldIds.addAll(spec.getFilters());
+
+        for (String fieldId : fieldIds) {
+            if (isKnownField(formIndex, fieldId)) {
+                definitions.add(IndexDefinition.of(fieldId, IndexDefinition.Source.DATALIST));
+            }
+        }
+        return definitions;
+    }
+
+    /**
+     * Ensure indexes exist on a form data table
+     *
+     * @param tableName The form table name (without the app_fd_ prefix)
+     * @param definitions The indexes to provision
+     * @param online Whether to build online/concurrently where the database supports it
+     * @return Number of indexes created
+     */
+    public int ensureIndexes(String tableName, List<IndexDefinition> definitions, boolean online) {
+        if (definitions == null || definitions.isEmpty()) {
+            return 0;
+        }
+
+        String dataTable = ApiConstants.ColumnNames.FORM_DATA_TABLE_PREFIX + tableName;
+        LogUtil.info(CLASS_NAME, "Ensuring " + definitions.size() + " index(es) on " + dataTable + (online ? " (online)" : ""));
+
+        int created = 0;
+        try (Connection conn = formDatabaseService.getConnection(formDatabaseService.getDataSource())) {
+            // DDL must not be mixed into the caller's transaction (and CONCURRENTLY requires autocommit)
+            conn.setAutoCommit(true);
+
+            DatabaseMetaData metaData = conn.getMetaData();
+            String actualTable = findTable(metaData, dataTable);
+            if (actualTable == null) {
+                LogUtil.warn(CLASS_NAME, "Table " + dataTable + " not found - skipping index provisioning");
+                return 0;
+            }
+
+            Dialect dialect = Dialect.from(metaData.getDatabaseProductName());
+            Map<String, String> columnNames = new HashMap<>();
+            Map<String, String> columnTypes = new HashMap<>();
+            loadColumns(metaData, actualTable, columnNames, columnTypes);
+            Map<String, ExistingIndex> existing = loadIndexes(metaData, actualTable);
+
+            for (IndexDefinition definition : definitions) {
+                List<String> columns = new ArrayList<>();
+                for (String fieldId : definition.getColumns()) {
+                    String column = columnNames.get(FormElementIndex.columnNameFor(fieldId).toLowerCase());
+                    if (column == null) {
+                        break;
+                    }
+                    columns.add(column);
+                }
+                if (columns.size() != definition.getColumns().size()) {
+                    LogUtil.warn(CLASS_NAME, "Column(s) " + definition.getColumns() + " not present in " + actualTable + " - skipping index");
+                    continue;
+                }
+
+                String indexName = definition.getName() != null ? definition.getName() : buildIndexName(actualTable, columns);
+                if (isCovered(existing, indexName, columns, definition.isUnique())) {
+                    MetricsUtil.increment(ApiConstants.Metrics.INDEXES_EXISTING);
+                    LogUtil.debug(CLASS_NAME, "Index already covers " + actualTable + " " + columns);
+                    continue;
+                }
+
+                if (createIndex(conn, dialect, actualTable, indexName, columns, columnTypes, definition.isUnique(), online)) {
+                    created++;
+                    ExistingIndex index = new ExistingIndex(definition.isUnique());
+                    for (int i = 0; i < columns.size(); i++) {
+                        index.columns.put(i + 1, columns.get(i).toLowerCase());
+                    }
+                    existing.put(indexName.toLowerCase(), index);
+                }
+            }
+
+        } catch (SQLException e) {
+            LogUtil.error(CLASS_NAME, e, "Index provisioning failed for " + dataTable + ": " + e.getMessage());
+        }
+
+        return created;
+    }
+
+    /**
+     * Plan the schema work of a form without changing anything (catalog reads only): the table or
+     * columns Joget will create for the form, then the CREATE INDEX statements ensureIndexes would
+     * run. When the table does not exist yet, every index is planned on the columns Joget will create.
+     *
+     * @param tableName The form table name (without the app_fd_ prefix)
+     * @param formIndex The form's element index
+     * @param definitions The indexes that would be provisioned
+     * @param online Whether indexes would be built online
+     * @param plan The plan to add the operations to
+     */
+    public void planSchema(String tableName, FormElementIndex formIndex, List<IndexDefinition> definitions,
+                           boolean online, ProvisioningPlan plan) {
+        String dataTable = ApiConstants.ColumnNames.FORM_DATA_TABLE_PREFIX + tableName;
+
+        try (Connection conn = formDatabaseService.getConnection(formDatabaseService.getDataSource())) {
+            DatabaseMetaData metaData = conn.getMetaData();
+            Dialect dialect = Dialect.from(metaData.getDatabaseProductName());
+            String actualTable = findTable(metaData, dataTable);
+
+            Map<String, String> columnNames = new HashMap<>();
+            Map<String, String> columnTypes = new HashMap<>();
+            Map<String, ExistingIndex> existing = new HashMap<>();
+            if (actualTable != null) {
+                loadColumns(metaData, actualTable, columnNames, columnTypes);
+                existing = loadIndexes(metaData, actualTable);
+            }
+
+            // Columns Joget's FormDataDao creates on first load
+            List<String> missing = new ArrayList<>();
+            for (int i = 0; i < formIndex.size(); i++) {
+                String column = formIndex.getColumnName(i);
+                if (!columnNames.containsKey(column.toLowerCase())) {
+                    missing.add(column);
+                    columnNames.put(column.toLowerCase(), column);
+                    columnTypes.put(column.toLowerCase(), "longtext");
+                }
+            }
+            if (actualTable == null) {
+                plan.add("form", "CREATE_TABLE", dataTable, "columns: " + missing);
+                actualTable = dataTable;
+            } else if (!missing.isEmpty()) {
+                plan.add("form", "ADD_COLUMNS", actualTable, "columns: " + missing);
+            }
+
+            if (definitions == null) {
+                return;
+            }
+            for (IndexDefinition definition : definitions) {
+                List<String> columns = new ArrayList<>();
+                for (String fieldId : definition.getColumns()) {
+                    String column = columnNames.get(FormElementIndex.columnNameFor(fieldId).toLowerCase());
+                    columns.add(column != null ? column : FormElementIndex.columnNameFor(fieldId));
+                }
+
+                String indexName = definition.getName() != null ? definition.getName() : buildIndexName(actualTable, columns);
+                if (isCovered(existing, indexName, columns, definition.isUnique())) {
+                    plan.add("index", "EXISTS", actualTable, indexName + " " + columns);
+                } else {
+                    plan.add("index", "CREATE_INDEX", actualTable,
+                             buildCreateIndexSql(dialect, actualTable, indexName, columns, columnTypes, definition.isUnique(), online));
+                }
+            }
+        } catch (SQLException e) {
+            plan.add("index", "UNKNOWN", dataTable, "Catalog not readable: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Run the CREATE INDEX statement, retrying without the online option if the database refuses it
+     * (e.g. SQL Server Standard edition or Oracle SE do not support online builds)
+     */
+    private boolean createIndex(Connection conn, Dialect dialect, String table, String indexName, List<String> columns,
+                                Map<String, String> columnTypes, boolean unique, boolean online) {
+        String sql = buildCreateIndexSql(dialect, table, indexName, columns, columnTypes, unique, online);
+        try {
+            execute(conn, sql);
+            MetricsUtil.increment(ApiConstants.Metrics.INDEXES_CREATED);
+            LogUtil.info(CLASS_NAME, "Created index: " + sql);
+            return true;
+        } catch (SQLException e) {
+            if (!online) {
+                MetricsUtil.increment(ApiConstants.Metrics.INDEXES_FAILED);
+                LogUtil.warn(CLASS_NAME, "Index creation failed (continuing): " + sql + " - " + e.getMessage());
+                return false;
+            }
+            LogUtil.warn(CLASS_NAME, "Online index creation failed, retrying offline: " + sql + " - " + e.getMessage());
+        }
+
+        MetricsUtil.increment(ApiConstants.Metrics.INDEXES_ONLINE_FALLBACK);
+        try {
+            if (dialect == Dialect.POSTGRESQL) {
+                // A failed CONCURRENTLY build leaves an INVALID index behind that IF NOT EXISTS would keep
+                execute(conn, "DROP INDEX IF EXISTS " + indexName);
+            }
+            return createIndex(conn, dialect, table, indexName, columns, columnTypes, unique, false);
+        } catch (SQLException e) {
+            MetricsUtil.increment(ApiConstants.Metrics.INDEXES_FAILED);
+            LogUtil.warn(CLASS_NAME, "Could not drop invalid index " + indexName + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Build dialect-specific CREATE INDEX DDL
+     */
+    private String buildCreateIndexSql(Dialect dialect, String table, String indexName, List<String> columns,
+                                       Map<String, String> columnTypes, boolean unique, boolean online) {
+        StringBuilder columnList = new StringBuilder();
+        for (String column : columns) {
+            if (columnList.length() > 0) {
+                columnList.append(", ");
+            }
+            columnList.append(column);
+            if (dialect == Dialect.MYSQL && isTextType(columnTypes.get(column.toLowerCase()))) {
+                columnList.append("(").append(MYSQL_TEXT_PREFIX_LENGTH).append(")");
+            }
+        }
+
+        StringBuilder sql = new StringBuilder("CREATE ");
+        if (unique) {
+            sql.append("UNIQUE ");
+        }
+        sql.append("INDEX ");
+        if (dialect == Dialect.POSTGRESQL) {
+            if (online) {
+                sql.append("CONCURRENTLY ");
+            }
+            sql.append("IF NOT EXISTS ");
+        }
+        sql.append(indexName).append(" ON ").append(table).append(" (").append(columnList).append(")");
+
+        if (online) {
+            switch (dialect) {
+                case MYSQL:
+                    sql.append(" ALGORITHM=INPLACE LOCK=NONE");
+                    break;
+                case SQLSERVER:
+                    sql.append(" WITH (ONLINE = ON)");
+                    break;
+                case ORACLE:
+                    sql.append(" ONLINE");
+                    break;
+                default:
+                    break;
+            }
+        }
+        return sql.toString();
+    }
+
+    private void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Check whether an index with the same name exists, or an existing index leads with the same
+     * columns (for unique indexes: an existing unique index on exactly the same columns)
+     */
+    private boolean isCovered(Map<String, ExistingIndex> existing, String indexName, List<String> columns, boolean unique) {
+        if (existing.containsKey(indexName.toLowerCase())) {
+            return true;
+        }
+
+        for (ExistingIndex index : existing.values()) {
+            List<String> indexColumns = new ArrayList<>(index.columns.values());
+            if (indexColumns.size() < columns.size()) {
+                continue;
+            }
+            boolean leading = true;
+            for (int i = 0; i < columns.size(); i++) {
+                if (!indexColumns.get(i).equals(columns.get(i).toLowerCase())) {
+                    leading = false;
+                    break;
+                }
+            }
+            if (leading && (!unique || (index.unique && indexColumns.size() == columns.size()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find a table by name, trying the identifier case conventions of the supported databases
+     */
+    private String findTable(DatabaseMetaData metaData, String tableName) throws SQLException {
+        for (String candidate : new String[]{tableName, tableName.toLowerCase(), tableName.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(null, null, candidate, new String[]{"TABLE"})) {
+                if (tables.next()) {
+                    return tables.getString("TABLE_NAME");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Load the table's actual column names and type names, keyed by lower-case column name
+     */
+    private void loadColumns(DatabaseMetaData metaData, String tableName,
+                             Map<String, String> names, Map<String, String> types) throws SQLException {
+        try (ResultSet columns = metaData.getColumns(null, null, tableName, null)) {
+            while (columns.next()) {
+                String column = columns.getString("COLUMN_NAME");
+                names.put(column.toLowerCase(), column);
+                types.put(column.toLowerCase(), columns.getString("TYPE_NAME"));
+            }
+        }
+    }
+
+    /**
+     * Load existing indexes keyed by lower-case index name
+     */
+    private Map<String, ExistingIndex> loadIndexes(DatabaseMetaData metaData, String tableName) throws SQLException {
+        Map<String, ExistingIndex> indexes = new HashMap<>();
+        try (ResultSet rs = metaData.getIndexInfo(null, null, tableName, false, true)) {
+            while (rs.next()) {
+                String indexName = rs.getString("INDEX_NAME");
+                String column = rs.getString("COLUMN_NAME");
+                if (indexName == null || column == null) {
+                    continue;
+                }
+                ExistingIndex index = indexes.computeIfAbsent(indexName.toLowerCase(),
+                    k -> new ExistingIndex(!safeGetBoolean(rs, "NON_UNIQUE")));
+                index.columns.put((int) rs.getShort("ORDINAL_POSITION"), column.toLowerCase());
+            }
+        }
+        return indexes;
+    }
+
+    private boolean safeGetBoolean(ResultSet rs, String column) {
+        try {
+            return rs.getBoolean(column);
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private boolean isKnownFields(FormElementIndex formIndex, List<String> fieldIds) {
+        for (String fieldId : fieldIds) {
+            if (!isKnownField(formIndex, fieldId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isKnownField(FormElementIndex formIndex, String fieldId) {
+        return formIndex.indexOf(fieldId) >= 0 || FormElementIndex.isSystemColumn(fieldId);
+    }
+
+    /**
+     * Field ids that look like foreign keys or business codes (customerId, parent_id, countryCode, ...)
+     */
+    private boolean isKeyLikeId(String fieldId) {
+        String lower = fieldId.toLowerCase();
+        return (fieldId.length() > 2 && fieldId.endsWith("Id")) || lower.endsWith("_id") ||
+               (fieldId.length() > 4 && fieldId.endsWith("Code")) || lower.endsWith("_code");
+    }
+
+    private boolean isTextType(String typeName) {
+        String type = typeName != null ? typeName.toLowerCase() : "";
+        return type.contains("text") || type.contains("blob");
+    }
+
+    private String definitionKey(IndexDefinition definition) {
+        return (definition.isUnique() ? "u:" : "i:") + String.join(",", definition.getColumns());
+    }
+
+    /**
+     * Build a deterministic index name that fits every database's identifier limit
+     */
+    private String buildIndexName(String tableName, List<String> columns) {
+        String name = ("idx_" + tableName + "_" + String.join("_", columns)).toLowerCase();
+        if (name.length() <= MAX_INDEX_NAME_LENGTH) {
+            return name;
+        }
+        String hash = Integer.toHexString(name.hashCode());
+        return name.substring(0, MAX_INDEX_NAME_LENGTH - hash.length() - 1) + "_" + hash;
+    }
+}
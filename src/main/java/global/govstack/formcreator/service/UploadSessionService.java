@@ -0,0 +1,531 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.ApiProcessingException;
+import global.govstack.formcreator.exception.PayloadTooLargeException;
+import global.govstack.formcreator.exception.ValidationException;
+import global.govstack.formcreator.util.MetricsUtil;
+import org.joget.commons.util.LogUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable, chunked uploads of large definition bundles (NDJSON, as accepted by the import endpoint).
+ *
+ * A session is a directory under wflow/app_formcreator/uploads on this node's disk. Each chunk is
+ * streamed to a temp file while its SHA-256 is computed, checked against the client's checksum, then
+ * moved into place as "<index>-<sha256>.chunk" - so a chunk is either fully present with its checksum
+ * or absent, and a client resumes by asking which chunks are present and sending the rest. Sending a
+ * chunk again replaces it.
+ *
+ * Committing requires chunks 0..n-1 and opens them as one sequential stream over the files, handed
+ * to the import pipeline by reference: the bundle is never assembled in memory or on disk. The session
+ * is deleted only once the import has completed; if the commit fails (admission, malformed JSON,
+ * failed records, any error) the chunks are kept and the commit can be retried, after replacing
+ * chunks if needed. Sessions idle longer than the TTL are removed when a new session is created.
+ *
+ * Sessions are node-local: behind a load balancer, route a session's requests to one node.
+ */
+public class UploadSessionService {
+
+    private static final String CLASS_NAME = UploadSessionService.class.getName();
+
+    // Session ids are generated UUIDs; anything else never reaches the file system
+    private static final Pattern UPLOAD_ID_PATTERN = Pattern.compile("[0-9a-f]{8}(-[0-9a-f]{4}){3}-[0-9a-f]{12}");
+    private static final Pattern CHECKSUM_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String SESSION_FILE = "session.properties";
+    private static final String CHUNK_EXTENSION = ".chunk";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final int BUFFER_SIZE = 8192;
+
+    // Sessions being committed, which no longer accept chunks. Set and checked before a chunk is
+    // published under the service's lock, so a commit never lists a session while a chunk is swapped
+    private final Map<String, Boolean> committing = new ConcurrentHashMap<>();
+
+    /**
+     * A committed bundle: the chunks as one stream. Closing it deletes the session if the import
+     * completed, and otherwise releases it for another commit.
+     */
+    public final class Bundle implements AutoCloseable {
+        private final String uploadId;
+        private final String appId;
+        private final String appVersion;
+        private final InputStream stream;
+        private boolean completed;
+
+        private Bundle(String uploadId, String appId, String appVersion, InputStream stream) {
+            this.uploadId = uploadId;
+            this.appId = appId;
+            this.appVersion = appVersion;
+            this.stream = stream;
+        }
+
+        public String getAppId() {
+            return appId;
+        }
+
+        public String getAppVersion() {
+            return appVersion;
+        }
+
+        public InputStream getStream() {
+            return stream;
+        }
+
+        /**
+         * Mark the bundle as imported, so closing it deletes the session
+         */
+        public void complete() {
+            completed = true;
+        }
+
+        @Override
+        public void close() {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                LogUtil.debug(CLASS_NAME, "Error closing upload " + uploadId + ": " + e.getMessage());
+            }
+            if (completed) {
+                deleteSession(uploadId);
+                MetricsUtil.increment(ApiConstants.Metrics.UPLOAD_COMMITTED);
+                LogUtil.info(CLASS_NAME, "Upload " + uploadId + " imported and deleted");
+            } else {
+                // Keep the chunks so the client can retry the commit
+                touch(sessionDir(uploadId));
+                LogUtil.info(CLASS_NAME, "Upload " + uploadId + " not completed; chunks kept for a retry");
+            }
+            committing.remove(uploadId);
+        }
+    }
+
+    /**
+     * Create an upload session
+     *
+     * @param appId Target application ID for the bundle's records (optional)
+     * @param appVersion Target application version (optional)
+     * @return Session description (uploadId, limits, expiry)
+     * @throws IOException if the session directory cannot be created
+     */
+    public JSONObject create(String appId, String appVersion) throws IOException {
+        purgeExpired();
+
+        String uploadId = IdGenerationService.timeOrderedId().toString();
+        Path dir = sessionDir(uploadId);
+        Files.createDirectories(dir);
+
+        Properties session = new Properties();
+        session.setProperty(ApiConstants.Uploads.CREATED_AT, String.valueOf(System.currentTimeMillis()));
+        if (appId != null && !appId.trim().isEmpty()) {
+            session.setProperty(ApiConstants.Uploads.APP_ID, appId);
+        }
+        if (appVersion != null && !appVersion.trim().isEmpty()) {
+            session.setProperty(ApiConstants.Uploads.APP_VERSION, appVersion);
+        }
+        try (OutputStream out = Files.newOutputStream(dir.resolve(SESSION_FILE))) {
+            session.store(out, "Form Creator upload session");
+        }
+
+        MetricsUtil.increment(ApiConstants.Metrics.UPLOAD_SESSIONS);
+        LogUtil.info(CLASS_NAME, "Upload session created: " + uploadId);
+
+        JSONObject response = new JSONObject();
+        response.put(ApiConstants.Uploads.UPLOAD_ID, uploadId);
+        response.put(ApiConstants.Uploads.MAX_CHUNK_BYTES, ApiConstants.Defaults.UPLOAD_MAX_CHUNK_BYTES);
+        response.put(ApiConstants.Uploads.MAX_CHUNKS, ApiConstants.Defaults.UPLOAD_MAX_CHUNKS);
+        response.put(ApiConstants.Uploads.EXPIRES_AT,
+                     System.currentTimeMillis() + ApiConstants.Defaults.UPLOAD_SESSION_TTL_MS);
+        return response;
+    }
+
+    /**
+     * Store one chunk
+     *
+     * @param uploadId The session
+     * @param index Chunk number, from 0
+     * @param in The chunk content
+     * @param expectedChecksum Hex SHA-256 of the chunk as sent by the client (optional)
+     * @return The stored chunk (index, size, checksum)
+     * @throws ValidationException if the index is out of range or the checksum does not match
+     * @throws PayloadTooLargeException if the chunk is over the chunk size limit
+     * @throws IOException if the chunk cannot be read or written
+     */
+    public JSONObject putChunk(String uploadId, int index, InputStream in, String expectedChecksum) throws IOException {
+        Path dir = existingSessionDir(uploadId);
+        // Fail before streaming the chunk; checked again under the lock before it is published
+        if (committing.containsKey(uploadId)) {
+            throw new ApiProcessingException(ApiConstants.HttpStatus.CONFLICT, ApiConstants.ErrorTypes.UPLOAD_CONFLICT,
+                                             "Upload " + uploadId + " is being committed");
+        }
+        if (index < 0 || index >= ApiConstants.Defaults.UPLOAD_MAX_CHUNKS) {
+            throw new ValidationException("Chunk index must be between 0 and " +
+                                          (ApiConstants.Defaults.UPLOAD_MAX_CHUNKS - 1));
+        }
+        String expected = expectedChecksum != null ? expectedChecksum.trim().toLowerCase(Locale.ROOT) : null;
+        if (expected != null && !expected.isEmpty() && !CHECKSUM_PATTERN.matcher(expected).matches()) {
+            throw new ValidationException("Chunk checksum must be a hex SHA-256 digest");
+        }
+
+        // Stream to a temp file, digesting and counting as the bytes arrive
+        Path temp = Files.createTempFile(dir, chunkPrefix(index), TEMP_EXTENSION);
+        String checksum;
+        long size = 0;
+        try {
+            MessageDigest digest = newDigest();
+            try (InputStream digesting = new DigestInputStream(in, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int bytesRead;
+                while ((bytesRead = digesting.read(buffer)) != -1) {
+                    size += bytesRead;
+                    if (size > ApiConstants.Defaults.UPLOAD_MAX_CHUNK_BYTES) {
+                        throw new PayloadTooLargeException("Chunk exceeds the limit of " +
+                                                           ApiConstants.Defaults.UPLOAD_MAX_CHUNK_BYTES + " bytes");
+                    }
+                    out.write(buffer, 0, bytesRead);
+                }
+            }
+            checksum = DefinitionFileWriter.toHex(digest.digest());
+
+            if (expected != null && !expected.isEmpty() && !expected.equals(checksum)) {
+                MetricsUtil.increment(ApiConstants.Metrics.UPLOAD_CHECKSUM_FAILURES);
+                throw new ValidationException("Chunk " + index + " checksum mismatch: expected " + expected +
+                                              ", received " + checksum);
+            }
+
+            // Replace any earlier copy of this chunk, then publish the new one atomically
+            synchronized (this) {
+                if (committing.containsKey(uploadId)) {
+                    throw new ApiProcessingException(ApiConstants.HttpStatus.CONFLICT,
+                                                     ApiConstants.ErrorTypes.UPLOAD_CONFLICT,
+                                                     "Upload " + uploadId + " is being committed");
+                }
+                for (Path previous : chunkFiles(dir, index)) {
+                    Files.deleteIfExists(previous);
+                }
+                Files.move(temp, dir.resolve(chunkPrefix(index) + checksum + CHUNK_EXTENSION),
+                           StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        touch(dir);
+        MetricsUtil.increment(ApiConstants.Metrics.UPLOAD_CHUNKS);
+        MetricsUtil.add(ApiConstants.Metrics.UPLOAD_BYTES, size);
+        LogUtil.debug(CLASS_NAME, "Upload " + uploadId + ": chunk " + index + " stored (" + size + " bytes)");
+
+        return chunkJson(index, size, checksum);
+    }
+
+    /**
+     * Describe a session and the chunks it holds, so an interrupted client can resume
+     *
+     * @param uploadId The session
+     * @return uploadId, chunks (index, size, checksum), totalBytes and missing indexes below the highest
+     * @throws IOException if the session cannot be read
+     */
+    public JSONObject status(String uploadId) throws IOException {
+        Path dir = existingSessionDir(uploadId);
+        TreeMap<Integer, Path> chunks = listChunks(dir);
+
+        JSONArray chunkArray = new JSONArray();
+        JSONArray missing = new JSONArray();
+        long totalBytes = 0;
+        int expectedIndex = 0;
+        for (Map.Entry<Integer, Path> chunk : chunks.entrySet()) {
+            for (; expectedIndex < chunk.getKey(); expectedIndex++) {
+                missing.put(expectedIndex);
+            }
+            expectedIndex = chunk.getKey() + 1;
+            long size = Files.size(chunk.getValue());
+            totalBytes += size;
+            chunkArray.put(chunkJson(chunk.getKey(), size, checksumOf(chunk.getValue())));
+        }
+
+        JSONObject response = new JSONObject();
+        response.put(ApiConstants.Uploads.UPLOAD_ID, uploadId);
+        response.put(ApiConstants.Uploads.CHUNKS, chunkArray);
+        response.put(ApiConstants.Uploads.MISSING, missing);
+        response.put(ApiConstants.Uploads.TOTAL_BYTES, totalBytes);
+        response.put(ApiConstants.Uploads.COMMITTING, committing.containsKey(uploadId));
+        return response;
+    }
+
+    /**
+     * Commit a session: check the chunks and open them as one stream
+     *
+     * @param uploadId The session
+     * @param expectedChecksum Hex SHA-256 of the whole bundle (optional; checked by one pass over the files)
+     * @return The bundle; mark it complete once imported, then close it
+     * @throws ValidationException if chunks are missing or the bundle checksum does not match
+     * @throws IOException if the chunks cannot be read
+     */
+    public Bundle commit(String uploadId, String expectedChecksum) throws IOException {
+        Path dir = existingSessionDir(uploadId);
+        synchronized (this) {
+            if (committing.putIfAbsent(uploadId, Boolean.TRUE) != null) {
+                throw new ApiProcessingException(ApiConstants.HttpStatus.CONFLICT, ApiConstants.ErrorTypes.UPLOAD_CONFLICT,
+                                                 "Upload " + uploadId + " is already being committed");
+            }
+        }
+
+        try {
+            TreeMap<Integer, Path> chunks = listChunks(dir);
+            if (chunks.isEmpty()) {
+                throw new ValidationException("Upload " + uploadId + " has no chunks");
+            }
+            if (chunks.lastKey() != chunks.size() - 1) {
+                throw new ValidationException("Upload " + uploadId + " is missing chunks: " +
+                                              status(uploadId).get(ApiConstants.Uploads.MISSING));
+            }
+            List<Path> files = new ArrayList<>(chunks.values());
+
+            if (expectedChecksum != null && !expectedChecksum.trim().isEmpty()) {
+                String checksum = checksumOf(files);
+                if (!expectedChecksum.trim().equalsIgnoreCase(checksum)) {
+                    MetricsUtil.increment(ApiConstants.Metrics.UPLOAD_CHECKSUM_FAILURES);
+                    throw new ValidationException("Bundle checksum mismatch: expected " + expectedChecksum.trim() +
+                                                  ", assembled " + checksum);
+                }
+            }
+
+            Properties session = loadSession(dir);
+            LogUtil.info(CLASS_NAME, "Upload " + uploadId + " committing: " + files.size() + " chunks");
+            return new Bundle(uploadId,
+                              session.getProperty(ApiConstants.Uploads.APP_ID),
+                              session.getProperty(ApiConstants.Uploads.APP_VERSION),
+                              new SequenceInputStream(new ChunkEnumeration(files)));
+        } catch (IOException | RuntimeException e) {
+            committing.remove(uploadId);
+            throw e;
+        }
+    }
+
+    /**
+     * Target application a session was created for
+     *
+     * @param uploadId The session
+     * @return The app id, or null if none was given
+     * @throws IOException if the session cannot be read
+     */
+    public String getAppId(String uploadId) throws IOException {
+        return loadSession(existingSessionDir(uploadId)).getProperty(ApiConstants.Uploads.APP_ID);
+    }
+
+    /**
+     * Abort a session and delete its chunks
+     *
+     * @param uploadId The session
+     * @throws IOException if the session does not exist
+     */
+    public void abort(String uploadId) throws IOException {
+        existingSessionDir(uploadId);
+        synchronized (this) {
+            if (committing.containsKey(uploadId)) {
+                throw new ApiProcessingException(ApiConstants.HttpStatus.CONFLICT, ApiConstants.ErrorTypes.UPLOAD_CONFLICT,
+                                                 "Upload " + uploadId + " is being committed");
+            }
+            deleteSession(uploadId);
+        }
+        LogUtil.info(CLASS_NAME, "Upload session aborted: " + uploadId);
+    }
+
+    /**
+     * Remove sessions not written to within the TTL
+     */
+    private void purgeExpired() {
+        Path root = uploadRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - ApiConstants.Defaults.UPLOAD_SESSION_TTL_MS;
+        try (DirectoryStream<Path> sessions = Files.newDirectoryStream(root)) {
+            for (Path dir : sessions) {
+                String uploadId = dir.getFileName().toString();
+                if (!committing.containsKey(uploadId) &&
+                    Files.getLastModifiedTime(dir).toMillis() < cutoff) {
+                    deleteSession(uploadId);
+                    MetricsUtil.increment(ApiConstants.Metrics.UPLOAD_EXPIRED);
+                    LogUtil.info(CLASS_NAME, "Upload session expired: " + uploadId);
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.warn(CLASS_NAME, "Could not purge expired upload sessions: " + e.getMessage());
+        }
+    }
+
+    private void deleteSession(String uploadId) {
+        Path dir = sessionDir(uploadId);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            LogUtil.warn(CLASS_NAME, "Could not delete upload session " + uploadId + ": " + e.getMessage());
+        }
+    }
+
+    private Path existingSessionDir(String uploadId) {
+        if (uploadId == null || !UPLOAD_ID_PATTERN.matcher(uploadId).matches() ||
+            !Files.isDirectory(sessionDir(uploadId))) {
+            throw new ApiProcessingException(ApiConstants.HttpStatus.NOT_FOUND, ApiConstants.ErrorTypes.UPLOAD_NOT_FOUND,
+                                             "Upload session not found: " + uploadId);
+        }
+        return sessionDir(uploadId);
+    }
+
+    private static Path uploadRoot() {
+        return Paths.get(System.getProperty("user.dir") + ApiConstants.Paths.UPLOAD_DIR);
+    }
+
+    private static Path sessionDir(String uploadId) {
+        return uploadRoot().resolve(uploadId);
+    }
+
+    private static Properties loadSession(Path dir) throws IOException {
+        Properties session = new Properties();
+        try (InputStream in = Files.newInputStream(dir.resolve(SESSION_FILE))) {
+            session.load(in);
+        }
+        return session;
+    }
+
+    /**
+     * Mark the session as active, pushing back its expiry
+     */
+    private static void touch(Path dir) {
+        try {
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            LogUtil.debug(CLASS_NAME, "Could not touch " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private static String chunkPrefix(int index) {
+        return String.format("%05d-", index);
+    }
+
+    private static List<Path> chunkFiles(Path dir, int index) throws IOException {
+        List<Path> files = new ArrayList<>(1);
+        try (DirectoryStream<Path> matches = Files.newDirectoryStream(dir, chunkPrefix(index) + "*" + CHUNK_EXTENSION)) {
+            for (Path file : matches) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Stored chunks by index
+     */
+    private static TreeMap<Integer, Path> listChunks(Path dir) throws IOException {
+        TreeMap<Integer, Path> chunks = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + CHUNK_EXTENSION)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                chunks.put(Integer.parseInt(name.substring(0, name.indexOf('-'))), file);
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Checksum recorded in a chunk's file name
+     */
+    private static String checksumOf(Path chunk) {
+        String name = chunk.getFileName().toString();
+        return name.substring(name.indexOf('-') + 1, name.length() - CHUNK_EXTENSION.length());
+    }
+
+    /**
+     * SHA-256 of the chunks in order, streamed from disk
+     */
+    private static String checksumOf(List<Path> files) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file)) {
+                int bytesRead;
+                while ((bytesRead = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, bytesRead);
+                }
+            }
+        }
+        return DefinitionFileWriter.toHex(digest.digest());
+    }
+
+    private static JSONObject chunkJson(int index, long size, String checksum) {
+        JSONObject chunk = new JSONObject();
+        chunk.put(ApiConstants.Uploads.INDEX, index);
+        chunk.put(ApiConstants.Uploads.SIZE, size);
+        chunk.put(ApiConstants.Uploads.CHECKSUM, checksum);
+        return chunk;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Opens each chunk file only when the previous one has been read to the end
+     */
+    private static final class ChunkEnumeration implements Enumeration<InputStream> {
+        private final Iterator<Path> files;
+
+        private ChunkEnumeration(List<Path> files) {
+            this.files = Collections.unmodifiableList(files).iterator();
+        }
+
+        @Override
+        public boolean hasMoreElements() {
+            return files.hasNext();
+        }
+
+        @Override
+        public InputStream nextElement() {
+            if (!files.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Path file = files.next();
+            try {
+                return Files.newInputStream(file);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open upload chunk " + file + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
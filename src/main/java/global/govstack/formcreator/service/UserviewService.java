@@ -1,16 +1,17 @@
 package global.govstack.formcreator.service;
 
 import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.util.JogetBeanRegistry;
+import global.govstack.formcreator.util.JsonQuery;
 import org.joget.apps.app.model.AppDefinition;
 import org.joget.apps.app.model.UserviewDefinition;
 import org.joget.apps.app.dao.UserviewDefinitionDao;
-import org.joget.apps.app.service.AppUtil;
 import org.joget.commons.util.LogUtil;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service class for creating and updating userview definitions.
@@ -19,15 +20,33 @@ import java.util.Date;
 public class UserviewService {
 
     private static final String CLASS_NAME = UserviewService.class.getName();
+
+    // Top-level categories array, its entries and their ids, read in one pass
+    private static final String CATEGORIES = ApiConstants.PropertyKeys.CATEGORIES;
+    private static final String CATEGORY_ITEMS = CATEGORIES + "[*]";
+    private static final String CATEGORY_IDS = CATEGORY_ITEMS + "." + ApiConstants.PropertyKeys.PROPERTIES + "." +
+                                               ApiConstants.PropertyKeys.ID;
+    private static final JsonQuery CATEGORIES_QUERY = JsonQuery.compile(CATEGORIES, CATEGORY_ITEMS, CATEGORY_IDS);
+
     private final JsonProcessingService jsonProcessingService;
+    private final DefinitionFileWriter definitionFileWriter;
+    private final IdGenerationService idGenerationService;
+
+    // Userview updates are read-modify-write, so they are serialized per app version
+    private final ConcurrentHashMap<String, Object> userviewLocks = new ConcurrentHashMap<>();
 
     /**
-     * Constructor with JsonProcessingService dependency injection
+     * Constructor with service dependencies
      *
      * @param jsonProcessingService Service for JSON generation and processing
+     * @param definitionFileWriter Service for content-addressed definition file writes
+     * @param idGenerationService Tells whether category ids are reproducible
      */
-    public UserviewService(JsonProcessingService jsonProcessingService) {
+    public UserviewService(JsonProcessingService jsonProcessingService, DefinitionFileWriter definitionFileWriter,
+                           IdGenerationService idGenerationService) {
         this.jsonProcessingService = jsonProcessingService;
+        this.definitionFileWriter = definitionFileWriter;
+        this.idGenerationService = idGenerationService;
     }
 
     /**
@@ -41,12 +60,21 @@ public class UserviewService {
      * @param appDef The application definition containing the target app
      */
     public void createUserview(String formId, String datalistId, String userviewName, AppDefinition appDef) {
+        Object lock = userviewLocks.computeIfAbsent(appDef.getAppId() + ":" + appDef.getVersion(), k -> new Object());
+        synchronized (lock) {
+            doCreateUserview(formId, datalistId, userviewName, appDef);
+        }
+    }
+
+    /**
+     * Create or update the userview (caller holds the app's userview lock)
+     */
+    private void doCreateUserview(String formId, String datalistId, String userviewName, AppDefinition appDef) {
         try {
             LogUtil.info(CLASS_NAME, "Creating/updating userview for form: " + formId);
 
             // Get UserviewDefinitionDao
-            UserviewDefinitionDao userviewDefDao =
-                (UserviewDefinitionDao) AppUtil.getApplicationContext().getBean(ApiConstants.BeanNames.USERVIEW_DEFINITION_DAO);
+            UserviewDefinitionDao userviewDefDao = JogetBeanRegistry.getUserviewDefinitionDao();
 
             if (userviewDefDao == null) {
                 LogUtil.error(CLASS_NAME, null, "UserviewDefinitionDao not available");
@@ -54,16 +82,7 @@ public class UserviewService {
             }
 
             // Try to find existing userview (first try 'v', then find any userview)
-            UserviewDefinition existingUserview = userviewDefDao.loadById(ApiConstants.Defaults.DEFAULT_USERVIEW_ID, appDef);
-
-            // If 'v' not found, find any existing userview in the app
-            if (existingUserview == null) {
-                Collection<UserviewDefinition> userviews =
-                    userviewDefDao.getUserviewDefinitionList(null, appDef, null, null, null, null);
-                if (userviews != null && !userviews.isEmpty()) {
-                    existingUserview = userviews.iterator().next();
-                }
-            }
+            UserviewDefinition existingUserview = findExistingUserview(appDef, userviewDefDao);
 
             if (existingUserview != null) {
                 // Add category to existing userview
@@ -96,61 +115,32 @@ public class UserviewService {
                 return;
             }
 
-            // Generate new category JSON
-            String newCategoryJson = jsonProcessingService.generateCategoryJson(formId, datalistId, userviewName);
-
-            // Find the categories array and insert the new category before the closing bracket
-            int categoriesStart = existingJson.indexOf("\"" + ApiConstants.PropertyKeys.CATEGORIES + "\":");
-            if (categoriesStart == -1) {
-                LogUtil.error(CLASS_NAME, null, "Could not find categories array in existing userview JSON");
+            // With deterministic ids a category already carrying this form's id was created before
+            if (idGenerationService.isDeterministic() &&
+                hasCategory(existingJson, jsonProcessingService.generateCategoryId(appDef.getAppId(), formId))) {
+                LogUtil.info(CLASS_NAME, "Userview " + userviewId + " already has the category of form " + formId);
                 return;
             }
 
-            // Find the opening bracket of categories array
-            int arrayStart = existingJson.indexOf("[", categoriesStart);
-            if (arrayStart == -1) {
-                LogUtil.error(CLASS_NAME, null, "Could not find categories array opening bracket");
-                return;
-            }
+            // Generate new category JSON
+            String newCategoryJson = jsonProcessingService.generateCategoryJson(appDef.getAppId(), formId, datalistId, userviewName);
 
-            // Find the matching closing bracket
-            int arrayEnd = jsonProcessingService.findMatchingBracket(existingJson, arrayStart);
-            if (arrayEnd == -1) {
-                LogUtil.error(CLASS_NAME, null, "Could not find categories array closing bracket");
+            // Insert the new category at the end of the categories array
+            String updatedJson = insertCategory(existingJson, newCategoryJson);
+            if (updatedJson == null) {
                 return;
             }
 
-            // Check if categories array is empty or has content
-            String arrayContent = existingJson.substring(arrayStart + 1, arrayEnd).trim();
-            boolean hasExistingCategories = !arrayContent.isEmpty() && !arrayContent.equals("");
-
-            // Build updated JSON
-            StringBuilder updatedJson = new StringBuilder();
-            updatedJson.append(existingJson.substring(0, arrayEnd));
-
-            if (hasExistingCategories) {
-                // Add comma before new category
-                updatedJson.append(",\n");
-            }
-
-            updatedJson.append(newCategoryJson);
-            updatedJson.append(existingJson.substring(arrayEnd));
-
             // Update database
-            existingUserview.setJson(updatedJson.toString());
+            existingUserview.setJson(updatedJson);
             existingUserview.setDateModified(new Date());
             userviewDefDao.update(existingUserview);
             LogUtil.info(CLASS_NAME, "Updated userview in database: " + userviewId);
 
-            // Update file system
-            String jogetDir = System.getProperty("user.dir");
-            String userviewFilePath = jogetDir + ApiConstants.Paths.APP_SRC + "/" + appDef.getAppId() + "/" +
-                       appDef.getAppId() + "_" + appDef.getVersion() + ApiConstants.Paths.USERVIEW_DIR + "/" + userviewId + ApiConstants.Paths.JSON_EXTENSION;
-
-            FileWriter fileWriter = new FileWriter(userviewFilePath);
-            fileWriter.write(updatedJson.toString());
-            fileWriter.close();
-            LogUtil.info(CLASS_NAME, "Updated userview file: " + userviewFilePath);
+            // Update file system (skipped if unchanged)
+            String userviewFilePath = ApiConstants.Paths.USERVIEW_DIR + "/" + userviewId + ApiConstants.Paths.JSON_EXTENSION;
+            boolean written = definitionFileWriter.writeIfChanged(appDef, userviewFilePath, updatedJson);
+            LogUtil.info(CLASS_NAME, "Userview file " + (written ? "updated" : "unchanged") + ": " + userviewFilePath);
 
             LogUtil.info(CLASS_NAME, "SUCCESS: Added category to existing userview: " + userviewId);
 
@@ -167,28 +157,18 @@ public class UserviewService {
                                     UserviewDefinitionDao userviewDefDao) {
         try {
             String userviewId = ApiConstants.Defaults.DEFAULT_USERVIEW_ID;  // Use 'v' as default ID
-            String userviewJson = jsonProcessingService.generateUserviewDefinitionJson(formId, datalistId, userviewName, userviewId);
+            String userviewJson = jsonProcessingService.generateUserviewDefinitionJson(appDef.getAppId(), formId, datalistId,
+                                                                                       userviewName, userviewId);
 
             if (userviewJson == null) {
                 LogUtil.warn(CLASS_NAME, "Failed to generate userview JSON");
                 return;
             }
 
-            // Write to file system
-            String jogetDir = System.getProperty("user.dir");
-            String userviewDir = jogetDir + ApiConstants.Paths.APP_SRC + "/" + appDef.getAppId() + "/" +
-                           appDef.getAppId() + "_" + appDef.getVersion() + ApiConstants.Paths.USERVIEW_DIR;
-
-            File uvDirectory = new File(userviewDir);
-            if (!uvDirectory.exists()) {
-                uvDirectory.mkdirs();
-            }
-
-            String userviewFilePath = userviewDir + "/" + userviewId + ApiConstants.Paths.JSON_EXTENSION;
-            FileWriter fileWriter = new FileWriter(userviewFilePath);
-            fileWriter.write(userviewJson);
-            fileWriter.close();
-            LogUtil.info(CLASS_NAME, "Userview file created: " + userviewFilePath);
+            // Write to file system (skipped if unchanged)
+            String userviewFilePath = ApiConstants.Paths.USERVIEW_DIR + "/" + userviewId + ApiConstants.Paths.JSON_EXTENSION;
+            boolean written = definitionFileWriter.writeIfChanged(appDef, userviewFilePath, userviewJson);
+            LogUtil.info(CLASS_NAME, "Userview file " + (written ? "created" : "unchanged") + ": " + userviewFilePath);
 
             // Save to database
             UserviewDefinition userviewDef = new UserviewDefinition();
@@ -210,4 +190,80 @@ public class UserviewService {
             LogUtil.error(CLASS_NAME, e, "Error creating new userview: " + e.getMessage());
         }
     }
+
+    /**
+     * Find the userview a new category is added to: 'v' if it exists, otherwise any userview of the app
+     *
+     * @param appDef The application definition
+     * @param userviewDefDao The userview DAO
+     * @return The existing userview, or null if the app has none
+     */
+    public UserviewDefinition findExistingUserview(AppDefinition appDef, UserviewDefinitionDao userviewDefDao) {
+        UserviewDefinition existingUserview = userviewDefDao.loadById(ApiConstants.Defaults.DEFAULT_USERVIEW_ID, appDef);
+
+        // If 'v' not found, find any existing userview in the app
+        if (existingUserview == null) {
+            Collection<UserviewDefinition> userviews =
+                userviewDefDao.getUserviewDefinitionList(null, appDef, null, null, null, null);
+            if (userviews != null && !userviews.isEmpty()) {
+                existingUserview = userviews.iterator().next();
+            }
+        }
+        return existingUserview;
+    }
+
+    /**
+     * Insert a category at the end of a userview's categories array
+     *
+     * @param existingJson The userview definition JSON
+     * @param newCategoryJson The category JSON to append
+     * @return The updated userview JSON, or null if the categories array cannot be found
+     */
+    public String insertCategory(String existingJson, String newCategoryJson) {
+        JsonQuery.Result result;
+        try {
+            result = CATEGORIES_QUERY.evaluate(existingJson);
+        } catch (IOException e) {
+            LogUtil.error(CLASS_NAME, e, "Existing userview JSON cannot be parsed");
+            return null;
+        }
+
+        JsonQuery.Match categories = result.first(CATEGORIES);
+        if (categories == null || categories.getType() != JsonQuery.ValueType.ARRAY) {
+            LogUtil.error(CLASS_NAME, null, "Could not find categories array in existing userview JSON");
+            return null;
+        }
+
+        // Insert the new category before the closing bracket
+        int arrayEnd = categories.getEnd() - 1;
+
+        StringBuilder updatedJson = new StringBuilder(existingJson.length() + newCategoryJson.length() + 2);
+        updatedJson.append(existingJson, 0, arrayEnd);
+
+        if (result.count(CATEGORY_ITEMS) > 0) {
+            // Add comma before new category
+            updatedJson.append(",\n");
+        }
+
+        updatedJson.append(newCategoryJson);
+        updatedJson.append(existingJson, arrayEnd, existingJson.length());
+
+        return updatedJson.toString();
+    }
+
+    /**
+     * Check whether a userview already has a category with the given id
+     */
+    private boolean hasCategory(String userviewJson, String categoryId) {
+        try {
+            for (JsonQuery.Match match : CATEGORIES_QUERY.evaluate(userviewJson).get(CATEGORY_IDS)) {
+                if (categoryId.equals(match.getValue())) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            LogUtil.warn(CLASS_NAME, "Existing userview JSON cannot be parsed: " + e.getMessage());
+        }
+        return false;
+    }
 }
@@ -70,4 +70,17 @@ public class ErrorResponseUtil {
     public static String createInvalidJsonError(String errorMessage) {
         return createErrorResponse(ApiConstants.ErrorTypes.INVALID_JSON, errorMessage);
     }
+
+    /**
+     * Create a too-many-requests error response
+     *
+     * @param errorMessage Error message
+     * @param retryAfterSeconds Seconds the client should wait before retrying
+     * @return JSON string with rate limit error
+     */
+    public static String createTooManyRequestsError(String errorMessage, int retryAfterSeconds) {
+        FormCreationResponse response = FormCreationResponse.error(ApiConstants.ErrorTypes.TOO_MANY_REQUESTS, errorMessage);
+        response.setRetryAfter(retryAfterSeconds);
+        return response.toString();
+    }
 }
@@ -0,0 +1,154 @@
+package global.govstack.formcreator.util;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import org.joget.apps.app.dao.AppDefinitionDao;
+import org.joget.apps.app.dao.BuilderDefinitionDao;
+import org.joget.apps.app.dao.DatalistDefinitionDao;
+import org.joget.apps.app.dao.FormDefinitionDao;
+import org.joget.apps.app.dao.UserviewDefinitionDao;
+import org.joget.apps.app.service.AppService;
+import org.joget.apps.app.service.AppUtil;
+import org.joget.apps.form.dao.FormDataDao;
+import org.joget.apps.form.service.FormService;
+import org.joget.commons.util.LogUtil;
+import org.joget.workflow.model.service.WorkflowUserManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plugin-scoped registry of the Joget Spring beans this plugin uses.
+ *
+ * Each bean is looked up in the application context once, on first use (or eagerly from
+ * Activator.start via initialize()), and the handle is reused by every request afterwards.
+ * The registry is cleared when the bundle stops so a redeployed plugin never holds stale handles.
+ */
+public class JogetBeanRegistry {
+
+    private static final String CLASS_NAME = JogetBeanRegistry.class.getName();
+
+    // Marker for the resolved datasource, which has a bean name fallback
+    private static final String DATA_SOURCE_KEY = "#dataSource";
+
+    private static final Map<String, Object> BEANS = new ConcurrentHashMap<>();
+
+    /**
+     * Resolve every bean up front. Beans that are unavailable are left to be resolved on first use.
+     */
+    public static void initialize() {
+        String[] beanNames = {
+            ApiConstants.BeanNames.APP_SERVICE,
+            ApiConstants.BeanNames.FORM_SERVICE,
+            ApiConstants.BeanNames.APP_DEFINITION_DAO,
+            ApiConstants.BeanNames.FORM_DEFINITION_DAO,
+            ApiConstants.BeanNames.FORM_DATA_DAO,
+            ApiConstants.BeanNames.BUILDER_DEFINITION_DAO,
+            ApiConstants.BeanNames.DATALIST_DEFINITION_DAO,
+            ApiConstants.BeanNames.USERVIEW_DEFINITION_DAO,
+            ApiConstants.BeanNames.WORKFLOW_USER_MANAGER,
+            ApiConstants.BeanNames.ENTITY_MANAGER_FACTORY
+        };
+        for (String beanName : beanNames) {
+            getBean(beanName);
+        }
+        getDataSource();
+        LogUtil.info(CLASS_NAME, "Resolved " + BEANS.size() + " Joget bean handles");
+    }
+
+    /**
+     * Drop all cached handles
+     */
+    public static void clear() {
+        BEANS.clear();
+    }
+
+    public static AppService getAppService() {
+        return (AppService) getBean(ApiConstants.BeanNames.APP_SERVICE);
+    }
+
+    public static FormService getFormService() {
+        return (FormService) getBean(ApiConstants.BeanNames.FORM_SERVICE);
+    }
+
+    public static AppDefinitionDao getAppDefinitionDao() {
+        return (AppDefinitionDao) getBean(ApiConstants.BeanNames.APP_DEFINITION_DAO);
+    }
+
+    public static FormDefinitionDao getFormDefinitionDao() {
+        return (FormDefinitionDao) getBean(ApiConstants.BeanNames.FORM_DEFINITION_DAO);
+    }
+
+    public static FormDataDao getFormDataDao() {
+        return (FormDataDao) getBean(ApiConstants.BeanNames.FORM_DATA_DAO);
+    }
+
+    public static BuilderDefinitionDao getBuilderDefinitionDao() {
+        return (BuilderDefinitionDao) getBean(ApiConstants.BeanNames.BUILDER_DEFINITION_DAO);
+    }
+
+    public static DatalistDefinitionDao getDatalistDefinitionDao() {
+        return (DatalistDefinitionDao) getBean(ApiConstants.BeanNames.DATALIST_DEFINITION_DAO);
+    }
+
+    public static UserviewDefinitionDao getUserviewDefinitionDao() {
+        return (UserviewDefinitionDao) getBean(ApiConstants.BeanNames.USERVIEW_DEFINITION_DAO);
+    }
+
+    public static WorkflowUserManager getWorkflowUserManager() {
+        return (WorkflowUserManager) getBean(ApiConstants.BeanNames.WORKFLOW_USER_MANAGER);
+    }
+
+    /**
+     * Get the JPA/Hibernate entity manager factory (used for second-level cache eviction)
+     *
+     * @return The factory bean, or null if unavailable
+     */
+    public static Object getEntityManagerFactory() {
+        return getBean(ApiConstants.BeanNames.ENTITY_MANAGER_FACTORY);
+    }
+
+    /**
+     * Get the Joget DataSource (setupDataSource, falling back to dataSource)
+     *
+     * @return The DataSource bean, or null if neither is available
+     */
+    public static Object getDataSource() {
+        Object dataSource = BEANS.get(DATA_SOURCE_KEY);
+        if (dataSource == null) {
+            dataSource = getBean(ApiConstants.BeanNames.SETUP_DATA_SOURCE);
+            if (dataSource == null) {
+                dataSource = getBean(ApiConstants.BeanNames.DATA_SOURCE);
+            }
+            if (dataSource != null) {
+                BEANS.put(DATA_SOURCE_KEY, dataSource);
+            }
+        }
+        return dataSource;
+    }
+
+    /**
+     * Get a bean by name, resolving it from the application context on first use
+     *
+     * @param beanName The Spring bean name
+     * @return The bean, or null if it is not available (not cached, so it is retried next time)
+     */
+    public static Object getBean(String beanName) {
+        Object bean = BEANS.get(beanName);
+        if (bean != null) {
+            return bean;
+        }
+
+        try {
+            bean = AppUtil.getApplicationContext().getBean(beanName);
+        } catch (Exception e) {
+            LogUtil.debug(CLASS_NAME, "Bean not available: " + beanName + " (" + e.getMessage() + ")");
+            return null;
+        }
+
+        if (bean != null) {
+            Object existing = BEANS.putIfAbsent(beanName, bean);
+            return existing != null ? existing : bean;
+        }
+        return null;
+    }
+}
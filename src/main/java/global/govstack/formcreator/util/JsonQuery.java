@@ -0,0 +1,402 @@
+package global.govstack.formcreator.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Precompiled path queries over JSON text, evaluated in one streaming pass.
+ *
+ * Path syntax: dot-separated field names, [n] for an array element, [*] for every array element,
+ * * for every field of an object and ** for any number of levels, e.g. "properties.id",
+ * "elements[*].properties.label" or "**.className". Compile once (typically into a static field)
+ * and evaluate against any number of documents. A pass descends only into the parts of the document
+ * some path can still match and skips the rest without materializing it. Each match carries its
+ * value (scalars) and its character range in the source, so callers can patch the text in place.
+ *
+ * Immutable and thread-safe.
+ */
+public final class JsonQuery {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * JSON type of a matched value
+     */
+    public enum ValueType {
+        OBJECT,
+        ARRAY,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL
+    }
+
+    private final String[] paths;
+    private final Segment[][] compiled;
+
+    private JsonQuery(String[] paths) {
+        this.paths = paths.clone();
+        this.compiled = new Segment[paths.length][];
+        for (int i = 0; i < paths.length; i++) {
+            compiled[i] = parsePath(paths[i]);
+        }
+    }
+
+    /**
+     * Compile a set of paths evaluated together
+     *
+     * @param paths The paths
+     * @return The compiled query
+     * @throws IllegalArgumentException if a path is malformed
+     */
+    public static JsonQuery compile(String... paths) {
+        return new JsonQuery(paths);
+    }
+
+    /**
+     * Evaluate every path in one pass
+     *
+     * @param json The document
+     * @return Matches per path, in document order
+     * @throws IOException if the document is not valid JSON
+     */
+    public Result evaluate(String json) throws IOException {
+        Result result = new Result(paths);
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != null) {
+                visit(parser, new Cursor(), result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Visit the value under the parser (its first token is current), recording matches and
+     * descending where a path can still match
+     */
+    private void visit(JsonParser parser, Cursor cursor, Result result) throws IOException {
+        JsonToken token = parser.currentToken();
+        int start = (int) parser.getTokenLocation().getCharOffset();
+
+        List<Match> matched = null;
+        for (int i = 0; i < compiled.length; i++) {
+            if (matches(compiled[i], 0, 0, cursor)) {
+                // Recorded before the children, so each path's matches stay in document order
+                Match match = new Match(typeOf(token), start);
+                result.matches[i].add(match);
+                if (matched == null) {
+                    matched = new ArrayList<>(2);
+                }
+                matched.add(match);
+            }
+        }
+
+        int end;
+        String value = null;
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            if (!canDescend(cursor)) {
+                parser.skipChildren();
+            } else if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    cursor.push(parser.getCurrentName(), -1);
+                    parser.nextToken();
+                    visit(parser, cursor, result);
+                    cursor.pop();
+                }
+            } else {
+                int index = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    cursor.push(null, index++);
+                    visit(parser, cursor, result);
+                    cursor.pop();
+                }
+            }
+            // Current token is the closing bracket
+            end = (int) parser.getTokenLocation().getCharOffset() + 1;
+        } else {
+            if (matched == null) {
+                return;
+            }
+            // Reading the text also consumes a string up to its closing quote
+            value = token == JsonToken.VALUE_NULL ? null : parser.getText();
+            end = (int) parser.getCurrentLocation().getCharOffset();
+        }
+
+        if (matched != null) {
+            for (Match match : matched) {
+                match.value = value;
+                match.end = end;
+            }
+        }
+    }
+
+    /**
+     * Whether path[pathPos..] matches the cursor's segments [stackPos..depth)
+     */
+    private static boolean matches(Segment[] path, int pathPos, int stackPos, Cursor cursor) {
+        if (pathPos == path.length) {
+            return stackPos == cursor.depth;
+        }
+        Segment segment = path[pathPos];
+        if (segment.kind == SegmentKind.ANY_DEPTH) {
+            for (int k = stackPos; k <= cursor.depth; k++) {
+                if (matches(path, pathPos + 1, k, cursor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return stackPos < cursor.depth &&
+               segment.accepts(cursor.names[stackPos], cursor.indexes[stackPos]) &&
+               matches(path, pathPos + 1, stackPos + 1, cursor);
+    }
+
+    /**
+     * Whether some path can match below the cursor
+     */
+    private boolean canDescend(Cursor cursor) {
+        for (Segment[] path : compiled) {
+            if (prefixMatches(path, 0, 0, cursor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean prefixMatches(Segment[] path, int pathPos, int stackPos, Cursor cursor) {
+        if (pathPos == path.length) {
+            return false;
+        }
+        if (stackPos == cursor.depth) {
+            return true;
+        }
+        Segment segment = path[pathPos];
+        if (segment.kind == SegmentKind.ANY_DEPTH) {
+            return true;
+        }
+        return segment.accepts(cursor.names[stackPos], cursor.indexes[stackPos]) &&
+               prefixMatches(path, pathPos + 1, stackPos + 1, cursor);
+    }
+
+    private static ValueType typeOf(JsonToken token) {
+        switch (token) {
+            case START_OBJECT:
+                return ValueType.OBJECT;
+            case START_ARRAY:
+                return ValueType.ARRAY;
+            case VALUE_STRING:
+                return ValueType.STRING;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return ValueType.NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return ValueType.BOOLEAN;
+            default:
+                return ValueType.NULL;
+        }
+    }
+
+    /**
+     * Parse "a.b[0][*].*.**" into segments
+     */
+    private static Segment[] parsePath(String path) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("Empty JSON path");
+        }
+        List<Segment> segments = new ArrayList<>();
+        for (String part : path.split("\\.", -1)) {
+            int bracket = part.indexOf('[');
+            String name = bracket >= 0 ? part.substring(0, bracket) : part;
+            if (name.isEmpty() && bracket != 0) {
+                throw new IllegalArgumentException("Empty segment in JSON path: " + path);
+            }
+            if (!name.isEmpty()) {
+                segments.add("**".equals(name) ? new Segment(SegmentKind.ANY_DEPTH, null, -1)
+                             : "*".equals(name) ? new Segment(SegmentKind.ANY_FIELD, null, -1)
+                             : new Segment(SegmentKind.FIELD, name, -1));
+            }
+            while (bracket >= 0) {
+                int close = part.indexOf(']', bracket);
+                if (close < 0) {
+                    throw new IllegalArgumentException("Unclosed [ in JSON path: " + path);
+                }
+                String index = part.substring(bracket + 1, close);
+                try {
+                    segments.add("*".equals(index) ? new Segment(SegmentKind.ANY_INDEX, null, -1)
+                                 : new Segment(SegmentKind.INDEX, null, Integer.parseInt(index)));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid array index '" + index + "' in JSON path: " + path, e);
+                }
+                bracket = part.indexOf('[', close);
+                if (bracket < 0 && close != part.length() - 1) {
+                    throw new IllegalArgumentException("Unexpected text after ] in JSON path: " + path);
+                }
+            }
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    private enum SegmentKind {
+        FIELD,
+        ANY_FIELD,
+        INDEX,
+        ANY_INDEX,
+        ANY_DEPTH
+    }
+
+    private static final class Segment {
+        private final SegmentKind kind;
+        private final String name;
+        private final int index;
+
+        private Segment(SegmentKind kind, String name, int index) {
+            this.kind = kind;
+            this.name = name;
+            this.index = index;
+        }
+
+        private boolean accepts(String fieldName, int arrayIndex) {
+            switch (kind) {
+                case FIELD:
+                    return name.equals(fieldName);
+                case ANY_FIELD:
+                    return fieldName != null;
+                case INDEX:
+                    return fieldName == null && index == arrayIndex;
+                case ANY_INDEX:
+                    return fieldName == null;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    /**
+     * Position of the pass in the document: one (field name or array index) entry per level
+     */
+    private static final class Cursor {
+        private String[] names = new String[16];
+        private int[] indexes = new int[16];
+        private int depth;
+
+        private void push(String name, int index) {
+            if (depth == names.length) {
+                names = Arrays.copyOf(names, depth * 2);
+                indexes = Arrays.copyOf(indexes, depth * 2);
+            }
+            names[depth] = name;
+            indexes[depth] = index;
+            depth++;
+        }
+
+        private void pop() {
+            depth--;
+        }
+    }
+
+    /**
+     * A matched value
+     */
+    public static final class Match {
+        private final ValueType type;
+        private final int start;
+        private int end = -1;
+        private String value;
+
+        private Match(ValueType type, int start) {
+            this.type = type;
+            this.start = start;
+        }
+
+        public ValueType getType() {
+            return type;
+        }
+
+        /**
+         * Text of a string, number or boolean (null for objects, arrays and null)
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Character offset of the value's first character in the document
+         */
+        public int getStart() {
+            return start;
+        }
+
+        /**
+         * Character offset just past the value's last character (the closing bracket of a container)
+         */
+        public int getEnd() {
+            return end;
+        }
+
+        /**
+         * The value's source text
+         */
+        public String raw(String json) {
+            return json.substring(start, end);
+        }
+    }
+
+    /**
+     * Matches of one evaluation, per path
+     */
+    public static final class Result {
+        private final String[] paths;
+        private final List<Match>[] matches;
+
+        @SuppressWarnings("unchecked")
+        private Result(String[] paths) {
+            this.paths = paths;
+            this.matches = new List[paths.length];
+            for (int i = 0; i < paths.length; i++) {
+                matches[i] = new ArrayList<>(2);
+            }
+        }
+
+        /**
+         * Matches of a path, in document order
+         *
+         * @param path One of the compiled paths
+         * @return The matches (empty if none)
+         */
+        public List<Match> get(String path) {
+            for (int i = 0; i < paths.length; i++) {
+                if (paths[i].equals(path)) {
+                    return Collections.unmodifiableList(matches[i]);
+                }
+            }
+            throw new IllegalArgumentException("Path not in query: " + path);
+        }
+
+        public Match first(String path) {
+            List<Match> list = get(path);
+            return list.isEmpty() ? null : list.get(0);
+        }
+
+        /**
+         * Value of the first match of a path
+         *
+         * @return The scalar text, or null if nothing matched (or the match is not a scalar)
+         */
+        public String firstValue(String path) {
+            Match match = first(path);
+            return match != null ? match.value : null;
+        }
+
+        public int count(String path) {
+            return get(path).size();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package global.govstack.formcreator.util;
+
+import org.json.JSONObject;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Utility class for plugin-wide metrics.
+ * Holds monotonic counters and point-in-time gauges, keyed by the names in ApiConstants.Metrics.
+ */
+public class MetricsUtil {
+
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> GAUGES = new ConcurrentHashMap<>();
+
+    /**
+     * Increment a counter by one
+     *
+     * @param name Metric name
+     */
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    /**
+     * Add a delta to a counter
+     *
+     * @param name Metric name
+     * @param delta Amount to add
+     */
+    public static void add(String name, long delta) {
+        COUNTERS.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Set a gauge to an absolute value
+     *
+     * @param name Metric name
+     * @param value Current value
+     */
+    public static void setGauge(String name, long value) {
+        GAUGES.computeIfAbsent(name, k -> new AtomicLong()).set(value);
+    }
+
+    /**
+     * Get the current value of a counter or gauge
+     *
+     * @param name Metric name
+     * @return Current value, or 0 if never recorded
+     */
+    public static long get(String name) {
+        LongAdder counter = COUNTERS.get(name);
+        if (counter != null) {
+            return counter.sum();
+        }
+        AtomicLong gauge = GAUGES.get(name);
+        return gauge != null ? gauge.get() : 0L;
+    }
+
+    /**
+     * Take a sorted snapshot of all counters and gauges
+     *
+     * @return Metric name to value map
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        GAUGES.forEach((name, gauge) -> snapshot.put(name, gauge.get()));
+        return snapshot;
+    }
+
+    /**
+     * Render all metrics as a JSON object
+     *
+     * @return JSON object with one field per metric
+     */
+    public static JSONObject toJSON() {
+        return new JSONObject(snapshot());
+    }
+}
@@ -1,5 +1,6 @@
 package global.govstack.formcreator.util;
 
+import global.govstack.formcreator.exception.PayloadTooLargeException;
 import global.govstack.formcreator.exception.ValidationException;
 import org.joget.commons.util.LogUtil;
 
@@ -98,6 +99,23 @@ public class MultipartRequestParser {
      * @throws ValidationException if parsing fails
      */
     public static MultipartData parseMultipartRequest(HttpServletRequest request) {
+        try {
+            return parseMultipartRequest(request, request != null ? request.getInputStream() : null);
+        } catch (IOException e) {
+            LogUtil.error(CLASS_NAME, e, "Error reading multipart request");
+            throw new ValidationException("Failed to read multipart request: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse a multipart request whose body is read from the given stream (a decoded body)
+     *
+     * @param request HttpServletRequest (for the Content-Type and boundary)
+     * @param bodyStream The request body
+     * @return MultipartData with fields and files
+     * @throws ValidationException if parsing fails
+     */
+    public static MultipartData parseMultipartRequest(HttpServletRequest request, InputStream bodyStream) {
         if (!isMultipartRequest(request)) {
             throw new ValidationException("Request is not multipart/form-data");
         }
@@ -113,7 +131,7 @@ public class MultipartRequestParser {
             LogUtil.debug(CLASS_NAME, "Parsing multipart request with boundary: " + boundary);
 
             // Read request body
-            byte[] bodyBytes = readRequestBody(request);
+            byte[] bodyBytes = readRequestBody(bodyStream);
             String body = new String(bodyBytes, StandardCharsets.UTF_8);
 
             // Parse multipart data
@@ -127,6 +145,8 @@ public class MultipartRequestParser {
         } catch (IOException e) {
             LogUtil.error(CLASS_NAME, e, "Error reading multipart request");
             throw new ValidationException("Failed to read multipart request: " + e.getMessage(), e);
+        } catch (PayloadTooLargeException e) {
+            throw e;
         } catch (Exception e) {
             LogUtil.error(CLASS_NAME, e, "Error parsing multipart request");
             throw new ValidationException("Failed to parse multipart request: " + e.getMessage(), e);
@@ -150,8 +170,7 @@ public class MultipartRequestParser {
     /**
      * Read entire request body as bytes
      */
-    private static byte[] readRequestBody(HttpServletRequest request) throws IOException {
-        InputStream inputStream = request.getInputStream();
+    private static byte[] readRequestBody(InputStream inputStream) throws IOException {
         ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 
         byte[] data = new byte[8192];
@@ -0,0 +1,133 @@
+package global.govstack.formcreator.util;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import org.joget.commons.util.LogUtil;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plugin-scoped registry of the element, binder and validator class names that resolve on this node.
+ *
+ * Preloaded with the core form classes; any other class name is resolved through the Joget
+ * PluginManager (bundled and uploaded plugins). A class that resolves is remembered until the bundle
+ * stops, so validating a form never instantiates its plugins more than once per class per node. A
+ * class that does not resolve is only remembered for a few seconds, so a plugin uploaded after a miss
+ * is accepted right away; the misses are bounded, as their names come from client requests.
+ */
+public class PluginClassRegistry {
+
+    private static final String CLASS_NAME = PluginClassRegistry.class.getName();
+
+    private static final Map<String, Boolean> RESOLVED = new ConcurrentHashMap<>();
+
+    // Unresolved class name -> time the miss expires
+    private static final Map<String, Long> MISSES = new ConcurrentHashMap<>();
+
+    // Core form classes shipped with every Joget DX installation
+    private static final String[] CORE_CLASSES = {
+        "org.joget.apps.form.model.Form",
+        "org.joget.apps.form.model.Section",
+        "org.joget.apps.form.model.Column",
+        "org.joget.apps.form.lib.TextField",
+        "org.joget.apps.form.lib.TextArea",
+        "org.joget.apps.form.lib.PasswordField",
+        "org.joget.apps.form.lib.HiddenField",
+        "org.joget.apps.form.lib.SelectBox",
+        "org.joget.apps.form.lib.CheckBox",
+        "org.joget.apps.form.lib.Radio",
+        "org.joget.apps.form.lib.DatePicker",
+        "org.joget.apps.form.lib.FileUpload",
+        "org.joget.apps.form.lib.IdGeneratorField",
+        "org.joget.apps.form.lib.CustomHTML",
+        "org.joget.apps.form.lib.SubForm",
+        "org.joget.apps.form.lib.SubmitButton",
+        "org.joget.apps.form.lib.LinkButton",
+        "org.joget.apps.form.lib.WorkflowFormBinder",
+        "org.joget.apps.form.lib.FormOptionsBinder",
+        "org.joget.apps.form.lib.DefaultValidator"
+    };
+
+    static {
+        preload();
+    }
+
+    /**
+     * Check whether a class name resolves to an installed plugin or core class
+     *
+     * @param className Fully qualified class name
+     * @return TRUE or FALSE once resolved, or null if the PluginManager is unavailable (not cached)
+     */
+    public static Boolean isResolvable(String className) {
+        Boolean resolved = RESOLVED.get(className);
+        if (resolved != null) {
+            return resolved;
+        }
+        long now = System.currentTimeMillis();
+        Long missExpiry = MISSES.get(className);
+        if (missExpiry != null && missExpiry > now) {
+            return Boolean.FALSE;
+        }
+
+        Object pluginManager = JogetBeanRegistry.getBean(ApiConstants.BeanNames.PLUGIN_MANAGER);
+        if (pluginManager == null) {
+            LogUtil.debug(CLASS_NAME, "PluginManager not available, cannot resolve: " + className);
+            return null;
+        }
+
+        resolved = resolve(pluginManager, className);
+        if (resolved) {
+            RESOLVED.put(className, Boolean.TRUE);
+            MISSES.remove(className);
+        } else {
+            if (MISSES.size() >= ApiConstants.Defaults.PLUGIN_CLASS_MAX_MISSES) {
+                MISSES.values().removeIf(expiry -> expiry <= now);
+            }
+            if (MISSES.size() < ApiConstants.Defaults.PLUGIN_CLASS_MAX_MISSES) {
+                MISSES.put(className, now + ApiConstants.Defaults.PLUGIN_CLASS_MISS_TTL_MS);
+            }
+            LogUtil.info(CLASS_NAME, "Plugin class not found: " + className);
+        }
+        return resolved;
+    }
+
+    /**
+     * Drop every resolution and restore the preloaded core classes
+     */
+    public static void clear() {
+        RESOLVED.clear();
+        MISSES.clear();
+        preload();
+    }
+
+    private static void preload() {
+        for (String className : Arrays.asList(CORE_CLASSES)) {
+            RESOLVED.put(className, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Resolve through PluginManager.loadClass when available (no instance created), otherwise
+     * through PluginManager.getPlugin
+     */
+    private static boolean resolve(Object pluginManager, String className) {
+        try {
+            Method loadClass = pluginManager.getClass().getMethod("loadClass", String.class);
+            return loadClass.invoke(pluginManager, className) != null;
+        } catch (NoSuchMethodException e) {
+            LogUtil.debug(CLASS_NAME, "PluginManager.loadClass not available, falling back to getPlugin");
+        } catch (Exception e) {
+            // Class not found in any bundle
+            return false;
+        }
+
+        try {
+            Method getPlugin = pluginManager.getClass().getMethod("getPlugin", String.class);
+            return getPlugin.invoke(pluginManager, className) != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
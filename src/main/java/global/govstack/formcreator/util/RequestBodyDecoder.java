@@ -0,0 +1,199 @@
+package global.govstack.formcreator.util;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.exception.ApiProcessingException;
+import global.govstack.formcreator.exception.PayloadTooLargeException;
+import org.joget.commons.util.LogUtil;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decoding of compressed request bodies (Content-Encoding: gzip, x-gzip or deflate).
+ *
+ * The servlet input stream is decompressed as it is read, so callers parse the decoded body without
+ * the compressed bytes ever being buffered. The decoded stream enforces two limits while it is read:
+ * - the decoded size may not exceed the payload byte limit
+ * - the decoded size may not exceed the compressed size times the ratio limit (zip bombs), once
+ *   past a small allowance so tiny bodies with a high ratio are still accepted
+ * Either violation fails the read with PayloadTooLargeException (413).
+ *
+ * "deflate" accepts both the zlib-wrapped stream RFC 9110 specifies and the raw deflate stream some
+ * clients send instead.
+ */
+public class RequestBodyDecoder {
+
+    private static final String CLASS_NAME = RequestBodyDecoder.class.getName();
+
+    // Decoded bytes accepted before the ratio limit applies
+    private static final long RATIO_ALLOWANCE_BYTES = 64 * 1024;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Check whether a request body is compressed with a supported encoding
+     *
+     * @param request HttpServletRequest (may be null)
+     * @return true if the body must be decoded
+     * @throws ApiProcessingException (415) if the body uses an unsupported encoding
+     */
+    public static boolean isEncoded(HttpServletRequest request) {
+        String encoding = encodingOf(request);
+        if (encoding == null) {
+            return false;
+        }
+        if (!ApiConstants.ContentEncodings.GZIP.equals(encoding) &&
+            !ApiConstants.ContentEncodings.X_GZIP.equals(encoding) &&
+            !ApiConstants.ContentEncodings.DEFLATE.equals(encoding)) {
+            throw new ApiProcessingException(ApiConstants.HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                                             ApiConstants.ErrorTypes.UNSUPPORTED_ENCODING,
+                                             "Unsupported Content-Encoding: " + encoding +
+                                             " (supported: gzip, deflate)");
+        }
+        return true;
+    }
+
+    /**
+     * Open the decoded request body
+     *
+     * @param request HttpServletRequest with a supported Content-Encoding
+     * @param maxBytes Largest decoded body accepted
+     * @param maxRatio Largest decoded/compressed size ratio accepted
+     * @return Stream of the decoded body; reads fail with PayloadTooLargeException past a limit
+     * @throws IOException if the body cannot be read or is not valid compressed data
+     */
+    public static InputStream decode(HttpServletRequest request, long maxBytes, int maxRatio) throws IOException {
+        String encoding = encodingOf(request);
+        CountingInputStream compressed = new CountingInputStream(request.getInputStream());
+
+        InputStream decoded;
+        if (ApiConstants.ContentEncodings.DEFLATE.equals(encoding)) {
+            BufferedInputStream buffered = new BufferedInputStream(compressed, BUFFER_SIZE);
+            decoded = new InflaterInputStream(buffered, new Inflater(!isZlibWrapped(buffered)), BUFFER_SIZE);
+        } else {
+            decoded = new GZIPInputStream(compressed, BUFFER_SIZE);
+        }
+
+        MetricsUtil.increment(ApiConstants.Metrics.PAYLOAD_DECODED);
+        LogUtil.debug(CLASS_NAME, "Decoding " + encoding + " request body");
+        return new LimitedInputStream(decoded, compressed, maxBytes, maxRatio);
+    }
+
+    private static String encodingOf(HttpServletRequest request) {
+        if (request == null) {
+            return null;
+        }
+        String header = request.getHeader(ApiConstants.HttpHeaders.CONTENT_ENCODING);
+        if (header == null) {
+            return null;
+        }
+        String encoding = header.trim().toLowerCase(Locale.ROOT);
+        return encoding.isEmpty() || ApiConstants.ContentEncodings.IDENTITY.equals(encoding) ? null : encoding;
+    }
+
+    /**
+     * Peek at the first two bytes: a zlib header has compression method 8 and a check value
+     * making CMF*256 + FLG a multiple of 31
+     */
+    private static boolean isZlibWrapped(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int cmf = in.read();
+        int flg = in.read();
+        in.reset();
+        return cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    /**
+     * Counts the compressed bytes read from the servlet stream
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * Enforces the size and ratio limits on the decoded stream
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final CountingInputStream compressed;
+        private final long maxBytes;
+        private final int maxRatio;
+        private long count;
+
+        private LimitedInputStream(InputStream in, CountingInputStream compressed, long maxBytes, int maxRatio) {
+            super(in);
+            this.compressed = compressed;
+            this.maxBytes = maxBytes;
+            this.maxRatio = maxRatio;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                check(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                check(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                check(skipped);
+            }
+            return skipped;
+        }
+
+        private void check(long bytes) {
+            count += bytes;
+            if (count > maxBytes) {
+                MetricsUtil.increment(ApiConstants.Metrics.PAYLOAD_REJECTED_SIZE);
+                throw new PayloadTooLargeException("Decompressed request body exceeds the limit of " +
+                                                   maxBytes + " bytes");
+            }
+            if (count > RATIO_ALLOWANCE_BYTES && count > compressed.count * maxRatio) {
+                MetricsUtil.increment(ApiConstants.Metrics.PAYLOAD_REJECTED_RATIO);
+                throw new PayloadTooLargeException("Request body decompresses more than " + maxRatio +
+                                                   " times its compressed size");
+            }
+        }
+    }
+}
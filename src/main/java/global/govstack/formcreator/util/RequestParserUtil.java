@@ -1,14 +1,29 @@
 package global.govstack.formcreator.util;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import global.govstack.formcreator.constants.ApiConstants;
 import global.govstack.formcreator.exception.ValidationException;
+import global.govstack.formcreator.model.DatalistSpec;
+import global.govstack.formcreator.model.DefinitionPayload;
 import global.govstack.formcreator.model.FormCreationRequest;
+import global.govstack.formcreator.model.IndexDefinition;
+import global.govstack.formcreator.model.IndexSpec;
 import org.joget.commons.util.LogUtil;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Utility class for parsing API request bodies into FormCreationRequest objects.
@@ -18,6 +33,14 @@ public class RequestParserUtil {
 
     private static final String CLASS_NAME = RequestParserUtil.class.getName();
 
+    // Index names end up in DDL, so only plain identifiers are accepted
+    private static final Pattern INDEX_NAME_PATTERN = Pattern.compile("[A-Za-z][A-Za-z0-9_]{0,29}");
+
+    // Request formats read with a streaming parser; CBOR and Smile use the embedded Jackson dataformat modules
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final JsonFactory CBOR_FACTORY = new CBORFactory();
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+
     /**
      * Parse JSON request body into FormCreationRequest
      *
@@ -31,53 +54,177 @@ public class RequestParserUtil {
         }
 
         try {
-            JSONObject json = new JSONObject(requestBody);
-            FormCreationRequest request = new FormCreationRequest();
+            return parseRequest(new JSONObject(requestBody));
 
-            // Parse required fields
-            request.setFormId(getStringField(json, ApiConstants.RequestFields.FORM_ID));
-            request.setFormName(getStringField(json, ApiConstants.RequestFields.FORM_NAME));
-            request.setTableName(getStringField(json, ApiConstants.RequestFields.TABLE_NAME));
-            request.setFormDefinitionJson(getStringField(json, ApiConstants.RequestFields.FORM_DEFINITION));
+        } catch (JSONException e) {
+            LogUtil.error(CLASS_NAME, e, "Failed to parse JSON request");
+            throw new ValidationException("Invalid JSON format: " + e.getMessage(), e);
+        }
+    }
 
-            // Parse optional target application fields
-            if (json.has(ApiConstants.RequestFields.TARGET_APP_ID)) {
-                request.setTargetAppId(getStringField(json, ApiConstants.RequestFields.TARGET_APP_ID));
-            }
+    /**
+     * Parse a UTF-8 JSON request body read straight from the request stream into FormCreationRequest
+     *
+     * The bytes are tokenized with a streaming parser into the request's object model, so no String
+     * copy of the body is made.
+     *
+     * @param requestBody JSON request body as UTF-8 bytes
+     * @return FormCreationRequest object
+     * @throws ValidationException if JSON is invalid
+     */
+    public static FormCreationRequest parseJsonRequest(byte[] requestBody) {
+        return parseStreamed(requestBody, JSON_FACTORY);
+    }
 
-            if (json.has(ApiConstants.RequestFields.TARGET_APP_VERSION)) {
-                request.setTargetAppVersion(getStringField(json, ApiConstants.RequestFields.TARGET_APP_VERSION));
-            }
+    /**
+     * Parse a binary-encoded request body (CBOR or Smile) into FormCreationRequest
+     *
+     * The body is read with the format's streaming parser straight into the same object model the
+     * JSON path uses, so no JSON text is produced or parsed; a formDefinition sent as a map becomes
+     * the definition JSON.
+     *
+     * @param requestBody The encoded request body
+     * @param factory Parser factory of the body's format (see binaryFactoryFor)
+     * @return FormCreationRequest object
+     * @throws ValidationException if the body is not a valid document of the format
+     */
+    public static FormCreationRequest parseBinaryRequest(byte[] requestBody, JsonFactory factory) {
+        return parseStreamed(requestBody, factory);
+    }
 
-            // Parse optional API endpoint fields
-            if (json.has(ApiConstants.RequestFields.CREATE_API_ENDPOINT)) {
-                request.setCreateApiEndpoint(getBooleanField(json, ApiConstants.RequestFields.CREATE_API_ENDPOINT));
-            }
+    /**
+     * Read a request body with a streaming parser of its format
+     */
+    private static FormCreationRequest parseStreamed(byte[] requestBody, JsonFactory factory) {
+        if (requestBody == null || requestBody.length == 0) {
+            throw new ValidationException("Request body is empty");
+        }
 
-            if (json.has(ApiConstants.RequestFields.API_NAME)) {
-                request.setApiName(getStringField(json, ApiConstants.RequestFields.API_NAME));
+        try (JsonParser parser = factory.createParser(requestBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ValidationException("Invalid " + factory.getFormatName() + " request: root must be an object");
             }
+            return parseRequest((JSONObject) readValue(parser));
 
-            // Parse optional CRUD fields
-            if (json.has(ApiConstants.RequestFields.CREATE_CRUD)) {
-                request.setCreateCrud(getBooleanField(json, ApiConstants.RequestFields.CREATE_CRUD));
-            }
+        } catch (IOException | JSONException e) {
+            LogUtil.error(CLASS_NAME, e, "Failed to parse " + factory.getFormatName() + " request");
+            throw new ValidationException("Invalid " + factory.getFormatName() + " format: " + e.getMessage(), e);
+        }
+    }
 
-            if (json.has(ApiConstants.RequestFields.DATALIST_NAME)) {
-                request.setDatalistName(getStringField(json, ApiConstants.RequestFields.DATALIST_NAME));
-            }
+    /**
+     * Parser factory for a binary request content type
+     *
+     * @param contentType The request Content-Type (parameters are ignored)
+     * @return The CBOR or Smile factory, or null if the content type is not a binary format
+     */
+    public static JsonFactory binaryFactoryFor(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int separator = contentType.indexOf(';');
+        String mediaType = (separator >= 0 ? contentType.substring(0, separator) : contentType)
+            .trim().toLowerCase(Locale.ROOT);
+        if (ApiConstants.Transfer.CONTENT_TYPE_CBOR.equals(mediaType)) {
+            return CBOR_FACTORY;
+        }
+        if (ApiConstants.Transfer.CONTENT_TYPE_SMILE.equals(mediaType)) {
+            return SMILE_FACTORY;
+        }
+        return null;
+    }
 
-            if (json.has(ApiConstants.RequestFields.USERVIEW_NAME)) {
-                request.setUserviewName(getStringField(json, ApiConstants.RequestFields.USERVIEW_NAME));
-            }
+    /**
+     * Read the value under the parser (its first token is current) into org.json objects
+     */
+    private static Object readValue(JsonParser parser) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT:
+                JSONObject object = new JSONObject();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    object.put(name, readValue(parser));
+                }
+                return object;
+            case START_ARRAY:
+                JSONArray array = new JSONArray();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    array.put(readValue(parser));
+                }
+                return array;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                // Binary values have no JSON equivalent; keep them as Base64 text
+                return Base64.getEncoder().encodeToString(parser.getBinaryValue());
+            default:
+                return JSONObject.NULL;
+        }
+    }
 
-            LogUtil.debug(CLASS_NAME, "Parsed JSON request: " + request);
-            return request;
+    /**
+     * Read the request fields from a parsed request body
+     */
+    private static FormCreationRequest parseRequest(JSONObject json) {
+        FormCreationRequest request = new FormCreationRequest();
+
+        // Parse required fields
+        request.setFormId(getStringField(json, ApiConstants.RequestFields.FORM_ID));
+        request.setFormName(getStringField(json, ApiConstants.RequestFields.FORM_NAME));
+        request.setTableName(getStringField(json, ApiConstants.RequestFields.TABLE_NAME));
+        request.setFormDefinitionJson(getStringField(json, ApiConstants.RequestFields.FORM_DEFINITION));
+
+        // Parse optional target application fields
+        if (json.has(ApiConstants.RequestFields.TARGET_APP_ID)) {
+            request.setTargetAppId(getStringField(json, ApiConstants.RequestFields.TARGET_APP_ID));
+        }
 
-        } catch (JSONException e) {
-            LogUtil.error(CLASS_NAME, e, "Failed to parse JSON request");
-            throw new ValidationException("Invalid JSON format: " + e.getMessage(), e);
+        if (json.has(ApiConstants.RequestFields.TARGET_APP_VERSION)) {
+            request.setTargetAppVersion(getStringField(json, ApiConstants.RequestFields.TARGET_APP_VERSION));
         }
+
+        // Parse optional API endpoint fields
+        if (json.has(ApiConstants.RequestFields.CREATE_API_ENDPOINT)) {
+            request.setCreateApiEndpoint(getBooleanField(json, ApiConstants.RequestFields.CREATE_API_ENDPOINT));
+        }
+
+        if (json.has(ApiConstants.RequestFields.API_NAME)) {
+            request.setApiName(getStringField(json, ApiConstants.RequestFields.API_NAME));
+        }
+
+        // Parse optional CRUD fields
+        if (json.has(ApiConstants.RequestFields.CREATE_CRUD)) {
+            request.setCreateCrud(getBooleanField(json, ApiConstants.RequestFields.CREATE_CRUD));
+        }
+
+        if (json.has(ApiConstants.RequestFields.DATALIST_NAME)) {
+            request.setDatalistName(getStringField(json, ApiConstants.RequestFields.DATALIST_NAME));
+        }
+
+        if (json.has(ApiConstants.RequestFields.USERVIEW_NAME)) {
+            request.setUserviewName(getStringField(json, ApiConstants.RequestFields.USERVIEW_NAME));
+        }
+
+        // Parse optional datalist layout section
+        if (json.has(ApiConstants.RequestFields.DATALIST)) {
+            request.setDatalistSpec(parseDatalistSpec(toJSONObject(json.get(ApiConstants.RequestFields.DATALIST))));
+        }
+
+        // Parse optional index provisioning section
+        if (json.has(ApiConstants.RequestFields.INDEXES)) {
+            request.setIndexSpec(parseIndexSpec(json.get(ApiConstants.RequestFields.INDEXES)));
+        }
+
+        LogUtil.debug(CLASS_NAME, "Parsed request: " + request);
+        return request;
     }
 
     /**
@@ -93,26 +240,200 @@ public class RequestParserUtil {
             throw new ValidationException("Form definition file is empty");
         }
 
-        try {
-            // Convert file content to string
-            String jsonContent = new String(fileContent, StandardCharsets.UTF_8);
-
-            // Validate it's valid JSON
-            new JSONObject(jsonContent);
-
-            // Set in request
-            request.setFormDefinitionJson(jsonContent);
-            request.setFormDefinitionFile(fileContent);
-            request.setFormDefinitionFileName(fileName);
+        // Validate it's a JSON object, then keep the bytes as the only copy
+        validateDefinitionFile(fileContent);
+        request.setFormDefinitionFile(fileContent, fileName);
 
-            LogUtil.debug(CLASS_NAME, "Parsed form definition file: " + fileName);
+        LogUtil.debug(CLASS_NAME, "Parsed form definition file: " + fileName);
+    }
 
-        } catch (JSONException e) {
+    /**
+     * Check that an uploaded definition is one JSON object, streaming over its bytes without
+     * decoding them to a String or building a tree
+     *
+     * @param fileContent File content as bytes
+     * @throws ValidationException if the content is not a well-formed JSON object
+     */
+    private static void validateDefinitionFile(byte[] fileContent) {
+        try (JsonParser parser = JSON_FACTORY.createParser(fileContent)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new ValidationException("Form definition file must contain a JSON object");
+            }
+            parser.skipChildren();
+            if (parser.nextToken() != null) {
+                throw new ValidationException("Form definition file has content after the JSON object");
+            }
+        } catch (IOException e) {
             LogUtil.error(CLASS_NAME, e, "Invalid JSON in form definition file");
             throw new ValidationException("Form definition file contains invalid JSON: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Parse the optional "datalist" section into a DatalistSpec
+     *
+     * @param json The datalist section
+     * @return DatalistSpec object
+     * @throws ValidationException if a value is not supported
+     */
+    public static DatalistSpec parseDatalistSpec(JSONObject json) {
+        DatalistSpec spec = new DatalistSpec();
+
+        List<String> columns = getStringList(json, ApiConstants.DatalistFields.COLUMNS);
+        spec.setColumns(columns);
+
+        String strategy = getStringField(json, ApiConstants.DatalistFields.COLUMN_STRATEGY);
+        if (strategy != null && !strategy.trim().isEmpty()) {
+            try {
+                spec.setColumnStrategy(DatalistSpec.ColumnStrategy.valueOf(strategy.trim().toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Unsupported datalist columnStrategy: " + strategy);
+            }
+        } else if (!columns.isEmpty()) {
+            spec.setColumnStrategy(DatalistSpec.ColumnStrategy.EXPLICIT);
+        }
+
+        spec.setMaxColumns(json.optInt(ApiConstants.DatalistFields.MAX_COLUMNS, 0));
+        spec.setPageSize(json.optInt(ApiConstants.DatalistFields.PAGE_SIZE, 0));
+        spec.setSortBy(getStringField(json, ApiConstants.DatalistFields.SORT_BY));
+
+        String direction = getStringField(json, ApiConstants.DatalistFields.SORT_DIRECTION);
+        if (direction != null && !direction.trim().isEmpty()) {
+            direction = direction.trim().toLowerCase();
+            if (!DatalistSpec.SORT_ASC.equals(direction) && !DatalistSpec.SORT_DESC.equals(direction)) {
+                throw new ValidationException("Unsupported datalist sortDirection: " + direction);
+            }
+            spec.setSortDirection(direction);
+        }
+
+        spec.setFilters(getStringList(json, ApiConstants.DatalistFields.FILTERS));
+
+        if (json.has(ApiConstants.DatalistFields.CREATE_INDEXES)) {
+            spec.setCreateIndexes(getBooleanField(json, ApiConstants.DatalistFields.CREATE_INDEXES));
+        }
+
+        if (spec.getColumnStrategy() == DatalistSpec.ColumnStrategy.EXPLICIT && spec.getColumns().isEmpty()) {
+            throw new ValidationException("datalist columns are required for the EXPLICIT columnStrategy");
+        }
+
+        return spec;
+    }
+
+    /**
+     * Parse the optional "indexes" section into an IndexSpec.
+     * Accepts either an object ({"auto", "online", "definitions"}) or a bare array of definitions,
+     * where each definition is a field id or an object ({"columns", "unique", "name"}).
+     *
+     * @param value The indexes section (JSONObject, JSONArray or JSON string)
+     * @return IndexSpec object
+     * @throws ValidationException if a definition is invalid
+     */
+    public static IndexSpec parseIndexSpec(Object value) {
+        if (value instanceof String) {
+            String text = ((String) value).trim();
+            value = text.startsWith("[") ? new JSONArray(text) : new JSONObject(text);
+        }
+
+        IndexSpec spec = new IndexSpec();
+        JSONArray definitions;
+
+        if (value instanceof JSONArray) {
+            definitions = (JSONArray) value;
+        } else if (value instanceof JSONObject) {
+            JSONObject json = (JSONObject) value;
+            if (json.has(ApiConstants.IndexFields.AUTO)) {
+                spec.setAuto(getBooleanField(json, ApiConstants.IndexFields.AUTO));
+            }
+            if (json.has(ApiConstants.IndexFields.ONLINE)) {
+                spec.setOnline(getBooleanField(json, ApiConstants.IndexFields.ONLINE));
+            }
+            definitions = json.optJSONArray(ApiConstants.IndexFields.DEFINITIONS);
+        } else {
+            throw new ValidationException("indexes must be an object or an array");
+        }
+
+        List<IndexDefinition> parsed = new ArrayList<>();
+        if (definitions != null) {
+            for (int i = 0; i < definitions.length(); i++) {
+                parsed.add(parseIndexDefinition(definitions.get(i)));
+            }
+        }
+        spec.setDefinitions(parsed);
+
+        return spec;
+    }
+
+    /**
+     * Parse a single index definition (a field id or a definition object)
+     */
+    private static IndexDefinition parseIndexDefinition(Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject json = (JSONObject) value;
+            List<String> columns = getStringList(json, ApiConstants.IndexFields.COLUMNS);
+            if (columns.isEmpty()) {
+                throw new ValidationException("Index definition requires at least one column: " + json);
+            }
+
+            String name = getStringField(json, ApiConstants.IndexFields.NAME);
+            if (name != null && !INDEX_NAME_PATTERN.matcher(name.trim()).matches()) {
+                throw new ValidationException("Invalid index name (letters, digits and _ only, max 30): " + name);
+            }
+
+            return new IndexDefinition(
+                columns,
+                getBooleanField(json, ApiConstants.IndexFields.UNIQUE),
+                name != null ? name.trim() : null,
+                IndexDefinition.Source.EXPLICIT
+            );
+        }
+
+        String column = value != null && value != JSONObject.NULL ? value.toString().trim() : "";
+        if (column.isEmpty()) {
+            throw new ValidationException("Index definition must be a field id or an object");
+        }
+        return IndexDefinition.of(column, IndexDefinition.Source.EXPLICIT);
+    }
+
+    /**
+     * Accept a nested section either as a JSON object or as a JSON string
+     */
+    private static JSONObject toJSONObject(Object value) {
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        return new JSONObject(value.toString());
+    }
+
+    /**
+     * Get a list of strings from a JSON array field (or a comma-separated string)
+     */
+    private static List<String> getStringList(JSONObject json, String fieldName) {
+        List<String> values = new ArrayList<>();
+        if (!json.has(fieldName)) {
+            return values;
+        }
+
+        JSONArray array = json.optJSONArray(fieldName);
+        if (array != null) {
+            for (int i = 0; i < array.length(); i++) {
+                String value = array.optString(i);
+                if (value != null && !value.trim().isEmpty()) {
+                    values.add(value.trim());
+                }
+            }
+        } else {
+            String value = getStringField(json, fieldName);
+            if (value != null) {
+                for (String part : value.split(",")) {
+                    if (!part.trim().isEmpty()) {
+                        values.add(part.trim());
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
     /**
      * Get string field from JSON object
      */
@@ -164,13 +485,9 @@ public class RequestParserUtil {
      * @throws ValidationException if neither is present
      */
     public static void validateFormDefinitionPresent(FormCreationRequest request) {
-        boolean hasJsonDefinition = request.getFormDefinitionJson() != null &&
-                                   !request.getFormDefinitionJson().trim().isEmpty();
-
-        boolean hasFileDefinition = request.getFormDefinitionFile() != null &&
-                                   request.getFormDefinitionFile().length > 0;
-
-        if (!hasJsonDefinition && !hasFileDefinition) {
+        // Checked on the held buffer, so an uploaded file is not decoded here
+        DefinitionPayload definition = request.getFormDefinition();
+        if (definition == null || definition.isBlank()) {
             throw new ValidationException(ApiConstants.ValidationMessages.FORM_DEFINITION_REQUIRED);
         }
     }
@@ -229,18 +546,23 @@ public class RequestParserUtil {
                 request.setUserviewName(fields.get(ApiConstants.RequestFields.USERVIEW_NAME));
             }
 
+            // Parse optional datalist layout section (sent as a JSON string field)
+            if (fields.containsKey(ApiConstants.RequestFields.DATALIST)) {
+                request.setDatalistSpec(parseDatalistSpec(new JSONObject(fields.get(ApiConstants.RequestFields.DATALIST))));
+            }
+
+            // Parse optional index provisioning section (sent as a JSON string field)
+            if (fields.containsKey(ApiConstants.RequestFields.INDEXES)) {
+                request.setIndexSpec(parseIndexSpec(fields.get(ApiConstants.RequestFields.INDEXES)));
+            }
+
             // Handle file upload
             if (files.containsKey(ApiConstants.RequestFields.FORM_DEFINITION_FILE)) {
                 MultipartRequestParser.FileUpload fileUpload = files.get(ApiConstants.RequestFields.FORM_DEFINITION_FILE);
 
-                // Validate it's valid JSON
-                String jsonContent = fileUpload.getContentAsString();
-                new JSONObject(jsonContent);
-
-                // Set in request
-                request.setFormDefinitionJson(jsonContent);
-                request.setFormDefinitionFile(fileUpload.getContent());
-                request.setFormDefinitionFileName(fileUpload.getFilename());
+                // Validate it's a JSON object, then keep the uploaded bytes as the only copy
+                validateDefinitionFile(fileUpload.getContent());
+                request.setFormDefinitionFile(fileUpload.getContent(), fileUpload.getFilename());
 
                 LogUtil.debug(CLASS_NAME, "Parsed form definition file: " + fileUpload.getFilename());
             }
@@ -0,0 +1,113 @@
+package global.govstack.formcreator.benchmark;
+
+import global.govstack.formcreator.service.PayloadPreScanner;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Allocation of body acquisition for a large create request: the String the API framework builds
+ * from the servlet stream versus the bounded byte read the provider now does.
+ *
+ * Both paths end in the same org.json tree, so only acquisition and the pre-scan are measured.
+ * Allocated bytes are read from the JVM's per-thread counter after a warm-up. The result depends on
+ * the JIT and GC, so the benchmark package only runs with -Dbenchmark, and is skipped on JVMs
+ * without the counter.
+ */
+public class RequestBodyAllocationBenchmarkTest {
+
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    public void bytePathAllocatesLessThanStringPath() throws IOException {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        byte[] body = createRequestBody(2000);
+        PayloadPreScanner preScanner = new PayloadPreScanner();
+
+        for (int i = 0; i < WARMUP; i++) {
+            stringPath(body, preScanner);
+            bytePath(body, preScanner);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            stringPath(body, preScanner);
+        }
+        long stringBytes = (allocatedBytes() - before) / ITERATIONS;
+
+        before = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytePath(body, preScanner);
+        }
+        long byteBytes = (allocatedBytes() - before) / ITERATIONS;
+
+        assertTrue("byte path should allocate less for a " + body.length + " byte body (" + byteBytes +
+                   " vs " + stringBytes + " bytes/request)", byteBytes < stringBytes);
+    }
+
+    /**
+     * Before: the framework decodes the stream into a String, which is then pre-scanned
+     */
+    private static int stringPath(byte[] body, PayloadPreScanner preScanner) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+        }
+        String requestBody = builder.toString();
+        preScanner.scan(requestBody);
+        return requestBody.length();
+    }
+
+    /**
+     * After: the stream is read once into bytes, which are pre-scanned and parsed as they are
+     */
+    private static int bytePath(byte[] body, PayloadPreScanner preScanner) throws IOException {
+        byte[] requestBody;
+        try (InputStream in = new ByteArrayInputStream(body)) {
+            requestBody = preScanner.read(in, body.length);
+        }
+        preScanner.scan(requestBody);
+        return requestBody.length;
+    }
+
+    /**
+     * A create request whose definition (sent as a JSON string) has the given number of text fields
+     */
+    static byte[] createRequestBody(int fields) {
+        StringBuilder definition = new StringBuilder("{\"className\":\"org.joget.apps.form.model.Form\",")
+            .append("\"properties\":{\"id\":\"bench\",\"name\":\"Bench\",\"tableName\":\"bench\"},\"elements\":[");
+        for (int i = 0; i < fields; i++) {
+            if (i > 0) {
+                definition.append(',');
+            }
+            definition.append("{\"className\":\"org.joget.apps.form.lib.TextField\",\"properties\":")
+                .append("{\"id\":\"field").append(i).append("\",\"label\":\"Field ").append(i)
+                .append("\",\"value\":\"\",\"maxlength\":\"255\"}}");
+        }
+        definition.append("]}");
+
+        String escaped = definition.toString().replace("\"", "\\\"");
+        String request = "{\"formId\":\"bench\",\"formName\":\"Bench\",\"tableName\":\"bench\"," +
+                         "\"formDefinition\":\"" + escaped + "\"}";
+        return request.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
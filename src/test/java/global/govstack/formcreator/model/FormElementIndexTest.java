@@ -0,0 +1,118 @@
+package global.govstack.formcreator.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FormElementIndexTest {
+
+    private static final String FORM = "{\"className\":\"org.joget.apps.form.model.Form\"," +
+        "\"properties\":{\"id\":\"customer\",\"name\":\"Customer\",\"tableName\":\"customer_tbl\"}," +
+        "\"elements\":[{\"className\":\"org.joget.apps.form.model.Section\",\"properties\":{\"id\":\"main\"}," +
+        "\"elements\":[{\"className\":\"org.joget.apps.form.model.Column\",\"properties\":{}," +
+        "\"elements\":[" +
+        field("TextField", "name", "Name", "") + "," +
+        field("SelectBox", "status", "Status", "") + "," +
+        field("SelectBox", "tags", "Tags", ",\"multiple\":\"true\"") + "," +
+        field("CheckBox", "flags", "Flags", "") + "," +
+        field("Radio", "gender", "Gender", "") + "," +
+        field("DatePicker", "birthDate", "Birth date", "") + "," +
+        field("FileUpload", "photo", "Photo", "") + "," +
+        "{\"className\":\"org.joget.apps.form.lib.TextField\",\"properties\":{\"id\":\"nickname\"," +
+        "\"validator\":{\"className\":\"v\",\"properties\":{\"id\":\"notAField\"}}}}," +
+        field("TextField", "id", "Id", "") + "," +
+        field("CustomHTML", "banner", "Banner", "") + "," +
+        field("SubmitButton", "submit", "Submit", "") +
+        "]}]}]}";
+
+    private static String field(String type, String id, String label, String extra) {
+        return "{\"className\":\"org.joget.apps.form.lib." + type + "\",\"properties\":{\"id\":\"" + id +
+               "\",\"label\":\"" + label + "\"" + extra + "}}";
+    }
+
+    @Test
+    public void readsFormProperties() {
+        FormElementIndex index = FormElementIndex.build(FORM);
+
+        assertEquals("customer", index.getFormId());
+        assertEquals("Customer", index.getFormName());
+        assertEquals("customer_tbl", index.getTableName());
+    }
+
+    @Test
+    public void indexesDataFieldsInDefinitionOrder() {
+        FormElementIndex index = FormElementIndex.build(FORM);
+
+        assertEquals(Arrays.asList("name", "status", "tags", "flags", "gender", "birthDate", "photo", "nickname"),
+                     index.getIds());
+        assertEquals(8, index.size());
+        assertFalse(index.isEmpty());
+    }
+
+    @Test
+    public void countsEveryElementIncludingLayout() {
+        // Section, column and the eleven elements inside the column
+        assertEquals(13, FormElementIndex.build(FORM).getElementCount());
+    }
+
+    @Test
+    public void skipsLayoutButtonsAndSystemColumns() {
+        FormElementIndex index = FormElementIndex.build(FORM);
+
+        assertEquals(-1, index.indexOf("main"));
+        assertEquals(-1, index.indexOf("banner"));
+        assertEquals(-1, index.indexOf("submit"));
+        assertEquals(-1, index.indexOf("id"));
+        assertEquals(-1, index.indexOf("notAField"));
+    }
+
+    @Test
+    public void classifiesStorageTypes() {
+        FormElementIndex index = FormElementIndex.build(FORM);
+
+        assertEquals(FormElementIndex.StorageType.TEXT, index.getStorageType(index.indexOf("name")));
+        assertEquals(FormElementIndex.StorageType.LOOKUP, index.getStorageType(index.indexOf("status")));
+        assertEquals(FormElementIndex.StorageType.MULTI_VALUE, index.getStorageType(index.indexOf("tags")));
+        assertEquals(FormElementIndex.StorageType.MULTI_VALUE, index.getStorageType(index.indexOf("flags")));
+        assertEquals(FormElementIndex.StorageType.LOOKUP, index.getStorageType(index.indexOf("gender")));
+        assertEquals(FormElementIndex.StorageType.DATE, index.getStorageType(index.indexOf("birthDate")));
+        assertEquals(FormElementIndex.StorageType.FILE, index.getStorageType(index.indexOf("photo")));
+    }
+
+    @Test
+    public void recordsLabelPathAndColumn() {
+        FormElementIndex index = FormElementIndex.build(FORM);
+        int name = index.indexOf("name");
+        int nickname = index.indexOf("nickname");
+
+        assertEquals("Name", index.getLabel(name));
+        assertEquals("nickname", index.getLabel(nickname));
+        assertEquals("org.joget.apps.form.lib.TextField", index.getClassName(name));
+        // The column has no id, so it adds no path segment
+        assertEquals("main", index.getPath(name));
+        assertEquals("c_name", index.getColumnName(name));
+    }
+
+    @Test
+    public void columnNamesKeepSystemColumns() {
+        assertEquals("dateCreated", FormElementIndex.columnNameFor("dateCreated"));
+        assertEquals("c_amount", FormElementIndex.columnNameFor("amount"));
+        assertTrue(FormElementIndex.isSystemColumn("modifiedBy"));
+        assertFalse(FormElementIndex.isDataClass("org.joget.apps.form.model.Section"));
+        assertTrue(FormElementIndex.isDataClass("org.joget.apps.form.lib.TextField"));
+    }
+
+    @Test
+    public void nonObjectRootGivesAnEmptyIndex() {
+        FormElementIndex index = FormElementIndex.build("[1,2]");
+
+        assertTrue(index.isEmpty());
+        assertNull(index.getFormId());
+        assertEquals(0, FormElementIndex.empty().size());
+    }
+}
@@ -0,0 +1,168 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.exception.ValidationException;
+import global.govstack.formcreator.model.FormDiff;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class FormDiffServiceTest {
+
+    private final FormDiffService diffService = new FormDiffService();
+
+    private static String form(String tableName, String formProperties, String... fields) {
+        return "{\"className\":\"org.joget.apps.form.model.Form\",\"properties\":{\"id\":\"customer\"," +
+               "\"tableName\":\"" + tableName + "\"" + formProperties + "},\"elements\":[" +
+               String.join(",", fields) + "]}";
+    }
+
+    private static String field(String type, String id, String label) {
+        return field(type, id, label, "");
+    }
+
+    private static String field(String type, String id, String label, String extra) {
+        return "{\"className\":\"org.joget.apps.form.lib." + type + "\",\"properties\":{\"id\":\"" + id +
+               "\",\"label\":\"" + label + "\"" + extra + "}}";
+    }
+
+    private static final String STORED = form("customer", "",
+        field("TextField", "name", "Name"),
+        field("SelectBox", "status", "Status"));
+
+    @Test
+    public void newFormIsStructural() {
+        FormDiff diff = diffService.diff(null, STORED);
+
+        assertFalse(diff.isExists());
+        assertEquals(FormDiff.ChangeLevel.STRUCTURAL, diff.getLevel());
+    }
+
+    @Test
+    public void identicalDefinitionIsNone() {
+        FormDiff diff = diffService.diff(STORED, STORED);
+
+        assertTrue(diff.isExists());
+        assertEquals(FormDiff.ChangeLevel.NONE, diff.getLevel());
+        assertFalse(FormDiff.requiresSchemaWork(diff.getLevel()));
+    }
+
+    @Test
+    public void labelChangeIsCosmetic() {
+        String incoming = form("customer", "",
+            field("TextField", "name", "Full name"),
+            field("SelectBox", "status", "Status"));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.COSMETIC, diff.getLevel());
+        assertTrue(diff.isCosmeticOnly());
+        assertEquals(Collections.singletonList("name"), diff.getCosmeticChanges());
+    }
+
+    @Test
+    public void reorderingIsCosmetic() {
+        String incoming = form("customer", "",
+            field("SelectBox", "status", "Status"),
+            field("TextField", "name", "Name"));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.COSMETIC, diff.getLevel());
+        assertEquals(Collections.singletonList("elements"), diff.getCosmeticChanges());
+    }
+
+    @Test
+    public void addedFieldIsStructural() {
+        String incoming = form("customer", "",
+            field("TextField", "name", "Name"),
+            field("SelectBox", "status", "Status"),
+            field("TextField", "email", "Email"));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.STRUCTURAL, diff.getLevel());
+        assertEquals(Collections.singletonList("email"), diff.getAddedFields());
+        assertTrue(FormDiff.requiresSchemaWork(diff.getLevel()));
+    }
+
+    @Test
+    public void removedFieldIsStructural() {
+        String incoming = form("customer", "", field("TextField", "name", "Name"));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.STRUCTURAL, diff.getLevel());
+        assertEquals(Collections.singletonList("status"), diff.getRemovedFields());
+    }
+
+    @Test
+    public void retypedFieldIsStructural() {
+        String incoming = form("customer", "",
+            field("TextField", "name", "Name"),
+            field("SelectBox", "status", "Status", ",\"multiple\":\"true\""));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.STRUCTURAL, diff.getLevel());
+        assertEquals(Collections.singletonList("status"), diff.getRetypedFields());
+    }
+
+    @Test
+    public void tableChangeIsStructural() {
+        String incoming = form("client", "",
+            field("TextField", "name", "Name"),
+            field("SelectBox", "status", "Status"));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.STRUCTURAL, diff.getLevel());
+        assertEquals("customer -> client", diff.getTableChange());
+    }
+
+    @Test
+    public void binderChangeIsBinder() {
+        String binder = ",\"loadBinder\":{\"className\":\"org.joget.apps.form.lib.WorkflowFormBinder\"}";
+        String incoming = form("customer", binder,
+            field("TextField", "name", "Name"),
+            field("SelectBox", "status", "Status"));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.BINDER, diff.getLevel());
+        assertEquals(Collections.singletonList("form#loadBinder"), diff.getBinderChanges());
+        assertTrue(diff.getCosmeticChanges().isEmpty());
+    }
+
+    @Test
+    public void optionsBinderChangeOnAFieldIsBinder() {
+        String incoming = form("customer", "",
+            field("TextField", "name", "Name"),
+            field("SelectBox", "status", "Status", ",\"optionsBinder\":{\"className\":\"x\"}"));
+
+        FormDiff diff = diffService.diff(STORED, incoming);
+
+        assertEquals(FormDiff.ChangeLevel.BINDER, diff.getLevel());
+        assertEquals(Collections.singletonList("status#optionsBinder"), diff.getBinderChanges());
+    }
+
+    @Test
+    public void invalidStoredDefinitionIsTreatedAsNew() {
+        FormDiff diff = diffService.diff("{not json", STORED);
+
+        assertFalse(diff.isExists());
+        assertEquals(FormDiff.ChangeLevel.STRUCTURAL, diff.getLevel());
+        assertNull(diff.getTableChange());
+    }
+
+    @Test
+    public void invalidIncomingDefinitionIsRejected() {
+        assertThrows(ValidationException.class, () -> diffService.diff(STORED, "[]"));
+        assertThrows(ValidationException.class, () -> diffService.diff(STORED, "{not json"));
+    }
+}
@@ -0,0 +1,86 @@
+package global.govstack.formcreator.service;
+
+import global.govstack.formcreator.constants.ApiConstants;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IdGenerationServiceTest {
+
+    @Test
+    public void timeOrderedIdHasVersion7AndRfcVariant() {
+        for (int i = 0; i < 1000; i++) {
+            UUID id = IdGenerationService.timeOrderedId();
+
+            assertEquals(7, id.version());
+            assertEquals(2, id.variant());
+            assertEquals(0x7, (id.getMostSignificantBits() >>> 12) & 0xF);
+            assertEquals(0b10, id.getLeastSignificantBits() >>> 62);
+        }
+    }
+
+    @Test
+    public void timeOrderedIdStartsWithTheUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID id = IdGenerationService.timeOrderedId();
+        long after = System.currentTimeMillis();
+
+        long timestamp = id.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= after);
+    }
+
+    @Test
+    public void idsOfLaterMillisecondsSortAfter() throws InterruptedException {
+        UUID first = IdGenerationService.timeOrderedId();
+        Thread.sleep(2);
+        UUID second = IdGenerationService.timeOrderedId();
+
+        // Lowercase hex strings sort like the ids: this is the order the primary key index sees
+        assertTrue(first.toString().compareTo(second.toString()) < 0);
+    }
+
+    @Test
+    public void timeOrderedIdsAreUnique() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(IdGenerationService.timeOrderedId());
+        }
+        assertEquals(100_000, ids.size());
+    }
+
+    @Test
+    public void deterministicIdIsReproducedForTheSameArtifact() {
+        String id = IdGenerationService.deterministicId("crm", "customer", "api");
+
+        assertEquals(id, IdGenerationService.deterministicId("crm", "customer", "api"));
+        assertNotEquals(id, IdGenerationService.deterministicId("crm", "customer", "userview"));
+        assertNotEquals(id, IdGenerationService.deterministicId("hr", "customer", "api"));
+        assertEquals(3, UUID.fromString(id).version());
+    }
+
+    @Test
+    public void strategySelectsTheIdVersion() {
+        IdGenerationService service = new IdGenerationService();
+        assertEquals(ApiConstants.IdStrategies.TIME_ORDERED, service.getStrategy());
+        assertEquals(7, UUID.fromString(service.artifactId("crm", "customer", "api")).version());
+
+        service.configure("RANDOM");
+        assertEquals(4, UUID.fromString(service.artifactId("crm", "customer", "api")).version());
+        assertFalse(service.isDeterministic());
+
+        service.configure(ApiConstants.IdStrategies.DETERMINISTIC);
+        assertTrue(service.isDeterministic());
+        assertEquals(IdGenerationService.deterministicId("crm", "customer", "api"),
+                     service.artifactId("crm", "customer", "api"));
+
+        service.configure("unknown");
+        assertEquals(ApiConstants.IdStrategies.TIME_ORDERED, service.getStrategy());
+    }
+}
@@ -0,0 +1,181 @@
+package global.govstack.formcreator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import global.govstack.formcreator.exception.PayloadTooLargeException;
+import global.govstack.formcreator.exception.ValidationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+public class PayloadPreScannerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private PayloadPreScanner preScanner;
+
+    @Before
+    public void setUp() {
+        preScanner = new PayloadPreScanner();
+        // bytes, depth, elements, string length, compression ratio
+        preScanner.configure(200, 3, 10, 16, 10);
+    }
+
+    @Test
+    public void documentWithinLimitsPasses() {
+        preScanner.scan("{\"a\":{\"b\":[1,2,\"three\"]}}");
+        preScanner.scan("{\"a\":1}".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void nestingOverLimitIsRejected() {
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.scan("{\"a\":{\"b\":{\"c\":{}}}}"));
+    }
+
+    @Test
+    public void elementCountOverLimitIsRejected() {
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.scan("[1,2,3,4,5,6,7,8,9,10]"));
+    }
+
+    @Test
+    public void longStringValueIsRejected() {
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.scan("{\"a\":\"01234567890123456\"}"));
+    }
+
+    @Test
+    public void longFieldNameIsRejected() {
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.scan("{\"01234567890123456\":1}"));
+    }
+
+    @Test
+    public void byteSizeCountsUtf8Bytes() {
+        // 70 three-byte characters: 70 chars but 210 bytes
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5; i++) {
+            json.append(i > 0 ? "," : "").append("\"€€€€€€€€€€€€€€\"");
+        }
+        json.append("]");
+
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.scan(json.toString()));
+    }
+
+    @Test
+    public void malformedJsonIsAValidationError() {
+        assertThrows(ValidationException.class, () -> preScanner.scan("{\"a\":"));
+    }
+
+    @Test
+    public void trailingContentIsAValidationError() {
+        assertThrows(ValidationException.class, () -> preScanner.scan("{\"a\":1} {\"b\":2}"));
+    }
+
+    @Test
+    public void declaredLengthOverLimitIsRejectedBeforeReading() {
+        preScanner.checkContentLength(-1);
+        preScanner.checkContentLength(200);
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.checkContentLength(201));
+    }
+
+    @Test
+    public void configureBelowOneKeepsDefaults() {
+        PayloadPreScanner defaults = new PayloadPreScanner();
+        defaults.configure(0, 0, 0, 0, 0);
+
+        assertEquals(new PayloadPreScanner().getMaxBytes(), defaults.getMaxBytes());
+        assertEquals(new PayloadPreScanner().getMaxCompressionRatio(), defaults.getMaxCompressionRatio());
+    }
+
+    @Test
+    public void readOfDeclaredLengthReturnsTheBufferItFilled() throws IOException {
+        byte[] body = "{\"a\":1}".getBytes(StandardCharsets.UTF_8);
+
+        byte[] read = preScanner.read(new ByteArrayInputStream(body), body.length);
+
+        assertArrayEquals(body, read);
+        assertEquals(body.length, read.length);
+    }
+
+    @Test
+    public void readGrowsPastAnUnderstatedLength() throws IOException {
+        byte[] body = "{\"abc\":123,\"def\":456}".getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(body, preScanner.read(new ByteArrayInputStream(body), 4));
+        assertArrayEquals(body, preScanner.read(new ByteArrayInputStream(body), -1));
+    }
+
+    @Test
+    public void readStopsAtTheByteLimit() {
+        byte[] body = new byte[201];
+
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.read(new ByteArrayInputStream(body), -1));
+        assertThrows(PayloadTooLargeException.class, () -> preScanner.read(new ByteArrayInputStream(body), 200));
+    }
+
+    @Test
+    public void recordWithinLimitsIsCopied() throws IOException {
+        try (JsonParser parser = new JsonFactory().createParser("{\"a\":[1,2]} {\"b\":\"x\"}")) {
+            parser.nextToken();
+            JsonNode first = MAPPER.readTree(preScanner.scanRecord(parser).asParser());
+            assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+
+            parser.nextToken();
+            JsonNode second = MAPPER.readTree(preScanner.scanRecord(parser).asParser());
+
+            assertEquals(2, first.get("a").size());
+            assertEquals("x", second.get("b").asText());
+            assertNull(parser.nextToken());
+        }
+    }
+
+    @Test
+    public void rejectedRecordIsSkippedToItsEnd() throws IOException {
+        String stream = "{\"a\":{\"b\":{\"c\":{\"d\":[1]}}},\"e\":2}\n" +
+                        "{\"a\":\"01234567890123456\",\"f\":[3]}\n" +
+                        "{\"ok\":true}";
+        try (JsonParser parser = new JsonFactory().createParser(stream)) {
+            parser.nextToken();
+            assertThrows(PayloadTooLargeException.class, () -> preScanner.scanRecord(parser));
+
+            parser.nextToken();
+            assertThrows(PayloadTooLargeException.class, () -> preScanner.scanRecord(parser));
+
+            assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            JsonNode next = MAPPER.readTree(preScanner.scanRecord(parser).asParser());
+            assertEquals(true, next.get("ok").asBoolean());
+        }
+    }
+
+    @Test
+    public void recordSizeIsMeasuredPerRecord() throws IOException {
+        StringBuilder large = new StringBuilder("{");
+        for (int i = 0; i < 9; i++) {
+            large.append(i > 0 ? "," : "").append("\"field").append(i).append("\":\"0123456789abcdef\"");
+        }
+        large.append("}");
+        String small = "{\"a\":1}";
+
+        try (JsonParser parser = new JsonFactory().createParser(small + "\n" + large + "\n" + small)) {
+            parser.nextToken();
+            preScanner.scanRecord(parser);
+
+            parser.nextToken();
+            assertThrows(PayloadTooLargeException.class, () -> preScanner.scanRecord(parser));
+
+            parser.nextToken();
+            assertSame(JsonToken.START_OBJECT, parser.currentToken());
+            preScanner.scanRecord(parser);
+        }
+    }
+}
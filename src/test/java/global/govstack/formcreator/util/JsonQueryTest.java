@@ -0,0 +1,135 @@
+package global.govstack.formcreator.util;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class JsonQueryTest {
+
+    private static final String FORM = "{\"className\":\"org.joget.apps.form.model.Form\"," +
+        "\"properties\":{\"id\":\"customer\",\"tableName\":\"customer\",\"count\":3,\"enabled\":true,\"note\":null}," +
+        "\"elements\":[" +
+        "{\"className\":\"org.joget.apps.form.model.Section\",\"properties\":{\"id\":\"main\"},\"elements\":[" +
+        "{\"className\":\"org.joget.apps.form.lib.TextField\",\"properties\":{\"id\":\"name\",\"label\":\"Name\"}}," +
+        "{\"className\":\"org.joget.apps.form.lib.SelectBox\",\"properties\":{\"id\":\"status\",\"label\":\"Status\"," +
+        "\"options\":[{\"value\":\"a\",\"label\":\"A\"}]}}]}]}";
+
+    @Test
+    public void fieldPathReturnsScalarValues() throws IOException {
+        JsonQuery.Result result = JsonQuery.compile("properties.id", "properties.count", "properties.enabled")
+            .evaluate(FORM);
+
+        assertEquals("customer", result.firstValue("properties.id"));
+        assertEquals(JsonQuery.ValueType.STRING, result.first("properties.id").getType());
+        assertEquals("3", result.firstValue("properties.count"));
+        assertEquals(JsonQuery.ValueType.NUMBER, result.first("properties.count").getType());
+        assertEquals("true", result.firstValue("properties.enabled"));
+        assertEquals(JsonQuery.ValueType.BOOLEAN, result.first("properties.enabled").getType());
+    }
+
+    @Test
+    public void nullAndMissingValuesAreDistinguished() throws IOException {
+        JsonQuery.Result result = JsonQuery.compile("properties.note", "properties.missing").evaluate(FORM);
+
+        assertEquals(JsonQuery.ValueType.NULL, result.first("properties.note").getType());
+        assertNull(result.firstValue("properties.note"));
+        assertNull(result.first("properties.missing"));
+        assertEquals(0, result.count("properties.missing"));
+    }
+
+    @Test
+    public void arrayWildcardAndIndexSelectElements() throws IOException {
+        JsonQuery.Result result = JsonQuery.compile(
+            "elements[0].elements[*].properties.id",
+            "elements[0].elements[1].properties.label"
+        ).evaluate(FORM);
+
+        List<JsonQuery.Match> ids = result.get("elements[0].elements[*].properties.id");
+        assertEquals(2, ids.size());
+        assertEquals("name", ids.get(0).getValue());
+        assertEquals("status", ids.get(1).getValue());
+        assertEquals("Status", result.firstValue("elements[0].elements[1].properties.label"));
+    }
+
+    @Test
+    public void anyDepthMatchesEveryLevelInDocumentOrder() throws IOException {
+        JsonQuery.Result result = JsonQuery.compile("**.className", "**.label").evaluate(FORM);
+
+        List<JsonQuery.Match> classNames = result.get("**.className");
+        assertEquals(4, classNames.size());
+        assertEquals("org.joget.apps.form.model.Form", classNames.get(0).getValue());
+        assertEquals("org.joget.apps.form.lib.SelectBox", classNames.get(3).getValue());
+        // Includes the option label nested below the field's properties
+        assertEquals(3, result.count("**.label"));
+    }
+
+    @Test
+    public void anyFieldMatchesOneLevel() throws IOException {
+        JsonQuery.Result result = JsonQuery.compile("properties.*").evaluate(FORM);
+
+        assertEquals(5, result.count("properties.*"));
+    }
+
+    @Test
+    public void matchRangesCoverTheSourceText() throws IOException {
+        JsonQuery.Result result = JsonQuery.compile("elements[0].properties", "properties.id", "properties.count")
+            .evaluate(FORM);
+
+        assertEquals("{\"id\":\"main\"}", result.first("elements[0].properties").raw(FORM));
+        assertEquals("\"customer\"", result.first("properties.id").raw(FORM));
+        assertEquals("3", result.first("properties.count").raw(FORM));
+    }
+
+    @Test
+    public void rangesAllowPatchingInPlace() throws IOException {
+        JsonQuery.Match match = JsonQuery.compile("properties.tableName").evaluate(FORM).first("properties.tableName");
+
+        String patched = FORM.substring(0, match.getStart()) + "\"client\"" + FORM.substring(match.getEnd());
+
+        assertEquals("client", JsonQuery.compile("properties.tableName").evaluate(patched)
+            .firstValue("properties.tableName"));
+    }
+
+    @Test
+    public void containerMatchHasNoValue() throws IOException {
+        JsonQuery.Match match = JsonQuery.compile("elements").evaluate(FORM).first("elements");
+
+        assertEquals(JsonQuery.ValueType.ARRAY, match.getType());
+        assertNull(match.getValue());
+        assertEquals(FORM.length() - 1, match.getEnd());
+    }
+
+    @Test
+    public void queryIsReusableAcrossDocuments() throws IOException {
+        JsonQuery query = JsonQuery.compile("properties.id");
+
+        assertEquals("customer", query.evaluate(FORM).firstValue("properties.id"));
+        assertEquals("other", query.evaluate("{\"properties\":{\"id\":\"other\"}}").firstValue("properties.id"));
+    }
+
+    @Test
+    public void malformedPathsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JsonQuery.compile(""));
+        assertThrows(IllegalArgumentException.class, () -> JsonQuery.compile("a..b"));
+        assertThrows(IllegalArgumentException.class, () -> JsonQuery.compile("a[0"));
+        assertThrows(IllegalArgumentException.class, () -> JsonQuery.compile("a[x]"));
+        assertThrows(IllegalArgumentException.class, () -> JsonQuery.compile("a[0]b"));
+    }
+
+    @Test
+    public void unknownPathInResultIsRejected() throws IOException {
+        JsonQuery.Result result = JsonQuery.compile("properties.id").evaluate(FORM);
+
+        assertThrows(IllegalArgumentException.class, () -> result.get("properties.name"));
+    }
+
+    @Test
+    public void malformedDocumentFails() {
+        assertThrows(IOException.class, () -> JsonQuery.compile("a").evaluate("{\"a\":"));
+    }
+}
@@ -0,0 +1,174 @@
+package global.govstack.formcreator.util;
+
+import global.govstack.formcreator.exception.ApiProcessingException;
+import global.govstack.formcreator.exception.PayloadTooLargeException;
+import org.junit.Test;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RequestBodyDecoderTest {
+
+    private static final byte[] BODY = "{\"formId\":\"customer\",\"formName\":\"Customer\",\"tableName\":\"customer\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void plainAndIdentityBodiesAreNotEncoded() throws IOException {
+        assertFalse(RequestBodyDecoder.isEncoded(null));
+        assertFalse(RequestBodyDecoder.isEncoded(request(null, BODY)));
+        assertFalse(RequestBodyDecoder.isEncoded(request(" Identity ", BODY)));
+    }
+
+    @Test
+    public void supportedEncodingsAreDetected() throws IOException {
+        assertTrue(RequestBodyDecoder.isEncoded(request("gzip", BODY)));
+        assertTrue(RequestBodyDecoder.isEncoded(request("X-GZIP", BODY)));
+        assertTrue(RequestBodyDecoder.isEncoded(request("deflate", BODY)));
+    }
+
+    @Test
+    public void unsupportedEncodingIs415() throws IOException {
+        HttpServletRequest request = request("br", BODY);
+
+        ApiProcessingException e = assertThrows(ApiProcessingException.class,
+                                                () -> RequestBodyDecoder.isEncoded(request));
+        assertEquals(415, e.getStatusCode());
+    }
+
+    @Test
+    public void gzipBodyIsDecoded() throws IOException {
+        assertArrayEquals(BODY, decodeAll(request("gzip", gzip(BODY)), 1024, 10));
+    }
+
+    @Test
+    public void zlibAndRawDeflateBodiesAreDecoded() throws IOException {
+        assertArrayEquals(BODY, decodeAll(request("deflate", deflate(BODY, false)), 1024, 10));
+        assertArrayEquals(BODY, decodeAll(request("deflate", deflate(BODY, true)), 1024, 10));
+    }
+
+    @Test
+    public void decodedSizeOverLimitIsRejected() throws IOException {
+        HttpServletRequest request = request("gzip", gzip(BODY));
+
+        assertThrows(PayloadTooLargeException.class, () -> decodeAll(request, BODY.length - 1, 1000));
+    }
+
+    @Test
+    public void highRatioBodyIsRejectedPastTheAllowance() throws IOException {
+        // 1 MB of zeros compresses about a thousand times
+        HttpServletRequest request = request("gzip", gzip(new byte[1024 * 1024]));
+
+        assertThrows(PayloadTooLargeException.class, () -> decodeAll(request, Long.MAX_VALUE, 100));
+    }
+
+    @Test
+    public void highRatioBodyWithinTheAllowanceIsAccepted() throws IOException {
+        byte[] zeros = new byte[32 * 1024];
+
+        assertArrayEquals(zeros, decodeAll(request("gzip", gzip(zeros)), Long.MAX_VALUE, 2));
+    }
+
+    @Test
+    public void ratioWithinLimitIsAccepted() throws IOException {
+        byte[] zeros = new byte[1024 * 1024];
+
+        assertEquals(zeros.length, decodeAll(request("gzip", gzip(zeros)), Long.MAX_VALUE, 5000).length);
+    }
+
+    @Test
+    public void corruptBodyFailsToRead() throws IOException {
+        byte[] corrupt = Arrays.copyOf(gzip(BODY), 12);
+
+        assertThrows(IOException.class, () -> decodeAll(request("gzip", corrupt), 1024, 10));
+    }
+
+    private static byte[] decodeAll(HttpServletRequest request, long maxBytes, int maxRatio) throws IOException {
+        try (InputStream in = RequestBodyDecoder.decode(request, maxBytes, maxRatio)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static HttpServletRequest request(String contentEncoding, byte[] body) throws IOException {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getHeader("Content-Encoding")).thenReturn(contentEncoding);
+        when(request.getInputStream()).thenReturn(new ByteServletInputStream(body));
+        return request;
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] data, boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflate.write(data);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Servlet input stream over a byte array
+     */
+    private static final class ByteServletInputStream extends ServletInputStream {
+        private final ByteArrayInputStream in;
+
+        private ByteServletInputStream(byte[] body) {
+            this.in = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package global.govstack.formcreator.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import global.govstack.formcreator.constants.ApiConstants;
+import global.govstack.formcreator.model.FormCreationRequest;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RequestParserUtilTest {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+    @Test
+    public void binaryContentTypesSelectTheirFactory() {
+        assertSame(CBORFactory.class, RequestParserUtil.binaryFactoryFor(ApiConstants.Transfer.CONTENT_TYPE_CBOR).getClass());
+        assertSame(SmileFactory.class, RequestParserUtil.binaryFactoryFor(ApiConstants.Transfer.CONTENT_TYPE_SMILE).getClass());
+        assertNull(RequestParserUtil.binaryFactoryFor("application/json"));
+    }
+
+    @Test
+    public void binaryRequestsParseToTheJsonRequest() throws IOException {
+        ObjectNode request = createRequest(50);
+        FormCreationRequest fromJson = RequestParserUtil.parseJsonRequest(JSON_MAPPER.writeValueAsBytes(request));
+
+        for (String contentType : new String[] {ApiConstants.Transfer.CONTENT_TYPE_CBOR,
+                                                ApiConstants.Transfer.CONTENT_TYPE_SMILE}) {
+            JsonFactory factory = RequestParserUtil.binaryFactoryFor(contentType);
+            byte[] body = new ObjectMapper(factory).writeValueAsBytes(request);
+            FormCreationRequest parsed = RequestParserUtil.parseBinaryRequest(body, factory);
+
+            assertEquals(fromJson.getFormId(), parsed.getFormId());
+            assertEquals(fromJson.getFormName(), parsed.getFormName());
+            assertEquals(fromJson.getTableName(), parsed.getTableName());
+            assertEquals(fromJson.getFormDefinitionJson(), parsed.getFormDefinitionJson());
+        }
+    }
+
+    @Test
+    public void binaryRequestsAreSmallerThanJson() throws IOException {
+        ObjectNode request = createRequest(500);
+        byte[] json = JSON_MAPPER.writeValueAsBytes(request);
+        byte[] cbor = new ObjectMapper(new CBORFactory()).writeValueAsBytes(request);
+        byte[] smile = new ObjectMapper(new SmileFactory()).writeValueAsBytes(request);
+
+        assertTrue("CBOR " + cbor.length + " vs JSON " + json.length, cbor.length < json.length);
+        assertTrue("Smile " + smile.length + " vs JSON " + json.length, smile.length < json.length);
+    }
+
+    /**
+     * A create request whose definition (sent as a map, as binary clients send it) has the given
+     * number of text fields
+     */
+    private static ObjectNode createRequest(int fields) {
+        ObjectNode definition = JSON_MAPPER.createObjectNode();
+        definition.put("className", "org.joget.apps.form.model.Form");
+        definition.putObject("properties").put("id", "customer").put("name", "Customer").put("tableName", "customer");
+        ArrayNode elements = definition.putArray("elements");
+        for (int i = 0; i < fields; i++) {
+            elements.addObject()
+                .put("className", "org.joget.apps.form.lib.TextField")
+                .putObject("properties")
+                .put("id", "field" + i)
+                .put("label", "Field " + i)
+                .put("value", "")
+                .put("maxlength", "255");
+        }
+
+        ObjectNode request = JSON_MAPPER.createObjectNode();
+        request.put("formId", "customer");
+        request.put("formName", "Customer");
+        request.put("tableName", "customer");
+        request.set("formDefinition", definition);
+        return request;
+    }
+}